@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Time-to-first-request for the plain jar, the extracted jar, AOT, and AOT + AppCDS.
+#
+# Build first:   mvn -Pfast-startup -DskipTests package
+# Then run:      scripts/startup-benchmark.sh [runs] [extra app args...]
+#
+# Each run launches the app on a free port, polls GET /api/public/health every
+# 20 ms and records the wall time from launch to the first 200. The app is then
+# stopped. Reported numbers are the median and best of all runs per mode.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+shift || true
+EXTRA_ARGS=("$@")
+PORT="${PORT:-18081}"
+JAR="$(ls target/springton-*.jar | grep -v original | head -1)"
+APP_DIR="target/app"
+APP_JAR="$APP_DIR/$(basename "$JAR")"
+
+if [[ ! -f "$APP_DIR/application.jsa" ]]; then
+    echo "No CDS archive in $APP_DIR; build with: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+measure() {
+    local start pid elapsed
+    start=$(now_ms)
+    "$@" --server.port="$PORT" "${EXTRA_ARGS[@]}" > /tmp/springten-startup.log 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/public/health"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited; see /tmp/springten-startup.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+report() {
+    local label="$1"
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(measure "$@")")
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-16s median %6d ms   best %6d ms   (%s)\n' "$label" "${sorted[$(( RUNS / 2 ))]}" "${sorted[0]}" \
+        "${times[*]}"
+}
+
+echo "Time to first request over $RUNS runs"
+report "jar"            java -jar "$JAR"
+report "extracted"      java -jar "$APP_JAR"
+report "extracted+aot"  java -Dspring.aot.enabled=true -jar "$APP_JAR"
+report "aot+cds"        java -XX:SharedArchiveFile="$APP_DIR/application.jsa" -Dspring.aot.enabled=true -jar "$APP_JAR"
@@ -0,0 +1,137 @@
+package com.springten.wallet.archive;
+
+import com.springten.wallet.dto.TransactionHistoryItem;
+import com.springten.wallet.model.Transaction;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a finalized transaction. Field names are abbreviated because
+ * MongoDB stores them in every document; the _id is the original SQL id so that
+ * re-archiving a row is idempotent and keyset cursors stay valid across tiers.
+ */
+@Document(collection = "transactions_archive")
+public class ArchivedTransaction {
+    
+    public static final String USER_ID = "u";
+    public static final String TYPE = "t";
+    public static final String STATUS = "s";
+    public static final String TOKEN_SYMBOL = "tk";
+    public static final String CREATED_AT = "c";
+    
+    @Id
+    private Long id;
+    
+    @Field(USER_ID)
+    private Long userId;
+    
+    @Field("w")
+    private Long walletId;
+    
+    @Field("h")
+    private String transactionHash;
+    
+    @Field(TYPE)
+    private Transaction.TransactionType transactionType;
+    
+    @Field(STATUS)
+    private Transaction.TransactionStatus status;
+    
+    @Field("f")
+    private String fromAddress;
+    
+    @Field("to")
+    private String toAddress;
+    
+    @Field(name = "a", targetType = FieldType.DECIMAL128)
+    private BigDecimal amount;
+    
+    @Field(name = "usd", targetType = FieldType.DECIMAL128)
+    private BigDecimal amountUsd;
+    
+    @Field(name = "fee", targetType = FieldType.DECIMAL128)
+    private BigDecimal totalFee;
+    
+    @Field(TOKEN_SYMBOL)
+    private String tokenSymbol;
+    
+    @Field("b")
+    private Long blockNumber;
+    
+    @Field(CREATED_AT)
+    private LocalDateTime createdAt;
+    
+    @Field("cf")
+    private LocalDateTime confirmedAt;
+    
+    // Constructors
+    public ArchivedTransaction() {}
+    
+    /**
+     * Used by the archiver's JPQL constructor expression
+     */
+    public ArchivedTransaction(Long id, Long userId, Long walletId, String transactionHash,
+                               Transaction.TransactionType transactionType, Transaction.TransactionStatus status,
+                               String fromAddress, String toAddress, BigDecimal amount, BigDecimal amountUsd,
+                               BigDecimal totalFee, String tokenSymbol, Long blockNumber,
+                               LocalDateTime createdAt, LocalDateTime confirmedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.walletId = walletId;
+        this.transactionHash = transactionHash;
+        this.transactionType = transactionType;
+        this.status = status;
+        this.fromAddress = fromAddress;
+        this.toAddress = toAddress;
+        this.amount = amount;
+        this.amountUsd = amountUsd;
+        this.totalFee = totalFee;
+        this.tokenSymbol = tokenSymbol;
+        this.blockNumber = blockNumber;
+        this.createdAt = createdAt;
+        this.confirmedAt = confirmedAt;
+    }
+    
+    public TransactionHistoryItem toHistoryItem() {
+        return new TransactionHistoryItem(id, transactionHash, transactionType, status, fromAddress, toAddress,
+            amount, amountUsd, totalFee, tokenSymbol, blockNumber, createdAt, confirmedAt);
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getWalletId() {
+        return walletId;
+    }
+    
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+    
+    public Transaction.TransactionType getTransactionType() {
+        return transactionType;
+    }
+    
+    public Transaction.TransactionStatus getStatus() {
+        return status;
+    }
+    
+    public String getTokenSymbol() {
+        return tokenSymbol;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,178 @@
+package com.springten.wallet.archive;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.springten.wallet.dto.TransactionHistoryItem;
+import com.springten.wallet.repository.TransactionHistoryQuery;
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoDB side of the transaction history: archived rows, queried with the
+ * same (createdAt, id) keyset order as the relational table, and the lease
+ * that lets one node at a time run the archiver.
+ */
+public class ColdTransactionStore {
+    
+    private static final int DUPLICATE_KEY = 11000;
+    static final String LEASES = "archive_leases";
+    
+    private final MongoTemplate mongoTemplate;
+    private final Duration hotRetention;
+    
+    // Newest createdAt archived by this node or found at startup; other nodes are covered by the retention bound
+    private volatile LocalDateTime newestArchived;
+    private volatile boolean newestArchivedLoaded;
+    
+    public ColdTransactionStore(MongoTemplate mongoTemplate, Duration hotRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.hotRetention = hotRetention;
+    }
+    
+    @PostConstruct
+    public void createIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ArchivedTransaction.class);
+        indexOps.createIndex(new Index().named("user_created")
+            .on(ArchivedTransaction.USER_ID, Sort.Direction.ASC)
+            .on(ArchivedTransaction.CREATED_AT, Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC));
+        indexOps.createIndex(new Index().named("user_type_created")
+            .on(ArchivedTransaction.USER_ID, Sort.Direction.ASC)
+            .on(ArchivedTransaction.TYPE, Sort.Direction.ASC)
+            .on(ArchivedTransaction.CREATED_AT, Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC));
+        indexOps.createIndex(new Index().named("user_token_created")
+            .on(ArchivedTransaction.USER_ID, Sort.Direction.ASC)
+            .on(ArchivedTransaction.TOKEN_SYMBOL, Sort.Direction.ASC)
+            .on(ArchivedTransaction.CREATED_AT, Sort.Direction.DESC)
+            .on("_id", Sort.Direction.DESC));
+        // Backs getNewestArchived()
+        indexOps.createIndex(new Index().named("created")
+            .on(ArchivedTransaction.CREATED_AT, Sort.Direction.DESC));
+    }
+    
+    /**
+     * Insert a batch, treating documents that are already archived as success
+     */
+    public void insertAll(List<ArchivedTransaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedTransaction.class)
+                .insert(batch)
+                .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        }
+        
+        LocalDateTime batchNewest = batch.stream()
+            .map(ArchivedTransaction::getCreatedAt)
+            .max(LocalDateTime::compareTo)
+            .orElse(null);
+        recordArchived(batchNewest);
+    }
+    
+    public List<TransactionHistoryItem> findHistoryPage(TransactionHistoryQuery query) {
+        Criteria criteria = Criteria.where(ArchivedTransaction.USER_ID).is(query.userId());
+        if (query.type() != null) {
+            criteria.and(ArchivedTransaction.TYPE).is(query.type());
+        }
+        if (query.status() != null) {
+            criteria.and(ArchivedTransaction.STATUS).is(query.status());
+        }
+        if (query.tokenSymbol() != null) {
+            criteria.and(ArchivedTransaction.TOKEN_SYMBOL).is(query.tokenSymbol());
+        }
+        if (query.hasCursor()) {
+            criteria.orOperator(
+                Criteria.where(ArchivedTransaction.CREATED_AT).lt(query.cursorCreatedAt()),
+                Criteria.where(ArchivedTransaction.CREATED_AT).is(query.cursorCreatedAt())
+                    .and("_id").lt(query.cursorId()));
+        }
+        
+        Query mongoQuery = new Query(criteria)
+            .with(Sort.by(Sort.Order.desc(ArchivedTransaction.CREATED_AT), Sort.Order.desc("_id")))
+            .limit(query.limit());
+        
+        return mongoTemplate.find(mongoQuery, ArchivedTransaction.class).stream()
+            .map(ArchivedTransaction::toHistoryItem)
+            .toList();
+    }
+    
+    /**
+     * Upper bound on the newest createdAt in the archive. Any node's scheduled archiver
+     * only moves rows older than the hot retention, so now minus the retention bounds
+     * what other nodes may have archived since this one last looked; nodes must share
+     * archive.hot-retention-days for the bound to hold.
+     */
+    public LocalDateTime getNewestArchived() {
+        if (!newestArchivedLoaded) {
+            Query newest = new Query()
+                .with(Sort.by(Sort.Order.desc(ArchivedTransaction.CREATED_AT)))
+                .limit(1);
+            ArchivedTransaction document = mongoTemplate.findOne(newest, ArchivedTransaction.class);
+            recordArchived(document != null ? document.getCreatedAt() : null);
+            newestArchivedLoaded = true;
+        }
+        LocalDateTime retentionBound = LocalDateTime.now().minus(hotRetention);
+        LocalDateTime known = newestArchived;
+        return known != null && known.isAfter(retentionBound) ? known : retentionBound;
+    }
+    
+    /**
+     * Take or extend the named lease for {@code owner}. Fails while another owner holds
+     * an unexpired lease; the upsert's insert then collides on _id.
+     */
+    public boolean acquireLease(String name, String owner, Duration duration) {
+        Instant now = Instant.now();
+        Query free = new Query(Criteria.where("_id").is(name).orOperator(
+            Criteria.where("owner").is(owner),
+            Criteria.where("expiresAt").lt(Date.from(now))));
+        Update take = new Update()
+            .set("owner", owner)
+            .set("expiresAt", Date.from(now.plus(duration)));
+        try {
+            mongoTemplate.upsert(free, take, LEASES);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    public void releaseLease(String name, String owner) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(name).and("owner").is(owner)),
+            new Update().set("expiresAt", new Date()), LEASES);
+    }
+    
+    private synchronized void recordArchived(LocalDateTime createdAt) {
+        if (createdAt != null && (newestArchived == null || createdAt.isAfter(newestArchived))) {
+            newestArchived = createdAt;
+        }
+    }
+}
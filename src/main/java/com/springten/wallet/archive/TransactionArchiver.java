@@ -0,0 +1,105 @@
+package com.springten.wallet.archive;
+
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves finalized transactions older than the retention threshold from the
+ * relational table into MongoDB, one batch at a time.
+ *
+ * Each batch is written to Mongo before it is deleted from SQL. A crash in
+ * between leaves the rows in both tiers, which the history merge tolerates and
+ * the next run resolves (the Mongo insert is idempotent on _id).
+ *
+ * Scheduled runs hold a lease in Mongo, extended after every batch, so only one
+ * node archives at a time.
+ */
+public class TransactionArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+    
+    static final String LEASE = "transaction-archiver";
+    
+    public static final List<Transaction.TransactionStatus> FINAL_STATUSES = List.of(
+        Transaction.TransactionStatus.CONFIRMED,
+        Transaction.TransactionStatus.FAILED,
+        Transaction.TransactionStatus.CANCELLED,
+        Transaction.TransactionStatus.EXPIRED);
+    
+    private final TransactionRepository transactionRepository;
+    private final ColdTransactionStore coldTransactionStore;
+    private final Duration hotRetention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration leaseDuration;
+    private final String owner = UUID.randomUUID().toString();
+    
+    public TransactionArchiver(TransactionRepository transactionRepository, ColdTransactionStore coldTransactionStore,
+                               Duration hotRetention, int batchSize, int maxBatchesPerRun, Duration leaseDuration) {
+        this.transactionRepository = transactionRepository;
+        this.coldTransactionStore = coldTransactionStore;
+        this.hotRetention = hotRetention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.leaseDuration = leaseDuration;
+    }
+    
+    @Scheduled(fixedDelayString = "${archive.interval-ms:300000}", initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!coldTransactionStore.acquireLease(LEASE, owner, leaseDuration)) {
+            log.debug("Archive lease is held by another node, skipping this run");
+            return;
+        }
+        try {
+            int archived = archive(LocalDateTime.now().minus(hotRetention), true);
+            if (archived > 0) {
+                log.info("Archived {} transactions to MongoDB", archived);
+            }
+        } finally {
+            coldTransactionStore.releaseLease(LEASE, owner);
+        }
+    }
+    
+    /**
+     * Archive without taking the lease; for one-off runs while the schedule is stopped
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        return archive(cutoff, false);
+    }
+    
+    private int archive(LocalDateTime cutoff, boolean leased) {
+        long afterId = 0;
+        int total = 0;
+        for (int run = 0; run < maxBatchesPerRun; run++) {
+            if (leased && run > 0 && !coldTransactionStore.acquireLease(LEASE, owner, leaseDuration)) {
+                log.warn("Archive lease was lost after {} transactions, stopping this run", total);
+                break;
+            }
+            List<ArchivedTransaction> batch = transactionRepository.findArchivable(
+                FINAL_STATUSES, cutoff, afterId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            coldTransactionStore.insertAll(batch);
+            List<Long> ids = batch.stream().map(ArchivedTransaction::getId).toList();
+            transactionRepository.deleteAllByIdInBatch(ids);
+            
+            afterId = ids.get(ids.size() - 1);
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
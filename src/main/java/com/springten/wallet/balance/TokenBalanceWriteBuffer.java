@@ -0,0 +1,294 @@
+package com.springten.wallet.balance;
+
+import com.springten.wallet.model.TokenBalance;
+import com.springten.wallet.model.TokenBalanceDeadLetter;
+import com.springten.wallet.repository.TokenBalanceDeadLetterRepository;
+import com.springten.wallet.repository.TokenBalanceRepository;
+import com.springten.wallet.repository.TokenRepository;
+import com.springten.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces token balance updates in memory and writes them in batches.
+ *
+ * Repeated updates to the same (wallet, token) overwrite each other in the
+ * buffer, so a burst of N updates to K balances costs K row writes. A flush runs
+ * on a timer and whenever the buffer reaches its size limit. It issues one JDBC
+ * batch of updates and inserts the rows that did not exist yet through JPA, all
+ * in one transaction. Entries are removed only after that transaction commits,
+ * so a failed flush is retried with nothing lost. The buffer is flushed on
+ * shutdown. After a hard crash at most one flush interval of updates is lost;
+ * balances are absolute values, so the next update of a key repairs it.
+ *
+ * When a batch fails its rows are retried one by one, so one bad row does not
+ * hold back the rest. A row rejected by the database (a constraint or an
+ * out-of-range amount) that fails max-attempts flushes in a row is moved to
+ * token_balance_dead_letters. Other failures leave the rows for the next flush.
+ * Once the buffer holds hard-limit keys, an update to a key not already
+ * buffered is written in the caller's thread instead, so the buffer stops
+ * growing while the database is slow or down.
+ *
+ * Pending updates live in this node's memory only: {@link #getPending} serves
+ * reads on this node, and other nodes see the previous row until the flush.
+ */
+@Component
+public class TokenBalanceWriteBuffer {
+    
+    private static final Logger log = LoggerFactory.getLogger(TokenBalanceWriteBuffer.class);
+    
+    private static final String UPDATE_SQL =
+        "update token_balances set balance = ?, balance_usd = ?, updated_at = ? where wallet_id = ? and token_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenBalanceRepository tokenBalanceRepository;
+    private final WalletRepository walletRepository;
+    private final TokenRepository tokenRepository;
+    private final TokenBalanceDeadLetterRepository deadLetterRepository;
+    private final int maxPending;
+    private final int batchSize;
+    private final int hardLimit;
+    private final int maxAttempts;
+    
+    private final ConcurrentHashMap<BalanceKey, PendingBalance> pending = new ConcurrentHashMap<>();
+    // Consecutive rejected flushes per key; cleared when the key is written
+    private final ConcurrentHashMap<BalanceKey, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter accepted;
+    private final Counter written;
+    private final Counter writtenThrough;
+    private final Counter deadLettered;
+    
+    public TokenBalanceWriteBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   TokenBalanceRepository tokenBalanceRepository, WalletRepository walletRepository,
+                                   TokenRepository tokenRepository, TokenBalanceDeadLetterRepository deadLetterRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${balance.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${balance.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${balance.write-behind.hard-limit:50000}") int hardLimit,
+                                   @Value("${balance.write-behind.max-attempts:3}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.tokenBalanceRepository = tokenBalanceRepository;
+        this.walletRepository = walletRepository;
+        this.tokenRepository = tokenRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.hardLimit = hardLimit;
+        this.maxAttempts = maxAttempts;
+        this.accepted = Counter.builder("springten.balance.writebehind.updates")
+            .description("Balance updates accepted by the write-behind buffer").register(meterRegistry);
+        this.written = Counter.builder("springten.balance.writebehind.writes")
+            .description("Balance rows written to the database").register(meterRegistry);
+        this.writtenThrough = Counter.builder("springten.balance.writebehind.sync.writes")
+            .description("Balance updates written in the caller's thread because the buffer was full")
+            .register(meterRegistry);
+        this.deadLettered = Counter.builder("springten.balance.writebehind.dead.letters")
+            .description("Balance updates moved to token_balance_dead_letters").register(meterRegistry);
+        Gauge.builder("springten.balance.writebehind.pending", pending, Map::size).register(meterRegistry);
+    }
+    
+    public void put(Long walletId, Long tokenId, BigDecimal balance, BigDecimal balanceUsd) {
+        BalanceKey key = new BalanceKey(walletId, tokenId);
+        PendingBalance value = new PendingBalance(balance, balanceUsd, LocalDateTime.now());
+        accepted.increment();
+        if (pending.size() >= hardLimit && !pending.containsKey(key)) {
+            writeThrough(key, value);
+            return;
+        }
+        pending.put(key, value);
+        if (pending.size() >= maxPending && flushLock.tryLock()) {
+            try {
+                flushLocked();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Get an update that has not reached the database yet, or null. Only updates
+     * buffered on this node are visible here.
+     */
+    public PendingBalance getPending(Long walletId, Long tokenId) {
+        return pending.get(new BalanceKey(walletId, tokenId));
+    }
+    
+    @Scheduled(fixedDelayString = "${balance.write-behind.flush-interval-ms:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (!pending.isEmpty()) {
+            log.error("{} balance updates could not be written before shutdown", pending.size());
+        } else if (flushed > 0) {
+            log.info("Flushed {} buffered balance updates on shutdown", flushed);
+        }
+    }
+    
+    public int size() {
+        return pending.size();
+    }
+    
+    /**
+     * Write one update now, under the flush lock so it cannot race a flush of the same
+     * key; a failure reaches the caller instead of growing the buffer
+     */
+    private void writeThrough(BalanceKey key, PendingBalance value) {
+        flushLock.lock();
+        try {
+            // A flush may have made room while this thread waited
+            if (pending.size() < hardLimit || pending.containsKey(key)) {
+                pending.put(key, value);
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> write(List.of(Map.entry(key, value))));
+            written.increment();
+            writtenThrough.increment();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    private int flushLocked() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<BalanceKey, PendingBalance>> batch = new ArrayList<>(pending.size());
+        pending.forEach((key, value) -> batch.add(Map.entry(key, value)));
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Balance flush of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+            return flushRows(batch);
+        }
+        
+        batch.forEach(this::markWritten);
+        written.increment(batch.size());
+        return batch.size();
+    }
+    
+    private int flushRows(List<Map.Entry<BalanceKey, PendingBalance>> batch) {
+        int flushed = 0;
+        for (Map.Entry<BalanceKey, PendingBalance> entry : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(entry)));
+            } catch (DataIntegrityViolationException e) {
+                rejected(entry, e);
+                continue;
+            } catch (RuntimeException e) {
+                // Not this row's fault; the database is likely unavailable, so the rest waits for the next flush
+                log.warn("Balance write failed, will retry {} rows: {}", batch.size() - flushed, e.getMessage());
+                break;
+            }
+            markWritten(entry);
+            flushed++;
+        }
+        written.increment(flushed);
+        return flushed;
+    }
+    
+    private void markWritten(Map.Entry<BalanceKey, PendingBalance> entry) {
+        // Keep entries that were overwritten while the batch was being written
+        pending.remove(entry.getKey(), entry.getValue());
+        failedAttempts.remove(entry.getKey());
+    }
+    
+    private void rejected(Map.Entry<BalanceKey, PendingBalance> entry, DataIntegrityViolationException e) {
+        BalanceKey key = entry.getKey();
+        PendingBalance value = entry.getValue();
+        int attempts = failedAttempts.merge(key, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Balance write for {} rejected ({} of {} attempts): {}", key, attempts, maxAttempts,
+                e.getMostSpecificCause().getMessage());
+            return;
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> deadLetterRepository.save(new TokenBalanceDeadLetter(
+                key.walletId(), key.tokenId(), value.balance(), value.balanceUsd(), value.updatedAt(),
+                e.getMostSpecificCause().getMessage())));
+        } catch (RuntimeException saveFailure) {
+            log.error("Could not dead-letter the balance update for {}, will retry: {}", key, saveFailure.getMessage());
+            return;
+        }
+        pending.remove(key, value);
+        failedAttempts.remove(key);
+        deadLettered.increment();
+        log.error("Balance update {} for {} moved to token_balance_dead_letters after {} attempts: {}",
+            value.balance(), key, attempts, e.getMostSpecificCause().getMessage());
+    }
+    
+    private void write(List<Map.Entry<BalanceKey, PendingBalance>> batch) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batchSize, (ps, entry) -> {
+            PendingBalance value = entry.getValue();
+            ps.setBigDecimal(1, value.balance());
+            ps.setBigDecimal(2, value.balanceUsd());
+            ps.setTimestamp(3, Timestamp.valueOf(value.updatedAt()));
+            ps.setLong(4, entry.getKey().walletId());
+            ps.setLong(5, entry.getKey().tokenId());
+        });
+        
+        List<TokenBalance> inserts = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                Map.Entry<BalanceKey, PendingBalance> entry = batch.get(index++);
+                if (count == 0) {
+                    // SUCCESS_NO_INFO counts as updated; only a definite zero means the row is missing
+                    inserts.add(newRow(entry.getKey(), entry.getValue()));
+                } else if (count != Statement.SUCCESS_NO_INFO && count < 0) {
+                    throw new IllegalStateException("Balance update failed for " + entry.getKey());
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            tokenBalanceRepository.saveAll(inserts);
+            tokenBalanceRepository.flush();
+        }
+    }
+    
+    private TokenBalance newRow(BalanceKey key, PendingBalance value) {
+        TokenBalance row = new TokenBalance(walletRepository.getReferenceById(key.walletId()),
+            tokenRepository.getReferenceById(key.tokenId()), value.balance());
+        row.setBalanceUsd(value.balanceUsd());
+        return row;
+    }
+    
+    public record BalanceKey(Long walletId, Long tokenId) {
+    }
+    
+    public record PendingBalance(BigDecimal balance, BigDecimal balanceUsd, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.springten.wallet.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.Function;
+
+/**
+ * Converts cached values to and from the string form kept in the shared store
+ */
+public interface CacheCodec<V> {
+
+    CacheCodec<BigInteger> BIG_INTEGER = of(BigInteger::toString, BigInteger::new);
+
+    CacheCodec<BigDecimal> BIG_DECIMAL = of(BigDecimal::toPlainString, BigDecimal::new);
+
+    String encode(V value);
+
+    V decode(String encoded);
+
+    static <V> CacheCodec<V> of(Function<V, String> encoder,
+                                Function<String, V> decoder) {
+        return new CacheCodec<>() {
+            @Override
+            public String encode(V value) {
+                return encoder.apply(value);
+            }
+
+            @Override
+            public V decode(String encoded) {
+                return decoder.apply(encoded);
+            }
+        };
+    }
+
+    static <V> CacheCodec<V> json(ObjectMapper objectMapper, Class<V> type) {
+        return new CacheCodec<>() {
+            @Override
+            public String encode(V value) {
+                try {
+                    return objectMapper.writeValueAsString(value);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Cannot encode " + type.getSimpleName(), e);
+                }
+            }
+
+            @Override
+            public V decode(String encoded) {
+                try {
+                    return objectMapper.readValue(encoded, type);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Cannot decode " + type.getSimpleName(), e);
+                }
+            }
+        };
+    }
+}
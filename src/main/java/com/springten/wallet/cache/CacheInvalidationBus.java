@@ -0,0 +1,16 @@
+package com.springten.wallet.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Propagates cache invalidations to the other application nodes.
+ *
+ * Callers evict their own local copy and then publish; handlers are only
+ * invoked for invalidations that originated on another node.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(String cacheName, String key);
+
+    void subscribe(String cacheName, Consumer<String> handler);
+}
@@ -0,0 +1,7 @@
+package com.springten.wallet.cache;
+
+/**
+ * Sizing of one two-level cache; the local TTL should not exceed the shared one
+ */
+public record CacheSpec(long localTtlMillis, long sharedTtlMillis, int maxSize) {
+}
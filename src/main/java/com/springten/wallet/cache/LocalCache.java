@@ -0,0 +1,180 @@
+package com.springten.wallet.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-heap cache with a per-entry TTL and a bounded number of entries.
+ *
+ * When the cache is full, a small sample of entries is inspected and the least
+ * recently read one is evicted, which keeps puts lock-free at the cost of an
+ * approximate LRU order.
+ */
+public class LocalCache<K, V> {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    // Bumped on every invalidation so that loads racing with an invalidation are not cached
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalCache(long ttlMillis, int maxSize) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("TTL and max size must be positive");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get a cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        entry.lastAccessNanos = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Get a cached value, loading and caching it on a miss.
+     * Exceptions thrown by the loader propagate and nothing is cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long epoch = invalidationEpoch.get();
+        V loaded = loader.apply(key);
+        if (loaded != null && invalidationEpoch.get() == epoch) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Like {@link #get(Object, Function)} for a loader that completes later
+     */
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends CompletableFuture<? extends V>> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long epoch = invalidationEpoch.get();
+        return loader.apply(key).<V>thenApply(loaded -> {
+            if (loaded != null && invalidationEpoch.get() == epoch) {
+                put(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    public void put(K key, V value) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, now + ttlNanos, now));
+    }
+
+    public void invalidate(K key) {
+        invalidationEpoch.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidationEpoch.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Drop all expired entries
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void evict(long now) {
+        K victim = null;
+        long oldestAccess = Long.MAX_VALUE;
+        int sampled = 0;
+
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext() && sampled < EVICTION_SAMPLE_SIZE) {
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            Entry<V> entry = candidate.getValue();
+            if (entry.isExpired(now)) {
+                it.remove();
+                evictions.increment();
+                return;
+            }
+            if (entry.lastAccessNanos < oldestAccess) {
+                oldestAccess = entry.lastAccessNanos;
+                victim = candidate.getKey();
+            }
+            sampled++;
+        }
+
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+        private volatile long lastAccessNanos;
+
+        private Entry(V value, long expiresAtNanos, long lastAccessNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.springten.wallet.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-node invalidation bus: there are no other nodes to notify.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(String cacheName, String key) {
+        // Nothing to do, the caller has already evicted its local copy
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<String> handler) {
+        // Remote invalidations never arrive on a single node
+    }
+}
@@ -0,0 +1,33 @@
+package com.springten.wallet.cache;
+
+import java.time.Duration;
+
+/**
+ * Shared store used when Redis is disabled; every two-level cache then
+ * degrades to its in-heap level only.
+ */
+public class NoOpSharedCacheStore implements SharedCacheStore {
+
+    @Override
+    public String get(String key) {
+        return null;
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+    }
+
+    @Override
+    public void delete(String key) {
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        return false;
+    }
+
+    @Override
+    public boolean replace(String key, String expected, String value, Duration ttl) {
+        return false;
+    }
+}
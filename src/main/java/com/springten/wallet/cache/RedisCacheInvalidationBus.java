@@ -0,0 +1,76 @@
+package com.springten.wallet.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations over a Redis pub/sub channel.
+ *
+ * Messages have the form {@code nodeId|cacheName|key}; messages published by
+ * this node are ignored on receipt.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "|" + cacheName + "|" + key);
+        } catch (Exception e) {
+            // Other nodes fall back to TTL expiry if the broadcast is lost
+            log.warn("Failed to publish invalidation for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String cacheName, Consumer<String> handler) {
+        handlers.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf('|');
+        int second = first < 0 ? -1 : body.indexOf('|', first + 1);
+        if (second < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (body.startsWith(nodeId) && first == nodeId.length()) {
+            return;
+        }
+
+        String cacheName = body.substring(first + 1, second);
+        String key = body.substring(second + 1);
+        List<Consumer<String>> cacheHandlers = handlers.get(cacheName);
+        if (cacheHandlers != null) {
+            cacheHandlers.forEach(handler -> handler.accept(key));
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
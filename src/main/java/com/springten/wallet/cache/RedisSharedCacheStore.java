@@ -0,0 +1,148 @@
+package com.springten.wallet.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared cache level stored as plain Redis strings with a per-key expiry.
+ * Async reads and writes go through the reactive template when one is available.
+ */
+public class RedisSharedCacheStore implements SharedCacheStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSharedCacheStore.class);
+
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+        "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+        "return 1",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReactiveStringRedisTemplate reactiveTemplate;
+
+    public RedisSharedCacheStore(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, null);
+    }
+
+    public RedisSharedCacheStore(StringRedisTemplate redisTemplate, ReactiveStringRedisTemplate reactiveTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveTemplate = reactiveTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("Shared cache read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        } catch (Exception e) {
+            log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (Exception e) {
+            // The stale value survives until its TTL runs out
+            log.warn("Shared cache delete failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl));
+        } catch (Exception e) {
+            log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean replace(String key, String expected, String value, Duration ttl) {
+        try {
+            Long replaced = redisTemplate.execute(REPLACE_SCRIPT, List.of(key), expected, value,
+                Long.toString(ttl.toMillis()));
+            return replaced != null && replaced == 1;
+        } catch (Exception e) {
+            log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) {
+        if (reactiveTemplate == null) {
+            return SharedCacheStore.super.getAsync(key);
+        }
+        return reactiveTemplate.opsForValue().get(key)
+            .onErrorResume(e -> {
+                log.warn("Shared cache read failed for {}: {}", key, e.getMessage());
+                return Mono.empty();
+            })
+            .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> setAsync(String key, String value, Duration ttl) {
+        if (reactiveTemplate == null) {
+            return SharedCacheStore.super.setAsync(key, value, ttl);
+        }
+        return reactiveTemplate.opsForValue().set(key, value, ttl)
+            .onErrorResume(e -> {
+                log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+                return Mono.empty();
+            })
+            .then()
+            .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsentAsync(String key, String value, Duration ttl) {
+        if (reactiveTemplate == null) {
+            return SharedCacheStore.super.setIfAbsentAsync(key, value, ttl);
+        }
+        return reactiveTemplate.opsForValue().setIfAbsent(key, value, ttl)
+            .onErrorResume(e -> {
+                log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+                return Mono.just(false);
+            })
+            .defaultIfEmpty(false)
+            .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replaceAsync(String key, String expected, String value, Duration ttl) {
+        if (reactiveTemplate == null) {
+            return SharedCacheStore.super.replaceAsync(key, expected, value, ttl);
+        }
+        return reactiveTemplate.execute(REPLACE_SCRIPT, List.of(key), List.of(expected, value, Long.toString(ttl.toMillis())))
+            .next()
+            .map(replaced -> replaced == 1)
+            .onErrorResume(e -> {
+                log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+                return Mono.just(false);
+            })
+            .defaultIfEmpty(false)
+            .toFuture();
+    }
+}
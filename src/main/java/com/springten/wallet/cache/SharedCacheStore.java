@@ -0,0 +1,49 @@
+package com.springten.wallet.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Second cache level shared by every application node.
+ *
+ * Implementations must not throw: an unavailable store behaves like an empty
+ * one so that callers fall through to the underlying source.
+ */
+public interface SharedCacheStore {
+
+    String get(String key);
+
+    void set(String key, String value, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Store a value only if the key holds none; returns whether it was stored
+     */
+    boolean setIfAbsent(String key, String value, Duration ttl);
+
+    /**
+     * Overwrite the value only while the key still holds {@code expected}; returns whether it was replaced
+     */
+    boolean replace(String key, String expected, String value, Duration ttl);
+
+    /**
+     * Non-blocking read for reactive callers; by default a synchronous read
+     */
+    default CompletableFuture<String> getAsync(String key) {
+        return CompletableFuture.completedFuture(get(key));
+    }
+
+    default CompletableFuture<Void> setAsync(String key, String value, Duration ttl) {
+        set(key, value, ttl);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    default CompletableFuture<Boolean> setIfAbsentAsync(String key, String value, Duration ttl) {
+        return CompletableFuture.completedFuture(setIfAbsent(key, value, ttl));
+    }
+
+    default CompletableFuture<Boolean> replaceAsync(String key, String expected, String value, Duration ttl) {
+        return CompletableFuture.completedFuture(replace(key, expected, value, ttl));
+    }
+}
@@ -0,0 +1,207 @@
+package com.springten.wallet.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Near cache in front of a store shared by all nodes.
+ *
+ * Reads go local, then shared, then to the loader, populating each level on the
+ * way back. Writes and invalidations update the shared level first and then
+ * broadcast so that other nodes drop their local copy and re-read it.
+ *
+ * A loader first claims the missing shared entry with a load token and only
+ * replaces that token with the loaded value. An invalidation on any node while
+ * the loader runs deletes the token, so a value read before the change is
+ * returned to its caller but never stored for the other nodes.
+ */
+public class TwoLevelCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final String LOAD_TOKEN_PREFIX = "\u0000loading:";
+    private static final Duration MAX_LOAD_LEASE = Duration.ofSeconds(30);
+
+    private final String name;
+    private final String keyPrefix;
+    private final LocalCache<String, V> local;
+    private final SharedCacheStore shared;
+    private final Duration sharedTtl;
+    private final Duration loadLease;
+    private final CacheCodec<V> codec;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+
+    public TwoLevelCache(String name, String keyPrefix, CacheSpec spec, SharedCacheStore shared,
+                         CacheCodec<V> codec, CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.keyPrefix = keyPrefix + name + ":";
+        this.local = new LocalCache<>(spec.localTtlMillis(), spec.maxSize());
+        this.shared = shared;
+        this.sharedTtl = Duration.ofMillis(spec.sharedTtlMillis());
+        this.loadLease = sharedTtl.compareTo(MAX_LOAD_LEASE) < 0 ? sharedTtl : MAX_LOAD_LEASE;
+        this.codec = codec;
+        this.invalidationBus = invalidationBus;
+        this.invalidationBus.subscribe(name, local::invalidate);
+    }
+
+    /**
+     * Get a value, loading it on a miss in both levels.
+     * Null results are not cached; loader exceptions propagate.
+     */
+    public V get(String key, Function<String, ? extends V> loader) {
+        return local.get(key, k -> loadThroughShared(k, loader));
+    }
+
+    /**
+     * Non-blocking {@link #get}: the shared level is read asynchronously and the
+     * loader returns a future, so a miss holds no thread while it loads
+     */
+    public CompletableFuture<V> getAsync(String key, Function<String, ? extends CompletableFuture<? extends V>> loader) {
+        return local.getAsync(key, k -> loadThroughSharedAsync(k, loader));
+    }
+
+    public void put(String key, V value) {
+        shared.set(keyPrefix + key, codec.encode(value), sharedTtl);
+        local.put(key, value);
+        invalidationBus.publish(name, key);
+    }
+
+    /**
+     * Evict a key from both levels on this node and from the local level of every other node
+     */
+    public void invalidate(String key) {
+        shared.delete(keyPrefix + key);
+        local.invalidate(key);
+        invalidationBus.publish(name, key);
+    }
+
+    public void cleanUp() {
+        local.cleanUp();
+    }
+
+    private V loadThroughShared(String key, Function<String, ? extends V> loader) {
+        String sharedKey = keyPrefix + key;
+        String encoded = shared.get(sharedKey);
+        if (encoded != null && !isLoadToken(encoded)) {
+            try {
+                V value = codec.decode(encoded);
+                sharedHits.increment();
+                return value;
+            } catch (RuntimeException e) {
+                // Written by an incompatible version; overwrite it with a fresh load
+                log.warn("Discarding undecodable entry {} in cache {}: {}", key, name, e.getMessage());
+            }
+        }
+        sharedMisses.increment();
+
+        String token = newLoadToken();
+        boolean claimed = claim(sharedKey, encoded, token);
+        V loaded = loader.apply(key);
+        if (loaded != null && claimed) {
+            shared.replace(sharedKey, token, codec.encode(loaded), sharedTtl);
+        }
+        return loaded;
+    }
+
+    /**
+     * Put a load token in place of a missing or undecodable entry. Another loader's
+     * token is left alone: this load is then returned without being stored.
+     */
+    private boolean claim(String sharedKey, String encoded, String token) {
+        if (encoded == null) {
+            return shared.setIfAbsent(sharedKey, token, loadLease);
+        }
+        return !isLoadToken(encoded) && shared.replace(sharedKey, encoded, token, loadLease);
+    }
+
+    private CompletableFuture<Boolean> claimAsync(String sharedKey, String encoded, String token) {
+        if (encoded == null) {
+            return shared.setIfAbsentAsync(sharedKey, token, loadLease);
+        }
+        if (isLoadToken(encoded)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return shared.replaceAsync(sharedKey, encoded, token, loadLease);
+    }
+
+    private static String newLoadToken() {
+        return LOAD_TOKEN_PREFIX + UUID.randomUUID();
+    }
+
+    private static boolean isLoadToken(String encoded) {
+        return encoded.startsWith(LOAD_TOKEN_PREFIX);
+    }
+
+    private CompletableFuture<V> loadThroughSharedAsync(String key,
+                                                        Function<String, ? extends CompletableFuture<? extends V>> loader) {
+        String sharedKey = keyPrefix + key;
+        return shared.getAsync(sharedKey).thenCompose(encoded -> {
+            if (encoded != null && !isLoadToken(encoded)) {
+                try {
+                    V value = codec.decode(encoded);
+                    sharedHits.increment();
+                    return CompletableFuture.completedFuture(value);
+                } catch (RuntimeException e) {
+                    log.warn("Discarding undecodable entry {} in cache {}: {}", key, name, e.getMessage());
+                }
+            }
+            sharedMisses.increment();
+
+            String token = newLoadToken();
+            return claimAsync(sharedKey, encoded, token).thenCompose(claimed ->
+                loader.apply(key).<V>thenApply(loaded -> {
+                    if (loaded != null && claimed) {
+                        // Not awaited: the value is returned as soon as it is loaded
+                        shared.replaceAsync(sharedKey, token, codec.encode(loaded), sharedTtl);
+                    }
+                    return loaded;
+                }));
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int localSize() {
+        return local.size();
+    }
+
+    public long getLocalHitCount() {
+        return local.getHitCount();
+    }
+
+    public long getLocalMissCount() {
+        return local.getMissCount();
+    }
+
+    public long getSharedHitCount() {
+        return sharedHits.sum();
+    }
+
+    public long getSharedMissCount() {
+        return sharedMisses.sum();
+    }
+
+    public long getEvictionCount() {
+        return local.getEvictionCount();
+    }
+
+    /**
+     * Fraction of reads answered by either level without calling the loader
+     */
+    public double hitRatio() {
+        long localHits = local.getHitCount();
+        long requests = localHits + local.getMissCount();
+        return requests == 0 ? 0.0 : (double) (localHits + sharedHits.sum()) / requests;
+    }
+}
@@ -0,0 +1,74 @@
+package com.springten.wallet.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the named two-level caches and exposes their metrics.
+ *
+ * Sizing is read from {@code cache.<name>.local-ttl-ms}, {@code cache.<name>.shared-ttl-ms}
+ * and {@code cache.<name>.max-size}, falling back to the defaults given by the caller.
+ */
+public class TwoLevelCacheManager {
+
+    private final SharedCacheStore sharedStore;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final String keyPrefix;
+    private final Map<String, TwoLevelCache<?>> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(SharedCacheStore sharedStore, CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry, Environment environment, String keyPrefix) {
+        this.sharedStore = sharedStore;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.keyPrefix = keyPrefix;
+    }
+
+    public synchronized <V> TwoLevelCache<V> create(String name, CacheCodec<V> codec, CacheSpec defaults) {
+        if (caches.containsKey(name)) {
+            throw new IllegalStateException("Cache " + name + " already exists");
+        }
+        String prefix = "cache." + name + ".";
+        CacheSpec spec = new CacheSpec(
+            environment.getProperty(prefix + "local-ttl-ms", Long.class, defaults.localTtlMillis()),
+            environment.getProperty(prefix + "shared-ttl-ms", Long.class, defaults.sharedTtlMillis()),
+            environment.getProperty(prefix + "max-size", Integer.class, defaults.maxSize()));
+
+        TwoLevelCache<V> cache = new TwoLevelCache<>(name, keyPrefix, spec, sharedStore, codec, invalidationBus);
+        caches.put(name, cache);
+        registerMetrics(cache);
+        return cache;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.cleanup-interval-ms:60000}")
+    public void cleanUp() {
+        caches.values().forEach(TwoLevelCache::cleanUp);
+    }
+
+    private void registerMetrics(TwoLevelCache<?> cache) {
+        String name = cache.getName();
+        FunctionCounter.builder("springten.cache.requests", cache, TwoLevelCache::getLocalHitCount)
+            .tags("cache", name, "level", "local", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("springten.cache.requests", cache, TwoLevelCache::getLocalMissCount)
+            .tags("cache", name, "level", "local", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("springten.cache.requests", cache, TwoLevelCache::getSharedHitCount)
+            .tags("cache", name, "level", "shared", "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("springten.cache.requests", cache, TwoLevelCache::getSharedMissCount)
+            .tags("cache", name, "level", "shared", "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("springten.cache.evictions", cache, TwoLevelCache::getEvictionCount)
+            .tag("cache", name).register(meterRegistry);
+        Gauge.builder("springten.cache.hit.ratio", cache, TwoLevelCache::hitRatio)
+            .tag("cache", name).register(meterRegistry);
+        Gauge.builder("springten.cache.size", cache, TwoLevelCache::localSize)
+            .tag("cache", name).register(meterRegistry);
+    }
+}
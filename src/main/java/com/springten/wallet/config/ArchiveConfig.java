@@ -0,0 +1,37 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.archive.ColdTransactionStore;
+import com.springten.wallet.archive.TransactionArchiver;
+import com.springten.wallet.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+/**
+ * Hot/cold tiering of transaction history; requires spring.data.mongodb.uri
+ */
+@Configuration
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class ArchiveConfig {
+    
+    @Bean
+    public ColdTransactionStore coldTransactionStore(MongoTemplate mongoTemplate,
+                                                     @Value("${archive.hot-retention-days:90}") long hotRetentionDays) {
+        return new ColdTransactionStore(mongoTemplate, Duration.ofDays(hotRetentionDays));
+    }
+    
+    @Bean
+    public TransactionArchiver transactionArchiver(TransactionRepository transactionRepository,
+                                                   ColdTransactionStore coldTransactionStore,
+                                                   @Value("${archive.hot-retention-days:90}") long hotRetentionDays,
+                                                   @Value("${archive.batch-size:1000}") int batchSize,
+                                                   @Value("${archive.max-batches-per-run:100}") int maxBatchesPerRun,
+                                                   @Value("${archive.lease-ms:600000}") long leaseMillis) {
+        return new TransactionArchiver(transactionRepository, coldTransactionStore,
+            Duration.ofDays(hotRetentionDays), batchSize, maxBatchesPerRun, Duration.ofMillis(leaseMillis));
+    }
+}
@@ -0,0 +1,74 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.cache.CacheInvalidationBus;
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.cache.NoOpSharedCacheStore;
+import com.springten.wallet.cache.RedisCacheInvalidationBus;
+import com.springten.wallet.cache.RedisSharedCacheStore;
+import com.springten.wallet.cache.SharedCacheStore;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class CacheConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+    public RedisCacheInvalidationBus redisCacheInvalidationBus(
+            StringRedisTemplate redisTemplate,
+            @Value("${cache.redis.invalidation-channel:springten:cache:invalidate}") String channel) {
+        return new RedisCacheInvalidationBus(redisTemplate, channel);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public SharedCacheStore noOpSharedCacheStore() {
+        return new NoOpSharedCacheStore();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+    public SharedCacheStore redisSharedCacheStore(StringRedisTemplate redisTemplate,
+                                                  ObjectProvider<ReactiveStringRedisTemplate> reactiveTemplate) {
+        return new RedisSharedCacheStore(redisTemplate, reactiveTemplate.getIfAvailable());
+    }
+    
+    @Bean
+    public TwoLevelCacheManager twoLevelCacheManager(
+            SharedCacheStore sharedCacheStore,
+            CacheInvalidationBus invalidationBus,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            Environment environment,
+            @Value("${cache.redis.key-prefix:springten:cache:}") String keyPrefix) {
+        return new TwoLevelCacheManager(sharedCacheStore, invalidationBus,
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new), environment, keyPrefix);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, RedisCacheInvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,61 @@
+package com.springten.wallet.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.idempotency.IdempotencyService;
+import com.springten.wallet.idempotency.IdempotencyStore;
+import com.springten.wallet.idempotency.LocalIdempotencyStore;
+import com.springten.wallet.idempotency.RedisIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Idempotency-Key handling for the transaction send endpoints; keys are shared through
+ * Redis when idempotency.redis.enabled is set
+ */
+@Configuration
+public class IdempotencyConfig {
+    
+    private final Duration retention;
+    
+    public IdempotencyConfig(@Value("${idempotency.retention-hours:24}") long retentionHours) {
+        this.retention = Duration.ofHours(retentionHours);
+    }
+    
+    @Bean
+    public LocalIdempotencyStore localIdempotencyStore() {
+        return new LocalIdempotencyStore(Clock.systemUTC(), retention);
+    }
+    
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "idempotency.redis.enabled", havingValue = "true")
+    public IdempotencyStore redisIdempotencyStore(StringRedisTemplate redisTemplate,
+                                                  LocalIdempotencyStore localIdempotencyStore,
+                                                  @Value("${idempotency.redis.key-prefix:springten:idempotency:}") String keyPrefix,
+                                                  @Value("${idempotency.redis.lease-ms:60000}") long leaseMillis,
+                                                  @Value("${idempotency.redis.poll-interval-ms:100}") long pollIntervalMillis) {
+        return new RedisIdempotencyStore(redisTemplate, localIdempotencyStore, keyPrefix,
+            Duration.ofMillis(leaseMillis), retention, pollIntervalMillis);
+    }
+    
+    @Bean
+    public IdempotencyService idempotencyService(IdempotencyStore idempotencyStore, ObjectMapper objectMapper,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${idempotency.wait-timeout-ms:30000}") long waitMillis) {
+        return new IdempotencyService(idempotencyStore, objectMapper, meterRegistry, Duration.ofMillis(waitMillis));
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:60000}")
+    public void purgeExpiredKeys() {
+        localIdempotencyStore().purgeExpired();
+    }
+}
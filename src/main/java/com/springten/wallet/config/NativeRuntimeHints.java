@@ -0,0 +1,87 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.price.PriceStreamHandler;
+import com.springten.wallet.price.PriceStreamService;
+import com.springten.wallet.security.UserPrincipal;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Provider;
+
+/**
+ * Reachability metadata for libraries that load classes by name, for the native image build.
+ * Runs at build time during AOT processing, so the classpath scans cost nothing at run time.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    
+    private static final MemberCategory[] JSON_BINDING = {
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+        MemberCategory.INVOKE_DECLARED_METHODS,
+        MemberCategory.DECLARED_FIELDS
+    };
+    
+    private static final MemberCategory[] INSTANTIATION = {
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+        MemberCategory.INVOKE_PUBLIC_METHODS
+    };
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        
+        // web3j binds JSON-RPC requests and responses with Jackson
+        registerClasses(hints, resolver, "org/web3j/protocol/core/methods/response/", "**/*.class", JSON_BINDING);
+        registerClasses(hints, resolver, "org/web3j/protocol/core/methods/request/", "**/*.class", JSON_BINDING);
+        hints.reflection().registerType(Request.class, JSON_BINDING);
+        hints.reflection().registerType(Response.class, JSON_BINDING);
+        hints.reflection().registerType(Response.Error.class, JSON_BINDING);
+        
+        // bitcoinj reads the BIP39 word list from the classpath
+        hints.resources().registerPattern("org/bitcoinj/crypto/mnemonic/wordlist/english.txt");
+        
+        // BouncyCastleProvider loads its algorithm mappings and SPIs reflectively
+        registerClasses(hints, resolver, "org/bouncycastle/jcajce/provider/", "**/*$Mappings.class", INSTANTIATION);
+        for (Provider.Service service : new BouncyCastleProvider().getServices()) {
+            hints.reflection().registerType(TypeReference.of(service.getClassName()), INSTANTIATION);
+        }
+        
+        // jjwt-api instantiates its implementation and the Jackson serializer by class name
+        registerClasses(hints, resolver, "io/jsonwebtoken/impl/", "**/*.class", INSTANTIATION);
+        registerClasses(hints, resolver, "io/jsonwebtoken/jackson/io/", "*.class", INSTANTIATION);
+        
+        // Principals are stored as JSON in the shared cache level
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        binding.registerReflectionHints(hints.reflection(), UserPrincipal.class);
+        
+        // Price stream messages are bound by hand rather than through a controller signature
+        binding.registerReflectionHints(hints.reflection(), PriceStreamService.PriceUpdate.class,
+            PriceStreamHandler.SubscriptionRequest.class);
+    }
+    
+    private static void registerClasses(RuntimeHints hints, PathMatchingResourcePatternResolver resolver,
+                                        String packagePath, String pattern, MemberCategory... categories) {
+        try {
+            for (Resource resource : resolver.getResources("classpath*:" + packagePath + pattern)) {
+                String path = resource.getURL().getPath();
+                int start = path.lastIndexOf(packagePath);
+                if (start < 0 || path.endsWith("package-info.class")) {
+                    continue;
+                }
+                String className = path.substring(start, path.length() - ".class".length()).replace('/', '.');
+                hints.reflection().registerType(TypeReference.of(className), categories);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot scan " + packagePath, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.outbox.LogOutboxSink;
+import com.springten.wallet.outbox.OutboxRelay;
+import com.springten.wallet.outbox.OutboxSink;
+import com.springten.wallet.outbox.RedisStreamOutboxSink;
+import com.springten.wallet.repository.OutboxEventRepository;
+import com.springten.wallet.repository.OutboxSequenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbox relay and its sinks; each sink is switched on with outbox.sinks.<name>.enabled
+ */
+@Configuration
+public class OutboxConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "outbox.sinks.log.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxSink logOutboxSink() {
+        return new LogOutboxSink();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "outbox.sinks.redis.enabled", havingValue = "true")
+    public OutboxSink redisStreamOutboxSink(StringRedisTemplate redisTemplate,
+                                            @Value("${outbox.sinks.redis.stream-key:springten:events}") String streamKey,
+                                            @Value("${outbox.sinks.redis.max-length:1000000}") long maxLength) {
+        return new RedisStreamOutboxSink(redisTemplate, streamKey, maxLength);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository,
+                                   OutboxSequenceRepository outboxSequenceRepository, TransactionTemplate transactionTemplate,
+                                   List<OutboxSink> sinks, MeterRegistry meterRegistry,
+                                   @Value("${outbox.relay.batch-size:500}") int batchSize,
+                                   @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+                                   @Value("${outbox.retention-hours:24}") long retentionHours) {
+        return new OutboxRelay(outboxEventRepository, outboxSequenceRepository, transactionTemplate, sinks, meterRegistry,
+            batchSize, maxBatchesPerRun, Duration.ofHours(retentionHours));
+    }
+}
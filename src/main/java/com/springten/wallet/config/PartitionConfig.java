@@ -0,0 +1,29 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.partition.TransactionPartitionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+
+/**
+ * Monthly partitions for the transactions table; inactive unless the database is a partitioned PostgreSQL table
+ */
+@Configuration
+@ConditionalOnProperty(name = "partition.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionConfig {
+    
+    @Bean
+    public TransactionPartitionManager transactionPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${partition.premake-months:3}") int premakeMonths,
+            @Value("${partition.retention-months:0}") int retentionMonths,
+            @Value("${partition.retention-mode:DETACH}") TransactionPartitionManager.RetentionMode retentionMode,
+            @Value("${partition.history.max-windows:3}") int maxHistoryWindows) {
+        return new TransactionPartitionManager(jdbcTemplate, Clock.systemDefaultZone(), premakeMonths,
+            retentionMonths, retentionMode, maxHistoryWindows);
+    }
+}
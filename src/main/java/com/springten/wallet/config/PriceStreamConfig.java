@@ -0,0 +1,40 @@
+package com.springten.wallet.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.price.PriceStreamService;
+import com.springten.wallet.price.PriceTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price streaming service and its sender threads; the endpoint is registered by {@link WebSocketConfig}
+ */
+@Configuration
+public class PriceStreamConfig {
+    
+    @Bean(destroyMethod = "shutdown")
+    public PriceStreamService priceStreamService(ObjectMapper objectMapper, PriceTable priceTable,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${price.stream.sender-threads:4}") int senderThreads,
+                                                 @Value("${price.stream.max-symbols-per-session:100}") int maxSymbols,
+                                                 @Value("${price.stream.send-timeout-ms:5000}") long sendTimeoutMillis,
+                                                 @Value("${price.stream.send-buffer-bytes:524288}") int sendBufferBytes,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // The service never runs more than senderThreads loops at once, so virtual senders need no pool
+        ExecutorService senders = virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("price-stream-", 0).factory())
+            : new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("price-stream-"));
+        return new PriceStreamService(objectMapper, priceTable, senders, senderThreads, meterRegistry, maxSymbols,
+            sendTimeoutMillis, sendBufferBytes);
+    }
+}
@@ -0,0 +1,46 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.security.ratelimit.RateLimitProperties;
+import com.springten.wallet.security.ratelimit.RateLimiter;
+import com.springten.wallet.security.ratelimit.RedisRateLimiter;
+import com.springten.wallet.security.ratelimit.StripedTokenBucketStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+    
+    private final RateLimitProperties properties;
+    
+    public RateLimitConfig(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+    
+    @Bean
+    public StripedTokenBucketStore localRateLimiter() {
+        return new StripedTokenBucketStore(properties.getStripes(), properties.getMaxKeysPerStripe());
+    }
+    
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "ratelimit.redis.enabled", havingValue = "true")
+    public RateLimiter redisRateLimiter(StringRedisTemplate redisTemplate, StripedTokenBucketStore localRateLimiter,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${ratelimit.redis.key-prefix:springten:ratelimit:}") String keyPrefix,
+                                        @Value("${ratelimit.redis.fallback-log-interval-ms:60000}") long logIntervalMillis) {
+        return new RedisRateLimiter(redisTemplate, localRateLimiter, keyPrefix, meterRegistry, logIntervalMillis);
+    }
+    
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        localRateLimiter().evictIdle();
+    }
+}
@@ -0,0 +1,18 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public ResilienceRegistry resilienceRegistry(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        return new ResilienceRegistry(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), environment);
+    }
+}
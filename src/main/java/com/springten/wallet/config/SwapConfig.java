@@ -0,0 +1,43 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.repository.LiquidityPoolRepository;
+import com.springten.wallet.swap.PoolReserveRefresher;
+import com.springten.wallet.swap.SwapQuoteEngine;
+import com.springten.wallet.swap.Web3ReserveSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * Swap quote engine, plus reserve refresh from the Ethereum node when swap.reserves.enabled is set
+ */
+@Configuration
+public class SwapConfig {
+    
+    @Bean(destroyMethod = "shutdown")
+    public SwapQuoteEngine swapQuoteEngine(MeterRegistry meterRegistry,
+                                           @Value("${swap.max-hops:3}") int maxHops,
+                                           @Value("${swap.default-slippage-bps:50}") int defaultSlippageBps,
+                                           @Value("${swap.parallelism:0}") int parallelism) {
+        return new SwapQuoteEngine(meterRegistry, maxHops, defaultSlippageBps, parallelism);
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "swap.reserves.enabled", havingValue = "true")
+    public Web3ReserveSource web3ReserveSource(@Value("${web3.ethereum.rpc-url}") String rpcUrl) {
+        return new Web3ReserveSource(Web3j.build(new HttpService(rpcUrl)));
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "swap.reserves.enabled", havingValue = "true")
+    public PoolReserveRefresher poolReserveRefresher(LiquidityPoolRepository poolRepository,
+                                                     Web3ReserveSource reserveSource, SwapQuoteEngine engine,
+                                                     @Value("${swap.reserves.batch-size:100}") int batchSize,
+                                                     @Value("${swap.reserves.max-log-range:1000}") long maxLogRange) {
+        return new PoolReserveRefresher(poolRepository, reserveSource, engine, batchSize, maxLogRange);
+    }
+}
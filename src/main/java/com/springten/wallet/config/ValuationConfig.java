@@ -0,0 +1,31 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.valuation.ValuationEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+/**
+ * Periodic valuation of every balance into the user_valuations and token_valuations tables
+ */
+@Configuration
+@ConditionalOnProperty(name = "valuation.enabled", havingValue = "true")
+public class ValuationConfig {
+    
+    @Bean
+    public ValuationEngine valuationEngine(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${valuation.fetch-size:10000}") int fetchSize,
+                                           @Value("${valuation.chunk-size:16384}") int chunkSize,
+                                           @Value("${valuation.batch-size:1000}") int batchSize,
+                                           @Value("${valuation.parallelism:0}") int parallelism) {
+        return new ValuationEngine(jdbcTemplate, transactionTemplate, Clock.systemDefaultZone(), meterRegistry,
+            fetchSize, chunkSize, batchSize, parallelism);
+    }
+}
@@ -0,0 +1,26 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.price.PriceStreamHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket endpoints. Price data is public, so /ws/prices is open like /api/public.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+    
+    private final PriceStreamHandler priceStreamHandler;
+    
+    public WebSocketConfig(PriceStreamHandler priceStreamHandler) {
+        this.priceStreamHandler = priceStreamHandler;
+    }
+    
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(priceStreamHandler, "/ws/prices").setAllowedOrigins("*");
+    }
+}
@@ -6,7 +6,9 @@ import com.springten.wallet.dto.RegisterRequest;
 import com.springten.wallet.dto.RegisterResponse;
 import com.springten.wallet.model.User;
 import com.springten.wallet.security.JwtUtil;
+import com.springten.wallet.security.revocation.TokenRevocationService;
 import com.springten.wallet.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -33,11 +35,14 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     @PostMapping("/register")
     public ResponseEntity<RegisterResponse> register(@Valid @RequestBody RegisterRequest request) {
         try {
             User user = userService.registerUser(request);
-            String token = jwtUtil.generateToken(userService.loadUserByUsername(user.getUsername()));
+            String token = jwtUtil.generateToken(userService.loadPrincipal(user.getUsername()));
             
             RegisterResponse response = new RegisterResponse();
             response.setMessage("User registered successfully");
@@ -81,10 +86,20 @@ public class AuthController {
         try {
             String token = authHeader.substring(7);
             if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.extractUsername(token);
-                UserDetails userDetails = userService.loadUserByUsername(username);
+                Claims claims = jwtUtil.extractAllClaims(token);
+                if (tokenRevocationService.isRevoked(claims)) {
+                    LoginResponse response = new LoginResponse();
+                    response.setMessage("Token has been revoked");
+                    return ResponseEntity.badRequest().body(response);
+                }
+                
+                String username = claims.getSubject();
+                UserDetails userDetails = userService.loadPrincipal(username);
                 String newToken = jwtUtil.generateToken(userDetails);
                 
+                // The refreshed token replaces the old one
+                tokenRevocationService.revoke(claims);
+                
                 LoginResponse response = new LoginResponse();
                 response.setMessage("Token refreshed successfully");
                 response.setToken(newToken);
@@ -103,12 +118,27 @@ public class AuthController {
         }
     }
     
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String authHeader) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String token = authHeader.substring(7);
+            tokenRevocationService.revoke(jwtUtil.extractAllClaims(token));
+            
+            response.put("message", "Logged out successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Logout failed: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @PostMapping("/create-wallet")
     public ResponseEntity<Map<String, Object>> createWalletOnly() {
         try {
             // Create a temporary user for wallet creation
             User user = userService.createWalletOnlyUser();
-            String token = jwtUtil.generateToken(userService.loadUserByUsername(user.getUsername()));
+            String token = jwtUtil.generateToken(userService.loadPrincipal(user.getUsername()));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Wallet created successfully");
@@ -137,7 +167,7 @@ public class AuthController {
             
             // Import wallet using recovery phrase
             User user = userService.importWalletFromRecoveryPhrase(recoveryPhrase);
-            String token = jwtUtil.generateToken(userService.loadUserByUsername(user.getUsername()));
+            String token = jwtUtil.generateToken(userService.loadPrincipal(user.getUsername()));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Wallet imported successfully");
@@ -0,0 +1,94 @@
+package com.springten.wallet.controller;
+
+import com.springten.wallet.security.UserPrincipal;
+import com.springten.wallet.web3.NetworkBalance;
+import com.springten.wallet.web3.Wei;
+import com.springten.wallet.web3.Web3Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking variants of the wallet and transaction reads. Responses match the
+ * blocking endpoints; the request thread is released while the node answers and
+ * the response is written on an async dispatch.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@CrossOrigin(origins = "*")
+public class ReactiveWalletController {
+
+    @Autowired
+    @Lazy
+    private Web3Service web3Service;
+
+    @GetMapping("/wallet/balance")
+    public Mono<ResponseEntity<Map<String, Object>>> getWalletBalance(@AuthenticationPrincipal UserPrincipal user) {
+        String address = user.getWalletAddress();
+        return Mono.fromFuture(() -> web3Service.getBalanceAsync(address))
+            .map(balance -> ResponseEntity.ok(balanceBody(address, balance)))
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("error", "Failed to get balance: " + message(e)))));
+    }
+
+    /**
+     * Balance of the user's address on every configured network, fetched in parallel
+     */
+    @GetMapping("/wallet/balances")
+    public Mono<ResponseEntity<Map<String, Object>>> getWalletBalances(@AuthenticationPrincipal UserPrincipal user) {
+        String address = user.getWalletAddress();
+        return web3Service.getBalancesOnAllNetworks(address)
+            .map(balances -> {
+                List<Map<String, Object>> networks = new ArrayList<>();
+                for (NetworkBalance balance : balances) {
+                    Map<String, Object> entry = balance.balance() != null
+                        ? balanceBody(null, balance.balance())
+                        : new HashMap<>(Map.of("error", "Failed to get balance: " + balance.error()));
+                    entry.put("network", balance.network());
+                    networks.add(entry);
+                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("address", address);
+                response.put("networks", networks);
+                return ResponseEntity.ok(response);
+            });
+    }
+
+    @GetMapping("/transactions/gas-price")
+    public Mono<ResponseEntity<BigInteger>> getGasPrice() {
+        return Mono.fromFuture(() -> web3Service.getCurrentGasPriceAsync())
+            .map(gasPrice -> ResponseEntity.ok(gasPrice.toBigInteger()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @GetMapping("/transactions/status/{transactionHash}")
+    public Mono<ResponseEntity<Boolean>> getTransactionStatus(@PathVariable String transactionHash) {
+        return Mono.fromFuture(() -> web3Service.isTransactionConfirmedAsync(transactionHash))
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    private static Map<String, Object> balanceBody(String address, Wei balance) {
+        Map<String, Object> body = new HashMap<>();
+        if (address != null) {
+            body.put("address", address);
+        }
+        body.put("balance", balance.toString());
+        body.put("balanceEth", balance.toBigDecimal(Wei.Unit.ETHER));
+        return body;
+    }
+
+    private static String message(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+    }
+}
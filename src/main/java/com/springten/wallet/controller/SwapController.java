@@ -0,0 +1,39 @@
+package com.springten.wallet.controller;
+
+import com.springten.wallet.swap.SwapQuote;
+import com.springten.wallet.swap.SwapQuoteEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/swap")
+@CrossOrigin(origins = "*")
+public class SwapController {
+    
+    @Autowired
+    private SwapQuoteEngine swapQuoteEngine;
+    
+    /**
+     * Quote swapping an exact amount of one token for another over the best pool route
+     */
+    @GetMapping("/quote")
+    public ResponseEntity<Map<String, Object>> getQuote(@RequestParam String from,
+                                                        @RequestParam String to,
+                                                        @RequestParam BigDecimal amount,
+                                                        @RequestParam(required = false) Integer slippageBps) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            SwapQuote quote = swapQuoteEngine.quote(from, to, amount, slippageBps);
+            response.put("quote", quote);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to quote swap: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
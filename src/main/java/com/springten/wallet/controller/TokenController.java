@@ -0,0 +1,105 @@
+package com.springten.wallet.controller;
+
+import com.springten.wallet.price.Candle;
+import com.springten.wallet.price.PriceFeedService;
+import com.springten.wallet.price.PriceHistoryStore;
+import com.springten.wallet.price.PriceQuote;
+import com.springten.wallet.price.Resolution;
+import com.springten.wallet.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/tokens")
+@CrossOrigin(origins = "*")
+public class TokenController {
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private PriceFeedService priceFeedService;
+    
+    @Autowired
+    private PriceHistoryStore priceHistoryStore;
+    
+    /**
+     * Get the USD price of a token
+     */
+    @GetMapping("/{symbol}/price")
+    public ResponseEntity<Map<String, Object>> getPrice(@PathVariable String symbol) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BigDecimal price = tokenService.getPriceUsd(symbol);
+            if (price == null) {
+                response.put("error", "Unknown token: " + symbol);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            response.put("symbol", symbol.toUpperCase());
+            response.put("priceUsd", price);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to get price: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Get live market data for a token
+     */
+    @GetMapping("/{symbol}/quote")
+    public ResponseEntity<Map<String, Object>> getQuote(@PathVariable String symbol) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            PriceQuote quote = priceFeedService.getQuote(symbol).get(10, TimeUnit.SECONDS);
+            
+            response.put("symbol", symbol.toUpperCase());
+            response.put("priceUsd", quote.priceUsd());
+            response.put("marketCapUsd", quote.marketCapUsd());
+            response.put("volume24hUsd", quote.volume24hUsd());
+            response.put("priceChange24hPercent", quote.priceChange24hPercent());
+            response.put("fetchedAt", quote.fetchedAt());
+            return ResponseEntity.ok(response);
+        } catch (ExecutionException e) {
+            response.put("error", "Failed to get quote: " + e.getCause().getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to get quote: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Get OHLC candles for a token; from and to are epoch millis and default to the full retention
+     */
+    @GetMapping("/{symbol}/chart")
+    public ResponseEntity<Map<String, Object>> getChart(@PathVariable String symbol,
+                                                        @RequestParam(defaultValue = "1h") String resolution,
+                                                        @RequestParam(required = false) Long from,
+                                                        @RequestParam(required = false) Long to) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Resolution candleResolution = Resolution.fromCode(resolution);
+            String key = symbol.toUpperCase();
+            List<Candle> candles = priceHistoryStore.candles(key, candleResolution,
+                from != null ? from : 0L, to != null ? to : System.currentTimeMillis());
+            
+            response.put("symbol", key);
+            response.put("resolution", candleResolution.getCode());
+            response.put("candles", candles);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Failed to get chart: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
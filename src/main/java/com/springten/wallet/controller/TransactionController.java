@@ -1,10 +1,20 @@
 package com.springten.wallet.controller;
 
+import com.springten.wallet.dto.TransactionHistoryResponse;
 import com.springten.wallet.dto.TransactionRequest;
 import com.springten.wallet.dto.TransactionResponse;
+import com.springten.wallet.idempotency.IdempotencyService;
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.resilience.CallRejectedException;
+import com.springten.wallet.security.UserPrincipal;
+import com.springten.wallet.service.TransactionHistoryService;
+import com.springten.wallet.web3.BroadcastUncertainException;
 import com.springten.wallet.web3.Web3Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigInteger;
@@ -15,13 +25,46 @@ import java.math.BigInteger;
 public class TransactionController {
     
     @Autowired
+    @Lazy
     private Web3Service web3Service;
     
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     /**
-     * Send a transaction
+     * Send a transaction. Retries carrying the same Idempotency-Key get the first response instead of a new broadcast.
+     * A send that failed before the broadcast answers 4xx/503 and releases the key; one whose broadcast may have
+     * reached the node answers 202 with the hash, which is kept for retries like a success.
      */
     @PostMapping("/send")
-    public ResponseEntity<TransactionResponse> sendTransaction(@RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionResponse> sendTransaction(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody TransactionRequest request) {
+        String fingerprint = IdempotencyService.fingerprint("send", request.getFromAddress(),
+            request.getToAddress(), request.getAmount());
+        return idempotencyService.execute(idempotencyScope(principal), idempotencyKey, fingerprint,
+            TransactionResponse.class, () -> send(request), TransactionController::failed);
+    }
+    
+    /**
+     * Send transaction with custom gas parameters. Honours Idempotency-Key like /send.
+     */
+    @PostMapping("/send-with-gas")
+    public ResponseEntity<TransactionResponse> sendTransactionWithGas(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody TransactionRequest request) {
+        String fingerprint = IdempotencyService.fingerprint("send-with-gas", request.getFromAddress(),
+            request.getToAddress(), request.getAmount(), request.getGasPrice(), request.getGasLimit());
+        return idempotencyService.execute(idempotencyScope(principal), idempotencyKey, fingerprint,
+            TransactionResponse.class, () -> sendWithGas(request), TransactionController::failed);
+    }
+    
+    private ResponseEntity<TransactionResponse> send(TransactionRequest request) {
         try {
             String transactionHash = web3Service.sendTransaction(
                 request.getFromAddress(),
@@ -38,19 +81,16 @@ public class TransactionController {
             response.setAmount(request.getAmount());
             
             return ResponseEntity.ok(response);
+        } catch (BroadcastUncertainException e) {
+            return submitted(e, request);
+        } catch (CallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(failed(e.getMessage()));
         } catch (Exception e) {
-            TransactionResponse errorResponse = new TransactionResponse();
-            errorResponse.setStatus("FAILED");
-            errorResponse.setError(e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.badRequest().body(failed(e.getMessage()));
         }
     }
     
-    /**
-     * Send transaction with custom gas parameters
-     */
-    @PostMapping("/send-with-gas")
-    public ResponseEntity<TransactionResponse> sendTransactionWithGas(@RequestBody TransactionRequest request) {
+    private ResponseEntity<TransactionResponse> sendWithGas(TransactionRequest request) {
         try {
             String transactionHash = web3Service.sendTransactionWithGas(
                 request.getFromAddress(),
@@ -71,22 +111,48 @@ public class TransactionController {
             response.setGasUsed(request.getGasLimit());
             
             return ResponseEntity.ok(response);
+        } catch (BroadcastUncertainException e) {
+            return submitted(e, request);
+        } catch (CallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(failed(e.getMessage()));
         } catch (Exception e) {
-            TransactionResponse errorResponse = new TransactionResponse();
-            errorResponse.setStatus("FAILED");
-            errorResponse.setError(e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.badRequest().body(failed(e.getMessage()));
         }
     }
     
+    /**
+     * The transaction may be on its way; report its hash so the client polls the status instead of sending again
+     */
+    private static ResponseEntity<TransactionResponse> submitted(BroadcastUncertainException e,
+                                                                 TransactionRequest request) {
+        TransactionResponse response = new TransactionResponse();
+        response.setTransactionHash(e.getTransactionHash());
+        response.setStatus("SUBMITTED");
+        response.setFromAddress(request.getFromAddress());
+        response.setToAddress(request.getToAddress());
+        response.setAmount(request.getAmount());
+        response.setError(e.getMessage());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    private static TransactionResponse failed(String error) {
+        TransactionResponse errorResponse = new TransactionResponse();
+        errorResponse.setStatus("FAILED");
+        errorResponse.setError(error);
+        return errorResponse;
+    }
+    
+    private static String idempotencyScope(UserPrincipal principal) {
+        return principal != null ? "user:" + principal.getId() : "anonymous";
+    }
+    
     /**
      * Get current gas price
      */
     @GetMapping("/gas-price")
     public ResponseEntity<BigInteger> getGasPrice() {
         try {
-            BigInteger gasPrice = web3Service.getCurrentGasPrice();
-            return ResponseEntity.ok(gasPrice);
+            return ResponseEntity.ok(web3Service.getCurrentGasPrice().toBigInteger());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -134,4 +200,26 @@ public class TransactionController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    /**
+     * Get transaction history, newest first. Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<TransactionHistoryResponse> getHistory(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) Transaction.TransactionStatus status,
+            @RequestParam(required = false) String token,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            TransactionHistoryResponse response = transactionHistoryService.getHistory(
+                principal.getId(), type, status, token, cursor, limit);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            TransactionHistoryResponse errorResponse = new TransactionHistoryResponse();
+            errorResponse.setError("Failed to get transaction history: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
 }
@@ -1,15 +1,18 @@
 package com.springten.wallet.controller;
 
+import com.springten.wallet.dto.PortfolioResponse;
 import com.springten.wallet.dto.WalletResponse;
 import com.springten.wallet.model.User;
+import com.springten.wallet.portfolio.PortfolioProjection;
+import com.springten.wallet.security.UserPrincipal;
 import com.springten.wallet.service.UserService;
 import com.springten.wallet.service.WalletService;
+import com.springten.wallet.web3.Wei;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,13 +27,15 @@ public class WalletController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private PortfolioProjection portfolioProjection;
+    
     @GetMapping("/balance")
     public ResponseEntity<Map<String, Object>> getWalletBalance(Authentication authentication) {
         try {
-            String username = authentication.getName();
-            User user = userService.findByUsername(username);
+            UserPrincipal user = currentUser(authentication);
             
-            BigInteger balance = walletService.getBalance(user.getWalletAddress());
+            Wei balance = walletService.getBalance(user.getWalletAddress());
             
             Map<String, Object> response = new HashMap<>();
             response.put("address", user.getWalletAddress());
@@ -48,8 +53,7 @@ public class WalletController {
     @GetMapping("/info")
     public ResponseEntity<WalletResponse> getWalletInfo(Authentication authentication) {
         try {
-            String username = authentication.getName();
-            User user = userService.findByUsername(username);
+            UserPrincipal user = currentUser(authentication);
             
             WalletResponse response = new WalletResponse();
             response.setAddress(user.getWalletAddress());
@@ -65,6 +69,21 @@ public class WalletController {
         }
     }
     
+    /**
+     * Get per-token USD values and the total of the user's wallet
+     */
+    @GetMapping("/portfolio")
+    public ResponseEntity<PortfolioResponse> getPortfolio(Authentication authentication) {
+        try {
+            UserPrincipal user = currentUser(authentication);
+            return ResponseEntity.ok(new PortfolioResponse(portfolioProjection.get(user.getWalletAddress())));
+        } catch (Exception e) {
+            PortfolioResponse response = new PortfolioResponse();
+            response.setError("Failed to get portfolio: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @PostMapping("/create")
     public ResponseEntity<Map<String, Object>> createWallet(Authentication authentication) {
         try {
@@ -88,4 +107,15 @@ public class WalletController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+    
+    /**
+     * Resolve the authenticated user, preferring the principal set by the JWT filter
+     * over another database lookup
+     */
+    private UserPrincipal currentUser(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return UserPrincipal.from(userService.findByUsername(authentication.getName()));
+    }
 }
@@ -0,0 +1,56 @@
+package com.springten.wallet.dto;
+
+import com.springten.wallet.portfolio.PortfolioSnapshot;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PortfolioResponse {
+    
+    private String address;
+    private BigDecimal totalValueUsd;
+    private List<PortfolioSnapshot.Position> positions;
+    private String error;
+    
+    // Constructors
+    public PortfolioResponse() {}
+    
+    public PortfolioResponse(PortfolioSnapshot snapshot) {
+        this.address = snapshot.walletAddress();
+        this.totalValueUsd = snapshot.totalValueUsd();
+        this.positions = snapshot.positions();
+    }
+    
+    // Getters and Setters
+    public String getAddress() {
+        return address;
+    }
+    
+    public void setAddress(String address) {
+        this.address = address;
+    }
+    
+    public BigDecimal getTotalValueUsd() {
+        return totalValueUsd;
+    }
+    
+    public void setTotalValueUsd(BigDecimal totalValueUsd) {
+        this.totalValueUsd = totalValueUsd;
+    }
+    
+    public List<PortfolioSnapshot.Position> getPositions() {
+        return positions;
+    }
+    
+    public void setPositions(List<PortfolioSnapshot.Position> positions) {
+        this.positions = positions;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,27 @@
+package com.springten.wallet.dto;
+
+import com.springten.wallet.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a transaction row for history listings; selected
+ * directly by JPQL so no entities (or their lazy associations) are loaded.
+ */
+public record TransactionHistoryItem(
+    Long id,
+    String transactionHash,
+    Transaction.TransactionType transactionType,
+    Transaction.TransactionStatus status,
+    String fromAddress,
+    String toAddress,
+    BigDecimal amount,
+    BigDecimal amountUsd,
+    BigDecimal totalFee,
+    String tokenSymbol,
+    Long blockNumber,
+    LocalDateTime createdAt,
+    LocalDateTime confirmedAt
+) {
+}
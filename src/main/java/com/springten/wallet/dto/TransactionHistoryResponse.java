@@ -0,0 +1,53 @@
+package com.springten.wallet.dto;
+
+import java.util.List;
+
+public class TransactionHistoryResponse {
+    
+    private List<TransactionHistoryItem> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private String error;
+    
+    // Constructors
+    public TransactionHistoryResponse() {}
+    
+    public TransactionHistoryResponse(List<TransactionHistoryItem> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<TransactionHistoryItem> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<TransactionHistoryItem> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,146 @@
+package com.springten.wallet.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key.
+ *
+ * Successful responses are stored and replayed, with an Idempotent-Replayed header, to
+ * retries carrying the same key and request fingerprint. A non-2xx response releases its
+ * key so that a retry runs again, so a call that may already have had its effect, such as
+ * a send whose broadcast timed out, must answer 2xx to keep the key. Reusing a key for a different request is rejected with
+ * 422, and a retry that outwaits the original request gets 409.
+ */
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration wait;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              Duration wait) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.wait = wait;
+        this.executed = counter(meterRegistry, "executed");
+        this.replayed = counter(meterRegistry, "replayed");
+        this.rejected = counter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Run the call unless the key was already used. Without a key the call simply runs.
+     *
+     * @param scope       namespace of the key, such as the user id, so clients cannot collide
+     * @param fingerprint identifies the request; see {@link #fingerprint}
+     * @param errorBody   builds the response body for a rejected key from a message
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, String fingerprint, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> call, Function<String, T> errorBody) {
+        if (key == null) {
+            return call.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            rejected.increment();
+            return ResponseEntity.badRequest()
+                .body(errorBody.apply(KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+
+        String scopedKey = scope + ":" + key;
+        IdempotencyStore.Claim claim = store.claim(scopedKey, fingerprint, wait);
+        switch (claim.outcome()) {
+            case COMPLETED:
+                replayed.increment();
+                return replay(claim.response(), bodyType);
+            case MISMATCH:
+                rejected.increment();
+                return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(errorBody.apply(KEY_HEADER + " was already used for a different request"));
+            case IN_PROGRESS:
+                rejected.increment();
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(errorBody.apply("A request with this " + KEY_HEADER + " is still in progress"));
+            default:
+                break;
+        }
+
+        executed.increment();
+        ResponseEntity<T> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException | Error e) {
+            store.abandon(scopedKey);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            store.abandon(scopedKey);
+            return response;
+        }
+        try {
+            String body = response.hasBody() ? objectMapper.writeValueAsString(response.getBody()) : null;
+            store.complete(scopedKey, new StoredResponse(response.getStatusCode().value(), body));
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot store response for idempotency key {}: {}", scopedKey, e.getMessage());
+            store.abandon(scopedKey);
+        }
+        return response;
+    }
+
+    /**
+     * SHA-256 over the request fields that must match for a retry to count as the same request.
+     * Leave secrets out; the fingerprint is stored with the response.
+     */
+    public static String fingerprint(Object... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object field : fields) {
+                digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, Class<T> bodyType) {
+        try {
+            T body = stored.body() == null || stored.body().isEmpty()
+                ? null : objectMapper.readValue(stored.body(), bodyType);
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("springten.idempotency.requests")
+            .description("Requests carrying an Idempotency-Key")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.springten.wallet.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Records which idempotency keys have been used and what they returned.
+ *
+ * A caller first claims its key. The claim is acquired by the first request only;
+ * a duplicate that arrives while it runs waits for its outcome, and one that arrives
+ * after it completed gets the stored response. The owner of a claim must end it with
+ * {@link #complete} or {@link #abandon}; an abandoned key can be claimed again.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claim a key for a request with the given fingerprint, waiting up to {@code wait}
+     * for a request already running under the same key
+     */
+    Claim claim(String key, String fingerprint, Duration wait);
+
+    /**
+     * Store the response of the claimed key for the retention window and release waiting duplicates
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Release the claimed key without storing a response, so the next retry runs again
+     */
+    void abandon(String key);
+
+    enum Outcome {
+        /** The caller owns the key and must run the request */
+        ACQUIRED,
+        /** The request already completed; replay the stored response */
+        COMPLETED,
+        /** The key was used with a different request */
+        MISMATCH,
+        /** The first request is still running after the wait */
+        IN_PROGRESS
+    }
+
+    record Claim(Outcome outcome, StoredResponse response) {
+
+        static final Claim ACQUIRED = new Claim(Outcome.ACQUIRED, null);
+        static final Claim MISMATCH = new Claim(Outcome.MISMATCH, null);
+        static final Claim IN_PROGRESS = new Claim(Outcome.IN_PROGRESS, null);
+
+        static Claim completed(StoredResponse response) {
+            return new Claim(Outcome.COMPLETED, response);
+        }
+    }
+}
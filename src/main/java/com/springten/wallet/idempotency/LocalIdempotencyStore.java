@@ -0,0 +1,117 @@
+package com.springten.wallet.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency keys of this node in a concurrent map. Duplicates of a running request block
+ * on its result future rather than polling, and completed entries are kept until the
+ * retention window passes and {@link #purgeExpired} drops them.
+ */
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long retentionMillis;
+
+    public LocalIdempotencyStore(Clock clock, Duration retention) {
+        this.clock = clock;
+        this.retentionMillis = retention.toMillis();
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            Entry entry = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                return Claim.ACQUIRED;
+            }
+            if (existing.isExpired(clock.millis())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                return Claim.MISMATCH;
+            }
+            StoredResponse response;
+            try {
+                response = existing.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return Claim.IN_PROGRESS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Claim.IN_PROGRESS;
+            } catch (ExecutionException e) {
+                // Never completed exceptionally; treat like an abandoned key
+                response = null;
+            }
+            if (response != null) {
+                return Claim.completed(response);
+            }
+            // Abandoned by its owner: try to claim the key ourselves
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.expiresAtMillis = clock.millis() + retentionMillis;
+            entry.result.complete(response);
+        }
+    }
+
+    @Override
+    public void abandon(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.result.isDone()) {
+            // Remove first so that woken duplicates find the key free
+            entries.remove(key, entry);
+            entry.result.complete(null);
+        }
+    }
+
+    /**
+     * Drop completed entries older than the retention window. Returns the number removed.
+     */
+    public int purgeExpired() {
+        long now = clock.millis();
+        int removed = 0;
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        // Completed with the stored response, or with null when the owner abandons the key
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        // Running requests never expire; the owner always completes or abandons them
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.springten.wallet.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster-wide idempotency keys in Redis, in front of a {@link LocalIdempotencyStore}.
+ *
+ * Duplicates on the same node are coalesced by the local store, so only one request per
+ * key and node talks to Redis. That request takes a lease on the key with SET NX; a
+ * request on another node that finds the lease polls until the stored response appears
+ * or the lease is released. Completing or abandoning only touches the key while the lease
+ * is still ours. Falls back to the local store when Redis is unreachable.
+ */
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisIdempotencyStore.class);
+
+    private static final String PENDING = "P";
+    private static final String DONE = "D";
+
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+        "local current = redis.call('GET', KEYS[1]) " +
+        "if current and current ~= ARGV[1] then return 0 end " +
+        "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+        "return 1",
+        Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+        "return 0",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LocalIdempotencyStore local;
+    private final String keyPrefix;
+    private final Duration lease;
+    private final Duration retention;
+    private final long pollIntervalMillis;
+    // Lease values of the keys this node is running, by key
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, LocalIdempotencyStore local, String keyPrefix,
+                                 Duration lease, Duration retention, long pollIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.local = local;
+        this.keyPrefix = keyPrefix;
+        this.lease = lease;
+        this.retention = retention;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        Claim claim = local.claim(key, fingerprint, wait);
+        if (claim.outcome() != Outcome.ACQUIRED) {
+            return claim;
+        }
+
+        String redisKey = keyPrefix + key;
+        String pending = String.join("|", PENDING, UUID.randomUUID().toString(), fingerprint);
+        try {
+            while (true) {
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(redisKey, pending, lease))) {
+                    leases.put(key, new Lease(pending, fingerprint));
+                    return Claim.ACQUIRED;
+                }
+                String value = redisTemplate.opsForValue().get(redisKey);
+                if (value == null) {
+                    // Released or expired since the SET; try again
+                    continue;
+                }
+                String[] parts = value.split("\\|", 4);
+                String storedFingerprint = parts[0].equals(DONE) ? parts[1] : parts[2];
+                if (!storedFingerprint.equals(fingerprint)) {
+                    local.abandon(key);
+                    return Claim.MISMATCH;
+                }
+                if (parts[0].equals(DONE)) {
+                    StoredResponse response = new StoredResponse(Integer.parseInt(parts[2]), parts[3]);
+                    // Keep it locally too, which also wakes duplicates waiting on this node
+                    local.complete(key, response);
+                    return Claim.completed(response);
+                }
+                if (System.nanoTime() >= deadline) {
+                    local.abandon(key);
+                    return Claim.IN_PROGRESS;
+                }
+                Thread.sleep(pollIntervalMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            local.abandon(key);
+            return Claim.IN_PROGRESS;
+        } catch (Exception e) {
+            log.warn("Redis idempotency store unavailable, using local keys: {}", e.getMessage());
+            return Claim.ACQUIRED;
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Lease held = leases.remove(key);
+        if (held != null) {
+            String done = String.join("|", DONE, held.fingerprint(), Integer.toString(response.status()),
+                response.body() != null ? response.body() : "");
+            try {
+                Long stored = redisTemplate.execute(COMPLETE_SCRIPT, List.of(keyPrefix + key),
+                    held.value(), done, Long.toString(retention.toMillis()));
+                if (stored == null || stored == 0) {
+                    log.warn("Idempotency lease on {} expired before the request completed", key);
+                }
+            } catch (Exception e) {
+                log.warn("Storing idempotent response for {} in Redis failed: {}", key, e.getMessage());
+            }
+        }
+        local.complete(key, response);
+    }
+
+    @Override
+    public void abandon(String key) {
+        Lease held = leases.remove(key);
+        if (held != null) {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(keyPrefix + key), held.value());
+            } catch (Exception e) {
+                // Other nodes wait until the lease expires
+                log.warn("Releasing idempotency key {} in Redis failed: {}", key, e.getMessage());
+            }
+        }
+        local.abandon(key);
+    }
+
+    private record Lease(String value, String fingerprint) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.springten.wallet.idempotency;
+
+/**
+ * Status and JSON body of a completed request, replayed to retries with the same key
+ */
+public record StoredResponse(int status, String body) {
+}
@@ -0,0 +1,130 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Constant-product AMM pair (Uniswap V2 style) between two of our tokens, used to quote swaps.
+ * Reserves are not stored; they are kept in memory by the swap quote engine.
+ */
+@Entity
+@Table(name = "liquidity_pools")
+@EntityListeners(AuditingEntityListener.class)
+public class LiquidityPool {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "liquidity_pools_seq")
+    @SequenceGenerator(name = "liquidity_pools_seq", sequenceName = "liquidity_pools_seq", allocationSize = 50)
+    private Long id;
+    
+    @NotBlank
+    @Column(name = "address", unique = true)
+    private String address;
+    
+    // token0 sorts before token1 by contract address, matching the pair's getReserves order
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "token0_id", nullable = false)
+    private Token token0;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "token1_id", nullable = false)
+    private Token token1;
+    
+    @NotNull
+    @Column(name = "fee_bps")
+    private Integer feeBps = 30;
+    
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "blockchain_network")
+    private Wallet.BlockchainNetwork blockchainNetwork;
+    
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+    
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public LiquidityPool() {}
+    
+    public LiquidityPool(String address, Token token0, Token token1, Integer feeBps,
+                         Wallet.BlockchainNetwork blockchainNetwork) {
+        this.address = address;
+        this.token0 = token0;
+        this.token1 = token1;
+        this.feeBps = feeBps;
+        this.blockchainNetwork = blockchainNetwork;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public void setAddress(String address) {
+        this.address = address;
+    }
+    
+    public Token getToken0() {
+        return token0;
+    }
+    
+    public void setToken0(Token token0) {
+        this.token0 = token0;
+    }
+    
+    public Token getToken1() {
+        return token1;
+    }
+    
+    public void setToken1(Token token1) {
+        this.token1 = token1;
+    }
+    
+    public Integer getFeeBps() {
+        return feeBps;
+    }
+    
+    public void setFeeBps(Integer feeBps) {
+        this.feeBps = feeBps;
+    }
+    
+    public Wallet.BlockchainNetwork getBlockchainNetwork() {
+        return blockchainNetwork;
+    }
+    
+    public void setBlockchainNetwork(Wallet.BlockchainNetwork blockchainNetwork) {
+        this.blockchainNetwork = blockchainNetwork;
+    }
+    
+    public Boolean getIsActive() {
+        return isActive;
+    }
+    
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+    // The relay scans unpublished rows in per-aggregate sequence order
+    @Index(name = "idx_outbox_events_published_aggregate",
+           columnList = "published_at, aggregate_type, aggregate_id, aggregate_seq")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_outbox_events_aggregate_seq",
+                      columnNames = {"aggregate_type", "aggregate_id", "aggregate_seq"})
+})
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @NotBlank
+    @Column(name = "aggregate_type", nullable = false, length = 64)
+    private String aggregateType;
+    
+    @NotBlank
+    @Column(name = "aggregate_id", nullable = false, length = 128)
+    private String aggregateId;
+    
+    // Position within the aggregate, from 1 with no gaps; ids come from pooled blocks and do not give this order
+    @Column(name = "aggregate_seq", nullable = false)
+    private long aggregateSeq;
+    
+    @NotBlank
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+    
+    @Column(name = "payload", nullable = false, length = 8192)
+    private String payload;
+    
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(String aggregateType, String aggregateId, long aggregateSeq, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.aggregateSeq = aggregateSeq;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getAggregateType() {
+        return aggregateType;
+    }
+    
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    
+    public String getAggregateId() {
+        return aggregateId;
+    }
+    
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+    
+    public long getAggregateSeq() {
+        return aggregateSeq;
+    }
+    
+    public void setAggregateSeq(long aggregateSeq) {
+        this.aggregateSeq = aggregateSeq;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+    
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
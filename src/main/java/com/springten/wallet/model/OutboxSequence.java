@@ -0,0 +1,46 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Last outbox sequence number handed out for one aggregate. Writers lock the row,
+ * so an aggregate's numbers are dense and commit in the order they were assigned.
+ * The purge deletes it once none of the aggregate's events are left, after which
+ * numbering starts again from 1.
+ */
+@Entity
+@Table(name = "outbox_sequences")
+public class OutboxSequence {
+    
+    // aggregate_type:aggregate_id
+    @Id
+    @Column(name = "aggregate_key", length = 200)
+    private String aggregateKey;
+    
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+    
+    // Constructors
+    public OutboxSequence() {}
+    
+    public OutboxSequence(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+    
+    // Getters and Setters
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+    
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+    
+    public long getLastSeq() {
+        return lastSeq;
+    }
+    
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class Token {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tokens_seq")
+    @SequenceGenerator(name = "tokens_seq", sequenceName = "tokens_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -56,6 +57,9 @@ public class Token {
     @Column(name = "logo_url")
     private String logoUrl;
     
+    @Column(name = "coingecko_id", unique = true)
+    private String coingeckoId;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -173,6 +177,14 @@ public class Token {
         this.logoUrl = logoUrl;
     }
     
+    public String getCoingeckoId() {
+        return coingeckoId;
+    }
+    
+    public void setCoingeckoId(String coingeckoId) {
+        this.coingeckoId = coingeckoId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -10,12 +10,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "token_balances")
+@Table(name = "token_balances", uniqueConstraints = {
+    // One row per wallet and token; the write-behind buffer updates by this key
+    @UniqueConstraint(name = "uk_token_balances_wallet_token", columnNames = {"wallet_id", "token_id"})
+})
 @EntityListeners(AuditingEntityListener.class)
 public class TokenBalance {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_balances_seq")
+    @SequenceGenerator(name = "token_balances_seq", sequenceName = "token_balances_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
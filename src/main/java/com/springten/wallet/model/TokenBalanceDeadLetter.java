@@ -0,0 +1,90 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A buffered balance update the write-behind buffer gave up on. Ids are plain
+ * columns rather than references and amounts are kept as text, since a missing
+ * wallet or an out-of-range amount may be why the write failed.
+ */
+@Entity
+@Table(name = "token_balance_dead_letters")
+public class TokenBalanceDeadLetter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_balance_dead_letters_seq")
+    @SequenceGenerator(name = "token_balance_dead_letters_seq", sequenceName = "token_balance_dead_letters_seq",
+                       allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+    
+    @Column(name = "token_id", nullable = false)
+    private Long tokenId;
+    
+    @Column(name = "balance", length = 200)
+    private String balance;
+    
+    @Column(name = "balance_usd", length = 200)
+    private String balanceUsd;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "error", length = 1000)
+    private String error;
+    
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+    
+    // Constructors
+    public TokenBalanceDeadLetter() {}
+    
+    public TokenBalanceDeadLetter(Long walletId, Long tokenId, BigDecimal balance, BigDecimal balanceUsd,
+                                  LocalDateTime updatedAt, String error) {
+        this.walletId = walletId;
+        this.tokenId = tokenId;
+        this.balance = balance != null ? balance.toString() : null;
+        this.balanceUsd = balanceUsd != null ? balanceUsd.toString() : null;
+        this.updatedAt = updatedAt;
+        this.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        this.failedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getWalletId() {
+        return walletId;
+    }
+    
+    public Long getTokenId() {
+        return tokenId;
+    }
+    
+    public String getBalance() {
+        return balance;
+    }
+    
+    public String getBalanceUsd() {
+        return balanceUsd;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * USD value held in one token across all wallets as of the last valuation run
+ */
+@Entity
+@Table(name = "token_valuations")
+public class TokenValuation {
+    
+    @Id
+    @Column(name = "token_id")
+    private Long tokenId;
+    
+    @Column(name = "total_usd", precision = 24, scale = 6, nullable = false)
+    private BigDecimal totalUsd = BigDecimal.ZERO;
+    
+    @Column(name = "holders", nullable = false)
+    private Integer holders = 0;
+    
+    @Column(name = "valued_at", nullable = false)
+    private LocalDateTime valuedAt;
+    
+    // Constructors
+    public TokenValuation() {}
+    
+    // Getters and Setters
+    public Long getTokenId() {
+        return tokenId;
+    }
+    
+    public void setTokenId(Long tokenId) {
+        this.tokenId = tokenId;
+    }
+    
+    public BigDecimal getTotalUsd() {
+        return totalUsd;
+    }
+    
+    public void setTotalUsd(BigDecimal totalUsd) {
+        this.totalUsd = totalUsd;
+    }
+    
+    public Integer getHolders() {
+        return holders;
+    }
+    
+    public void setHolders(Integer holders) {
+        this.holders = holders;
+    }
+    
+    public LocalDateTime getValuedAt() {
+        return valuedAt;
+    }
+    
+    public void setValuedAt(LocalDateTime valuedAt) {
+        this.valuedAt = valuedAt;
+    }
+}
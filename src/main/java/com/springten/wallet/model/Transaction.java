@@ -11,12 +11,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    // Keyset pagination for history: equality columns first, then (created_at, id)
+    @Index(name = "idx_transactions_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_transactions_user_type_created", columnList = "user_id, transaction_type, created_at, id"),
+    @Index(name = "idx_transactions_user_token_created", columnList = "user_id, token_id, created_at, id"),
+    @Index(name = "idx_transactions_wallet_created", columnList = "wallet_id, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
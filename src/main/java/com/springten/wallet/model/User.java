@@ -18,7 +18,8 @@ import java.util.List;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -55,6 +56,10 @@ public class User {
     @Column(name = "status")
     private UserStatus status = UserStatus.ACTIVE;
     
+    // Incremented on every profile change; embedded in JWTs to detect stale claims
+    @Column(name = "profile_version")
+    private Long profileVersion = 0L;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -160,6 +165,14 @@ public class User {
         this.status = status;
     }
     
+    public Long getProfileVersion() {
+        return profileVersion;
+    }
+    
+    public void setProfileVersion(Long profileVersion) {
+        this.profileVersion = profileVersion;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
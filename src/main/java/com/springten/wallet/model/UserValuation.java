@@ -0,0 +1,64 @@
+package com.springten.wallet.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * USD value of all of a user's token balances as of the last valuation run.
+ * Rows are replaced wholesale by the valuation engine, so there is no generated id.
+ */
+@Entity
+@Table(name = "user_valuations")
+public class UserValuation {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_usd", precision = 24, scale = 6, nullable = false)
+    private BigDecimal totalUsd = BigDecimal.ZERO;
+    
+    @Column(name = "positions", nullable = false)
+    private Integer positions = 0;
+    
+    @Column(name = "valued_at", nullable = false)
+    private LocalDateTime valuedAt;
+    
+    // Constructors
+    public UserValuation() {}
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public BigDecimal getTotalUsd() {
+        return totalUsd;
+    }
+    
+    public void setTotalUsd(BigDecimal totalUsd) {
+        this.totalUsd = totalUsd;
+    }
+    
+    public Integer getPositions() {
+        return positions;
+    }
+    
+    public void setPositions(Integer positions) {
+        this.positions = positions;
+    }
+    
+    public LocalDateTime getValuedAt() {
+        return valuedAt;
+    }
+    
+    public void setValuedAt(LocalDateTime valuedAt) {
+        this.valuedAt = valuedAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.springten.wallet.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes events to a dedicated logger, for development and for log-shipping pipelines
+ */
+public class LogOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger("springten.outbox");
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        for (OutboxMessage message : batch) {
+            log.info("{} {}:{}@{} #{} {}", message.eventType(), message.aggregateType(), message.aggregateId(),
+                message.aggregateSeq(), message.id(), message.payload());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.springten.wallet.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as handed to sinks; payload is JSON. aggregateSeq orders the events
+ * of one aggregate and lets consumers drop redeliveries.
+ */
+public record OutboxMessage(Long id, String aggregateType, String aggregateId, long aggregateSeq, String eventType,
+                            String payload, LocalDateTime createdAt) {
+}
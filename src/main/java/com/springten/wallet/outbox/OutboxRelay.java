@@ -0,0 +1,198 @@
+package com.springten.wallet.outbox;
+
+import com.springten.wallet.model.OutboxEvent;
+import com.springten.wallet.repository.OutboxEventRepository;
+import com.springten.wallet.repository.OutboxSequenceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to the configured sinks.
+ *
+ * Each batch is read with a row lock in (aggregate, sequence) order, so relays on
+ * several nodes take turns instead of publishing the same rows twice. Ids are not
+ * used for ordering: they come from pooled blocks per node and need not match
+ * commit order. {@link OutboxWriter} numbers an event only after its aggregate's
+ * previous event committed, so the unpublished events of an aggregate are always
+ * the next ones in its sequence. Events are grouped by aggregate and every group is
+ * published to every sink in sequence order. When a sink fails for a group, that
+ * aggregate is skipped for the rest of the run so its later events cannot overtake
+ * the failed ones; other aggregates carry on.
+ * Rows are marked published only after all sinks accepted them, which makes
+ * delivery at-least-once: a crash or a partial failure repeats events that a
+ * sink may already have seen.
+ */
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+    
+    private final Map<String, Counter> publishedBySink = new HashMap<>();
+    private final Map<String, Counter> failuresBySink = new HashMap<>();
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxSequenceRepository outboxSequenceRepository,
+                       TransactionTemplate transactionTemplate, List<OutboxSink> sinks, MeterRegistry meterRegistry,
+                       int batchSize, int maxBatchesPerRun, Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = List.copyOf(sinks);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = retention;
+        for (OutboxSink sink : this.sinks) {
+            publishedBySink.put(sink.getName(), Counter.builder("springten.outbox.published")
+                .description("Outbox events delivered").tag("sink", sink.getName()).register(meterRegistry));
+            failuresBySink.put(sink.getName(), Counter.builder("springten.outbox.failures")
+                .description("Outbox event deliveries that failed and will be retried")
+                .tag("sink", sink.getName()).register(meterRegistry));
+        }
+        this.batchTimer = Timer.builder("springten.outbox.batch")
+            .description("Time to relay one outbox batch").register(meterRegistry);
+        Gauge.builder("springten.outbox.lag", lagMillis, AtomicLong::get).baseUnit("milliseconds")
+            .description("Age of the oldest unpublished outbox event").register(meterRegistry);
+    }
+    
+    /**
+     * Relay pending events; returns the number of events marked published
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public int relay() {
+        Set<String> blocked = new HashSet<>();
+        Position after = Position.START;
+        int published = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Position from = after;
+            BatchResult result = batchTimer.record(() -> relayBatch(from, blocked));
+            published += result.published();
+            if (result.size() < batchSize) {
+                break;
+            }
+            after = result.last();
+        }
+        updateLag();
+        return published;
+    }
+    
+    /**
+     * Delete published events older than the retention, then the sequence counters of
+     * aggregates that have no events left
+     */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public int purge() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Purged {} published outbox events", deleted);
+        }
+        int counters = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> {
+                List<String> idle = outboxSequenceRepository.lockIdle(batchSize);
+                return idle.isEmpty() ? 0 : outboxSequenceRepository.deleteIdle(idle);
+            });
+            counters += removed;
+        } while (removed == batchSize);
+        if (counters > 0) {
+            log.debug("Purged {} idle outbox sequence counters", counters);
+        }
+        return deleted;
+    }
+    
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+    
+    private BatchResult relayBatch(Position after, Set<String> blocked) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockUnpublishedAfter(after.aggregateType(),
+                after.aggregateId(), after.aggregateSeq(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return new BatchResult(0, 0, after);
+            }
+            
+            Map<String, List<OutboxMessage>> byAggregate = new LinkedHashMap<>();
+            for (OutboxEvent event : batch) {
+                byAggregate.computeIfAbsent(event.getAggregateType() + ":" + event.getAggregateId(),
+                    key -> new ArrayList<>()).add(toMessage(event));
+            }
+            
+            List<Long> delivered = new ArrayList<>(batch.size());
+            for (Map.Entry<String, List<OutboxMessage>> group : byAggregate.entrySet()) {
+                if (!blocked.contains(group.getKey()) && publish(group.getValue())) {
+                    group.getValue().forEach(message -> delivered.add(message.id()));
+                } else {
+                    blocked.add(group.getKey());
+                }
+            }
+            
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markPublished(delivered, LocalDateTime.now());
+            }
+            OutboxEvent last = batch.get(batch.size() - 1);
+            return new BatchResult(batch.size(), delivered.size(),
+                new Position(last.getAggregateType(), last.getAggregateId(), last.getAggregateSeq()));
+        });
+    }
+    
+    private boolean publish(List<OutboxMessage> messages) {
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(messages);
+                publishedBySink.get(sink.getName()).increment(messages.size());
+            } catch (Exception e) {
+                failuresBySink.get(sink.getName()).increment(messages.size());
+                OutboxMessage first = messages.get(0);
+                log.warn("Outbox sink {} failed for {}:{} at event {}, will retry: {}", sink.getName(),
+                    first.aggregateType(), first.aggregateId(), first.id(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void updateLag() {
+        LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+        lagMillis.set(oldest == null ? 0L : Math.max(0L, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+    
+    private static OutboxMessage toMessage(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+            event.getAggregateSeq(), event.getEventType(), event.getPayload(), event.getCreatedAt());
+    }
+    
+    private record Position(String aggregateType, String aggregateId, long aggregateSeq) {
+        // Sorts before every aggregate type, which are never blank
+        static final Position START = new Position("", "", 0L);
+    }
+    
+    private record BatchResult(int size, int published, Position last) {
+    }
+}
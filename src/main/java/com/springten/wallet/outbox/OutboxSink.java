@@ -0,0 +1,17 @@
+package com.springten.wallet.outbox;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events.
+ *
+ * A batch holds events of one aggregate in order. Sinks must deliver the whole
+ * batch or throw; a failed batch is retried later, so consumers may see the
+ * same event more than once and should deduplicate by id.
+ */
+public interface OutboxSink {
+
+    String getName();
+
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
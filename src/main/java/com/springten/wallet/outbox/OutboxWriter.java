@@ -0,0 +1,67 @@
+package com.springten.wallet.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.model.OutboxEvent;
+import com.springten.wallet.repository.OutboxEventRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records domain events in the outbox table as part of the caller's transaction,
+ * so an event exists if and only if the state change that produced it committed.
+ *
+ * Each event takes the next number of its aggregate's row in outbox_sequences,
+ * locked until the caller commits. Concurrent writers for one aggregate therefore
+ * queue, and an event is only numbered after its predecessor committed, which is
+ * what lets the relay publish in sequence order. The first event of an aggregate
+ * inserts that row; two such writers racing fail one transaction on its key.
+ *
+ * The counter is updated with plain JDBC on the transaction's connection rather
+ * than through the persistence context, so appending never flushes the session
+ * and bulk callers keep their insert batching. The relay's purge removes counters
+ * of aggregates with no events left.
+ */
+@Component
+public class OutboxWriter {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Append an event; fails if no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent append(String aggregateType, Object aggregateId, String eventType, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + eventType + " payload", e);
+        }
+        String id = String.valueOf(aggregateId);
+        return outboxEventRepository.save(new OutboxEvent(aggregateType, id, nextSequence(aggregateType + ":" + id),
+            eventType, json));
+    }
+    
+    private long nextSequence(String aggregateKey) {
+        // The update locks the counter row; a second writer for the aggregate waits here until the first commits
+        if (jdbcTemplate.update("update outbox_sequences set last_seq = last_seq + 1 where aggregate_key = ?",
+                aggregateKey) == 1) {
+            return jdbcTemplate.queryForObject("select last_seq from outbox_sequences where aggregate_key = ?",
+                Long.class, aggregateKey);
+        }
+        jdbcTemplate.update("insert into outbox_sequences (aggregate_key, last_seq) values (?, 1)", aggregateKey);
+        return 1;
+    }
+}
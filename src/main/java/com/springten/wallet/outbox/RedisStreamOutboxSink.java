@@ -0,0 +1,46 @@
+package com.springten.wallet.outbox;
+
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends events to a Redis stream with XADD, capped to an approximate maximum length.
+ * Consumers read with consumer groups and deduplicate on the {@code id} field.
+ */
+public class RedisStreamOutboxSink implements OutboxSink {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String streamKey;
+    private final long maxLength;
+
+    public RedisStreamOutboxSink(StringRedisTemplate redisTemplate, String streamKey, long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.streamKey = streamKey;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String getName() {
+        return "redis-stream";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        for (OutboxMessage message : batch) {
+            MapRecord<String, String, String> record = StreamRecords.newRecord().in(streamKey).ofMap(Map.of(
+                "id", String.valueOf(message.id()),
+                "aggregateType", message.aggregateType(),
+                "aggregateId", message.aggregateId(),
+                "aggregateSeq", String.valueOf(message.aggregateSeq()),
+                "eventType", message.eventType(),
+                "payload", message.payload(),
+                "createdAt", message.createdAt().toString()));
+            redisTemplate.opsForStream().add(record);
+        }
+        redisTemplate.opsForStream().trim(streamKey, maxLength, true);
+    }
+}
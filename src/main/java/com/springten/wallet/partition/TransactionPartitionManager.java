@@ -0,0 +1,217 @@
+package com.springten.wallet.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintains monthly range partitions of {@code transactions} on created_at.
+ *
+ * Partitions are created a few months ahead so inserts never land in the
+ * default partition, and partitions that ended more than the retention ago are
+ * detached (kept as plain tables for offline export) or dropped, and their
+ * hashes leave the transaction_hashes uniqueness table. History reads
+ * use {@link #historyWindows} to query one month at a time so PostgreSQL can
+ * prune every other partition.
+ *
+ * The table has to be converted once with db/postgres/transactions_partitioned.sql.
+ * On any other database, or on an unconverted table, the manager stays inactive
+ * and history reads use the single-table query.
+ */
+public class TransactionPartitionManager {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionManager.class);
+    
+    static final String PARENT_TABLE = "transactions";
+    static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    static final String HASH_TABLE = "transaction_hashes";
+    static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    public enum RetentionMode { DETACH, DROP }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final RetentionMode retentionMode;
+    private final int maxHistoryWindows;
+    
+    private volatile boolean active;
+    private volatile YearMonth oldestMonth;
+    private boolean detected;
+    // Guards maintain(), which runs DDL; a ReentrantLock so a virtual thread waiting on it does not pin its carrier
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate, Clock clock, int premakeMonths,
+                                       int retentionMonths, RetentionMode retentionMode, int maxHistoryWindows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.retentionMode = retentionMode;
+        this.maxHistoryWindows = maxHistoryWindows;
+    }
+    
+    /**
+     * Create upcoming partitions and apply retention; a no-op when partitioning is not available
+     */
+    @Scheduled(fixedDelayString = "${partition.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        maintenanceLock.lock();
+        try {
+            if (!detected) {
+                active = detect();
+                detected = true;
+            }
+            if (!active) {
+                return;
+            }
+            
+            YearMonth current = YearMonth.now(clock);
+            for (int i = 0; i <= premakeMonths; i++) {
+                createPartition(current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                for (YearMonth month : expired(listPartitions(), current, retentionMonths)) {
+                    retire(month);
+                }
+            }
+            oldestMonth = listPartitions().stream().min(Comparator.naturalOrder()).orElse(current);
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    /**
+     * Inclusive lower bounds for reading history newest-first below {@code upperBound}
+     * (null for now): one per month back to the oldest partition, at most the configured
+     * number, with a final null meaning "everything older" (the oldest and default partitions)
+     */
+    public List<LocalDateTime> historyWindows(LocalDateTime upperBound) {
+        YearMonth month = upperBound == null ? YearMonth.now(clock) : YearMonth.from(upperBound);
+        return windows(month, oldestMonth, maxHistoryWindows);
+    }
+    
+    static List<LocalDateTime> windows(YearMonth start, YearMonth oldest, int maxWindows) {
+        List<LocalDateTime> bounds = new ArrayList<>();
+        YearMonth month = start;
+        while (bounds.size() < maxWindows - 1 && oldest != null && month.isAfter(oldest)) {
+            bounds.add(month.atDay(1).atStartOfDay());
+            month = month.minusMonths(1);
+        }
+        bounds.add(null);
+        return bounds;
+    }
+    
+    /**
+     * Months whose partition ended at least {@code retentionMonths} before the current month started
+     */
+    static List<YearMonth> expired(List<YearMonth> partitions, YearMonth current, int retentionMonths) {
+        YearMonth firstKept = current.minusMonths(retentionMonths);
+        return partitions.stream().filter(month -> month.isBefore(firstKept)).sorted().toList();
+    }
+    
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX);
+    }
+    
+    static YearMonth parseMonth(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private boolean detect() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            log.info("Transaction partitioning is not available on {}, using a single table", product);
+            return false;
+        }
+        List<String> kind = jdbcTemplate.queryForList(
+            "select c.relkind::text from pg_class c join pg_namespace n on n.oid = c.relnamespace " +
+            "where c.relname = ? and n.nspname = current_schema()", String.class, PARENT_TABLE);
+        if (!kind.equals(List.of("p"))) {
+            log.warn("Table {} is not partitioned; run db/postgres/transactions_partitioned.sql to enable " +
+                "monthly partitions", PARENT_TABLE);
+            return false;
+        }
+        return true;
+    }
+    
+    private List<YearMonth> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "select c.relname::text from pg_inherits i " +
+            "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent " +
+            "join pg_namespace n on n.oid = p.relnamespace " +
+            "where p.relname = ? and n.nspname = current_schema()", String.class, PARENT_TABLE)
+            .stream()
+            .map(TransactionPartitionManager::parseMonth)
+            .filter(month -> month != null)
+            .toList();
+    }
+    
+    private void createPartition(YearMonth month) {
+        // Names and bounds come from YearMonth, never from input, so inlining them is safe
+        String sql = "create table if not exists " + partitionName(month) + " partition of " + PARENT_TABLE +
+            " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Typically rows for this month already sit in the default partition
+            log.warn("Could not create partition {}: {}", partitionName(month), e.getMessage());
+        }
+    }
+    
+    private void retire(YearMonth month) {
+        String name = partitionName(month);
+        try {
+            jdbcTemplate.execute("alter table " + PARENT_TABLE + " detach partition " + name);
+            if (retentionMode == RetentionMode.DROP) {
+                jdbcTemplate.execute("drop table " + name);
+                log.info("Dropped transaction partition {}", name);
+            } else {
+                log.info("Detached transaction partition {}", name);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not retire partition {}: {}", name, e.getMessage());
+            return;
+        }
+        forgetHashes(month);
+    }
+    
+    /**
+     * Free the hashes of a retired month, as deleting its rows would have
+     */
+    private void forgetHashes(YearMonth month) {
+        try {
+            int forgotten = jdbcTemplate.update("delete from " + HASH_TABLE + " where created_at >= ? and created_at < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+            log.debug("Removed {} hashes of retired partition {}", forgotten, partitionName(month));
+        } catch (DataAccessException e) {
+            log.warn("Could not remove the hashes of retired partition {}: {}", partitionName(month), e.getMessage());
+        }
+    }
+}
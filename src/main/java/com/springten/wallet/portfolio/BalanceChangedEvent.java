@@ -0,0 +1,10 @@
+package com.springten.wallet.portfolio;
+
+import java.math.BigDecimal;
+
+/**
+ * A wallet's balance of one token was set to a new absolute value
+ */
+public record BalanceChangedEvent(Long walletId, String walletAddress, Long tokenId, String tokenSymbol,
+                                  BigDecimal balance, BigDecimal priceUsd) {
+}
@@ -0,0 +1,340 @@
+package com.springten.wallet.portfolio;
+
+import com.springten.wallet.balance.TokenBalanceWriteBuffer;
+import com.springten.wallet.cache.CacheInvalidationBus;
+import com.springten.wallet.repository.TokenBalanceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory read model holding each wallet's per-token USD values and total.
+ *
+ * Balance and price events are applied as deltas: only the affected position is
+ * revalued and the wallet total is adjusted by the difference. A token-to-wallets
+ * index limits a price change to the wallets that hold the token. Events raised
+ * on this node are passed to the other nodes over the invalidation bus; an event
+ * lost on the way (or any node when Redis is disabled) stays stale until the next
+ * consistency check, at most {@code portfolio.consistency-interval-ms} later.
+ *
+ * The consistency check recomputes the wallets from the database one page of
+ * wallet ids at a time and repairs any drift, skipping wallets that changed while
+ * their page was being read.
+ */
+@Component
+public class PortfolioProjection {
+    
+    private static final Logger log = LoggerFactory.getLogger(PortfolioProjection.class);
+    
+    public static final String BALANCE_CHANNEL = "portfolio-balances";
+    public static final String PRICE_CHANNEL = "portfolio-prices";
+    
+    private static final int VALUE_SCALE = 18;
+    
+    private final TokenBalanceRepository tokenBalanceRepository;
+    private final TokenBalanceWriteBuffer writeBuffer;
+    private final CacheInvalidationBus invalidationBus;
+    private final int pageSize;
+    private final Counter driftCounter;
+    
+    private final Map<Long, WalletPortfolio> portfolios = new ConcurrentHashMap<>();
+    private final Map<String, Long> walletIdsByAddress = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> walletsByToken = new ConcurrentHashMap<>();
+    private final Map<Long, BigDecimal> prices = new ConcurrentHashMap<>();
+    
+    // Bumped on every price event so a rebuild can tell that its prices went stale
+    private final AtomicLong priceEpoch = new AtomicLong();
+    
+    public PortfolioProjection(TokenBalanceRepository tokenBalanceRepository, TokenBalanceWriteBuffer writeBuffer,
+                               CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                               @Value("${portfolio.consistency-page-size:1000}") int pageSize) {
+        this.tokenBalanceRepository = tokenBalanceRepository;
+        this.writeBuffer = writeBuffer;
+        this.invalidationBus = invalidationBus;
+        this.pageSize = pageSize;
+        this.driftCounter = Counter.builder("springten.portfolio.drift")
+            .description("Wallets repaired by the portfolio consistency check")
+            .register(meterRegistry);
+        invalidationBus.subscribe(BALANCE_CHANNEL, this::onRemoteBalance);
+        invalidationBus.subscribe(PRICE_CHANNEL, this::onRemotePrice);
+    }
+    
+    /**
+     * Get the current portfolio of a wallet; wallets without balances are empty
+     */
+    public PortfolioSnapshot get(String walletAddress) {
+        Long walletId = walletIdsByAddress.get(walletAddress);
+        WalletPortfolio portfolio = walletId != null ? portfolios.get(walletId) : null;
+        return portfolio != null ? portfolio.snapshot : PortfolioSnapshot.empty(walletAddress);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        applyBalance(event);
+        invalidationBus.publish(BALANCE_CHANNEL, String.join("|", String.valueOf(event.walletId()),
+            event.walletAddress(), String.valueOf(event.tokenId()), event.tokenSymbol(),
+            event.balance().toPlainString(), event.priceUsd() != null ? event.priceUsd().toPlainString() : ""));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(PriceChangedEvent event) {
+        applyPrice(event);
+        invalidationBus.publish(PRICE_CHANNEL, String.join("|", String.valueOf(event.tokenId()),
+            event.tokenSymbol(), event.priceUsd().toPlainString()));
+    }
+    
+    private void onRemoteBalance(String message) {
+        String[] fields = message.split("\\|", -1);
+        if (fields.length == 6) {
+            applyBalance(new BalanceChangedEvent(Long.valueOf(fields[0]), fields[1], Long.valueOf(fields[2]),
+                fields[3], new BigDecimal(fields[4]), fields[5].isEmpty() ? null : new BigDecimal(fields[5])));
+        }
+    }
+    
+    private void onRemotePrice(String message) {
+        String[] fields = message.split("\\|", -1);
+        if (fields.length == 3) {
+            applyPrice(new PriceChangedEvent(Long.valueOf(fields[0]), fields[1], new BigDecimal(fields[2])));
+        }
+    }
+    
+    private void applyBalance(BalanceChangedEvent event) {
+        walletIdsByAddress.put(event.walletAddress(), event.walletId());
+        if (event.priceUsd() != null) {
+            prices.putIfAbsent(event.tokenId(), event.priceUsd());
+        }
+        
+        WalletPortfolio portfolio = portfolios.computeIfAbsent(event.walletId(),
+            id -> new WalletPortfolio(event.walletAddress()));
+        synchronized (portfolio) {
+            portfolio.apply(value(event.tokenId(), event.tokenSymbol(), event.balance(),
+                prices.getOrDefault(event.tokenId(), BigDecimal.ZERO)));
+        }
+        
+        if (event.balance().signum() == 0) {
+            Set<Long> holders = walletsByToken.get(event.tokenId());
+            if (holders != null) {
+                holders.remove(event.walletId());
+            }
+        } else {
+            walletsByToken.computeIfAbsent(event.tokenId(), id -> ConcurrentHashMap.newKeySet()).add(event.walletId());
+        }
+    }
+    
+    private void applyPrice(PriceChangedEvent event) {
+        priceEpoch.incrementAndGet();
+        prices.put(event.tokenId(), event.priceUsd());
+        
+        Set<Long> holders = walletsByToken.get(event.tokenId());
+        if (holders == null) {
+            return;
+        }
+        for (Long walletId : holders) {
+            WalletPortfolio portfolio = portfolios.get(walletId);
+            if (portfolio == null) {
+                continue;
+            }
+            synchronized (portfolio) {
+                PortfolioSnapshot.Position current = portfolio.positions.get(event.tokenId());
+                if (current != null) {
+                    // Read the price under the lock so racing price events settle on the latest one
+                    portfolio.apply(value(current.tokenId(), current.tokenSymbol(), current.balance(),
+                        prices.get(event.tokenId())));
+                }
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${portfolio.consistency-interval-ms:600000}",
+               initialDelayString = "${portfolio.consistency-initial-delay-ms:0}")
+    public void verify() {
+        int repaired = rebuild();
+        if (repaired > 0) {
+            log.warn("Portfolio consistency check repaired {} wallets", repaired);
+        }
+    }
+    
+    /**
+     * Recompute every wallet from the database, a page of wallet ids at a time, and
+     * replace those that differ. Returns the number of wallets repaired.
+     */
+    public int rebuild() {
+        Map<Long, Long> versionsBefore = new HashMap<>();
+        portfolios.forEach((walletId, portfolio) -> versionsBefore.put(walletId, portfolio.version));
+        // Updates applied before the versions were taken must be visible to the queries below
+        writeBuffer.flush();
+        
+        int repaired = 0;
+        long afterWalletId = 0;
+        List<Long> walletIds;
+        do {
+            walletIds = tokenBalanceRepository.findWalletIdsAfter(afterWalletId, PageRequest.of(0, pageSize));
+            if (walletIds.isEmpty()) {
+                break;
+            }
+            afterWalletId = walletIds.get(walletIds.size() - 1);
+            repaired += rebuildPage(walletIds, versionsBefore);
+        } while (walletIds.size() == pageSize);
+        
+        // Wallets whose balances all disappeared from the database; rebuildPage removed the rest
+        for (Map.Entry<Long, Long> entry : versionsBefore.entrySet()) {
+            repaired += reconcile(entry.getKey(), List.of(), entry.getValue());
+        }
+        
+        driftCounter.increment(repaired);
+        return repaired;
+    }
+    
+    private int rebuildPage(List<Long> walletIds, Map<Long, Long> versionsBefore) {
+        Map<Long, Long> expectedVersions = new HashMap<>();
+        for (Long walletId : walletIds) {
+            Long version = versionsBefore.remove(walletId);
+            expectedVersions.put(walletId, version != null ? version : 0L);
+        }
+        
+        long epoch = priceEpoch.get();
+        Map<Long, List<PositionRow>> rowsByWallet = tokenBalanceRepository.findPositions(walletIds).stream()
+            .collect(Collectors.groupingBy(PositionRow::walletId));
+        
+        if (priceEpoch.get() != epoch) {
+            // Prices moved while reading; the events already applied them, so retry next run
+            log.debug("Skipping a portfolio consistency page: prices changed while it was read");
+            return 0;
+        }
+        rowsByWallet.values().forEach(rows -> rows.forEach(row -> {
+            if (row.priceUsd() != null) {
+                prices.put(row.tokenId(), row.priceUsd());
+            }
+        }));
+        
+        return rowsByWallet.entrySet().parallelStream()
+            .mapToInt(entry -> reconcile(entry.getKey(), entry.getValue(), expectedVersions.get(entry.getKey())))
+            .sum();
+    }
+    
+    private int reconcile(Long walletId, List<PositionRow> rows, long expectedVersion) {
+        Map<Long, PortfolioSnapshot.Position> fresh = new HashMap<>();
+        String walletAddress = null;
+        for (PositionRow row : rows) {
+            walletAddress = row.walletAddress();
+            if (row.balance() != null && row.balance().signum() != 0) {
+                fresh.put(row.tokenId(), value(row.tokenId(), row.tokenSymbol(), row.balance(),
+                    row.priceUsd() != null ? row.priceUsd() : BigDecimal.ZERO));
+            }
+        }
+        
+        String address = walletAddress;
+        WalletPortfolio portfolio = address != null
+            ? portfolios.computeIfAbsent(walletId, id -> new WalletPortfolio(address))
+            : portfolios.get(walletId);
+        if (portfolio == null) {
+            return 0;
+        }
+        if (address != null) {
+            walletIdsByAddress.put(address, walletId);
+        }
+        
+        Set<Long> previousTokens;
+        synchronized (portfolio) {
+            if (portfolio.version != expectedVersion) {
+                // An event updated this wallet after the rows were read
+                return 0;
+            }
+            previousTokens = Set.copyOf(portfolio.positions.keySet());
+            for (Long tokenId : fresh.keySet()) {
+                walletsByToken.computeIfAbsent(tokenId, id -> ConcurrentHashMap.newKeySet()).add(walletId);
+            }
+            if (portfolio.matches(fresh)) {
+                return 0;
+            }
+            portfolio.replace(fresh);
+        }
+        
+        for (Long tokenId : previousTokens) {
+            if (!fresh.containsKey(tokenId)) {
+                Set<Long> holders = walletsByToken.get(tokenId);
+                if (holders != null) {
+                    holders.remove(walletId);
+                }
+            }
+        }
+        return 1;
+    }
+    
+    private static PortfolioSnapshot.Position value(Long tokenId, String tokenSymbol, BigDecimal balance,
+                                                    BigDecimal priceUsd) {
+        BigDecimal valueUsd = balance.multiply(priceUsd).setScale(VALUE_SCALE, RoundingMode.HALF_EVEN);
+        return new PortfolioSnapshot.Position(tokenId, tokenSymbol, balance, priceUsd, valueUsd);
+    }
+    
+    /**
+     * Mutable state of one wallet, guarded by its own monitor; readers only see the snapshot
+     */
+    private static final class WalletPortfolio {
+        
+        private final String walletAddress;
+        private final Map<Long, PortfolioSnapshot.Position> positions = new HashMap<>();
+        private BigDecimal total = BigDecimal.ZERO;
+        private volatile long version;
+        private volatile PortfolioSnapshot snapshot;
+        
+        private WalletPortfolio(String walletAddress) {
+            this.walletAddress = walletAddress;
+            this.snapshot = PortfolioSnapshot.empty(walletAddress);
+        }
+        
+        private void apply(PortfolioSnapshot.Position next) {
+            PortfolioSnapshot.Position previous = next.balance().signum() == 0
+                ? positions.remove(next.tokenId())
+                : positions.put(next.tokenId(), next);
+            BigDecimal previousValue = previous != null ? previous.valueUsd() : BigDecimal.ZERO;
+            BigDecimal nextValue = next.balance().signum() == 0 ? BigDecimal.ZERO : next.valueUsd();
+            total = total.add(nextValue.subtract(previousValue));
+            publish();
+        }
+        
+        private void replace(Map<Long, PortfolioSnapshot.Position> fresh) {
+            positions.clear();
+            positions.putAll(fresh);
+            total = fresh.values().stream().map(PortfolioSnapshot.Position::valueUsd)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            publish();
+        }
+        
+        private boolean matches(Map<Long, PortfolioSnapshot.Position> fresh) {
+            if (fresh.size() != positions.size()) {
+                return false;
+            }
+            for (PortfolioSnapshot.Position expected : fresh.values()) {
+                PortfolioSnapshot.Position actual = positions.get(expected.tokenId());
+                if (actual == null
+                        || actual.balance().compareTo(expected.balance()) != 0
+                        || actual.valueUsd().compareTo(expected.valueUsd()) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private void publish() {
+            version++;
+            snapshot = new PortfolioSnapshot(walletAddress, total, List.copyOf(positions.values()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.springten.wallet.portfolio;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Immutable view of one wallet's portfolio, replaced as a whole on every change
+ */
+public record PortfolioSnapshot(String walletAddress, BigDecimal totalValueUsd, List<Position> positions) {
+
+    public static PortfolioSnapshot empty(String walletAddress) {
+        return new PortfolioSnapshot(walletAddress, BigDecimal.ZERO, List.of());
+    }
+
+    public record Position(Long tokenId, String tokenSymbol, BigDecimal balance, BigDecimal priceUsd,
+                           BigDecimal valueUsd) {
+    }
+}
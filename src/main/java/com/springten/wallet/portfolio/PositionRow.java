@@ -0,0 +1,10 @@
+package com.springten.wallet.portfolio;
+
+import java.math.BigDecimal;
+
+/**
+ * One token balance joined with its price, as read by the consistency check
+ */
+public record PositionRow(Long walletId, String walletAddress, Long tokenId, String tokenSymbol,
+                          BigDecimal balance, BigDecimal priceUsd) {
+}
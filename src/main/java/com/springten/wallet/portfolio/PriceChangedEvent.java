@@ -0,0 +1,9 @@
+package com.springten.wallet.portfolio;
+
+import java.math.BigDecimal;
+
+/**
+ * A token's USD price was set to a new value
+ */
+public record PriceChangedEvent(Long tokenId, String tokenSymbol, BigDecimal priceUsd) {
+}
@@ -0,0 +1,10 @@
+package com.springten.wallet.price;
+
+import java.math.BigDecimal;
+
+/**
+ * OHLC prices in USD for the interval starting at openTime (epoch millis)
+ */
+public record Candle(long openTime, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                     int ticks) {
+}
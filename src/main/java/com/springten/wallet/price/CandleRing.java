@@ -0,0 +1,113 @@
+package com.springten.wallet.price;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring of OHLC candles for one resolution, stored column-wise in
+ * primitive arrays. The slot for a bucket is its index modulo the capacity, so
+ * the ring always covers the most recent {@code capacity} intervals and older
+ * candles are overwritten in place. Prices are fixed-point longs.
+ *
+ * Not thread-safe; {@link PriceSeries} serializes access.
+ */
+class CandleRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long widthMillis;
+    private final int capacity;
+    private final long[] bucket;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] closeTime;
+    private final int[] ticks;
+    private long latestBucket = EMPTY;
+
+    CandleRing(Resolution resolution, int capacity) {
+        this.widthMillis = resolution.getMillis();
+        this.capacity = capacity;
+        this.bucket = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.closeTime = new long[capacity];
+        this.ticks = new int[capacity];
+        Arrays.fill(bucket, EMPTY);
+    }
+
+    static long bytesFor(int capacity) {
+        return capacity * (6L * Long.BYTES + Integer.BYTES);
+    }
+
+    void add(long timestamp, long price) {
+        long b = Math.floorDiv(timestamp, widthMillis);
+        if (latestBucket != EMPTY && b <= latestBucket - capacity) {
+            // Older than the retention window
+            return;
+        }
+        int slot = (int) Math.floorMod(b, (long) capacity);
+        if (bucket[slot] != b) {
+            bucket[slot] = b;
+            open[slot] = price;
+            high[slot] = price;
+            low[slot] = price;
+            close[slot] = price;
+            closeTime[slot] = timestamp;
+            ticks[slot] = 1;
+        } else {
+            if (price > high[slot]) {
+                high[slot] = price;
+            }
+            if (price < low[slot]) {
+                low[slot] = price;
+            }
+            if (timestamp >= closeTime[slot]) {
+                close[slot] = price;
+                closeTime[slot] = timestamp;
+            }
+            ticks[slot]++;
+        }
+        if (latestBucket == EMPTY || b > latestBucket) {
+            latestBucket = b;
+        }
+    }
+
+    /**
+     * Drop the lowest digits of every stored price when the series lowers its scale
+     */
+    void rescale(int droppedDigits) {
+        for (int slot = 0; slot < capacity; slot++) {
+            open[slot] = PriceSeries.rescale(open[slot], droppedDigits);
+            high[slot] = PriceSeries.rescale(high[slot], droppedDigits);
+            low[slot] = PriceSeries.rescale(low[slot], droppedDigits);
+            close[slot] = PriceSeries.rescale(close[slot], droppedDigits);
+        }
+    }
+
+    /**
+     * Candles whose interval starts within [from, to], oldest first; touches at most capacity slots
+     */
+    List<Candle> range(long fromMillis, long toMillis, int scale) {
+        List<Candle> result = new ArrayList<>();
+        if (latestBucket == EMPTY) {
+            return result;
+        }
+        long first = Math.max(Math.floorDiv(fromMillis, widthMillis), latestBucket - capacity + 1);
+        long last = Math.min(Math.floorDiv(toMillis, widthMillis), latestBucket);
+        for (long b = first; b <= last; b++) {
+            int slot = (int) Math.floorMod(b, (long) capacity);
+            if (bucket[slot] == b && b * widthMillis >= fromMillis) {
+                result.add(new Candle(b * widthMillis,
+                    PriceSeries.toDecimal(open[slot], scale), PriceSeries.toDecimal(high[slot], scale),
+                    PriceSeries.toDecimal(low[slot], scale), PriceSeries.toDecimal(close[slot], scale),
+                    ticks[slot]));
+            }
+        }
+        return result;
+    }
+}
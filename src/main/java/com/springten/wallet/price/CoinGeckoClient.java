@@ -0,0 +1,82 @@
+package com.springten.wallet.price;
+
+import com.springten.wallet.resilience.ResilienceRegistry;
+import com.springten.wallet.resilience.ResiliencePolicy;
+import com.springten.wallet.resilience.ResilienceSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client for the CoinGecko {@code /simple/price} endpoint, which accepts many
+ * coin ids per request. Calls go through the price-api bulkhead, whose deadline
+ * defaults to coingecko.api.timeout-ms.
+ */
+@Component
+public class CoinGeckoClient {
+    
+    private static final ParameterizedTypeReference<Map<String, Map<String, BigDecimal>>> RESPONSE_TYPE =
+        new ParameterizedTypeReference<>() {};
+    
+    private final WebClient webClient;
+    private final ResiliencePolicy priceApi;
+    
+    public CoinGeckoClient(WebClient.Builder webClientBuilder, ResilienceRegistry resilience,
+                           @Value("${coingecko.api.base-url}") String baseUrl,
+                           @Value("${coingecko.api.key:}") String apiKey,
+                           @Value("${coingecko.api.key-header:x-cg-demo-api-key}") String apiKeyHeader,
+                           @Value("${coingecko.api.timeout-ms:5000}") long timeoutMillis) {
+        WebClient.Builder builder = webClientBuilder.clone().baseUrl(baseUrl);
+        if (!apiKey.isBlank()) {
+            builder.defaultHeader(apiKeyHeader, apiKey);
+        }
+        this.webClient = builder.build();
+        this.priceApi = resilience.policy("price-api", ResilienceSpec.of(4, 0, timeoutMillis));
+    }
+    
+    /**
+     * Fetch USD quotes for the given coin ids in one request; unknown ids are absent from the result
+     */
+    public Mono<Map<String, PriceQuote>> fetchQuotes(Collection<String> coingeckoIds) {
+        if (coingeckoIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Mono.fromFuture(() -> priceApi.executeAsync(() -> webClient.get()
+                .uri(uri -> uri.path("/simple/price")
+                    .queryParam("ids", String.join(",", coingeckoIds))
+                    .queryParam("vs_currencies", "usd")
+                    .queryParam("include_market_cap", "true")
+                    .queryParam("include_24hr_vol", "true")
+                    .queryParam("include_24hr_change", "true")
+                    .build())
+                .retrieve()
+                .bodyToMono(RESPONSE_TYPE)
+                .toFuture()))
+            .map(CoinGeckoClient::toQuotes);
+    }
+    
+    public ResiliencePolicy getResiliencePolicy() {
+        return priceApi;
+    }
+    
+    private static Map<String, PriceQuote> toQuotes(Map<String, Map<String, BigDecimal>> body) {
+        Instant fetchedAt = Instant.now();
+        Map<String, PriceQuote> quotes = new HashMap<>(body.size() * 2);
+        body.forEach((id, fields) -> {
+            BigDecimal price = fields.get("usd");
+            if (price != null) {
+                quotes.put(id, new PriceQuote(id, price, fields.get("usd_market_cap"),
+                    fields.get("usd_24h_vol"), fields.get("usd_24h_change"), fetchedAt));
+            }
+        });
+        return quotes;
+    }
+}
@@ -0,0 +1,261 @@
+package com.springten.wallet.price;
+
+import com.springten.wallet.model.Token;
+import com.springten.wallet.repository.TokenRepository;
+import com.springten.wallet.resilience.CallRejectedException;
+import com.springten.wallet.service.TokenService;
+import com.springten.wallet.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps token market data current from CoinGecko.
+ *
+ * A scheduled refresh fetches every active token in multi-id batches. On-demand
+ * lookups of a stale symbol share one in-flight request per symbol. Fetched
+ * quotes go into the {@link PriceTable}, the {@link PriceHistoryStore} and the
+ * {@link PriceStreamService} immediately and are written to the
+ * tokens table in JDBC batches by {@link #flush()}.
+ */
+@Service
+public class PriceFeedService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceFeedService.class);
+    
+    private static final String UPDATE_SQL =
+        "update tokens set current_price_usd = ?, " +
+        "market_cap_usd = coalesce(?, market_cap_usd), " +
+        "volume_24h_usd = coalesce(?, volume_24h_usd), " +
+        "price_change_24h_percent = coalesce(?, price_change_24h_percent), " +
+        "updated_at = ? where id = ?";
+    
+    private final CoinGeckoClient coinGeckoClient;
+    private final PriceTable priceTable;
+    private final PriceHistoryStore priceHistory;
+    private final PriceStreamService priceStream;
+    private final TokenRepository tokenRepository;
+    private final TokenService tokenService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration maxAge;
+    
+    private final Map<String, TrackedToken> tokensBySymbol = new ConcurrentHashMap<>();
+    private final Map<String, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final SingleFlight<String, PriceQuote> inFlight = new SingleFlight<>();
+    // Held across the JDBC batch, so not a monitor: a virtual thread blocked in synchronized pins its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    public PriceFeedService(CoinGeckoClient coinGeckoClient, PriceTable priceTable, PriceHistoryStore priceHistory,
+                            PriceStreamService priceStream, TokenRepository tokenRepository,
+                            TokenService tokenService, JdbcTemplate jdbcTemplate,
+                            @Value("${price.feed.enabled:false}") boolean enabled,
+                            @Value("${price.feed.batch-size:250}") int batchSize,
+                            @Value("${price.feed.max-age-ms:60000}") long maxAgeMillis) {
+        this.coinGeckoClient = coinGeckoClient;
+        this.priceTable = priceTable;
+        this.priceHistory = priceHistory;
+        this.priceStream = priceStream;
+        this.tokenRepository = tokenRepository;
+        this.tokenService = tokenService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+    }
+    
+    @Scheduled(fixedDelayString = "${price.feed.refresh-interval-ms:60000}",
+               initialDelayString = "${price.feed.initial-delay-ms:5000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refreshAll();
+        } catch (Exception e) {
+            log.warn("Price refresh failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Fetch quotes for every active token with a CoinGecko id and persist them.
+     * Returns the number of tokens updated; a failed batch is skipped until the next run.
+     */
+    public int refreshAll() {
+        Map<String, TrackedToken> byCoingeckoId = new ConcurrentHashMap<>();
+        for (Token token : tokenRepository.findByIsActive(true)) {
+            if (token.getCoingeckoId() != null && !token.getCoingeckoId().isBlank()) {
+                TrackedToken tracked = new TrackedToken(token.getId(), token.getSymbol(), token.getCoingeckoId());
+                byCoingeckoId.put(tracked.coingeckoId(), tracked);
+                tokensBySymbol.put(tracked.symbol(), tracked);
+            }
+        }
+        
+        List<String> ids = new ArrayList<>(byCoingeckoId.keySet());
+        int fetched = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                Map<String, PriceQuote> quotes = coinGeckoClient.fetchQuotes(batch).block();
+                if (quotes != null) {
+                    quotes.forEach((id, quote) -> record(byCoingeckoId.get(id), quote));
+                    fetched += quotes.size();
+                }
+            } catch (Exception e) {
+                log.warn("Price batch of {} ids failed: {}", batch.size(), e.getMessage());
+            }
+        }
+        flush();
+        return fetched;
+    }
+    
+    /**
+     * Get a quote no older than the configured max age, fetching it if needed.
+     * Concurrent lookups of the same symbol share one request. While the price API
+     * rejects calls, a stale quote is served if there is one.
+     */
+    public CompletableFuture<PriceQuote> getQuote(String symbol) {
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        PriceQuote cached = priceTable.get(key);
+        if (cached != null && cached.isFresherThan(Instant.now().minus(maxAge))) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        return inFlight.execute(key, () -> {
+            TrackedToken token = resolve(key);
+            return coinGeckoClient.fetchQuotes(List.of(token.coingeckoId()))
+                .map(quotes -> {
+                    PriceQuote quote = quotes.get(token.coingeckoId());
+                    if (quote == null) {
+                        throw new IllegalStateException("No price available for " + key);
+                    }
+                    record(token, quote);
+                    return quote;
+                })
+                .toFuture();
+        }).exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CallRejectedException && cached != null) {
+                coinGeckoClient.getResiliencePolicy().recordFallback();
+                return CompletableFuture.completedFuture(cached);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+    
+    /**
+     * Write all pending quotes to the database in one JDBC batch and announce changed prices
+     */
+    @Scheduled(fixedDelayString = "${price.feed.flush-interval-ms:5000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    private int flushPending() {
+        List<PendingWrite> drained = new ArrayList<>(pendingWrites.size());
+        for (String symbol : pendingWrites.keySet()) {
+            PendingWrite pending = pendingWrites.remove(symbol);
+            if (pending != null) {
+                drained.add(pending);
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, drained, batchSize, (ps, pending) -> {
+                PriceQuote quote = pending.quote();
+                ps.setBigDecimal(1, quote.priceUsd());
+                ps.setBigDecimal(2, quote.marketCapUsd());
+                ps.setBigDecimal(3, quote.volume24hUsd());
+                ps.setBigDecimal(4, quote.priceChange24hPercent());
+                ps.setTimestamp(5, Timestamp.from(quote.fetchedAt()));
+                ps.setLong(6, pending.token().id());
+            });
+        } catch (DataAccessException e) {
+            // Hand the quotes back unless a newer one arrived meanwhile; the updates are safe to repeat
+            for (PendingWrite pending : drained) {
+                pendingWrites.merge(pending.token().symbol(), pending, PriceFeedService::latest);
+            }
+            log.warn("Writing {} quotes failed, will retry on the next flush: {}", drained.size(), e.getMessage());
+            return 0;
+        }
+        
+        for (PendingWrite pending : drained) {
+            if (pending.priceChanged()) {
+                tokenService.publishPrice(pending.token().id(), pending.token().symbol(), pending.quote().priceUsd());
+            }
+        }
+        return drained.size();
+    }
+    
+    public long getCoalescedLookupCount() {
+        return inFlight.getCoalescedCount();
+    }
+    
+    private void record(TrackedToken token, PriceQuote quote) {
+        if (token == null) {
+            return;
+        }
+        PriceQuote previous = priceTable.get(token.symbol());
+        boolean priceChanged = previous == null || previous.priceUsd().compareTo(quote.priceUsd()) != 0;
+        priceTable.put(token.symbol(), quote);
+        priceHistory.append(token.symbol(), quote.fetchedAt().toEpochMilli(), quote.priceUsd());
+        priceStream.publish(token.symbol(), quote);
+        pendingWrites.merge(token.symbol(), new PendingWrite(token, quote, priceChanged), PriceFeedService::latest);
+    }
+    
+    /**
+     * Keep the most recent quote, and announce it if either write changed the price
+     */
+    private static PendingWrite latest(PendingWrite current, PendingWrite next) {
+        return new PendingWrite(current.token(),
+            next.quote().fetchedAt().isBefore(current.quote().fetchedAt()) ? current.quote() : next.quote(),
+            current.priceChanged() || next.priceChanged());
+    }
+    
+    private TrackedToken resolve(String symbol) {
+        TrackedToken tracked = tokensBySymbol.get(symbol);
+        if (tracked != null) {
+            return tracked;
+        }
+        Token token = tokenRepository.findBySymbol(symbol)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown token: " + symbol));
+        if (token.getCoingeckoId() == null || token.getCoingeckoId().isBlank()) {
+            throw new IllegalArgumentException("Token " + symbol + " has no CoinGecko id");
+        }
+        tracked = new TrackedToken(token.getId(), token.getSymbol(), token.getCoingeckoId());
+        tokensBySymbol.put(symbol, tracked);
+        return tracked;
+    }
+    
+    private record TrackedToken(Long id, String symbol, String coingeckoId) {
+    }
+    
+    private record PendingWrite(TrackedToken token, PriceQuote quote, boolean priceChanged) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.springten.wallet.price;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price history per token symbol, fed by the price feed and read by the chart endpoint.
+ * The number of series is capped so total memory is bounded as well.
+ */
+@Component
+public class PriceHistoryStore {
+    
+    private final ConcurrentHashMap<String, PriceSeries> series = new ConcurrentHashMap<>();
+    private final int tickCapacity;
+    private final Map<Resolution, Integer> candleCapacities = new EnumMap<>(Resolution.class);
+    private final int maxSeries;
+    
+    public PriceHistoryStore(@Value("${price.history.ticks-per-token:1024}") int tickCapacity,
+                             @Value("${price.history.minute-candles:1440}") int minuteCandles,
+                             @Value("${price.history.hour-candles:720}") int hourCandles,
+                             @Value("${price.history.day-candles:365}") int dayCandles,
+                             @Value("${price.history.max-tokens:2000}") int maxSeries) {
+        this.tickCapacity = tickCapacity;
+        this.candleCapacities.put(Resolution.ONE_MINUTE, minuteCandles);
+        this.candleCapacities.put(Resolution.ONE_HOUR, hourCandles);
+        this.candleCapacities.put(Resolution.ONE_DAY, dayCandles);
+        this.maxSeries = maxSeries;
+    }
+    
+    /**
+     * Record a price; ignored once the token cap is reached for symbols not yet tracked
+     */
+    public void append(String symbol, long timestamp, BigDecimal priceUsd) {
+        PriceSeries existing = series.get(symbol);
+        if (existing == null) {
+            if (series.size() >= maxSeries) {
+                return;
+            }
+            existing = series.computeIfAbsent(symbol, s -> new PriceSeries(tickCapacity, candleCapacities));
+        }
+        existing.append(timestamp, priceUsd);
+    }
+    
+    public List<Candle> candles(String symbol, Resolution resolution, long fromMillis, long toMillis) {
+        PriceSeries tokenSeries = series.get(symbol);
+        return tokenSeries != null ? tokenSeries.candles(resolution, fromMillis, toMillis) : List.of();
+    }
+    
+    public long bytesPerToken() {
+        return PriceSeries.bytesPerSeries(tickCapacity, candleCapacities);
+    }
+    
+    public int size() {
+        return series.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.springten.wallet.price;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Market data for one token as last fetched from CoinGecko
+ */
+public record PriceQuote(String coingeckoId, BigDecimal priceUsd, BigDecimal marketCapUsd,
+                         BigDecimal volume24hUsd, BigDecimal priceChange24hPercent, Instant fetchedAt) {
+
+    public boolean isFresherThan(Instant threshold) {
+        return fetchedAt.isAfter(threshold);
+    }
+}
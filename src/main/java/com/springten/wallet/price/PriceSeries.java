@@ -0,0 +1,113 @@
+package com.springten.wallet.price;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price history of one token: a ring of raw ticks plus a candle ring per
+ * resolution, each updated in O(1) as ticks arrive. All storage is allocated
+ * up front, so the footprint per token is fixed by the configured capacities.
+ *
+ * Prices are stored as fixed-point longs with a scale chosen per series from
+ * its first price, so a token worth a fraction of a cent keeps as many
+ * significant digits as one worth thousands. A price that outgrows the scale
+ * lowers it and rescales everything already stored.
+ */
+public class PriceSeries {
+
+    // Significant digits a fixed-point price may use; any 18-digit value fits in a long
+    static final int DIGITS = 18;
+    // Room for a price to grow a thousandfold before the series is rescaled
+    static final int HEADROOM_DIGITS = 3;
+    static final int MAX_SCALE = 30;
+
+    private final long[] tickTime;
+    private final long[] tickPrice;
+    private final Map<Resolution, CandleRing> candles = new EnumMap<>(Resolution.class);
+    private long tickCount;
+    private int scale;
+
+    public PriceSeries(int tickCapacity, Map<Resolution, Integer> candleCapacities) {
+        this.tickTime = new long[tickCapacity];
+        this.tickPrice = new long[tickCapacity];
+        for (Resolution resolution : Resolution.values()) {
+            candles.put(resolution, new CandleRing(resolution, candleCapacities.get(resolution)));
+        }
+    }
+
+    public static long bytesPerSeries(int tickCapacity, Map<Resolution, Integer> candleCapacities) {
+        long bytes = 2L * Long.BYTES * tickCapacity;
+        for (int capacity : candleCapacities.values()) {
+            bytes += CandleRing.bytesFor(capacity);
+        }
+        return bytes;
+    }
+
+    public synchronized void append(long timestamp, BigDecimal priceUsd) {
+        long price = toFixed(priceUsd);
+        int slot = (int) (tickCount % tickTime.length);
+        tickTime[slot] = timestamp;
+        tickPrice[slot] = price;
+        tickCount++;
+        for (CandleRing ring : candles.values()) {
+            ring.add(timestamp, price);
+        }
+    }
+
+    public synchronized List<Candle> candles(Resolution resolution, long fromMillis, long toMillis) {
+        return candles.get(resolution).range(fromMillis, toMillis, scale);
+    }
+
+    /**
+     * Raw ticks still held in the tick ring, oldest first
+     */
+    public synchronized List<Tick> recentTicks() {
+        int size = (int) Math.min(tickCount, tickTime.length);
+        List<Tick> result = new ArrayList<>(size);
+        for (long i = tickCount - size; i < tickCount; i++) {
+            int slot = (int) (i % tickTime.length);
+            result.add(new Tick(tickTime[slot], toDecimal(tickPrice[slot], scale)));
+        }
+        return result;
+    }
+
+    private long toFixed(BigDecimal price) {
+        if (tickCount == 0) {
+            scale = scaleFor(price);
+        }
+        BigDecimal fixed = price.setScale(scale, RoundingMode.HALF_EVEN);
+        if (fixed.precision() > DIGITS) {
+            int next = scaleFor(price);
+            int dropped = scale - next;
+            for (int i = 0; i < tickPrice.length; i++) {
+                tickPrice[i] = rescale(tickPrice[i], dropped);
+            }
+            for (CandleRing ring : candles.values()) {
+                ring.rescale(dropped);
+            }
+            scale = next;
+            fixed = price.setScale(scale, RoundingMode.HALF_EVEN);
+        }
+        return fixed.unscaledValue().longValueExact();
+    }
+
+    static int scaleFor(BigDecimal price) {
+        int integerDigits = price.precision() - price.scale();
+        return Math.min(MAX_SCALE, DIGITS - HEADROOM_DIGITS - integerDigits);
+    }
+
+    static long rescale(long fixed, int droppedDigits) {
+        return BigDecimal.valueOf(fixed, droppedDigits).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    static BigDecimal toDecimal(long fixed, int scale) {
+        return BigDecimal.valueOf(fixed, scale);
+    }
+
+    public record Tick(long timestamp, BigDecimal priceUsd) {
+    }
+}
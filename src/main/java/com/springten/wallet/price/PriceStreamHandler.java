@@ -0,0 +1,65 @@
+package com.springten.wallet.price;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebSocket endpoint for price updates. Clients send
+ * {@code {"action":"subscribe","symbols":["ETH","BTC"]}} or {@code "unsubscribe"} and
+ * receive one {@code "price"} message per symbol whenever its price changes.
+ */
+@Component
+public class PriceStreamHandler extends TextWebSocketHandler {
+
+    private final PriceStreamService priceStreamService;
+    private final ObjectMapper objectMapper;
+
+    public PriceStreamHandler(PriceStreamService priceStreamService, ObjectMapper objectMapper) {
+        this.priceStreamService = priceStreamService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        priceStreamService.register(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            SubscriptionRequest request = objectMapper.readValue(message.getPayload(), SubscriptionRequest.class);
+            if (request.symbols() == null || request.symbols().isEmpty()) {
+                throw new IllegalArgumentException("symbols must not be empty");
+            }
+            List<String> symbols = switch (String.valueOf(request.action())) {
+                case "subscribe" -> priceStreamService.subscribe(session, request.symbols());
+                case "unsubscribe" -> priceStreamService.unsubscribe(session, request.symbols());
+                default -> throw new IllegalArgumentException("Unknown action: " + request.action());
+            };
+            priceStreamService.reply(session, Map.of("type", request.action() + "d", "symbols", symbols));
+        } catch (IOException | RuntimeException e) {
+            priceStreamService.reply(session, Map.of("type", "error", "message", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        priceStreamService.unregister(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        priceStreamService.unregister(session);
+    }
+
+    public record SubscriptionRequest(String action, List<String> symbols) {
+    }
+}
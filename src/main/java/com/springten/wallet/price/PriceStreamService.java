@@ -0,0 +1,424 @@
+package com.springten.wallet.price;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams price updates to WebSocket subscribers with per-subscriber conflation.
+ *
+ * Quotes published between two flushes collapse to the latest one per symbol, and
+ * each flush encodes that quote to JSON once. The resulting frame is shared by every
+ * subscriber of the symbol and placed in the subscriber's slot for that symbol,
+ * replacing any frame the subscriber has not been sent yet. Subscribers with pending
+ * slots wait in a run queue served by a fixed number of sender loops, each subscriber
+ * drained by one loop at a time, so a slow client only ever holds one frame per
+ * subscribed symbol and never delays the flush.
+ *
+ * Sessions are wrapped in a {@link ConcurrentWebSocketSessionDecorator} with the send
+ * time and buffer limits. Each flush also closes any session whose current send has
+ * been running longer than the time limit, which frees the sender loop blocked on it
+ * whatever the container.
+ */
+public class PriceStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamService.class);
+
+    // Tomcat's per-session limit for a blocking send; other containers ignore it
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final ObjectMapper objectMapper;
+    private final PriceTable priceTable;
+    private final Executor senderExecutor;
+    private final int senderConcurrency;
+    private final int maxSymbolsPerSession;
+    private final long sendTimeoutMillis;
+    private final int sendBufferBytes;
+
+    private final Map<String, PriceQuote> dirty = new ConcurrentHashMap<>();
+    private final Map<String, PriceFrame> latest = new ConcurrentHashMap<>();
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<Slot>> slotsBySymbol = new ConcurrentHashMap<>();
+    // Subscribers with something to send, waiting for a sender loop
+    private final Queue<Subscriber> runQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeSenders = new AtomicInteger();
+    // Fixed-rate runs overlap on the virtual-thread scheduler; two flushes could hand out one symbol's frames out of order
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter framesSent;
+    private final Counter framesConflated;
+
+    public PriceStreamService(ObjectMapper objectMapper, PriceTable priceTable, Executor senderExecutor,
+                              int senderConcurrency, MeterRegistry meterRegistry, int maxSymbolsPerSession,
+                              long sendTimeoutMillis, int sendBufferBytes) {
+        this.objectMapper = objectMapper;
+        this.priceTable = priceTable;
+        this.senderExecutor = senderExecutor;
+        this.senderConcurrency = senderConcurrency;
+        this.maxSymbolsPerSession = maxSymbolsPerSession;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.sendBufferBytes = sendBufferBytes;
+        this.framesSent = Counter.builder("springten.price.stream.frames")
+            .description("Price frames sent to subscribers").register(meterRegistry);
+        this.framesConflated = Counter.builder("springten.price.stream.conflated")
+            .description("Price frames replaced by a newer one before they were sent").register(meterRegistry);
+        Gauge.builder("springten.price.stream.sessions", subscribers, Map::size)
+            .description("Connected price stream sessions").register(meterRegistry);
+    }
+
+    /**
+     * Record a new quote; it reaches subscribers at the next flush unless a newer one replaces it first
+     */
+    public void publish(String symbol, PriceQuote quote) {
+        dirty.merge(symbol, quote, (current, next) -> next.fetchedAt().isBefore(current.fetchedAt()) ? current : next);
+    }
+
+    /**
+     * Encode each symbol that changed since the last flush and hand the frame to its subscribers.
+     * Returns the number of symbols flushed, or 0 if another flush is still running.
+     */
+    @Scheduled(fixedRateString = "${price.stream.flush-interval-ms:250}")
+    public int flush() {
+        closeStalledSessions();
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushLocked() {
+        int flushed = 0;
+        for (String symbol : dirty.keySet()) {
+            PriceQuote quote = dirty.remove(symbol);
+            if (quote == null) {
+                continue;
+            }
+            PriceFrame frame = encode(symbol, quote);
+            latest.put(symbol, frame);
+            flushed++;
+            Set<Slot> audience = slotsBySymbol.get(symbol);
+            if (audience != null) {
+                for (Slot slot : audience) {
+                    slot.offer(frame);
+                }
+            }
+        }
+        return flushed;
+    }
+
+    public void register(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session container = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (container != null) {
+                container.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMillis);
+            }
+        }
+        subscribers.put(session.getId(), new Subscriber(
+            new ConcurrentWebSocketSessionDecorator(session, (int) sendTimeoutMillis, sendBufferBytes)));
+    }
+
+    public void unregister(WebSocketSession session) {
+        Subscriber subscriber = subscribers.remove(session.getId());
+        if (subscriber == null) {
+            return;
+        }
+        for (Slot slot : subscriber.slots.values()) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Add symbols to a session's subscription and queue the latest known price of each.
+     * Returns the normalized symbols now subscribed. A request that would take the session
+     * past the symbol limit is rejected as a whole.
+     */
+    public List<String> subscribe(WebSocketSession session, Collection<String> symbols) {
+        Subscriber subscriber = require(session);
+        List<String> added = new ArrayList<>();
+        for (String raw : symbols) {
+            String symbol = normalize(raw);
+            if (!subscriber.slots.containsKey(symbol) && !added.contains(symbol)) {
+                added.add(symbol);
+            }
+        }
+        if (subscriber.slots.size() + added.size() > maxSymbolsPerSession) {
+            throw new IllegalArgumentException("At most " + maxSymbolsPerSession + " symbols per session");
+        }
+        
+        for (String symbol : added) {
+            Slot slot = new Slot(subscriber, symbol);
+            subscriber.slots.put(symbol, slot);
+            slotsBySymbol.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(slot);
+
+            PriceFrame snapshot = latest.get(symbol);
+            if (snapshot == null) {
+                PriceQuote quote = priceTable.get(symbol);
+                snapshot = quote != null ? latest.computeIfAbsent(symbol, key -> encode(key, quote)) : null;
+            }
+            if (snapshot != null) {
+                slot.offer(snapshot);
+            }
+        }
+        return added;
+    }
+
+    public List<String> unsubscribe(WebSocketSession session, Collection<String> symbols) {
+        Subscriber subscriber = require(session);
+        List<String> removed = new ArrayList<>();
+        for (String raw : symbols) {
+            String symbol = normalize(raw);
+            Slot slot = subscriber.slots.remove(symbol);
+            if (slot != null) {
+                removeSlot(slot);
+                removed.add(symbol);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Queue a control reply (acknowledgement or error) ahead of pending price frames
+     */
+    public void reply(WebSocketSession session, Object payload) {
+        Subscriber subscriber = subscribers.get(session.getId());
+        if (subscriber != null) {
+            subscriber.control.add(new TextMessage(toJson(payload)));
+            subscriber.schedule();
+        }
+    }
+
+    public int getSessionCount() {
+        return subscribers.size();
+    }
+
+    public void shutdown() {
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers.values()) {
+            try {
+                subscriber.session.close(CloseStatus.GOING_AWAY);
+            } catch (IOException e) {
+                log.debug("Closing price stream session {} failed: {}", subscriber.session.getId(), e.getMessage());
+            }
+        }
+        subscribers.clear();
+        slotsBySymbol.clear();
+        runQueue.clear();
+    }
+
+    /**
+     * Close sessions stuck in one send for longer than the send time limit; the blocked
+     * send then fails and its sender loop moves on
+     */
+    private void closeStalledSessions() {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.session.getTimeSinceSendStarted() > sendTimeoutMillis) {
+                log.debug("Price stream session {} stalled in a send, closing it", subscriber.session.getId());
+                subscriber.drop();
+            }
+        }
+    }
+    
+    /**
+     * Start another sender loop unless enough are running already. Submitting a loop
+     * rather than a task per subscriber keeps a flush to a handful of thread wake-ups.
+     */
+    private void startSender() {
+        int active;
+        do {
+            active = activeSenders.get();
+            if (active >= senderConcurrency) {
+                return;
+            }
+        } while (!activeSenders.compareAndSet(active, active + 1));
+        try {
+            senderExecutor.execute(this::runSenderLoop);
+        } catch (RejectedExecutionException e) {
+            activeSenders.decrementAndGet();
+        }
+    }
+
+    private void runSenderLoop() {
+        try {
+            Subscriber subscriber;
+            while ((subscriber = runQueue.poll()) != null) {
+                subscriber.drain();
+            }
+        } finally {
+            activeSenders.decrementAndGet();
+        }
+        // A subscriber queued after the last poll saw this loop still counted as active
+        if (!runQueue.isEmpty()) {
+            startSender();
+        }
+    }
+
+    private void removeSlot(Slot slot) {
+        Set<Slot> audience = slotsBySymbol.get(slot.symbol);
+        if (audience != null) {
+            audience.remove(slot);
+        }
+        // Anything still pending is skipped by the next drain
+        slot.set(null);
+    }
+
+    private Subscriber require(WebSocketSession session) {
+        Subscriber subscriber = subscribers.get(session.getId());
+        if (subscriber == null) {
+            throw new IllegalStateException("Session " + session.getId() + " is not connected");
+        }
+        return subscriber;
+    }
+
+    private PriceFrame encode(String symbol, PriceQuote quote) {
+        PriceUpdate update = new PriceUpdate("price", symbol, plain(quote.priceUsd()),
+            plain(quote.priceChange24hPercent()), quote.fetchedAt().toEpochMilli());
+        return new PriceFrame(symbol, new TextMessage(toJson(update)));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode price stream message", e);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private static String normalize(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be blank");
+        }
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Prices are sent as decimal strings so clients do not lose precision
+     */
+    public record PriceUpdate(String type, String symbol, String priceUsd, String priceChange24hPercent,
+                              long timestamp) {
+    }
+
+    /**
+     * One encoded price message, shared by every subscriber of the symbol
+     */
+    record PriceFrame(String symbol, TextMessage message) {
+    }
+
+    /**
+     * Conflating slot for one subscribed symbol holding the frame not sent yet, if any.
+     * Extends the reference rather than wrapping one to save an object per slot.
+     */
+    private final class Slot extends AtomicReference<PriceFrame> {
+
+        private final Subscriber subscriber;
+        private final String symbol;
+
+        private Slot(Subscriber subscriber, String symbol) {
+            this.subscriber = subscriber;
+            this.symbol = symbol;
+        }
+
+        private void offer(PriceFrame frame) {
+            if (getAndSet(frame) != null) {
+                // Still queued for sending, which now picks up the newer frame
+                framesConflated.increment();
+                return;
+            }
+            subscriber.ready.add(this);
+            subscriber.schedule();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final ConcurrentWebSocketSessionDecorator session;
+        private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+        // Slots holding a frame, in the order they were filled
+        private final Queue<Slot> ready = new ConcurrentLinkedQueue<>();
+        private final Queue<TextMessage> control = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(ConcurrentWebSocketSessionDecorator session) {
+            this.session = session;
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                runQueue.add(this);
+                startSender();
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    int sent = 0;
+                    TextMessage reply;
+                    while ((reply = control.poll()) != null) {
+                        session.sendMessage(reply);
+                    }
+                    Slot slot;
+                    while ((slot = ready.poll()) != null) {
+                        PriceFrame frame = slot.getAndSet(null);
+                        if (frame != null) {
+                            session.sendMessage(frame.message());
+                            sent++;
+                        }
+                    }
+                    framesSent.increment(sent);
+                    draining.set(false);
+                    // A frame offered after the last check saw draining still set; pick it up here
+                } while ((!ready.isEmpty() || !control.isEmpty()) && draining.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Dropping price stream session {}: {}", session.getId(), e.getMessage());
+                drop();
+            }
+        }
+        
+        private void drop() {
+            unregister(session);
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // Already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.springten.wallet.price;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest known quote per token symbol, shared by the scheduled feed and on-demand lookups
+ */
+@Component
+public class PriceTable {
+    
+    private final ConcurrentHashMap<String, PriceQuote> quotes = new ConcurrentHashMap<>();
+    
+    public PriceQuote get(String symbol) {
+        return quotes.get(symbol);
+    }
+    
+    /**
+     * Store a quote unless a newer one for the same symbol is already present
+     */
+    public void put(String symbol, PriceQuote quote) {
+        quotes.merge(symbol, quote, (current, next) -> next.fetchedAt().isBefore(current.fetchedAt()) ? current : next);
+    }
+    
+    public int size() {
+        return quotes.size();
+    }
+}
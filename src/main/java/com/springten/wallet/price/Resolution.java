@@ -0,0 +1,37 @@
+package com.springten.wallet.price;
+
+import java.util.Locale;
+
+/**
+ * Candle widths kept by the price history
+ */
+public enum Resolution {
+    ONE_MINUTE("1m", 60_000L),
+    ONE_HOUR("1h", 3_600_000L),
+    ONE_DAY("1d", 86_400_000L);
+
+    private final String code;
+    private final long millis;
+
+    Resolution(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public static Resolution fromCode(String code) {
+        for (Resolution resolution : values()) {
+            if (resolution.code.equals(code.toLowerCase(Locale.ROOT))) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported resolution: " + code + " (use 1m, 1h or 1d)");
+    }
+}
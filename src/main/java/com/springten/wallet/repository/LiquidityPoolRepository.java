@@ -0,0 +1,19 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.LiquidityPool;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LiquidityPoolRepository extends JpaRepository<LiquidityPool, Long> {
+    
+    /**
+     * Active pools whose tokens are both active, with the tokens loaded
+     */
+    @Query("select p from LiquidityPool p join fetch p.token0 t0 join fetch p.token1 t1 " +
+           "where p.isActive = true and t0.isActive = true and t1.isActive = true")
+    List<LiquidityPool> findActiveWithTokens();
+}
@@ -0,0 +1,42 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Lock the next unpublished events in (aggregate, sequence) order after the given position;
+     * a relay on another node blocks here until this batch commits
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e where e.publishedAt is null and (e.aggregateType > :aggregateType" +
+           " or (e.aggregateType = :aggregateType and (e.aggregateId > :aggregateId" +
+           " or (e.aggregateId = :aggregateId and e.aggregateSeq > :aggregateSeq))))" +
+           " order by e.aggregateType asc, e.aggregateId asc, e.aggregateSeq asc")
+    List<OutboxEvent> lockUnpublishedAfter(String aggregateType, String aggregateId, long aggregateSeq, Pageable page);
+    
+    @Query("select min(e.createdAt) from OutboxEvent e where e.publishedAt is null")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt where e.id in :ids")
+    int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(LocalDateTime before);
+}
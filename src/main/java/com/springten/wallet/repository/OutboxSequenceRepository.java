@@ -0,0 +1,31 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.OutboxSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxSequenceRepository extends JpaRepository<OutboxSequence, String> {
+    
+    /**
+     * Lock counters of aggregates without events left in the outbox, skipping those a writer holds
+     */
+    @Query(value = "select s.aggregate_key from outbox_sequences s where not exists (" +
+                   "select 1 from outbox_events e where e.aggregate_type || ':' || e.aggregate_id = s.aggregate_key) " +
+                   "limit :limit for update skip locked", nativeQuery = true)
+    List<String> lockIdle(int limit);
+    
+    /**
+     * Delete locked counters, re-checking in a fresh statement that no event committed since they were read
+     */
+    @Modifying
+    @Query(value = "delete from outbox_sequences s where s.aggregate_key in (:aggregateKeys) and not exists (" +
+                   "select 1 from outbox_events e where e.aggregate_type || ':' || e.aggregate_id = s.aggregate_key)",
+           nativeQuery = true)
+    int deleteIdle(Collection<String> aggregateKeys);
+}
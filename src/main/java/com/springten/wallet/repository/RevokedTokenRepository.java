@@ -0,0 +1,32 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    
+    boolean existsByJti(String jti);
+    
+    /**
+     * Unexpired revocations after (revokedAt, afterId) in that order, so a page boundary
+     * inside one revoked_at value neither repeats nor skips rows
+     */
+    @Query("select r from RevokedToken r where r.expiresAt > :now "
+        + "and (r.revokedAt > :since or (r.revokedAt = :since and r.id > :afterId)) "
+        + "order by r.revokedAt, r.id")
+    List<RevokedToken> findRevokedSince(LocalDateTime since, long afterId, LocalDateTime now, Pageable page);
+    
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.TokenBalanceDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TokenBalanceDeadLetterRepository extends JpaRepository<TokenBalanceDeadLetter, Long> {
+}
@@ -0,0 +1,31 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.TokenBalance;
+import com.springten.wallet.portfolio.PositionRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TokenBalanceRepository extends JpaRepository<TokenBalance, Long> {
+    
+    Optional<TokenBalance> findByWalletIdAndTokenId(Long walletId, Long tokenId);
+    
+    @Query("select new com.springten.wallet.portfolio.PositionRow(" +
+           "w.id, w.address, t.id, t.symbol, tb.balance, t.currentPriceUsd) " +
+           "from TokenBalance tb join tb.wallet w join tb.token t")
+    List<PositionRow> findAllPositions();
+    
+    @Query("select distinct tb.wallet.id from TokenBalance tb where tb.wallet.id > :afterWalletId order by tb.wallet.id")
+    List<Long> findWalletIdsAfter(Long afterWalletId, Pageable page);
+    
+    @Query("select new com.springten.wallet.portfolio.PositionRow(" +
+           "w.id, w.address, t.id, t.symbol, tb.balance, t.currentPriceUsd) " +
+           "from TokenBalance tb join tb.wallet w join tb.token t where w.id in :walletIds")
+    List<PositionRow> findPositions(Collection<Long> walletIds);
+}
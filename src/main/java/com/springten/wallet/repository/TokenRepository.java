@@ -0,0 +1,16 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.Token;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TokenRepository extends JpaRepository<Token, Long> {
+    
+    Optional<Token> findBySymbol(String symbol);
+    
+    List<Token> findByIsActive(Boolean isActive);
+}
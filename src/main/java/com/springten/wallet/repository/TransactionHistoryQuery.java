@@ -0,0 +1,45 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.model.Transaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters and keyset position for one page of a user's transaction history.
+ * Rows are ordered by (createdAt, id) descending; a null cursor starts at the newest row.
+ * An optional inclusive lower bound on createdAt confines the scan to recent partitions.
+ */
+public record TransactionHistoryQuery(
+    Long userId,
+    Transaction.TransactionType type,
+    Transaction.TransactionStatus status,
+    String tokenSymbol,
+    LocalDateTime cursorCreatedAt,
+    Long cursorId,
+    LocalDateTime createdFrom,
+    int limit
+) {
+    
+    public TransactionHistoryQuery(Long userId, Transaction.TransactionType type, Transaction.TransactionStatus status,
+                                   String tokenSymbol, LocalDateTime cursorCreatedAt, Long cursorId, int limit) {
+        this(userId, type, status, tokenSymbol, cursorCreatedAt, cursorId, null, limit);
+    }
+    
+    /**
+     * The same filters, restricted to rows created at or after {@code from} (null for no bound)
+     */
+    public TransactionHistoryQuery from(LocalDateTime from, int limit) {
+        return new TransactionHistoryQuery(userId, type, status, tokenSymbol, cursorCreatedAt, cursorId, from, limit);
+    }
+    
+    /**
+     * The same filters, continuing after the given row
+     */
+    public TransactionHistoryQuery after(LocalDateTime createdAt, Long id) {
+        return new TransactionHistoryQuery(userId, type, status, tokenSymbol, createdAt, id, createdFrom, limit);
+    }
+    
+    public boolean hasCursor() {
+        return cursorCreatedAt != null && cursorId != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.dto.TransactionHistoryItem;
+
+import java.util.List;
+
+public interface TransactionHistoryRepository {
+    
+    /**
+     * Fetch up to {@code query.limit()} history rows strictly after the cursor
+     */
+    List<TransactionHistoryItem> findHistoryPage(TransactionHistoryQuery query);
+}
@@ -0,0 +1,71 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.dto.TransactionHistoryItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Builds the history query with only the predicates that are actually set, so each
+ * filter combination gets a plan that can walk the matching (user_id, ..., created_at, id)
+ * index instead of evaluating "param is null or ..." for every row.
+ */
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TransactionHistoryItem> findHistoryPage(TransactionHistoryQuery query) {
+        StringBuilder jpql = new StringBuilder(
+            "select new com.springten.wallet.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionHash, t.transactionType, t.status, t.fromAddress, t.toAddress, " +
+            "t.amount, t.amountUsd, t.totalFee, tk.symbol, t.blockNumber, t.createdAt, t.confirmedAt) " +
+            "from Transaction t left join t.token tk " +
+            "where t.user.id = :userId");
+        
+        if (query.type() != null) {
+            jpql.append(" and t.transactionType = :type");
+        }
+        if (query.status() != null) {
+            jpql.append(" and t.status = :status");
+        }
+        if (query.tokenSymbol() != null) {
+            jpql.append(" and tk.symbol = :tokenSymbol");
+        }
+        if (query.createdFrom() != null) {
+            jpql.append(" and t.createdAt >= :createdFrom");
+        }
+        if (query.hasCursor()) {
+            jpql.append(" and (t.createdAt < :cursorCreatedAt" +
+                " or (t.createdAt = :cursorCreatedAt and t.id < :cursorId))");
+        }
+        jpql.append(" order by t.createdAt desc, t.id desc");
+        
+        TypedQuery<TransactionHistoryItem> typedQuery =
+            entityManager.createQuery(jpql.toString(), TransactionHistoryItem.class)
+                .setParameter("userId", query.userId())
+                .setMaxResults(query.limit());
+        
+        if (query.type() != null) {
+            typedQuery.setParameter("type", query.type());
+        }
+        if (query.status() != null) {
+            typedQuery.setParameter("status", query.status());
+        }
+        if (query.tokenSymbol() != null) {
+            typedQuery.setParameter("tokenSymbol", query.tokenSymbol());
+        }
+        if (query.createdFrom() != null) {
+            typedQuery.setParameter("createdFrom", query.createdFrom());
+        }
+        if (query.hasCursor()) {
+            typedQuery.setParameter("cursorCreatedAt", query.cursorCreatedAt());
+            typedQuery.setParameter("cursorId", query.cursorId());
+        }
+        
+        return typedQuery.getResultList();
+    }
+}
@@ -0,0 +1,29 @@
+package com.springten.wallet.repository;
+
+import com.springten.wallet.archive.ArchivedTransaction;
+import com.springten.wallet.model.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionHistoryRepository {
+    
+    Optional<Transaction> findByTransactionHash(String transactionHash);
+    
+    @Query("select new com.springten.wallet.archive.ArchivedTransaction(" +
+           "t.id, t.user.id, t.wallet.id, t.transactionHash, t.transactionType, t.status, " +
+           "t.fromAddress, t.toAddress, t.amount, t.amountUsd, t.totalFee, tk.symbol, t.blockNumber, " +
+           "t.createdAt, t.confirmedAt) " +
+           "from Transaction t left join t.token tk " +
+           "where t.status in :statuses and t.createdAt < :cutoff and t.id > :afterId " +
+           "order by t.id asc")
+    List<ArchivedTransaction> findArchivable(Collection<Transaction.TransactionStatus> statuses,
+                                             LocalDateTime cutoff, Long afterId, Pageable page);
+}
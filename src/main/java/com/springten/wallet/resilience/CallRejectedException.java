@@ -0,0 +1,27 @@
+package com.springten.wallet.resilience;
+
+/**
+ * Thrown without calling the dependency: its circuit breaker is open or its bulkhead is full
+ */
+public class CallRejectedException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL }
+
+    private final String dependency;
+    private final Reason reason;
+
+    public CallRejectedException(String dependency, Reason reason) {
+        super(dependency + (reason == Reason.CIRCUIT_OPEN ? " circuit is open" : " is at its concurrency limit"),
+            null, false, false);
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,153 @@
+package com.springten.wallet.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * Closed, it records the outcome of the last windowSize calls and opens once at
+ * least minCalls were recorded and the failure rate reaches the threshold. Open,
+ * it rejects calls until openMillis have passed, then goes half-open and admits
+ * halfOpenCalls probes: if they all succeed it closes with a fresh window, and any
+ * failure opens it again. Calls that ended in the caller's own error are reported
+ * with onIgnored and leave the window untouched.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ring of the last outcomes while closed, true for a failure
+    private final boolean[] window;
+    private int recorded;
+    private int failures;
+    private int next;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(ResilienceSpec spec, LongSupplier nanoClock) {
+        this.window = new boolean[spec.windowSize()];
+        this.minCalls = Math.min(spec.minCalls(), spec.windowSize());
+        this.failureRatePercent = spec.failureRatePercent();
+        this.openNanos = spec.openMillis() * 1_000_000L;
+        this.halfOpenCalls = spec.halfOpenCalls();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a call may go ahead; an admitted call must report onSuccess or onFailure
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenCalls) {
+                    return false;
+                }
+                probesStarted++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++probesSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An admitted call ended without telling anything about the dependency's health; a half-open probe slot is freed
+     */
+    public void onIgnored() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        state = State.CLOSED;
+    }
+}
@@ -0,0 +1,202 @@
+package com.springten.wallet.resilience;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and circuit breaker guarding one dependency.
+ *
+ * Blocking calls wait up to maxWait for a slot and rely on the client's own timeout
+ * being set to {@link #getDeadline()}, since a thread blocked in socket I/O cannot be
+ * cut loose safely. Async calls never wait for a slot and are failed with a
+ * TimeoutException at the deadline.
+ *
+ * Only errors that say the dependency is unhealthy count against the breaker:
+ * timeouts, I/O and transport errors, and 5xx or 429 responses. Any other error,
+ * such as a rejected parameter or insufficient funds, is passed through without
+ * being recorded, so a few bad requests cannot open the breaker for everyone.
+ */
+public class ResiliencePolicy {
+
+    private final String name;
+    private final ResilienceSpec spec;
+    private final Semaphore slots;
+    private final CircuitBreaker breaker;
+    private final Duration deadline;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+
+    public ResiliencePolicy(String name, ResilienceSpec spec) {
+        this.name = name;
+        this.spec = spec;
+        this.slots = new Semaphore(spec.maxConcurrent());
+        this.breaker = new CircuitBreaker(spec, System::nanoTime);
+        this.deadline = Duration.ofMillis(spec.deadlineMillis());
+    }
+
+    public <T> T execute(Callable<T> call) throws Exception {
+        acquire(spec.maxWaitMillis());
+        try {
+            T result = call.call();
+            onSuccess();
+            return result;
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        } finally {
+            slots.release();
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Supplier<? extends CompletableFuture<T>> call) {
+        try {
+            acquire(0);
+        } catch (CallRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            onFailure(e);
+            slots.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        // Time out a copy, then cancel the call itself so it stops holding a connection
+        return started.copy()
+            .orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((result, error) -> {
+                slots.release();
+                if (error == null) {
+                    onSuccess();
+                } else {
+                    onFailure(error);
+                    if (error instanceof TimeoutException) {
+                        started.cancel(true);
+                    }
+                }
+            });
+    }
+
+    /**
+     * Count a rejected call that was answered from a cached value instead
+     */
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    private void acquire(long waitMillis) {
+        boolean acquired;
+        try {
+            acquired = waitMillis > 0 ? slots.tryAcquire(waitMillis, TimeUnit.MILLISECONDS) : slots.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedFull.increment();
+            throw new CallRejectedException(name, CallRejectedException.Reason.BULKHEAD_FULL);
+        }
+        if (!breaker.tryAcquire()) {
+            slots.release();
+            rejectedOpen.increment();
+            throw new CallRejectedException(name, CallRejectedException.Reason.CIRCUIT_OPEN);
+        }
+    }
+
+    private void onSuccess() {
+        breaker.onSuccess();
+        successes.increment();
+    }
+
+    private void onFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!isDependencyFailure(cause)) {
+            breaker.onIgnored();
+            clientErrors.increment();
+            return;
+        }
+        breaker.onFailure();
+        // OkHttp reports its call and read timeouts as InterruptedIOException
+        if (cause instanceof TimeoutException || cause instanceof InterruptedIOException) {
+            timeouts.increment();
+        } else {
+            failures.increment();
+        }
+    }
+    
+    static boolean isDependencyFailure(Throwable cause) {
+        if (cause instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return cause instanceof TimeoutException || cause instanceof IOException
+            || cause instanceof UncheckedIOException || cause instanceof WebClientRequestException;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public int activeCount() {
+        return spec.maxConcurrent() - slots.availablePermits();
+    }
+
+    public int maxConcurrent() {
+        return spec.maxConcurrent();
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getRejectedFullCount() {
+        return rejectedFull.sum();
+    }
+
+    public long getRejectedOpenCount() {
+        return rejectedOpen.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+    
+    public long getClientErrorCount() {
+        return clientErrors.sum();
+    }
+}
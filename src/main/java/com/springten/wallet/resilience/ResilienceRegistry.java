@@ -0,0 +1,71 @@
+package com.springten.wallet.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Creates one {@link ResiliencePolicy} per dependency and publishes its metrics.
+ * Each limit can be overridden with resilience.&lt;name&gt;.&lt;limit&gt;, e.g.
+ * resilience.chain-reads.max-concurrent.
+ */
+public class ResilienceRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final Map<String, ResiliencePolicy> policies = new ConcurrentHashMap<>();
+
+    public ResilienceRegistry(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    /**
+     * The policy for a dependency, created with these defaults on first use
+     */
+    public ResiliencePolicy policy(String name, ResilienceSpec defaults) {
+        return policies.computeIfAbsent(name, key -> register(new ResiliencePolicy(key, resolve(key, defaults))));
+    }
+
+    private ResilienceSpec resolve(String name, ResilienceSpec defaults) {
+        String prefix = "resilience." + name + ".";
+        return new ResilienceSpec(
+            environment.getProperty(prefix + "max-concurrent", Integer.class, defaults.maxConcurrent()),
+            environment.getProperty(prefix + "max-wait-ms", Long.class, defaults.maxWaitMillis()),
+            environment.getProperty(prefix + "deadline-ms", Long.class, defaults.deadlineMillis()),
+            environment.getProperty(prefix + "window-size", Integer.class, defaults.windowSize()),
+            environment.getProperty(prefix + "min-calls", Integer.class, defaults.minCalls()),
+            environment.getProperty(prefix + "failure-rate-percent", Integer.class, defaults.failureRatePercent()),
+            environment.getProperty(prefix + "open-ms", Long.class, defaults.openMillis()),
+            environment.getProperty(prefix + "half-open-calls", Integer.class, defaults.halfOpenCalls()));
+    }
+
+    private ResiliencePolicy register(ResiliencePolicy policy) {
+        String name = policy.getName();
+        counter(policy, "success", ResiliencePolicy::getSuccessCount);
+        counter(policy, "failure", ResiliencePolicy::getFailureCount);
+        counter(policy, "timeout", ResiliencePolicy::getTimeoutCount);
+        counter(policy, "rejected_full", ResiliencePolicy::getRejectedFullCount);
+        counter(policy, "rejected_open", ResiliencePolicy::getRejectedOpenCount);
+        counter(policy, "fallback", ResiliencePolicy::getFallbackCount);
+        counter(policy, "client_error", ResiliencePolicy::getClientErrorCount);
+        Gauge.builder("springten.resilience.active", policy, ResiliencePolicy::activeCount)
+            .tag("bulkhead", name).register(meterRegistry);
+        Gauge.builder("springten.resilience.limit", policy, ResiliencePolicy::maxConcurrent)
+            .tag("bulkhead", name).register(meterRegistry);
+        // 0 closed, 1 open, 2 half-open
+        Gauge.builder("springten.resilience.breaker.state", policy, p -> p.getState().ordinal())
+            .tag("bulkhead", name).register(meterRegistry);
+        return policy;
+    }
+
+    private void counter(ResiliencePolicy policy, String outcome, ToDoubleFunction<ResiliencePolicy> count) {
+        FunctionCounter.builder("springten.resilience.calls", policy, count)
+            .tags("bulkhead", policy.getName(), "outcome", outcome).register(meterRegistry);
+    }
+}
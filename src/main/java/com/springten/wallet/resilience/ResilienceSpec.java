@@ -0,0 +1,16 @@
+package com.springten.wallet.resilience;
+
+/**
+ * Limits for one dependency: a bulkhead of maxConcurrent calls that waits at most
+ * maxWaitMillis for a slot, a per-call deadline, and a circuit breaker that opens when
+ * failureRatePercent of the last windowSize calls (once there are minCalls) failed,
+ * stays open for openMillis and then lets halfOpenCalls probes through
+ */
+public record ResilienceSpec(int maxConcurrent, long maxWaitMillis, long deadlineMillis,
+                             int windowSize, int minCalls, int failureRatePercent,
+                             long openMillis, int halfOpenCalls) {
+
+    public static ResilienceSpec of(int maxConcurrent, long maxWaitMillis, long deadlineMillis) {
+        return new ResilienceSpec(maxConcurrent, maxWaitMillis, deadlineMillis, 20, 10, 50, 10_000, 3);
+    }
+}
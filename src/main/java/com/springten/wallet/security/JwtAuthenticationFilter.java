@@ -1,14 +1,17 @@
 package com.springten.wallet.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.springten.wallet.security.revocation.TokenRevocationService;
+import com.springten.wallet.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,11 +22,17 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserService userService;
+    private final ProfileVersionTable profileVersionTable;
+    private final TokenRevocationService tokenRevocationService;
     
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService,
+                                   ProfileVersionTable profileVersionTable,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.userService = userService;
+        this.profileVersionTable = profileVersionTable;
+        this.tokenRevocationService = tokenRevocationService;
     }
     
     @Override
@@ -43,22 +52,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
         
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Parsed once; signature and expiry are verified here
+                claims = jwtUtil.extractAllClaims(jwt);
             } catch (Exception e) {
                 logger.error("JWT token is invalid or expired", e);
             }
+            
+            if (claims != null && tokenRevocationService.isRevoked(claims)) {
+                logger.debug("Rejected revoked JWT " + claims.getId());
+                claims = null;
+            }
         }
         
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(claims);
             
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && jwtUtil.validateClaims(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -68,4 +83,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Use the principal embedded in the token when its profile version is current,
+     * otherwise fall back to the principal cache / database
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        UserPrincipal fromClaims = jwtUtil.extractPrincipal(claims);
+        if (fromClaims != null && profileVersionTable.isCurrent(fromClaims.getId(), fromClaims.getProfileVersion())) {
+            return fromClaims;
+        }
+        
+        try {
+            return userService.loadPrincipal(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            logger.debug("JWT subject no longer exists: " + claims.getSubject());
+            return null;
+        }
+    }
 }
@@ -10,11 +10,19 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     
+    // Profile claims embedded so that read-only endpoints can skip the user lookup
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_WALLET_ADDRESS = "wal";
+    public static final String CLAIM_FULL_NAME = "name";
+    public static final String CLAIM_BIOMETRIC = "bio";
+    public static final String CLAIM_PROFILE_VERSION = "ver";
+    
     @Value("${jwt.secret}")
     private String secret;
     
@@ -38,7 +46,10 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
     
-    private Claims extractAllClaims(String token) {
+    /**
+     * Parse and verify a token; throws JwtException if the signature is invalid or the token expired
+     */
+    public Claims extractAllClaims(String token) {
         return Jwts.parser()
                 .setSigningKey(getSigningKey())
                 .build()
@@ -52,17 +63,65 @@ public class JwtUtil {
     
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserPrincipal principal) {
+            claims.putAll(profileClaims(principal));
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
     public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
-        return createToken(extraClaims, userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserPrincipal principal) {
+            claims.putAll(profileClaims(principal));
+        }
+        claims.putAll(extraClaims);
+        return createToken(claims, userDetails.getUsername());
+    }
+    
+    /**
+     * Rebuild a principal from verified claims without touching the database.
+     * Returns null for tokens issued without profile claims.
+     */
+    public UserPrincipal extractPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number version = claims.get(CLAIM_PROFILE_VERSION, Number.class);
+        if (userId == null || version == null) {
+            return null;
+        }
+        
+        return new UserPrincipal(
+            userId.longValue(),
+            claims.getSubject(),
+            null,
+            claims.get(CLAIM_WALLET_ADDRESS, String.class),
+            claims.get(CLAIM_FULL_NAME, String.class),
+            claims.get(CLAIM_BIOMETRIC, Boolean.class),
+            true,
+            version.longValue()
+        );
+    }
+    
+    private Map<String, Object> profileClaims(UserPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, principal.getId());
+        claims.put(CLAIM_PROFILE_VERSION, principal.getProfileVersion());
+        if (principal.getWalletAddress() != null) {
+            claims.put(CLAIM_WALLET_ADDRESS, principal.getWalletAddress());
+        }
+        if (principal.getFullName() != null) {
+            claims.put(CLAIM_FULL_NAME, principal.getFullName());
+        }
+        if (principal.getBiometricEnabled() != null) {
+            claims.put(CLAIM_BIOMETRIC, principal.getBiometricEnabled());
+        }
+        return claims;
     }
     
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .id(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -74,6 +133,15 @@ public class JwtUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
     
+    /**
+     * Same as {@link #validateToken(String, UserDetails)} for claims that were already parsed
+     */
+    public Boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+            && claims.getSubject().equals(userDetails.getUsername())
+            && claims.getExpiration().after(new Date());
+    }
+    
     public Boolean validateToken(String token) {
         try {
             Jwts.parser()
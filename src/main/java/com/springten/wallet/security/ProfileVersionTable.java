@@ -0,0 +1,199 @@
+package com.springten.wallet.security;
+
+import com.springten.wallet.cache.CacheInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact userId -> profile version map used to decide whether the profile
+ * claims embedded in a JWT are still current.
+ *
+ * Backed by open-addressing primitive arrays (16 bytes per user) so it can hold
+ * every active user without boxing. Reads are optimistic and take no lock in
+ * the common case. A missing entry means "unknown", which sends the caller
+ * back to the principal cache / database and re-seeds the table.
+ */
+@Component
+public class ProfileVersionTable {
+    
+    public static final String CACHE_NAME = "profile-versions";
+    public static final long UNKNOWN = -1L;
+    
+    private static final long EMPTY = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final StampedLock lock = new StampedLock();
+    private final int maxEntries;
+    private final CacheInvalidationBus invalidationBus;
+    
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+    
+    public ProfileVersionTable(CacheInvalidationBus invalidationBus,
+                               @Value("${jwt.profile-versions.max-entries:1000000}") int maxEntries) {
+        this.invalidationBus = invalidationBus;
+        this.maxEntries = maxEntries;
+        this.invalidationBus.subscribe(CACHE_NAME, key -> remove(Long.parseLong(key)));
+    }
+    
+    /**
+     * Whether the given version is the latest known version for the user
+     */
+    public boolean isCurrent(Long userId, long version) {
+        return userId != null && userId > 0 && version >= 0 && get(userId) == version;
+    }
+    
+    public long get(long userId) {
+        long stamp = lock.tryOptimisticRead();
+        long[] k = keys;
+        long[] v = values;
+        long version = k.length == v.length ? find(k, v, userId) : UNKNOWN;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                version = find(keys, values, userId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return version;
+    }
+    
+    /**
+     * Record the version seen when a user was loaded from the database.
+     * Silently ignored once the table is full; those users take the slow path.
+     */
+    public void put(long userId, long version) {
+        if (userId <= 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int idx = slot(userId, mask);
+            while (keys[idx] != EMPTY) {
+                if (keys[idx] == userId) {
+                    values[idx] = version;
+                    return;
+                }
+                idx = (idx + 1) & mask;
+            }
+            if (size >= maxEntries) {
+                return;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+                put(userId, version, keys, values);
+            } else {
+                keys[idx] = userId;
+                values[idx] = version;
+            }
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Record a new version after a profile change and make every other node forget the old one
+     */
+    public void update(long userId, long version) {
+        put(userId, version);
+        invalidationBus.publish(CACHE_NAME, Long.toString(userId));
+    }
+    
+    /**
+     * Forget a user on this node and on every other node
+     */
+    public void invalidate(long userId) {
+        remove(userId);
+        invalidationBus.publish(CACHE_NAME, Long.toString(userId));
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private void remove(long userId) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int idx = slot(userId, mask);
+            while (keys[idx] != userId) {
+                if (keys[idx] == EMPTY) {
+                    return;
+                }
+                idx = (idx + 1) & mask;
+            }
+            
+            // Backward-shift deletion keeps probe sequences intact without tombstones
+            keys[idx] = EMPTY;
+            int hole = idx;
+            int next = idx;
+            while (true) {
+                next = (next + 1) & mask;
+                if (keys[next] == EMPTY) {
+                    break;
+                }
+                int home = slot(keys[next], mask);
+                boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+                if (!homeBetween) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    keys[next] = EMPTY;
+                    hole = next;
+                }
+            }
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    private void resize() {
+        long[] newKeys = new long[keys.length * 2];
+        long[] newValues = new long[values.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                put(keys[i], values[i], newKeys, newValues);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+    
+    private static void put(long key, long value, long[] k, long[] v) {
+        int mask = k.length - 1;
+        int idx = slot(key, mask);
+        while (k[idx] != EMPTY) {
+            idx = (idx + 1) & mask;
+        }
+        k[idx] = key;
+        v[idx] = value;
+    }
+    
+    private static long find(long[] k, long[] v, long key) {
+        int mask = k.length - 1;
+        int idx = slot(key, mask);
+        // Bounded so that a torn optimistic read can never spin forever
+        for (int probes = 0; probes < k.length; probes++) {
+            long candidate = k[idx];
+            if (candidate == key) {
+                return v[idx];
+            }
+            if (candidate == EMPTY) {
+                return UNKNOWN;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return UNKNOWN;
+    }
+    
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
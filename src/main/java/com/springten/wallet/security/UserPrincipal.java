@@ -0,0 +1,120 @@
+package com.springten.wallet.security;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.springten.wallet.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Immutable authenticated principal carrying the user fields that controllers
+ * read on every request, so they do not have to load the {@link User} entity.
+ * Built either from the database or from the signed claims of a JWT, in which
+ * case the password is null. Only a principal loaded for a login check holds
+ * the password hash; the principal cache keeps {@link #withoutCredentials()}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserPrincipal implements UserDetails {
+    
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String walletAddress;
+    private final String fullName;
+    private final Boolean biometricEnabled;
+    private final boolean active;
+    private final long profileVersion;
+    
+    @JsonCreator
+    public UserPrincipal(@JsonProperty("id") Long id,
+                         @JsonProperty("username") String username,
+                         @JsonProperty("password") String password,
+                         @JsonProperty("walletAddress") String walletAddress,
+                         @JsonProperty("fullName") String fullName,
+                         @JsonProperty("biometricEnabled") Boolean biometricEnabled,
+                         @JsonProperty("enabled") boolean active,
+                         @JsonProperty("profileVersion") long profileVersion) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.walletAddress = walletAddress;
+        this.fullName = fullName;
+        this.biometricEnabled = biometricEnabled;
+        this.active = active;
+        this.profileVersion = profileVersion;
+    }
+    
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+            user.getId(),
+            user.getUsername(),
+            user.getPassword(),
+            user.getWalletAddress(),
+            user.getFullName(),
+            user.getBiometricEnabled(),
+            user.getStatus() == null || user.getStatus() == User.UserStatus.ACTIVE,
+            user.getProfileVersion() != null ? user.getProfileVersion() : 0L
+        );
+    }
+    
+    /**
+     * Copy without the password hash, safe to share through the principal cache
+     */
+    public UserPrincipal withoutCredentials() {
+        if (password == null) {
+            return this;
+        }
+        return new UserPrincipal(id, username, null, walletAddress, fullName, biometricEnabled, active, profileVersion);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public String getUsername() {
+        return username;
+    }
+    
+    @Override
+    public String getPassword() {
+        return password;
+    }
+    
+    public String getWalletAddress() {
+        return walletAddress;
+    }
+    
+    public String getFullName() {
+        return fullName;
+    }
+    
+    public Boolean getBiometricEnabled() {
+        return biometricEnabled;
+    }
+    
+    public long getProfileVersion() {
+        return profileVersion;
+    }
+    
+    @Override
+    @JsonIgnore
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+    
+    @Override
+    public String toString() {
+        return "UserPrincipal{id=" + id + ", username='" + username + "'}";
+    }
+}
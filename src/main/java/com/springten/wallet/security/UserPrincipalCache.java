@@ -0,0 +1,39 @@
+package com.springten.wallet.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.cache.CacheCodec;
+import com.springten.wallet.cache.CacheSpec;
+import com.springten.wallet.cache.TwoLevelCache;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Cache of user principals keyed by username, consulted on every authenticated
+ * request before going to the database. Principals are stored without their
+ * password hash, so neither level holds credentials.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    public static final String CACHE_NAME = "user-principals";
+    
+    private final TwoLevelCache<UserPrincipal> cache;
+    
+    public UserPrincipalCache(TwoLevelCacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cache = cacheManager.create(CACHE_NAME, CacheCodec.json(objectMapper, UserPrincipal.class),
+            new CacheSpec(300_000, 900_000, 10_000));
+    }
+    
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        return cache.get(username, name -> loader.apply(name).withoutCredentials());
+    }
+    
+    /**
+     * Evict a user on this node and on every other node
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,105 @@
+package com.springten.wallet.security.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Throttles expensive endpoints (BCrypt, HD key derivation, transaction signing)
+ * per client IP and per authenticated user. Runs after the JWT filter so the
+ * user is known. Behind a reverse proxy, set server.forward-headers-strategy so
+ * that the remote address is the client's.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        String path = request.getRequestURI();
+        for (Map.Entry<String, RateLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+            RateLimitProperties.Group group = entry.getValue();
+            if (!matches(group, path)) {
+                continue;
+            }
+            
+            String groupName = entry.getKey();
+            if (group.getIp() != null) {
+                long wait = rateLimiter.tryAcquire(groupName + ":ip:" + request.getRemoteAddr(), group.getIp());
+                if (wait > 0) {
+                    reject(response, groupName, "ip", wait);
+                    return;
+                }
+            }
+            
+            String username = currentUsername();
+            if (group.getUser() != null && username != null) {
+                long wait = rateLimiter.tryAcquire(groupName + ":user:" + username, group.getUser());
+                if (wait > 0) {
+                    reject(response, groupName, "user", wait);
+                    return;
+                }
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private boolean matches(RateLimitProperties.Group group, String path) {
+        for (String pattern : group.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+    
+    private void reject(HttpServletResponse response, String group, String dimension, long waitNanos)
+            throws IOException {
+        meterRegistry.counter("springten.ratelimit.rejected", "group", group, "dimension", dimension).increment();
+        
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry in " + retryAfterSeconds + "s\"}");
+    }
+}
@@ -0,0 +1,48 @@
+package com.springten.wallet.security.ratelimit;
+
+/**
+ * Token bucket parameters: up to {@code capacity} requests in a burst,
+ * refilled at {@code refillPerMinute} requests per minute.
+ */
+public class RateLimitPolicy {
+    
+    private int capacity = 10;
+    private int refillPerMinute = 10;
+    
+    public RateLimitPolicy() {}
+    
+    public RateLimitPolicy(int capacity, int refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerMinute = refillPerMinute;
+    }
+    
+    /**
+     * Time to earn back one token
+     */
+    public long emissionIntervalNanos() {
+        return 60_000_000_000L / refillPerMinute;
+    }
+    
+    /**
+     * How far ahead of now the bucket may be drawn before requests are rejected
+     */
+    public long burstToleranceNanos() {
+        return emissionIntervalNanos() * capacity;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    public int getRefillPerMinute() {
+        return refillPerMinute;
+    }
+    
+    public void setRefillPerMinute(int refillPerMinute) {
+        this.refillPerMinute = refillPerMinute;
+    }
+}
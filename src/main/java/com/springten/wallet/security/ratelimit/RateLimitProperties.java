@@ -0,0 +1,83 @@
+package com.springten.wallet.security.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    private int stripes = 64;
+    private int maxKeysPerStripe = 4096;
+    private Map<String, Group> groups = new LinkedHashMap<>();
+    
+    /**
+     * A set of endpoints sharing limits. Either dimension may be left unset.
+     */
+    public static class Group {
+        
+        private List<String> paths = new ArrayList<>();
+        private RateLimitPolicy ip;
+        private RateLimitPolicy user;
+        
+        public List<String> getPaths() {
+            return paths;
+        }
+        
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+        
+        public RateLimitPolicy getIp() {
+            return ip;
+        }
+        
+        public void setIp(RateLimitPolicy ip) {
+            this.ip = ip;
+        }
+        
+        public RateLimitPolicy getUser() {
+            return user;
+        }
+        
+        public void setUser(RateLimitPolicy user) {
+            this.user = user;
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getStripes() {
+        return stripes;
+    }
+    
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+    
+    public int getMaxKeysPerStripe() {
+        return maxKeysPerStripe;
+    }
+    
+    public void setMaxKeysPerStripe(int maxKeysPerStripe) {
+        this.maxKeysPerStripe = maxKeysPerStripe;
+    }
+    
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(Map<String, Group> groups) {
+        this.groups = groups;
+    }
+}
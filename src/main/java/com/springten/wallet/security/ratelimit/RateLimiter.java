@@ -0,0 +1,12 @@
+package com.springten.wallet.security.ratelimit;
+
+public interface RateLimiter {
+    
+    /**
+     * Try to take one token from the bucket identified by {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds
+     *         until a token becomes available
+     */
+    long tryAcquire(String key, RateLimitPolicy policy);
+}
@@ -0,0 +1,99 @@
+package com.springten.wallet.security.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide token buckets evaluated atomically in Redis with the same GCRA
+ * logic as {@link StripedTokenBucketStore}. Falls back to the local store when
+ * Redis is unreachable so that an outage does not disable throttling.
+ *
+ * An outage is logged when it starts and ends and reported at most once per
+ * log interval while it lasts; every request decided locally is counted.
+ */
+public class RedisRateLimiter implements RateLimiter {
+    
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+    
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>(
+        "local interval = tonumber(ARGV[1]) " +
+        "local tolerance = tonumber(ARGV[2]) " +
+        "local time = redis.call('TIME') " +
+        "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+        "local tat = tonumber(redis.call('GET', KEYS[1]) or now) " +
+        "if tat < now then tat = now end " +
+        "local nextTat = tat + interval " +
+        "local wait = nextTat - now - tolerance " +
+        "if wait > 0 then return wait end " +
+        "redis.call('SET', KEYS[1], nextTat, 'PX', math.ceil((nextTat - now) / 1000) + 1) " +
+        "return 0",
+        Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiter fallback;
+    private final String keyPrefix;
+    private final long logIntervalNanos;
+    private final Counter fallbackCounter;
+    
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final AtomicLong lastReportNanos = new AtomicLong();
+    private final AtomicLong fallbacksSinceReport = new AtomicLong();
+    
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimiter fallback, String keyPrefix,
+                            MeterRegistry meterRegistry, long logIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.keyPrefix = keyPrefix;
+        this.logIntervalNanos = logIntervalMillis * 1_000_000;
+        this.fallbackCounter = Counter.builder("springten.ratelimit.redis.fallbacks")
+            .description("Rate limit decisions made with local buckets because Redis was unreachable")
+            .register(meterRegistry);
+        Gauge.builder("springten.ratelimit.redis.degraded", degraded, flag -> flag.get() ? 1 : 0)
+            .description("1 while the rate limiter is using local buckets")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public long tryAcquire(String key, RateLimitPolicy policy) {
+        try {
+            Long waitMicros = redisTemplate.execute(GCRA_SCRIPT, List.of(keyPrefix + key),
+                Long.toString(policy.emissionIntervalNanos() / 1_000),
+                Long.toString(policy.burstToleranceNanos() / 1_000));
+            if (degraded.compareAndSet(true, false)) {
+                log.info("Redis rate limiter recovered; {} requests used local buckets since the last report",
+                    fallbacksSinceReport.getAndSet(0));
+            }
+            return waitMicros == null ? 0 : waitMicros * 1_000;
+        } catch (Exception e) {
+            onFallback(e);
+            return fallback.tryAcquire(key, policy);
+        }
+    }
+    
+    private void onFallback(Exception e) {
+        fallbackCounter.increment();
+        long count = fallbacksSinceReport.incrementAndGet();
+        long now = System.nanoTime();
+        if (degraded.compareAndSet(false, true)) {
+            lastReportNanos.set(now);
+            log.warn("Redis rate limiter unavailable, using local buckets: {}", e.getMessage());
+            return;
+        }
+        long last = lastReportNanos.get();
+        if (now - last >= logIntervalNanos && lastReportNanos.compareAndSet(last, now)) {
+            log.warn("Redis rate limiter still unavailable; {} requests used local buckets since the last report: {}",
+                count, e.getMessage());
+            fallbacksSinceReport.addAndGet(-count);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.springten.wallet.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets spread over independent stripes.
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time"
+ * (GCRA), so acquiring is one CAS with no locks and no allocation. A bucket
+ * whose arrival time is in the past is full and carries no state, which is what
+ * makes idle eviction safe. Each stripe holds at most {@code maxKeysPerStripe}
+ * buckets; keys that do not fit share the stripe's overflow bucket, which only
+ * ever errs on the side of rejecting.
+ */
+public class StripedTokenBucketStore implements RateLimiter {
+    
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int maxKeysPerStripe;
+    
+    public StripedTokenBucketStore(int stripeCount, int maxKeysPerStripe) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.maxKeysPerStripe = maxKeysPerStripe;
+    }
+    
+    @Override
+    public long tryAcquire(String key, RateLimitPolicy policy) {
+        long now = System.nanoTime();
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            if (stripe.buckets.size() >= maxKeysPerStripe) {
+                stripe.evictIdle(now);
+            }
+            bucket = stripe.buckets.size() < maxKeysPerStripe
+                ? stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(now))
+                : stripe.overflow;
+        }
+        return acquire(bucket, policy, now);
+    }
+    
+    /**
+     * Drop buckets that have fully refilled. A request racing with the removal may
+     * lose its consumption, granting at most one extra token.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            stripe.evictIdle(now);
+        }
+    }
+    
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.buckets.size();
+        }
+        return total;
+    }
+    
+    static long acquire(AtomicLong bucket, RateLimitPolicy policy, long now) {
+        long interval = policy.emissionIntervalNanos();
+        long tolerance = policy.burstToleranceNanos();
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            long next = base + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    private static int spread(int h) {
+        return (h ^ (h >>> 16)) * 0x45d9f3b;
+    }
+    
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+        
+        private void evictIdle(long now) {
+            buckets.entrySet().removeIf(e -> e.getValue().get() - now <= 0);
+        }
+    }
+}
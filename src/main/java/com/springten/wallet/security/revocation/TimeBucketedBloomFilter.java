@@ -0,0 +1,85 @@
+package com.springten.wallet.security.revocation;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring of Bloom filters, one per window of token expiry time. A revoked token
+ * only needs to be remembered until it expires, so each entry is filed under
+ * the bucket for its expiry and whole buckets are dropped once their window has
+ * passed. This keeps every filter small and its false-positive rate stable.
+ */
+public class TimeBucketedBloomFilter {
+    
+    private final long bucketWidthMillis;
+    private final long expectedPerBucket;
+    private final double falsePositiveRate;
+    private final AtomicReferenceArray<Bucket> ring;
+    
+    public TimeBucketedBloomFilter(long maxLifetimeMillis, long bucketWidthMillis,
+                                   long expectedPerBucket, double falsePositiveRate) {
+        this.bucketWidthMillis = bucketWidthMillis;
+        this.expectedPerBucket = expectedPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        // One bucket per window a live token can expire in, plus the current one
+        this.ring = new AtomicReferenceArray<>((int) (maxLifetimeMillis / bucketWidthMillis) + 2);
+    }
+    
+    public void add(String value, long expiresAtMillis) {
+        long bucketId = expiresAtMillis / bucketWidthMillis;
+        int slot = (int) (bucketId % ring.length());
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.id == bucketId) {
+                bucket.filter.add(value);
+                return;
+            }
+            if (bucket != null && bucket.id > bucketId) {
+                // Slot already reused for a later window, so this token has long expired
+                return;
+            }
+            Bucket fresh = new Bucket(bucketId, new BloomFilter(expectedPerBucket, falsePositiveRate));
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                fresh.filter.add(value);
+                return;
+            }
+        }
+    }
+    
+    public boolean mightContain(String value, long expiresAtMillis) {
+        long bucketId = expiresAtMillis / bucketWidthMillis;
+        Bucket bucket = ring.get((int) (bucketId % ring.length()));
+        return bucket != null && bucket.id == bucketId && bucket.filter.mightContain(value);
+    }
+    
+    /**
+     * Release buckets whose whole window lies before {@code nowMillis}
+     */
+    public void expire(long nowMillis) {
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && (bucket.id + 1) * bucketWidthMillis <= nowMillis) {
+                ring.compareAndSet(i, bucket, null);
+            }
+        }
+    }
+    
+    public int activeBuckets() {
+        int active = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            if (ring.get(i) != null) {
+                active++;
+            }
+        }
+        return active;
+    }
+    
+    private static final class Bucket {
+        private final long id;
+        private final BloomFilter filter;
+        
+        private Bucket(long id, BloomFilter filter) {
+            this.id = id;
+            this.filter = filter;
+        }
+    }
+}
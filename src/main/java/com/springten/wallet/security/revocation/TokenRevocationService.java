@@ -0,0 +1,155 @@
+package com.springten.wallet.security.revocation;
+
+import com.springten.wallet.cache.CacheInvalidationBus;
+import com.springten.wallet.cache.LocalCache;
+import com.springten.wallet.model.RevokedToken;
+import com.springten.wallet.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tracks revoked JWTs by their jti.
+ *
+ * Every request is screened against an in-memory time-bucketed Bloom filter;
+ * only a filter hit (a revoked token or a rare false positive) costs a lookup
+ * in the revoked_tokens table. Other nodes learn about revocations from the
+ * invalidation bus when Redis is enabled, and in any case by polling the table.
+ *
+ * Polling goes by revoked_at rather than id: pooled ids are handed out in blocks
+ * per node, so a revocation committed later may well carry a lower id. Each poll
+ * reads back to an overlap window before the previous one started, which covers
+ * rows still uncommitted at that point; rows read twice are simply added again.
+ */
+@Component
+public class TokenRevocationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    public static final String CACHE_NAME = "token-revocations";
+    
+    private static final Pageable SYNC_PAGE = PageRequest.of(0, 1000);
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final TimeBucketedBloomFilter filter;
+    
+    // Confirmed revocations, so a replayed revoked token does not hit the DB each time. Only
+    // positive answers are kept: a token cleared here may be revoked on another node a moment later
+    private final LocalCache<String, Boolean> confirmations = new LocalCache<>(60_000, 10_000);
+    
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final long syncOverlapMillis;
+    private volatile LocalDateTime lastSyncStartedAt;
+    
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  CacheInvalidationBus invalidationBus,
+                                  @Value("${jwt.expiration}") long tokenLifetimeMillis,
+                                  @Value("${jwt.revocation.bucket-width-ms:3600000}") long bucketWidthMillis,
+                                  @Value("${jwt.revocation.expected-per-bucket:10000}") long expectedPerBucket,
+                                  @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${jwt.revocation.sync-overlap-ms:10000}") long syncOverlapMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.invalidationBus = invalidationBus;
+        this.filter = new TimeBucketedBloomFilter(tokenLifetimeMillis, bucketWidthMillis,
+            expectedPerBucket, falsePositiveRate);
+        this.syncOverlapMillis = syncOverlapMillis;
+        this.invalidationBus.subscribe(CACHE_NAME, this::onRemoteRevocation);
+    }
+    
+    /**
+     * Revoke a token until its expiry. Tokens without a jti predate revocation support and are ignored.
+     */
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        Date expiration = claims.getExpiration();
+        if (jti == null || expiration == null) {
+            return;
+        }
+        
+        try {
+            revokedTokenRepository.save(new RevokedToken(jti, claims.getSubject(),
+                LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault())));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token {} was already revoked", jti);
+        }
+        
+        filter.add(jti, expiration.getTime());
+        confirmations.invalidate(jti);
+        invalidationBus.publish(CACHE_NAME, jti + "|" + expiration.getTime());
+    }
+    
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        Date expiration = claims.getExpiration();
+        if (jti == null || expiration == null || !filter.mightContain(jti, expiration.getTime())) {
+            return false;
+        }
+        if (confirmations.get(jti) != null) {
+            return true;
+        }
+        boolean revoked = revokedTokenRepository.existsByJti(jti);
+        if (revoked) {
+            confirmations.put(jti, Boolean.TRUE);
+        }
+        return revoked;
+    }
+    
+    /**
+     * Pick up revocations made on other nodes. The first run after startup loads every
+     * revocation that has not expired yet.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSyncStartedAt == null ? EPOCH
+            : lastSyncStartedAt.minus(syncOverlapMillis, ChronoUnit.MILLIS);
+        long afterId = 0;
+        List<RevokedToken> batch;
+        do {
+            batch = revokedTokenRepository.findRevokedSince(since, afterId, now, SYNC_PAGE);
+            for (RevokedToken token : batch) {
+                filter.add(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                since = token.getRevokedAt();
+                afterId = token.getId();
+            }
+        } while (batch.size() == SYNC_PAGE.getPageSize());
+        lastSyncStartedAt = now;
+    }
+    
+    /**
+     * Drop filter buckets and rows for tokens that have expired anyway
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        filter.expire(Instant.now().toEpochMilli());
+        confirmations.cleanUp();
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Purged {} expired token revocations", deleted);
+        }
+    }
+    
+    private void onRemoteRevocation(String message) {
+        int separator = message.lastIndexOf('|');
+        if (separator > 0) {
+            String jti = message.substring(0, separator);
+            filter.add(jti, Long.parseLong(message.substring(separator + 1)));
+            confirmations.invalidate(jti);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.springten.wallet.service;
+
+import com.springten.wallet.balance.TokenBalanceWriteBuffer;
+import com.springten.wallet.cache.LocalCache;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.TokenBalance;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.portfolio.BalanceChangedEvent;
+import com.springten.wallet.repository.TokenBalanceRepository;
+import com.springten.wallet.repository.TokenRepository;
+import com.springten.wallet.repository.WalletRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Service
+public class TokenBalanceService {
+    
+    private static final long REFERENCE_TTL_MS = 3_600_000L;
+    
+    private final TokenBalanceRepository tokenBalanceRepository;
+    private final WalletRepository walletRepository;
+    private final TokenRepository tokenRepository;
+    private final TokenService tokenService;
+    private final TokenBalanceWriteBuffer writeBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // Wallet addresses and token symbols never change, so updates need no lookups once these are warm
+    private final LocalCache<Long, String> walletAddresses = new LocalCache<>(REFERENCE_TTL_MS, 100_000);
+    private final LocalCache<Long, String> tokenSymbols = new LocalCache<>(REFERENCE_TTL_MS, 10_000);
+    
+    public TokenBalanceService(TokenBalanceRepository tokenBalanceRepository, WalletRepository walletRepository,
+                               TokenRepository tokenRepository, TokenService tokenService,
+                               TokenBalanceWriteBuffer writeBuffer, ApplicationEventPublisher eventPublisher) {
+        this.tokenBalanceRepository = tokenBalanceRepository;
+        this.walletRepository = walletRepository;
+        this.tokenRepository = tokenRepository;
+        this.tokenService = tokenService;
+        this.writeBuffer = writeBuffer;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    /**
+     * Set a wallet's balance of a token. The row is written by the write-behind
+     * buffer; the portfolio projection is updated immediately.
+     */
+    public void updateBalance(Long walletId, Long tokenId, BigDecimal balance) {
+        String walletAddress = walletAddresses.get(walletId, id -> walletRepository.findById(id)
+            .map(Wallet::getAddress)
+            .orElseThrow(() -> new IllegalArgumentException("Wallet not found with id: " + id)));
+        String symbol = tokenSymbols.get(tokenId, id -> tokenRepository.findById(id)
+            .map(Token::getSymbol)
+            .orElseThrow(() -> new IllegalArgumentException("Token not found with id: " + id)));
+        
+        BigDecimal priceUsd = tokenService.getPriceUsd(symbol);
+        BigDecimal balanceUsd = priceUsd != null ? balance.multiply(priceUsd).setScale(18, RoundingMode.HALF_EVEN) : null;
+        writeBuffer.put(walletId, tokenId, balance, balanceUsd);
+        
+        eventPublisher.publishEvent(new BalanceChangedEvent(walletId, walletAddress, tokenId, symbol, balance, priceUsd));
+    }
+    
+    /**
+     * Get a wallet's balance of a token, including updates not yet written. Only
+     * updates buffered on this node are included; on another node a new balance
+     * shows up after the next flush (balance.write-behind.flush-interval-ms).
+     */
+    public BigDecimal getBalance(Long walletId, Long tokenId) {
+        TokenBalanceWriteBuffer.PendingBalance pending = writeBuffer.getPending(walletId, tokenId);
+        if (pending != null) {
+            return pending.balance();
+        }
+        return tokenBalanceRepository.findByWalletIdAndTokenId(walletId, tokenId)
+            .map(TokenBalance::getBalance)
+            .orElse(BigDecimal.ZERO);
+    }
+}
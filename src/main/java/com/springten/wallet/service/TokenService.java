@@ -0,0 +1,65 @@
+package com.springten.wallet.service;
+
+import com.springten.wallet.cache.CacheCodec;
+import com.springten.wallet.cache.CacheSpec;
+import com.springten.wallet.cache.TwoLevelCache;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.portfolio.PriceChangedEvent;
+import com.springten.wallet.repository.TokenRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+@Service
+public class TokenService {
+    
+    private final TokenRepository tokenRepository;
+    private final TwoLevelCache<BigDecimal> priceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public TokenService(TokenRepository tokenRepository, TwoLevelCacheManager cacheManager,
+                        ApplicationEventPublisher eventPublisher) {
+        this.tokenRepository = tokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.priceCache = cacheManager.create("token-prices", CacheCodec.BIG_DECIMAL,
+            new CacheSpec(10_000, 30_000, 5_000));
+    }
+    
+    /**
+     * Get the last known USD price of a token, or null if the token is unknown
+     */
+    public BigDecimal getPriceUsd(String symbol) {
+        return priceCache.get(normalize(symbol), key -> tokenRepository.findBySymbol(key)
+            .map(Token::getCurrentPriceUsd)
+            .orElse(null));
+    }
+    
+    /**
+     * Store a new USD price and push it to every node's cache
+     */
+    @Transactional
+    public void updatePriceUsd(String symbol, BigDecimal priceUsd) {
+        String key = normalize(symbol);
+        Token token = tokenRepository.findBySymbol(key)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown token: " + symbol));
+        token.setCurrentPriceUsd(priceUsd);
+        tokenRepository.save(token);
+        publishPrice(token.getId(), key, priceUsd);
+    }
+    
+    /**
+     * Push a price that is already persisted to every node's cache and to the portfolio projection
+     */
+    public void publishPrice(Long tokenId, String symbol, BigDecimal priceUsd) {
+        priceCache.put(normalize(symbol), priceUsd);
+        eventPublisher.publishEvent(new PriceChangedEvent(tokenId, normalize(symbol), priceUsd));
+    }
+    
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,162 @@
+package com.springten.wallet.service;
+
+import com.springten.wallet.archive.ColdTransactionStore;
+import com.springten.wallet.dto.TransactionHistoryItem;
+import com.springten.wallet.dto.TransactionHistoryResponse;
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.partition.TransactionPartitionManager;
+import com.springten.wallet.repository.TransactionHistoryQuery;
+import com.springten.wallet.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keyset-paginated transaction history. The cursor is the (createdAt, id) of the
+ * last row returned, so every page is an index range scan of the same cost no
+ * matter how deep the client has paged.
+ *
+ * When archiving is enabled, older rows live in MongoDB; both tiers are read
+ * with the same cursor and merged, and the cold tier is skipped entirely when
+ * the hot page is already full of rows newer than anything archived.
+ *
+ * On a partitioned PostgreSQL table the hot tier is read one month window at a
+ * time, newest first, so each query touches a single partition.
+ */
+@Service
+public class TransactionHistoryService {
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private final TransactionRepository transactionRepository;
+    private final Optional<ColdTransactionStore> coldTransactionStore;
+    private final Optional<TransactionPartitionManager> partitionManager;
+    
+    public TransactionHistoryService(TransactionRepository transactionRepository,
+                                     Optional<ColdTransactionStore> coldTransactionStore,
+                                     Optional<TransactionPartitionManager> partitionManager) {
+        this.transactionRepository = transactionRepository;
+        this.coldTransactionStore = coldTransactionStore;
+        this.partitionManager = partitionManager;
+    }
+    
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse getHistory(Long userId, Transaction.TransactionType type,
+                                                 Transaction.TransactionStatus status, String tokenSymbol,
+                                                 String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorCreatedAt = LocalDateTime.parse(parts[0]);
+            cursorId = Long.parseLong(parts[1]);
+        }
+        
+        // One extra row tells us whether another page exists without a count query
+        TransactionHistoryQuery query = new TransactionHistoryQuery(
+            userId, type, status, tokenSymbol, cursorCreatedAt, cursorId, pageSize + 1);
+        List<TransactionHistoryItem> rows = findHotPage(query);
+        if (coldTransactionStore.isPresent() && needsColdTier(rows, query.limit(), coldTransactionStore.get())) {
+            rows = mergeNewestFirst(rows, coldTransactionStore.get().findHistoryPage(query), query.limit());
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionHistoryItem> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        
+        return new TransactionHistoryResponse(List.copyOf(items), nextCursor, hasMore);
+    }
+    
+    private List<TransactionHistoryItem> findHotPage(TransactionHistoryQuery query) {
+        if (partitionManager.isEmpty() || !partitionManager.get().isActive()) {
+            return transactionRepository.findHistoryPage(query);
+        }
+        
+        List<TransactionHistoryItem> rows = new ArrayList<>(query.limit());
+        TransactionHistoryQuery window = query;
+        for (LocalDateTime from : partitionManager.get().historyWindows(query.cursorCreatedAt())) {
+            List<TransactionHistoryItem> page =
+                transactionRepository.findHistoryPage(window.from(from, query.limit() - rows.size()));
+            rows.addAll(page);
+            if (rows.size() >= query.limit()) {
+                break;
+            }
+            if (!page.isEmpty()) {
+                TransactionHistoryItem last = page.get(page.size() - 1);
+                window = window.after(last.createdAt(), last.id());
+            }
+        }
+        return rows;
+    }
+    
+    private static boolean needsColdTier(List<TransactionHistoryItem> hotRows, int limit, ColdTransactionStore cold) {
+        if (hotRows.size() < limit) {
+            return true;
+        }
+        LocalDateTime newestArchived = cold.getNewestArchived();
+        return newestArchived != null && !hotRows.get(hotRows.size() - 1).createdAt().isAfter(newestArchived);
+    }
+    
+    /**
+     * Merge two pages that are each sorted by (createdAt, id) descending, dropping rows
+     * present in both tiers (archived but not yet deleted from SQL)
+     */
+    static List<TransactionHistoryItem> mergeNewestFirst(List<TransactionHistoryItem> hot,
+                                                         List<TransactionHistoryItem> cold, int limit) {
+        List<TransactionHistoryItem> merged = new ArrayList<>(Math.min(limit, hot.size() + cold.size()));
+        int h = 0;
+        int c = 0;
+        while (merged.size() < limit && (h < hot.size() || c < cold.size())) {
+            TransactionHistoryItem next;
+            if (c >= cold.size()) {
+                next = hot.get(h++);
+            } else if (h >= hot.size()) {
+                next = cold.get(c++);
+            } else {
+                int order = compareNewestFirst(hot.get(h), cold.get(c));
+                if (order == 0) {
+                    c++;
+                    continue;
+                }
+                next = order < 0 ? hot.get(h++) : cold.get(c++);
+            }
+            merged.add(next);
+        }
+        return merged;
+    }
+    
+    private static int compareNewestFirst(TransactionHistoryItem a, TransactionHistoryItem b) {
+        int byCreated = b.createdAt().compareTo(a.createdAt());
+        return byCreated != 0 ? byCreated : Long.compare(b.id(), a.id());
+    }
+    
+    public static String encodeCursor(TransactionHistoryItem item) {
+        String raw = item.createdAt() + "|" + item.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
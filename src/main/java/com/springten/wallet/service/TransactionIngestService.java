@@ -0,0 +1,67 @@
+package com.springten.wallet.service;
+
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.outbox.OutboxWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk persistence for transaction rows, e.g. a block's worth from an indexer.
+ *
+ * Relies on pooled-lo sequence ids and hibernate.jdbc.batch_size: ids are
+ * assigned without a round-trip, inserts go out as JDBC batches, and the
+ * persistence context is flushed and cleared every batch so memory stays flat.
+ * A TransactionRecorded outbox event is written alongside each row.
+ */
+@Service
+public class TransactionIngestService {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final OutboxWriter outboxWriter;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    public TransactionIngestService(OutboxWriter outboxWriter) {
+        this.outboxWriter = outboxWriter;
+    }
+    
+    @Transactional
+    public int ingest(List<Transaction> transactions) {
+        int count = 0;
+        for (Transaction transaction : transactions) {
+            entityManager.persist(transaction);
+            outboxWriter.append("Transaction", transaction.getId(), "TransactionRecorded", recordedPayload(transaction));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
+    
+    private static Map<String, Object> recordedPayload(Transaction transaction) {
+        // HashMap because optional columns may be null
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("transactionId", transaction.getId());
+        payload.put("hash", transaction.getTransactionHash());
+        payload.put("type", transaction.getTransactionType());
+        payload.put("status", transaction.getStatus());
+        payload.put("from", transaction.getFromAddress());
+        payload.put("to", transaction.getToAddress());
+        payload.put("amount", transaction.getAmount());
+        payload.put("blockNumber", transaction.getBlockNumber());
+        return payload;
+    }
+}
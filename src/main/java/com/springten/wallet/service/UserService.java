@@ -2,15 +2,22 @@ package com.springten.wallet.service;
 
 import com.springten.wallet.dto.RegisterRequest;
 import com.springten.wallet.model.User;
+import com.springten.wallet.outbox.OutboxWriter;
 import com.springten.wallet.repository.UserRepository;
+import com.springten.wallet.security.ProfileVersionTable;
+import com.springten.wallet.security.UserPrincipal;
+import com.springten.wallet.security.UserPrincipalCache;
 import com.springten.wallet.web3.Web3Service;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
+import java.util.Map;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -18,25 +25,49 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final Web3Service web3Service;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ProfileVersionTable profileVersionTable;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, Web3Service web3Service) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, @Lazy Web3Service web3Service,
+                       UserPrincipalCache userPrincipalCache, ProfileVersionTable profileVersionTable,
+                       OutboxWriter outboxWriter, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.web3Service = web3Service;
+        this.userPrincipalCache = userPrincipalCache;
+        this.profileVersionTable = profileVersionTable;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
     }
     
+    /**
+     * Load a user with its password hash for a login check. Always read from the database.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(new ArrayList<>())
-                .build();
+        return seedProfileVersion(UserPrincipal.from(findByUsername(username)));
     }
     
+    /**
+     * Load the principal of an already authenticated user through the principal cache.
+     * The result carries no password.
+     */
+    public UserPrincipal loadPrincipal(String username) throws UsernameNotFoundException {
+        return seedProfileVersion(userPrincipalCache.get(username, name -> UserPrincipal.from(findByUsername(name))));
+    }
+    
+    private UserPrincipal seedProfileVersion(UserPrincipal principal) {
+        // Seed the version table so tokens carrying this version can skip the lookup; the
+        // principal may have come from the shared cache level without touching this node
+        if (profileVersionTable.get(principal.getId()) == ProfileVersionTable.UNKNOWN) {
+            profileVersionTable.put(principal.getId(), principal.getProfileVersion());
+        }
+        return principal;
+    }
+    
+    @Transactional
     public User registerUser(RegisterRequest request) throws Exception {
         // Check if user already exists
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -68,7 +99,7 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Failed to generate wallet: " + e.getMessage());
         }
         
-        return userRepository.save(user);
+        return saveRegistered(user);
     }
     
     public User findByUsername(String username) {
@@ -82,13 +113,32 @@ public class UserService implements UserDetailsService {
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        long version = user.getProfileVersion() != null ? user.getProfileVersion() : 0L;
+        user.setProfileVersion(version + 1);
+        // Invalidate after commit: a load that read the old row before it finds its claim on the shared
+        // entry deleted and does not store it, and a load that starts later reads the new row
+        User saved = transactionTemplate.execute(status -> {
+            User updated = userRepository.save(user);
+            outboxWriter.append("User", updated.getId(), "UserUpdated", Map.of(
+                "userId", updated.getId(),
+                "username", updated.getUsername(),
+                "profileVersion", updated.getProfileVersion()));
+            return updated;
+        });
+        userPrincipalCache.invalidate(saved.getUsername());
+        profileVersionTable.update(saved.getId(), saved.getProfileVersion());
+        return saved;
     }
     
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            userPrincipalCache.invalidate(user.getUsername());
+            profileVersionTable.invalidate(user.getId());
+        });
     }
     
+    @Transactional
     public User createWalletOnlyUser() throws Exception {
         // Generate unique username for wallet-only user
         String username = "wallet_" + System.currentTimeMillis();
@@ -114,9 +164,10 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Failed to generate wallet: " + e.getMessage());
         }
         
-        return userRepository.save(user);
+        return saveRegistered(user);
     }
     
+    @Transactional
     public User importWalletFromRecoveryPhrase(String recoveryPhrase) throws Exception {
         // Generate unique username for imported wallet user
         String username = "imported_" + System.currentTimeMillis();
@@ -143,6 +194,15 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("Failed to import wallet: " + e.getMessage());
         }
         
-        return userRepository.save(user);
+        return saveRegistered(user);
+    }
+    
+    private User saveRegistered(User user) {
+        User saved = userRepository.save(user);
+        outboxWriter.append("User", saved.getId(), "UserRegistered", Map.of(
+            "userId", saved.getId(),
+            "username", saved.getUsername(),
+            "walletAddress", saved.getWalletAddress()));
+        return saved;
     }
 }
@@ -2,13 +2,18 @@ package com.springten.wallet.service;
 
 import com.springten.wallet.model.User;
 import com.springten.wallet.model.Wallet;
+import com.springten.wallet.outbox.OutboxWriter;
 import com.springten.wallet.repository.WalletRepository;
 import com.springten.wallet.web3.Web3Service;
+import com.springten.wallet.web3.Wei;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Map;
 
 @Service
 public class WalletService {
@@ -17,8 +22,13 @@ public class WalletService {
     private WalletRepository walletRepository;
     
     @Autowired
+    @Lazy
     private Web3Service web3Service;
     
+    @Autowired
+    private OutboxWriter outboxWriter;
+    
+    @Transactional
     public Wallet createWalletForUser(User user) throws Exception {
         Wallet wallet = web3Service.generateEthereumWallet();
         wallet.setUser(user);
@@ -29,19 +39,28 @@ public class WalletService {
         
         user.setWalletAddress(wallet.getAddress());
         
-        return walletRepository.save(wallet);
+        Wallet saved = walletRepository.save(wallet);
+        outboxWriter.append("Wallet", saved.getAddress(), "WalletCreated", Map.of(
+            "walletId", saved.getId(),
+            "userId", user.getId(),
+            "address", saved.getAddress(),
+            "network", saved.getBlockchainNetwork().name()));
+        return saved;
     }
     
-    public BigInteger getBalance(String address) throws Exception {
+    public Wei getBalance(String address) throws Exception {
         return web3Service.getBalance(address);
     }
     
-    public BigDecimal weiToEth(BigInteger wei) {
-        return new BigDecimal(wei).divide(new BigDecimal("1000000000000000000"));
+    public BigDecimal weiToEth(Wei wei) {
+        return wei.toBigDecimal(Wei.Unit.ETHER);
     }
     
-    public BigInteger ethToWei(BigDecimal eth) {
-        return eth.multiply(new BigDecimal("1000000000000000000")).toBigInteger();
+    /**
+     * Exact conversion; amounts finer than one wei are rejected rather than truncated
+     */
+    public Wei ethToWei(BigDecimal eth) {
+        return Wei.parse(eth.toPlainString(), Wei.Unit.ETHER);
     }
     
     public String sendTransaction(String fromAddress, String toAddress, BigInteger amount, String privateKey) throws Exception {
@@ -0,0 +1,17 @@
+package com.springten.wallet.swap;
+
+import com.springten.wallet.model.LiquidityPool;
+
+/**
+ * Static description of a pool: its address, its two tokens in getReserves order and its fee
+ */
+public record PoolDefinition(String address, String token0, int decimals0, String token1, int decimals1,
+                             int feeBps) {
+
+    public static PoolDefinition of(LiquidityPool pool) {
+        return new PoolDefinition(pool.getAddress(),
+            pool.getToken0().getSymbol(), pool.getToken0().getDecimals(),
+            pool.getToken1().getSymbol(), pool.getToken1().getDecimals(),
+            pool.getFeeBps());
+    }
+}
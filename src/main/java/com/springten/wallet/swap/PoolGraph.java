@@ -0,0 +1,165 @@
+package com.springten.wallet.swap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable pool topology over our tokens plus the latest reserves of each pool. Candidate
+ * routes between two tokens depend only on the topology, so they are enumerated on the first
+ * quote for the pair and reused until the pool set changes.
+ */
+final class PoolGraph {
+
+    final String[] symbols;
+    final int[] decimals;
+    final String[] addresses;
+    final int[] token0;
+    final int[] token1;
+    final int[] feeBps;
+    final AtomicReferenceArray<PoolReserves> reserves;
+
+    private final int maxHops;
+    private final Map<String, Integer> tokenIndex = new HashMap<>();
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private final int[][] poolsByToken;
+    private final Map<Long, Route[]> routes = new ConcurrentHashMap<>();
+
+    PoolGraph(List<PoolDefinition> definitions, int maxHops) {
+        this.maxHops = maxHops;
+        List<String> tokenSymbols = new ArrayList<>();
+        List<Integer> tokenDecimals = new ArrayList<>();
+        List<PoolDefinition> accepted = new ArrayList<>();
+        for (PoolDefinition definition : definitions) {
+            String address = normalizeAddress(definition.address());
+            if (poolIndex.containsKey(address) || symbolKey(definition.token0()).equals(symbolKey(definition.token1()))) {
+                continue;
+            }
+            poolIndex.put(address, accepted.size());
+            accepted.add(definition);
+            addToken(definition.token0(), definition.decimals0(), tokenSymbols, tokenDecimals);
+            addToken(definition.token1(), definition.decimals1(), tokenSymbols, tokenDecimals);
+        }
+
+        int poolCount = accepted.size();
+        this.symbols = tokenSymbols.toArray(String[]::new);
+        this.decimals = tokenDecimals.stream().mapToInt(Integer::intValue).toArray();
+        this.addresses = new String[poolCount];
+        this.token0 = new int[poolCount];
+        this.token1 = new int[poolCount];
+        this.feeBps = new int[poolCount];
+        this.reserves = new AtomicReferenceArray<>(poolCount);
+        int[] degree = new int[symbols.length];
+        for (int i = 0; i < poolCount; i++) {
+            PoolDefinition definition = accepted.get(i);
+            addresses[i] = normalizeAddress(definition.address());
+            token0[i] = tokenIndex.get(symbolKey(definition.token0()));
+            token1[i] = tokenIndex.get(symbolKey(definition.token1()));
+            feeBps[i] = definition.feeBps();
+            degree[token0[i]]++;
+            degree[token1[i]]++;
+        }
+        this.poolsByToken = new int[symbols.length][];
+        for (int t = 0; t < symbols.length; t++) {
+            poolsByToken[t] = new int[degree[t]];
+            degree[t] = 0;
+        }
+        for (int i = 0; i < poolCount; i++) {
+            poolsByToken[token0[i]][degree[token0[i]]++] = i;
+            poolsByToken[token1[i]][degree[token1[i]]++] = i;
+        }
+    }
+
+    int poolCount() {
+        return addresses.length;
+    }
+
+    /**
+     * Index of the token, or -1 if no pool trades it
+     */
+    int token(String symbol) {
+        Integer index = tokenIndex.get(symbolKey(symbol));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Index of the pool, or -1 if it is not part of this topology
+     */
+    int pool(String address) {
+        Integer index = poolIndex.get(normalizeAddress(address));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Every path of up to maxHops pools from one token to another that visits no token twice
+     */
+    Route[] routes(int from, int to) {
+        return routes.computeIfAbsent(((long) from << 32) | to, key -> enumerate(from, to));
+    }
+
+    private Route[] enumerate(int from, int to) {
+        List<Route> found = new ArrayList<>();
+        int[] pools = new int[maxHops];
+        int[] path = new int[maxHops + 1];
+        boolean[] visited = new boolean[symbols.length];
+        path[0] = from;
+        visited[from] = true;
+        extend(to, 0, pools, path, visited, found);
+        return found.toArray(Route[]::new);
+    }
+
+    private void extend(int target, int depth, int[] pools, int[] path, boolean[] visited, List<Route> found) {
+        int token = path[depth];
+        for (int pool : poolsByToken[token]) {
+            int next = token0[pool] == token ? token1[pool] : token0[pool];
+            if (visited[next]) {
+                continue;
+            }
+            pools[depth] = pool;
+            path[depth + 1] = next;
+            if (next == target) {
+                found.add(new Route(Arrays.copyOf(pools, depth + 1), Arrays.copyOf(path, depth + 2)));
+            } else if (depth + 1 < maxHops) {
+                visited[next] = true;
+                extend(target, depth + 1, pools, path, visited, found);
+                visited[next] = false;
+            }
+        }
+    }
+
+    private void addToken(String symbol, int tokenDecimals, List<String> tokenSymbols, List<Integer> tokenDecimalsList) {
+        String key = symbolKey(symbol);
+        Integer index = tokenIndex.get(key);
+        if (index == null) {
+            tokenIndex.put(key, tokenSymbols.size());
+            tokenSymbols.add(key);
+            tokenDecimalsList.add(tokenDecimals);
+        } else if (tokenDecimalsList.get(index) != tokenDecimals) {
+            throw new IllegalArgumentException("Token " + key + " is listed with " + tokenDecimalsList.get(index)
+                + " and " + tokenDecimals + " decimals");
+        }
+    }
+
+    static String symbolKey(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    static String normalizeAddress(String address) {
+        return address.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Pools to trade through in order; path holds the token entering each pool followed by the output token
+     */
+    record Route(int[] pools, int[] path) {
+
+        int hops() {
+            return pools.length;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.springten.wallet.swap;
+
+import com.springten.wallet.repository.LiquidityPoolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the quote engine's pools and reserves current. The first round, a change in the
+ * pool set, a failed round or falling more than maxLogRange blocks behind triggers a full
+ * getReserves snapshot at the head block; otherwise only the Sync events since the last
+ * synced block are fetched, in a single eth_getLogs call.
+ *
+ * Each round first checks that the last synced block is still canonical. If a reorg
+ * replaced it, the reserves applied since may come from orphaned blocks, so a new
+ * snapshot replaces them outright rather than only where it is newer.
+ */
+public class PoolReserveRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolReserveRefresher.class);
+
+    private final LiquidityPoolRepository poolRepository;
+    private final ReserveSource reserveSource;
+    private final SwapQuoteEngine engine;
+    private final int batchSize;
+    private final long maxLogRange;
+
+    // Guards the state below; reloadPools and refresh are separate scheduled tasks and may run at once.
+    // A ReentrantLock so a virtual thread waiting on it does not pin its carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean poolsLoaded;
+    private boolean snapshotNeeded = true;
+    private long syncedBlock = -1;
+    private String syncedBlockHash;
+
+    public PoolReserveRefresher(LiquidityPoolRepository poolRepository, ReserveSource reserveSource,
+                                SwapQuoteEngine engine, int batchSize, long maxLogRange) {
+        this.poolRepository = poolRepository;
+        this.reserveSource = reserveSource;
+        this.engine = engine;
+        this.batchSize = batchSize;
+        this.maxLogRange = maxLogRange;
+    }
+
+    @Scheduled(fixedDelayString = "${swap.reserves.pool-reload-interval-ms:300000}")
+    public void reloadPools() {
+        lock.lock();
+        try {
+            List<PoolDefinition> pools = poolRepository.findActiveWithTokens().stream()
+                .map(PoolDefinition::of)
+                .toList();
+            if (engine.loadPools(pools) > 0) {
+                snapshotNeeded = true;
+            }
+            poolsLoaded = true;
+        } catch (Exception e) {
+            log.warn("Pool reload failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${swap.reserves.refresh-interval-ms:2000}")
+    public void scheduledRefresh() {
+        lock.lock();
+        try {
+            refresh();
+        } catch (Exception e) {
+            snapshotNeeded = true;
+            log.warn("Reserve refresh failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bring reserves up to the head block. Returns the number of reserve updates applied.
+     */
+    public int refresh() throws Exception {
+        lock.lock();
+        try {
+            return refreshLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int refreshLocked() throws Exception {
+        if (!poolsLoaded) {
+            reloadPools();
+        }
+        List<String> addresses = engine.getPoolAddresses();
+        if (addresses.isEmpty()) {
+            return 0;
+        }
+        boolean reorg = syncedBlock >= 0 && !reserveSource.blockHash(syncedBlock).equals(syncedBlockHash);
+        if (reorg) {
+            log.info("Block {} was reorganized away, reloading reserves", syncedBlock);
+        }
+        long head = reserveSource.latestBlock();
+        if (!reorg && !snapshotNeeded && head <= syncedBlock) {
+            return 0;
+        }
+        // Read before the reserves: if the head is replaced in between, the next round sees a different hash
+        String headHash = reserveSource.blockHash(head);
+        int applied = 0;
+        if (reorg || snapshotNeeded || syncedBlock < 0 || head - syncedBlock > maxLogRange) {
+            for (int from = 0; from < addresses.size(); from += batchSize) {
+                List<String> batch = addresses.subList(from, Math.min(from + batchSize, addresses.size()));
+                List<PoolReserves> snapshot = reserveSource.getReserves(batch, head);
+                applied += reorg ? engine.replaceReserves(snapshot) : engine.applyReserves(snapshot);
+            }
+            snapshotNeeded = false;
+            log.debug("Loaded reserves of {} pools at block {}", applied, head);
+        } else {
+            applied = engine.applyReserves(reserveSource.getSyncEvents(addresses, syncedBlock + 1, head));
+        }
+        syncedBlock = head;
+        syncedBlockHash = headHash;
+        return applied;
+    }
+}
@@ -0,0 +1,21 @@
+package com.springten.wallet.swap;
+
+import java.math.BigInteger;
+
+/**
+ * Reserves of one pool as of a position in the chain. A getReserves snapshot reflects the end
+ * of its block and sorts after every Sync event of that block.
+ */
+public record PoolReserves(String address, BigInteger reserve0, BigInteger reserve1, long blockNumber, int logIndex) {
+
+    public static final int END_OF_BLOCK = Integer.MAX_VALUE;
+
+    public static PoolReserves snapshot(String address, BigInteger reserve0, BigInteger reserve1, long blockNumber) {
+        return new PoolReserves(address, reserve0, reserve1, blockNumber, END_OF_BLOCK);
+    }
+
+    boolean isNewerThan(PoolReserves other) {
+        return other == null || blockNumber > other.blockNumber
+            || (blockNumber == other.blockNumber && logIndex > other.logIndex);
+    }
+}
@@ -0,0 +1,28 @@
+package com.springten.wallet.swap;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where pool reserves come from: full snapshots through getReserves and incremental Sync events
+ */
+public interface ReserveSource {
+
+    long latestBlock() throws IOException;
+
+    /**
+     * Hash of the canonical block at this height; a different answer for a height seen before means a reorg
+     */
+    String blockHash(long blockNumber) throws IOException;
+
+    /**
+     * Reserves of each pool at the end of the given block, read in one round trip.
+     * Pools whose call fails are left out.
+     */
+    List<PoolReserves> getReserves(List<String> poolAddresses, long blockNumber) throws IOException;
+
+    /**
+     * Sync events emitted by the pools in [fromBlock, toBlock], in chain order
+     */
+    List<PoolReserves> getSyncEvents(List<String> poolAddresses, long fromBlock, long toBlock) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.springten.wallet.swap;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Best route found for an exact-input swap. Amounts are in whole tokens; minimumAmountOut is
+ * amountOut less the slippage tolerance and is what a swap transaction should require.
+ * priceImpactPercent is the shortfall against the pools' mid prices after fees.
+ */
+public record SwapQuote(String tokenIn, String tokenOut, BigDecimal amountIn, BigDecimal amountOut,
+                        BigDecimal minimumAmountOut, int slippageBps, BigDecimal executionPrice,
+                        BigDecimal midPrice, BigDecimal priceImpactPercent, List<String> path,
+                        List<String> pools, long blockNumber, int routesEvaluated) {
+}
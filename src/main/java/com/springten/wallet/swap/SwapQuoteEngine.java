@@ -0,0 +1,336 @@
+package com.springten.wallet.swap;
+
+import com.springten.wallet.swap.PoolGraph.Route;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotes exact-input swaps across constant-product pools from reserves held in memory.
+ *
+ * Pools are loaded with {@link #loadPools} and their reserves kept current through
+ * {@link #applyReserves}, from getReserves snapshots or Sync events; an update older than
+ * the reserves already held is ignored. A quote enumerates every route of up to maxHops
+ * pools between the two tokens (cached per pair), computes the exact Uniswap V2 output of
+ * each, splitting large candidate sets across a ForkJoinPool, and reports the best one.
+ * No RPC call is made while quoting.
+ */
+public class SwapQuoteEngine {
+
+    static final int MAX_SLIPPAGE_BPS = 5_000;
+
+    // Routes evaluated by one task; smaller candidate sets are evaluated on the calling thread
+    private static final int LEAF_SIZE = 64;
+    private static final BigInteger BPS = BigInteger.valueOf(10_000);
+    private static final MathContext PRICE_CONTEXT = MathContext.DECIMAL64;
+
+    private final int maxHops;
+    private final int defaultSlippageBps;
+    private final ForkJoinPool pool;
+    private final Timer quoteTimer;
+    private volatile PoolGraph graph;
+
+    public SwapQuoteEngine(MeterRegistry meterRegistry, int maxHops, int defaultSlippageBps, int parallelism) {
+        if (maxHops < 1) {
+            throw new IllegalArgumentException("maxHops must be at least 1");
+        }
+        this.maxHops = maxHops;
+        this.defaultSlippageBps = checkSlippage(defaultSlippageBps);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.graph = new PoolGraph(List.of(), maxHops);
+        this.quoteTimer = Timer.builder("springten.swap.quote")
+            .description("Time to quote a swap from cached reserves").register(meterRegistry);
+        Gauge.builder("springten.swap.pools", this, SwapQuoteEngine::getPoolCount)
+            .description("Pools available for routing").register(meterRegistry);
+    }
+
+    /**
+     * Replace the pool set, keeping the reserves of pools that remain.
+     * Returns the number of pools that have no reserves yet.
+     */
+    public int loadPools(List<PoolDefinition> definitions) {
+        PoolGraph previous = graph;
+        PoolGraph next = new PoolGraph(definitions, maxHops);
+        int missing = 0;
+        for (int i = 0; i < next.poolCount(); i++) {
+            int old = previous.pool(next.addresses[i]);
+            PoolReserves reserves = old >= 0 ? previous.reserves.get(old) : null;
+            if (reserves != null) {
+                next.reserves.set(i, reserves);
+            } else {
+                missing++;
+            }
+        }
+        graph = next;
+        return missing;
+    }
+
+    /**
+     * Apply reserves for a known pool unless newer ones are already held. Returns whether they were applied.
+     */
+    public boolean applyReserves(PoolReserves update) {
+        PoolGraph current = graph;
+        int index = current.pool(update.address());
+        if (index < 0) {
+            return false;
+        }
+        while (true) {
+            PoolReserves held = current.reserves.get(index);
+            if (!update.isNewerThan(held)) {
+                return false;
+            }
+            if (current.reserves.compareAndSet(index, held, update)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Set reserves whatever is held now, for a snapshot taken after a reorg orphaned the
+     * updates applied so far. Returns the number of pools updated.
+     */
+    public int replaceReserves(Collection<PoolReserves> snapshot) {
+        PoolGraph current = graph;
+        int replaced = 0;
+        for (PoolReserves reserves : snapshot) {
+            int index = current.pool(reserves.address());
+            if (index >= 0) {
+                current.reserves.set(index, reserves);
+                replaced++;
+            }
+        }
+        return replaced;
+    }
+
+    public int applyReserves(Collection<PoolReserves> updates) {
+        int applied = 0;
+        for (PoolReserves update : updates) {
+            if (applyReserves(update)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Quote swapping amountIn whole tokens of tokenIn for tokenOut. Slippage defaults to the configured
+     * tolerance when null.
+     */
+    public SwapQuote quote(String tokenIn, String tokenOut, BigDecimal amountIn, Integer slippageBps) {
+        long start = System.nanoTime();
+        PoolGraph current = graph;
+        int from = requireToken(current, tokenIn);
+        int to = requireToken(current, tokenOut);
+        if (from == to) {
+            throw new IllegalArgumentException("Cannot swap " + current.symbols[from] + " for itself");
+        }
+        if (amountIn == null || amountIn.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        int slippage = slippageBps != null ? checkSlippage(slippageBps) : defaultSlippageBps;
+        BigInteger rawIn = toRaw(amountIn, current.decimals[from], current.symbols[from]);
+
+        Route[] routes = current.routes(from, to);
+        RouteEvaluation evaluation = new RouteEvaluation(current, routes, rawIn, 0, routes.length);
+        Best best = routes.length <= LEAF_SIZE ? evaluation.compute() : pool.invoke(evaluation);
+        if (best == null) {
+            throw new IllegalStateException("No route from " + current.symbols[from] + " to "
+                + current.symbols[to] + " has liquidity");
+        }
+
+        SwapQuote quote = describe(current, routes[best.index()], rawIn, amountIn, slippage, routes.length);
+        quoteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return quote;
+    }
+
+    public int getPoolCount() {
+        return graph.poolCount();
+    }
+
+    public List<String> getPoolAddresses() {
+        return List.of(graph.addresses);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Recompute the winning route from one read of its pools' reserves, so the amounts,
+     * prices and block number all describe the same state
+     */
+    private static SwapQuote describe(PoolGraph graph, Route route, BigInteger rawIn, BigDecimal amountIn,
+                                      int slippageBps, int routesEvaluated) {
+        PoolReserves[] reserves = new PoolReserves[route.hops()];
+        for (int hop = 0; hop < route.hops(); hop++) {
+            reserves[hop] = graph.reserves.get(route.pools()[hop]);
+        }
+        BigInteger rawOut = amountOut(graph, route, rawIn, reserves);
+        if (rawOut == null) {
+            throw new IllegalStateException("Route liquidity changed while quoting; retry");
+        }
+
+        int from = route.path()[0];
+        int to = route.path()[route.hops()];
+        // Mid price in raw units and the share of the input left after every pool's fee
+        BigDecimal rawMid = BigDecimal.ONE;
+        BigDecimal feeFactor = BigDecimal.ONE;
+        long blockNumber = Long.MAX_VALUE;
+        List<String> path = new ArrayList<>(route.hops() + 1);
+        List<String> pools = new ArrayList<>(route.hops());
+        path.add(graph.symbols[from]);
+        for (int hop = 0; hop < route.hops(); hop++) {
+            int pool = route.pools()[hop];
+            boolean zeroForOne = graph.token0[pool] == route.path()[hop];
+            BigInteger reserveIn = zeroForOne ? reserves[hop].reserve0() : reserves[hop].reserve1();
+            BigInteger reserveOut = zeroForOne ? reserves[hop].reserve1() : reserves[hop].reserve0();
+            rawMid = rawMid.multiply(new BigDecimal(reserveOut), PRICE_CONTEXT)
+                .divide(new BigDecimal(reserveIn), PRICE_CONTEXT);
+            feeFactor = feeFactor.multiply(BigDecimal.valueOf(10_000 - graph.feeBps[pool], 4));
+            blockNumber = Math.min(blockNumber, reserves[hop].blockNumber());
+            path.add(graph.symbols[route.path()[hop + 1]]);
+            pools.add(graph.addresses[pool]);
+        }
+
+        BigDecimal amountOut = new BigDecimal(rawOut, graph.decimals[to]);
+        BigInteger rawMinimum = rawOut.multiply(BigInteger.valueOf(10_000 - slippageBps)).divide(BPS);
+        BigDecimal midPrice = rawMid.movePointRight(graph.decimals[from] - graph.decimals[to]).round(PRICE_CONTEXT);
+        BigDecimal executionPrice = amountOut.divide(amountIn, PRICE_CONTEXT);
+        BigDecimal ideal = midPrice.multiply(feeFactor, PRICE_CONTEXT);
+        BigDecimal priceImpact = BigDecimal.ONE.subtract(executionPrice.divide(ideal, PRICE_CONTEXT))
+            .max(BigDecimal.ZERO).movePointRight(2).setScale(4, RoundingMode.HALF_UP);
+
+        return new SwapQuote(graph.symbols[from], graph.symbols[to], amountIn, amountOut,
+            new BigDecimal(rawMinimum, graph.decimals[to]), slippageBps, executionPrice, midPrice, priceImpact,
+            path, pools, blockNumber, routesEvaluated);
+    }
+
+    /**
+     * Output of a route in raw units, or null if a pool on it has no reserves or rounds the amount to zero.
+     * Reads the live reserves unless a snapshot is given.
+     */
+    static BigInteger amountOut(PoolGraph graph, Route route, BigInteger rawIn, PoolReserves[] snapshot) {
+        BigInteger amount = rawIn;
+        for (int hop = 0; hop < route.hops(); hop++) {
+            int pool = route.pools()[hop];
+            PoolReserves reserves = snapshot != null ? snapshot[hop] : graph.reserves.get(pool);
+            if (reserves == null) {
+                return null;
+            }
+            boolean zeroForOne = graph.token0[pool] == route.path()[hop];
+            BigInteger reserveIn = zeroForOne ? reserves.reserve0() : reserves.reserve1();
+            BigInteger reserveOut = zeroForOne ? reserves.reserve1() : reserves.reserve0();
+            if (reserveIn.signum() == 0 || reserveOut.signum() == 0) {
+                return null;
+            }
+            // UniswapV2Library.getAmountOut with the pool's fee
+            BigInteger amountInWithFee = amount.multiply(BigInteger.valueOf(10_000 - graph.feeBps[pool]));
+            amount = amountInWithFee.multiply(reserveOut)
+                .divide(reserveIn.multiply(BPS).add(amountInWithFee));
+            if (amount.signum() == 0) {
+                return null;
+            }
+        }
+        return amount;
+    }
+
+    private static int requireToken(PoolGraph graph, String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Token symbol must not be blank");
+        }
+        int index = graph.token(symbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("No pool trades " + PoolGraph.symbolKey(symbol));
+        }
+        return index;
+    }
+
+    private static BigInteger toRaw(BigDecimal amount, int decimals, String symbol) {
+        try {
+            return amount.movePointRight(decimals).setScale(0, RoundingMode.UNNECESSARY).toBigIntegerExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(symbol + " has " + decimals + " decimals; got " + amount.toPlainString());
+        }
+    }
+
+    private static int checkSlippage(int slippageBps) {
+        if (slippageBps < 0 || slippageBps > MAX_SLIPPAGE_BPS) {
+            throw new IllegalArgumentException("Slippage must be between 0 and " + MAX_SLIPPAGE_BPS + " bps");
+        }
+        return slippageBps;
+    }
+
+    /**
+     * Winning route index and its output in raw units
+     */
+    private record Best(int index, BigInteger amountOut) {
+
+        /**
+         * More output wins; on a tie the route with fewer hops, then the earlier one
+         */
+        static Best better(Best a, Best b, Route[] routes) {
+            if (a == null || b == null) {
+                return a == null ? b : a;
+            }
+            int compared = a.amountOut.compareTo(b.amountOut);
+            if (compared != 0) {
+                return compared > 0 ? a : b;
+            }
+            int hops = Integer.compare(routes[a.index].hops(), routes[b.index].hops());
+            if (hops != 0) {
+                return hops < 0 ? a : b;
+            }
+            return a.index < b.index ? a : b;
+        }
+    }
+
+    /**
+     * Finds the best of routes [from, to), splitting in halves down to LEAF_SIZE
+     */
+    private static final class RouteEvaluation extends RecursiveTask<Best> {
+
+        private final PoolGraph graph;
+        private final Route[] routes;
+        private final BigInteger rawIn;
+        private final int from;
+        private final int to;
+
+        private RouteEvaluation(PoolGraph graph, Route[] routes, BigInteger rawIn, int from, int to) {
+            this.graph = graph;
+            this.routes = routes;
+            this.rawIn = rawIn;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Best compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                RouteEvaluation left = new RouteEvaluation(graph, routes, rawIn, from, middle);
+                left.fork();
+                Best right = new RouteEvaluation(graph, routes, rawIn, middle, to).compute();
+                return Best.better(left.join(), right, routes);
+            }
+            Best best = null;
+            for (int i = from; i < to; i++) {
+                BigInteger out = amountOut(graph, routes[i], rawIn, null);
+                if (out != null) {
+                    best = Best.better(best, new Best(i, out), routes);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.springten.wallet.swap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Uniswap V2 pair reserves over JSON-RPC: getReserves for every pool in one batch
+ * request, and Sync events for all pools with one eth_getLogs call
+ */
+public class Web3ReserveSource implements ReserveSource {
+
+    private static final Logger log = LoggerFactory.getLogger(Web3ReserveSource.class);
+
+    // getReserves() returns (uint112 reserve0, uint112 reserve1, uint32 blockTimestampLast)
+    private static final String GET_RESERVES = "0x0902f1ac";
+    // keccak256("Sync(uint112,uint112)")
+    private static final String SYNC_TOPIC = "0x1c411e9a96e071241c2f21f7726b17ae89e3cab4c78be50e062b03a9fffbbad1";
+    private static final int WORD = 64;
+
+    private final Web3j web3j;
+
+    public Web3ReserveSource(Web3j web3j) {
+        this.web3j = web3j;
+    }
+
+    @Override
+    public long latestBlock() throws IOException {
+        return web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+    }
+
+    @Override
+    public String blockHash(long blockNumber) throws IOException {
+        EthBlock response = web3j.ethGetBlockByNumber(
+            DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)), false).send();
+        if (response.hasError() || response.getBlock() == null) {
+            throw new IOException("Block " + blockNumber + " not found"
+                + (response.hasError() ? ": " + response.getError().getMessage() : ""));
+        }
+        return response.getBlock().getHash();
+    }
+
+    @Override
+    public List<PoolReserves> getReserves(List<String> poolAddresses, long blockNumber) throws IOException {
+        DefaultBlockParameter block = DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber));
+        BatchRequest batch = web3j.newBatch();
+        Map<Long, String> addressByRequestId = new HashMap<>();
+        for (String address : poolAddresses) {
+            var request = web3j.ethCall(Transaction.createEthCallTransaction(null, address, GET_RESERVES), block);
+            addressByRequestId.put(request.getId(), address);
+            batch.add(request);
+        }
+        BatchResponse response = batch.send();
+
+        List<PoolReserves> reserves = new ArrayList<>(poolAddresses.size());
+        for (Response<?> result : response.getResponses()) {
+            String address = addressByRequestId.get(result.getId());
+            if (address == null) {
+                continue;
+            }
+            EthCall call = (EthCall) result;
+            String data = call.hasError() || call.isReverted() ? null : Numeric.cleanHexPrefix(call.getValue());
+            if (data == null || data.length() < 2 * WORD) {
+                log.debug("getReserves failed for pool {}: {}", address,
+                    call.hasError() ? call.getError().getMessage() : "empty result");
+                continue;
+            }
+            reserves.add(PoolReserves.snapshot(address, word(data, 0), word(data, 1), blockNumber));
+        }
+        return reserves;
+    }
+
+    @Override
+    public List<PoolReserves> getSyncEvents(List<String> poolAddresses, long fromBlock, long toBlock)
+            throws IOException {
+        EthFilter filter = new EthFilter(DefaultBlockParameter.valueOf(BigInteger.valueOf(fromBlock)),
+            DefaultBlockParameter.valueOf(BigInteger.valueOf(toBlock)), poolAddresses);
+        filter.addSingleTopic(SYNC_TOPIC);
+        EthLog response = web3j.ethGetLogs(filter).send();
+        if (response.hasError()) {
+            throw new IOException("eth_getLogs failed: " + response.getError().getMessage());
+        }
+
+        List<PoolReserves> events = new ArrayList<>();
+        for (EthLog.LogResult<?> result : response.getLogs()) {
+            if (!(result.get() instanceof Log entry) || entry.isRemoved()) {
+                continue;
+            }
+            String data = Numeric.cleanHexPrefix(entry.getData());
+            events.add(new PoolReserves(entry.getAddress(), word(data, 0), word(data, 1),
+                entry.getBlockNumber().longValueExact(), entry.getLogIndex().intValueExact()));
+        }
+        return events;
+    }
+
+    public void shutdown() {
+        web3j.shutdown();
+    }
+
+    private static BigInteger word(String data, int index) {
+        return new BigInteger(data.substring(index * WORD, (index + 1) * WORD), 16);
+    }
+}
@@ -0,0 +1,58 @@
+package com.springten.wallet.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one in-flight call.
+ *
+ * The first caller for a key starts the call; callers arriving before it
+ * completes share its result. Once the call completes the key is released,
+ * so later callers start a fresh call.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        calls.increment();
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, leader);
+                if (error != null) {
+                    leader.completeExceptionally(error);
+                } else {
+                    leader.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(e);
+        }
+        // Callers get a copy so that cancelling one does not cancel the shared call
+        return leader.copy();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+}
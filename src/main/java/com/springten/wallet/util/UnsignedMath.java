@@ -0,0 +1,60 @@
+package com.springten.wallet.util;
+
+/**
+ * 64x64-bit multiplication and 128/64-bit division on unsigned longs, for
+ * fixed-point arithmetic that must not round-trip through BigInteger
+ */
+public final class UnsignedMath {
+
+    private UnsignedMath() {
+    }
+
+    /**
+     * Quotient of the 128-bit value (high, low) by a positive divisor, where high < divisor.
+     * Knuth's algorithm D on 32-bit digits (Hacker's Delight, divlu).
+     */
+    public static long divide128(long high, long low, long divisor) {
+        if (high == 0 && low >= 0) {
+            return low / divisor;
+        }
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vn1 = v >>> 32;
+        long vn0 = v & 0xFFFFFFFFL;
+
+        long un32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long un10 = low << shift;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * vn0, rhat * base + un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+
+        long un21 = un32 * base + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * vn0, rhat * base + un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return q1 * base + q0;
+    }
+
+    /**
+     * High 64 bits of the unsigned 128-bit product
+     */
+    public static long multiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
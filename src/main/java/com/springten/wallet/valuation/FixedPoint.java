@@ -0,0 +1,88 @@
+package com.springten.wallet.valuation;
+
+import com.springten.wallet.util.UnsignedMath;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-long fixed point used by the valuation engine. Balances carry 8 decimals and
+ * USD values 6. Prices range from fractions of a cent to thousands of dollars, so each
+ * token's price keeps its own scale of up to 16 decimals. A balance times a price is
+ * formed in 128 bits and rounded half-up back to 6 decimals, so no intermediate can
+ * overflow.
+ */
+final class FixedPoint {
+    
+    static final int BALANCE_SCALE = 8;
+    static final int VALUE_SCALE = 6;
+    static final int MAX_PRICE_SCALE = 16;
+    
+    // Largest balance, in whole tokens, that fits in a long at BALANCE_SCALE
+    static final long MAX_BALANCE = 90_000_000_000L;
+    static final BigDecimal MAX_BALANCE_AMOUNT = BigDecimal.valueOf(MAX_BALANCE);
+    
+    private static final long[] POW10 = new long[19];
+    
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+    
+    private FixedPoint() {
+    }
+    
+    static long toUnits(BigDecimal value, int scale) {
+        return value.movePointRight(scale).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    static BigDecimal fromUnits(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+    
+    /**
+     * Scale at which a non-negative price is kept: exact when it has at most 16 decimals
+     * and fits in a long, otherwise as many decimals as do
+     */
+    static int priceScale(BigDecimal price) {
+        int scale = Math.max(0, Math.min(price.stripTrailingZeros().scale(), MAX_PRICE_SCALE));
+        while (scale > 0 && price.movePointRight(scale).setScale(0, RoundingMode.HALF_UP).unscaledValue().bitLength() > 63) {
+            scale--;
+        }
+        return scale;
+    }
+    
+    /**
+     * USD value in VALUE_SCALE units of a non-negative balance at a non-negative price
+     */
+    static long value(long balanceUnits, long priceUnits, int priceScale) {
+        long divisor = POW10[BALANCE_SCALE + priceScale - VALUE_SCALE];
+        long high = Math.multiplyHigh(balanceUnits, priceUnits);
+        long low = balanceUnits * priceUnits;
+        if (high == 0 && low >= 0) {
+            long quotient = low / divisor;
+            return low - quotient * divisor >= divisor / 2 ? quotient + 1 : quotient;
+        }
+        if (high >= divisor) {
+            throw new ArithmeticException("Position value exceeds the fixed-point range");
+        }
+        long quotient = UnsignedMath.divide128(high, low, divisor);
+        long remainder = low - quotient * divisor;
+        if (remainder >= divisor / 2) {
+            quotient++;
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("Position value exceeds the fixed-point range");
+        }
+        return quotient;
+    }
+    
+    /**
+     * Same as {@link #value(long, long, int)} for a balance too large for BALANCE_SCALE units
+     */
+    static long value(BigDecimal balance, long priceUnits, int priceScale) {
+        return toUnits(balance.multiply(fromUnits(priceUnits, priceScale)), VALUE_SCALE);
+    }
+}
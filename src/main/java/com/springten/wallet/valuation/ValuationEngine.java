@@ -0,0 +1,438 @@
+package com.springten.wallet.valuation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Values every token balance in USD and aggregates the results per user and per token.
+ *
+ * Balances are streamed from the database through a forward-only cursor ordered by
+ * user, so memory stays bounded by the chunks in flight rather than the row count.
+ * The reading thread only copies columns into fixed-size chunks and hands each to a
+ * fork-join pool, which scales the balances, values the rows in {@link FixedPoint} and
+ * sums per-token totals.
+ * Chunks are consumed in order: per-user totals are a running sum over consecutive
+ * rows and are written in JDBC batches. The previous results are replaced in the same
+ * transaction, so readers see either the old or the new valuation in full.
+ */
+public class ValuationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ValuationEngine.class);
+
+    private static final String PRICES_SQL = "select id, current_price_usd from tokens";
+
+    // Balances are scaled in the pool rather than in SQL, which would cost the database a rounding per row
+    private static final String POSITIONS_SQL =
+        "select w.user_id, tb.token_id, tb.balance " +
+        "from token_balances tb join wallets w on w.id = tb.wallet_id " +
+        "where tb.balance > 0 order by w.user_id";
+
+    private static final String INSERT_USER_SQL =
+        "insert into user_valuations (user_id, total_usd, positions, valued_at) values (?, ?, ?, ?)";
+
+    private static final String INSERT_TOKEN_SQL =
+        "insert into token_valuations (token_id, total_usd, holders, valued_at) values (?, ?, ?, ?)";
+
+    // Rows a fork-join leaf values without splitting further
+    private static final int LEAF_SIZE = 2_048;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int fetchSize;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int maxChunksInFlight;
+    private final ForkJoinPool pool;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private final Timer runTimer;
+    private final AtomicLong lastTotalUnits = new AtomicLong();
+
+    public ValuationEngine(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Clock clock,
+                           MeterRegistry meterRegistry, int fetchSize, int chunkSize, int batchSize, int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.fetchSize = fetchSize;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.maxChunksInFlight = threads * 2;
+        this.runTimer = Timer.builder("springten.valuation.run")
+            .description("Full portfolio valuation runs").register(meterRegistry);
+        Gauge.builder("springten.valuation.total", lastTotalUnits,
+                units -> FixedPoint.fromUnits(units.get(), FixedPoint.VALUE_SCALE).doubleValue())
+            .description("USD value of all balances at the last valuation run").baseUnit("usd")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${valuation.interval-ms:3600000}",
+               initialDelayString = "${valuation.initial-delay-ms:60000}")
+    public void revalue() {
+        if (!runLock.tryLock()) {
+            log.debug("Skipping valuation: previous run still in progress");
+            return;
+        }
+        try {
+            ValuationSummary summary = runLocked();
+            log.info("Valued {} positions of {} users in {} tokens: {} USD in {} ms ({} ms writing)",
+                summary.positions(), summary.users(), summary.tokens(), summary.totalUsd().toPlainString(),
+                summary.elapsed().toMillis(), summary.writing().toMillis());
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Value all balances and replace the stored per-user and per-token results
+     */
+    public ValuationSummary valueAll() {
+        runLock.lock();
+        try {
+            return runLocked();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private ValuationSummary runLocked() {
+        long start = System.nanoTime();
+        ValuationSummary summary = transactionTemplate.execute(status -> {
+            Run run = new Run(LocalDateTime.now(clock));
+            long deleteStart = System.nanoTime();
+            jdbcTemplate.update("delete from user_valuations");
+            jdbcTemplate.update("delete from token_valuations");
+            run.writeNanos += System.nanoTime() - deleteStart;
+            jdbcTemplate.query(PRICES_SQL, run::addPrice);
+            run.indexTokens();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(POSITIONS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, run::addPosition);
+            return run.finish(Duration.ofNanos(System.nanoTime() - start));
+        });
+        runTimer.record(summary.elapsed());
+        lastTotalUnits.set(FixedPoint.toUnits(summary.totalUsd(), FixedPoint.VALUE_SCALE));
+        return summary;
+    }
+
+    /**
+     * State of one valuation run, confined to the thread reading the cursor
+     */
+    private final class Run {
+
+        private final LocalDateTime valuedAt;
+
+        // Token ids, their prices in units of their price scale, and the dense index of each id
+        private long[] tokenIds = new long[64];
+        private long[] priceUnits = new long[64];
+        private int[] priceScales = new int[64];
+        private int tokenCount;
+        private int[] tokenIndexById;
+        private long[] tokenUsd;
+        private int[] tokenHolders;
+
+        private final ArrayDeque<ForkJoinTask<TokenTotals>> pending = new ArrayDeque<>();
+        private final ArrayDeque<Chunk> pendingChunks = new ArrayDeque<>();
+        private final ArrayDeque<Chunk> freeChunks = new ArrayDeque<>();
+        private Chunk filling;
+
+        // Running total of the user whose rows are being consumed
+        private long currentUser = -1;
+        private long currentUsd;
+        private int currentPositions;
+
+        private final long[] batchUserIds = new long[batchSize];
+        private final long[] batchUsd = new long[batchSize];
+        private final int[] batchPositions = new int[batchSize];
+        private int batchCount;
+
+        private int users;
+        private long positions;
+        private long totalUsd;
+        private long writeNanos;
+
+        private Run(LocalDateTime valuedAt) {
+            this.valuedAt = valuedAt;
+        }
+
+        private void addPrice(ResultSet rs) throws SQLException {
+            if (tokenCount == tokenIds.length) {
+                tokenIds = Arrays.copyOf(tokenIds, tokenCount * 2);
+                priceUnits = Arrays.copyOf(priceUnits, tokenCount * 2);
+                priceScales = Arrays.copyOf(priceScales, tokenCount * 2);
+            }
+            BigDecimal price = rs.getBigDecimal(2);
+            tokenIds[tokenCount] = rs.getLong(1);
+            if (price != null && price.signum() > 0) {
+                int scale = FixedPoint.priceScale(price);
+                priceScales[tokenCount] = scale;
+                priceUnits[tokenCount] = FixedPoint.toUnits(price, scale);
+            }
+            tokenCount++;
+        }
+
+        private void indexTokens() {
+            long maxId = 0;
+            for (int i = 0; i < tokenCount; i++) {
+                maxId = Math.max(maxId, tokenIds[i]);
+            }
+            // Ids come from a sequence and the token list is small, so a direct lookup table is cheap
+            tokenIndexById = new int[Math.toIntExact(maxId + 1)];
+            Arrays.fill(tokenIndexById, -1);
+            for (int i = 0; i < tokenCount; i++) {
+                tokenIndexById[(int) tokenIds[i]] = i;
+            }
+            tokenUsd = new long[tokenCount];
+            tokenHolders = new int[tokenCount];
+        }
+
+        private void addPosition(ResultSet rs) throws SQLException {
+            if (filling == null) {
+                filling = freeChunks.isEmpty() ? new Chunk(chunkSize) : freeChunks.poll();
+            }
+            long userId = rs.getLong(1);
+            long tokenId = rs.getLong(2);
+            int tokenIndex = tokenId < tokenIndexById.length ? tokenIndexById[(int) tokenId] : -1;
+
+            int row = filling.size++;
+            filling.userIds[row] = userId;
+            filling.tokenIndexes[row] = tokenIndex;
+            filling.balances[row] = rs.getBigDecimal(3);
+
+            if (filling.size == chunkSize) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            Chunk chunk = filling;
+            filling = null;
+            pendingChunks.addLast(chunk);
+            pending.addLast(pool.submit(new ChunkValuation(chunk, priceUnits, priceScales, tokenCount, 0, chunk.size)));
+            while (pending.size() > maxChunksInFlight) {
+                consume();
+            }
+        }
+
+        /**
+         * Fold the oldest valued chunk into the user and token totals
+         */
+        private void consume() {
+            TokenTotals totals = pending.removeFirst().join();
+            Chunk chunk = pendingChunks.removeFirst();
+            for (int i = 0; i < tokenCount; i++) {
+                tokenUsd[i] = Math.addExact(tokenUsd[i], totals.usd[i]);
+                tokenHolders[i] += totals.holders[i];
+            }
+            for (int row = 0; row < chunk.size; row++) {
+                long userId = chunk.userIds[row];
+                if (userId != currentUser) {
+                    closeUser();
+                    currentUser = userId;
+                }
+                currentUsd = Math.addExact(currentUsd, chunk.values[row]);
+                currentPositions++;
+            }
+            positions += chunk.size;
+            chunk.size = 0;
+            freeChunks.addLast(chunk);
+        }
+
+        private void closeUser() {
+            if (currentUser < 0) {
+                return;
+            }
+            batchUserIds[batchCount] = currentUser;
+            batchUsd[batchCount] = currentUsd;
+            batchPositions[batchCount] = currentPositions;
+            batchCount++;
+            users++;
+            totalUsd = Math.addExact(totalUsd, currentUsd);
+            currentUsd = 0;
+            currentPositions = 0;
+            if (batchCount == batchSize) {
+                flushUsers();
+            }
+        }
+
+        private void flushUsers() {
+            long start = System.nanoTime();
+            int count = batchCount;
+            Timestamp timestamp = Timestamp.valueOf(valuedAt);
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, batchUserIds[i]);
+                    ps.setBigDecimal(2, FixedPoint.fromUnits(batchUsd[i], FixedPoint.VALUE_SCALE));
+                    ps.setInt(3, batchPositions[i]);
+                    ps.setTimestamp(4, timestamp);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+            batchCount = 0;
+            writeNanos += System.nanoTime() - start;
+        }
+
+        private ValuationSummary finish(Duration elapsed) {
+            if (filling != null && filling.size > 0) {
+                submit();
+            }
+            while (!pending.isEmpty()) {
+                consume();
+            }
+            closeUser();
+            if (batchCount > 0) {
+                flushUsers();
+            }
+
+            long start = System.nanoTime();
+            Timestamp timestamp = Timestamp.valueOf(valuedAt);
+            int[] valued = new int[tokenCount];
+            int tokens = 0;
+            for (int i = 0; i < tokenCount; i++) {
+                if (tokenHolders[i] > 0) {
+                    valued[tokens++] = i;
+                }
+            }
+            int tokenRows = tokens;
+            jdbcTemplate.batchUpdate(INSERT_TOKEN_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int token = valued[i];
+                    ps.setLong(1, tokenIds[token]);
+                    ps.setBigDecimal(2, FixedPoint.fromUnits(tokenUsd[token], FixedPoint.VALUE_SCALE));
+                    ps.setInt(3, tokenHolders[token]);
+                    ps.setTimestamp(4, timestamp);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return tokenRows;
+                }
+            });
+            writeNanos += System.nanoTime() - start;
+            return new ValuationSummary(users, positions, tokenRows,
+                FixedPoint.fromUnits(totalUsd, FixedPoint.VALUE_SCALE), elapsed, Duration.ofNanos(writeNanos));
+        }
+    }
+
+    /**
+     * Columns of consecutive position rows; values are filled in by the pool, which
+     * also drops the balances once they are valued
+     */
+    private static final class Chunk {
+
+        private final long[] userIds;
+        private final int[] tokenIndexes;
+        private final BigDecimal[] balances;
+        private final long[] values;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.userIds = new long[capacity];
+            this.tokenIndexes = new int[capacity];
+            this.balances = new BigDecimal[capacity];
+            this.values = new long[capacity];
+        }
+    }
+
+    private record TokenTotals(long[] usd, int[] holders) {
+    }
+
+    /**
+     * Values rows [from, to) of a chunk, splitting in halves down to LEAF_SIZE.
+     * Each row is written by exactly one leaf; token totals are summed on join.
+     */
+    private static final class ChunkValuation extends RecursiveTask<TokenTotals> {
+
+        private final Chunk chunk;
+        private final long[] priceUnits;
+        private final int[] priceScales;
+        private final int tokenCount;
+        private final int from;
+        private final int to;
+
+        private ChunkValuation(Chunk chunk, long[] priceUnits, int[] priceScales, int tokenCount, int from, int to) {
+            this.chunk = chunk;
+            this.priceUnits = priceUnits;
+            this.priceScales = priceScales;
+            this.tokenCount = tokenCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TokenTotals compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                ChunkValuation left = new ChunkValuation(chunk, priceUnits, priceScales, tokenCount, from, middle);
+                left.fork();
+                TokenTotals right = new ChunkValuation(chunk, priceUnits, priceScales, tokenCount, middle, to).compute();
+                TokenTotals merged = left.join();
+                for (int i = 0; i < tokenCount; i++) {
+                    merged.usd[i] = Math.addExact(merged.usd[i], right.usd[i]);
+                    merged.holders[i] += right.holders[i];
+                }
+                return merged;
+            }
+
+            TokenTotals totals = new TokenTotals(new long[tokenCount], new int[tokenCount]);
+            for (int row = from; row < to; row++) {
+                int token = chunk.tokenIndexes[row];
+                BigDecimal balance = chunk.balances[row];
+                chunk.balances[row] = null;
+                if (token < 0) {
+                    chunk.values[row] = 0;
+                } else if (balance.compareTo(FixedPoint.MAX_BALANCE_AMOUNT) < 0) {
+                    long units = FixedPoint.toUnits(balance, FixedPoint.BALANCE_SCALE);
+                    chunk.values[row] = FixedPoint.value(units, priceUnits[token], priceScales[token]);
+                } else {
+                    // Rare whale balance that does not fit in BALANCE_SCALE units
+                    chunk.values[row] = FixedPoint.value(balance, priceUnits[token], priceScales[token]);
+                }
+                if (token >= 0) {
+                    totals.usd[token] = Math.addExact(totals.usd[token], chunk.values[row]);
+                    totals.holders[token]++;
+                }
+            }
+            return totals;
+        }
+    }
+}
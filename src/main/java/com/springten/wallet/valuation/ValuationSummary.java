@@ -0,0 +1,12 @@
+package com.springten.wallet.valuation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Outcome of one valuation run; {@code writing} is the part of {@code elapsed} spent
+ * replacing the stored results
+ */
+public record ValuationSummary(int users, long positions, int tokens, BigDecimal totalUsd, Duration elapsed,
+                               Duration writing) {
+}
@@ -0,0 +1,21 @@
+package com.springten.wallet.web3;
+
+/**
+ * eth_sendRawTransaction failed after the signed transaction was handed to the
+ * node, for example by timing out, so the transaction may have been broadcast.
+ * Sending it again would sign a second transaction; callers should treat the
+ * hash as submitted and check its status instead.
+ */
+public class BroadcastUncertainException extends Exception {
+    
+    private final String transactionHash;
+    
+    public BroadcastUncertainException(String transactionHash, Throwable cause) {
+        super("Transaction " + transactionHash + " may have been broadcast: " + cause.getMessage(), cause);
+        this.transactionHash = transactionHash;
+    }
+    
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+}
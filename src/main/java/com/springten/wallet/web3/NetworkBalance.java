@@ -0,0 +1,20 @@
+package com.springten.wallet.web3;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Native balance on one network; balance is null and error set when the read failed
+ */
+public record NetworkBalance(String network, Wei balance, String error) {
+
+    static NetworkBalance of(String network, Wei balance) {
+        return new NetworkBalance(network, balance, null);
+    }
+
+    static NetworkBalance failed(String network, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof TimeoutException ? "Timed out" : cause.getMessage();
+        return new NetworkBalance(network, null, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.springten.wallet.web3;
+
+/**
+ * JSON-RPC error object returned by the node for a request it rejected, such as
+ * invalid params, nonce too low or insufficient funds. The node answered, so this
+ * does not count against its circuit breaker.
+ */
+public class RpcErrorException extends RuntimeException {
+    
+    private final int code;
+    
+    public RpcErrorException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+}
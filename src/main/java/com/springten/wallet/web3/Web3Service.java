@@ -1,40 +1,264 @@
 package com.springten.wallet.web3;
 
+import com.springten.wallet.cache.CacheCodec;
+import com.springten.wallet.cache.CacheSpec;
+import com.springten.wallet.cache.LocalCache;
+import com.springten.wallet.cache.TwoLevelCache;
+import com.springten.wallet.cache.TwoLevelCacheManager;
 import com.springten.wallet.model.Wallet;
+import com.springten.wallet.resilience.CallRejectedException;
+import com.springten.wallet.resilience.ResilienceRegistry;
+import com.springten.wallet.resilience.ResiliencePolicy;
+import com.springten.wallet.resilience.ResilienceSpec;
+import com.springten.wallet.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
 import org.web3j.crypto.Keys;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.http.HttpService;
+import org.web3j.utils.Convert;
+import org.web3j.utils.Numeric;
 import org.bitcoinj.crypto.MnemonicCode;
 import org.bitcoinj.crypto.DeterministicKey;
 import org.bitcoinj.crypto.HDKeyDerivation;
 import org.bitcoinj.crypto.ChildNumber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Created on first use: injection points take a lazy proxy, so web3j, bitcoinj
+ * and the BIP39 word list stay off the startup path
+ */
 @Service
+@Lazy
 public class Web3Service {
     
+    // Same decimal strings as CacheCodec.BIG_INTEGER, so entries written before the switch still decode
+    private static final CacheCodec<Wei> WEI_CODEC = CacheCodec.of(Wei::toString, Wei::parse);
+    
+    /** Network served by web3.ethereum.rpc-url; its balances share cache entries with {@link #getBalance} */
+    public static final String DEFAULT_NETWORK = "ethereum";
+    
+    // How long a last-known value may stand in for a read the chain-reads bulkhead rejected
+    private static final long LAST_KNOWN_TTL_MILLIS = 600_000;
+    
     @Value("${web3.ethereum.rpc-url}")
     private String ethereumRpcUrl;
     
     @Value("${web3.ethereum.network-id}")
     private String networkId;
     
-    private Web3j web3j;
+    // Extra EVM networks for balance fan-out, as comma-separated name=rpc-url pairs
+    @Value("${web3.evm-networks:}")
+    private String evmNetworks;
+    
+    @Value("${web3.async.timeout-ms:5000}")
+    private long asyncTimeoutMillis;
+    
+    // Built once on first use; a ReentrantLock rather than synchronized so virtual threads never pin on it
+    private volatile Web3j web3j;
+    // Same node, with the chain-writes deadline as its call timeout
+    private volatile Web3j writeWeb3j;
+    private final ReentrantLock web3jLock = new ReentrantLock();
+    // Non-blocking clients per network for the *Async reads, built on first use like web3j
+    private volatile Map<String, Web3j> asyncClients;
+    
+    // Shared with other nodes so that each RPC result is fetched once per TTL cluster-wide
+    private final TwoLevelCache<Wei> balanceCache;
+    private final TwoLevelCache<Wei> gasPriceCache;
+    private final WebClient.Builder webClientBuilder;
+    
+    // Reads and sends have separate bulkheads, so a stuck send cannot take the slots balance reads need
+    private final ResilienceRegistry resilience;
+    private final ResiliencePolicy chainReads;
+    private final ResiliencePolicy chainWrites;
+    private final LocalCache<String, Wei> lastKnownBalances = new LocalCache<>(LAST_KNOWN_TTL_MILLIS, 50_000);
+    private final LocalCache<String, Wei> lastKnownGasPrices = new LocalCache<>(LAST_KNOWN_TTL_MILLIS, 16);
+    private final LocalCache<String, Boolean> lastKnownStatuses = new LocalCache<>(LAST_KNOWN_TTL_MILLIS, 10_000);
     
-    public Web3Service() {
-        // Initialize Web3j connection
+    // One flight per RPC method, keyed by its params: concurrent cache misses for the same read share one call.
+    // Blocking and async reads join the same flights; nothing is kept once a call completes.
+    private final SingleFlight<String, Wei> balanceFlights = new SingleFlight<>();
+    private final SingleFlight<String, Wei> gasPriceFlights = new SingleFlight<>();
+    private final SingleFlight<String, Boolean> statusFlights = new SingleFlight<>();
+    
+    public Web3Service(TwoLevelCacheManager cacheManager, WebClient.Builder webClientBuilder,
+                       ResilienceRegistry resilience, MeterRegistry meterRegistry) {
+        this.webClientBuilder = webClientBuilder;
+        this.balanceCache = cacheManager.create("balances", WEI_CODEC,
+            new CacheSpec(5_000, 15_000, 50_000));
+        this.gasPriceCache = cacheManager.create("gas-price", WEI_CODEC,
+            new CacheSpec(3_000, 10_000, 16));
+        this.resilience = resilience;
+        this.chainReads = resilience.policy("chain-reads", ResilienceSpec.of(50, 100, 3_000));
+        this.chainWrites = resilience.policy("chain-writes", ResilienceSpec.of(10, 500, 15_000));
+        registerFlightMetrics(meterRegistry, "eth_getBalance", balanceFlights);
+        registerFlightMetrics(meterRegistry, "eth_gasPrice", gasPriceFlights);
+        registerFlightMetrics(meterRegistry, "eth_getTransactionReceipt", statusFlights);
+    }
+    
+    private static void registerFlightMetrics(MeterRegistry meterRegistry, String method, SingleFlight<?, ?> flights) {
+        FunctionCounter.builder("springten.web3.reads", flights, SingleFlight::getCallCount)
+            .tag("method", method).register(meterRegistry);
+        FunctionCounter.builder("springten.web3.reads.coalesced", flights, SingleFlight::getCoalescedCount)
+            .tag("method", method).register(meterRegistry);
+        Gauge.builder("springten.web3.reads.coalesced.ratio", flights, Web3Service::coalescedRatio)
+            .tag("method", method).register(meterRegistry);
+    }
+    
+    private static double coalescedRatio(SingleFlight<?, ?> flights) {
+        long calls = flights.getCallCount();
+        return calls == 0 ? 0 : (double) flights.getCoalescedCount() / calls;
+    }
+    
+    /**
+     * Fraction of the chain reads that reached the single-flight layer and joined a call already in flight
+     */
+    public double getCoalescedFraction() {
+        long calls = balanceFlights.getCallCount() + gasPriceFlights.getCallCount() + statusFlights.getCallCount();
+        long coalesced = balanceFlights.getCoalescedCount() + gasPriceFlights.getCoalescedCount()
+            + statusFlights.getCoalescedCount();
+        return calls == 0 ? 0 : (double) coalesced / calls;
     }
     
     public void initializeWeb3j() {
-        this.web3j = Web3j.build(new HttpService(ethereumRpcUrl));
+        web3jLock.lock();
+        try {
+            if (web3j == null) {
+                // OkHttp's defaults allow 10 s per connect, read and write; bound the whole call instead
+                OkHttpClient readClient = new OkHttpClient.Builder().callTimeout(chainReads.getDeadline()).build();
+                writeWeb3j = Web3j.build(new HttpService(ethereumRpcUrl,
+                    readClient.newBuilder().callTimeout(chainWrites.getDeadline()).build()));
+                web3j = Web3j.build(new HttpService(ethereumRpcUrl, readClient));
+            }
+        } finally {
+            web3jLock.unlock();
+        }
+    }
+    
+    /**
+     * Bulkhead of the chain reads on a network; every extra network gets its own so one slow node cannot trip another
+     */
+    private ResiliencePolicy chainReads(String network) {
+        return DEFAULT_NETWORK.equals(network) ? chainReads
+            : resilience.policy("chain-reads-" + network, ResilienceSpec.of(20, 0, asyncTimeoutMillis));
+    }
+    
+    private <T> T readChain(Callable<T> call) {
+        try {
+            return chainReads.execute(call);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Blocking read through a flight: the first caller for a key makes the call on its own thread,
+     * callers arriving while it runs wait for its result
+     */
+    private <T> T readChain(SingleFlight<String, T> flights, String key, Callable<T> call) {
+        CompletableFuture<T> shared = flights.execute(key, () -> {
+            try {
+                return CompletableFuture.completedFuture(readChain(call));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        try {
+            return shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Serve the last value read from the node when the call was rejected; rethrow if there is none
+     */
+    private static <T> T lastKnown(LocalCache<String, T> values, String key, ResiliencePolicy policy,
+                                   CallRejectedException rejected) {
+        T value = values.get(key);
+        if (value == null) {
+            throw rejected;
+        }
+        policy.recordFallback();
+        return value;
+    }
+    
+    private static <T> CompletableFuture<T> lastKnownAsync(LocalCache<String, T> values, String key,
+                                                           ResiliencePolicy policy, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CallRejectedException rejected) {
+            try {
+                return CompletableFuture.completedFuture(lastKnown(values, key, policy, rejected));
+            } catch (CallRejectedException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.failedFuture(cause);
+    }
+    
+    private Map<String, Web3j> asyncClients() {
+        Map<String, Web3j> clients = asyncClients;
+        if (clients != null) {
+            return clients;
+        }
+        web3jLock.lock();
+        try {
+            if (asyncClients == null) {
+                Duration timeout = Duration.ofMillis(asyncTimeoutMillis);
+                Map<String, Web3j> built = new LinkedHashMap<>();
+                built.put(DEFAULT_NETWORK, Web3j.build(new WebClientWeb3jService(webClientBuilder, ethereumRpcUrl, timeout)));
+                for (String entry : evmNetworks.split(",")) {
+                    int separator = entry.indexOf('=');
+                    if (separator > 0) {
+                        String network = entry.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+                        String url = entry.substring(separator + 1).trim();
+                        built.putIfAbsent(network, Web3j.build(new WebClientWeb3jService(webClientBuilder, url, timeout)));
+                    }
+                }
+                asyncClients = Collections.unmodifiableMap(built);
+            }
+            return asyncClients;
+        } finally {
+            web3jLock.unlock();
+        }
     }
     
     /**
@@ -182,18 +406,78 @@ public class Web3Service {
     /**
      * Get wallet balance
      */
-    public BigInteger getBalance(String address) throws Exception {
+    public Wei getBalance(String address) throws Exception {
         if (web3j == null) {
             initializeWeb3j();
         }
         
-        return web3j.ethGetBalance(address, org.web3j.protocol.core.DefaultBlockParameterName.LATEST)
-                .send()
-                .getBalance();
+        String account = address.toLowerCase(Locale.ROOT);
+        try {
+            return balanceCache.get(account, key -> readChain(balanceFlights, key, () -> {
+                Wei balance = Wei.fromBigInteger(
+                    checked(web3j.ethGetBalance(key, DefaultBlockParameterName.LATEST).send()).getBalance());
+                lastKnownBalances.put(key, balance);
+                return balance;
+            }));
+        } catch (CallRejectedException e) {
+            return lastKnown(lastKnownBalances, account, chainReads, e);
+        }
     }
     
     /**
-     * Send transaction with gas estimation
+     * Non-blocking {@link #getBalance}: same cache, and the node is called without holding a thread
+     */
+    public CompletableFuture<Wei> getBalanceAsync(String address) {
+        return getBalanceAsync(DEFAULT_NETWORK, address);
+    }
+    
+    public CompletableFuture<Wei> getBalanceAsync(String network, String address) {
+        Web3j client = asyncClients().get(network);
+        if (client == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown network " + network));
+        }
+        ResiliencePolicy reads = chainReads(network);
+        String account = address.toLowerCase(Locale.ROOT);
+        String key = DEFAULT_NETWORK.equals(network) ? account : network + ":" + account;
+        return balanceCache.getAsync(key, k -> balanceFlights.execute(k, () -> reads.executeAsync(
+                () -> client.ethGetBalance(account, DefaultBlockParameterName.LATEST).sendAsync()
+                    .thenApply(Web3Service::result))
+            .thenApply(response -> {
+                Wei balance = Wei.fromBigInteger(response.getBalance());
+                lastKnownBalances.put(k, balance);
+                return balance;
+            })))
+            .exceptionallyCompose(e -> lastKnownAsync(lastKnownBalances, key, reads, e));
+    }
+    
+    /**
+     * Balance of one address on every configured network, read in parallel. Each call has
+     * its own timeout, and a failed network is reported in its entry instead of failing the rest.
+     */
+    public Mono<List<NetworkBalance>> getBalancesOnAllNetworks(String address) {
+        Duration timeout = Duration.ofMillis(asyncTimeoutMillis);
+        return Flux.fromIterable(asyncClients().keySet())
+            .flatMapSequential(network -> Mono.fromFuture(() -> getBalanceAsync(network, address))
+                .timeout(timeout)
+                .map(balance -> NetworkBalance.of(network, balance))
+                .onErrorResume(e -> Mono.just(NetworkBalance.failed(network, e))))
+            .collectList();
+    }
+    
+    /**
+     * Drop cached balances after a transfer touching these addresses
+     */
+    private void invalidateBalances(String... addresses) {
+        for (String address : addresses) {
+            if (address != null) {
+                balanceCache.invalidate(address.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+    
+    /**
+     * Send transaction with gas estimation. Returns the hash once the node accepted the
+     * signed transaction; confirmation is tracked separately through {@link #isTransactionConfirmed}.
      */
     public String sendTransaction(String fromAddress, String toAddress, BigInteger amount, 
                                  String privateKey) throws Exception {
@@ -204,21 +488,12 @@ public class Web3Service {
         Credentials credentials = Credentials.create(privateKey);
         
         // Get current gas price
-        BigInteger gasPrice = web3j.ethGasPrice().send().getGasPrice();
+        Wei gasPrice = getCurrentGasPrice();
         
         // Estimate gas limit for the transaction
         BigInteger gasLimit = estimateGasLimit(fromAddress, toAddress, amount);
         
-        org.web3j.tx.RawTransactionManager transactionManager = 
-            new org.web3j.tx.RawTransactionManager(web3j, credentials);
-        
-        org.web3j.tx.Transfer transfer = new org.web3j.tx.Transfer(web3j, transactionManager);
-        
-        org.web3j.protocol.core.methods.response.TransactionReceipt receipt = 
-            transfer.sendFunds(toAddress, java.math.BigDecimal.valueOf(amount.longValue()), 
-                             org.web3j.utils.Convert.Unit.ETHER).send();
-        
-        return receipt.getTransactionHash();
+        return broadcast(credentials, fromAddress, toAddress, amount, gasPrice.toBigInteger(), gasLimit);
     }
     
     /**
@@ -231,17 +506,47 @@ public class Web3Service {
         }
         
         Credentials credentials = Credentials.create(privateKey);
+        return broadcast(credentials, fromAddress, toAddress, amount, gasPrice, gasLimit);
+    }
+    
+    /**
+     * Sign the transfer here and hand it to the node with eth_sendRawTransaction. Only that call
+     * runs in the chain-writes bulkhead, so a slot is held for one request rather than until the
+     * transaction is mined. Failures up to the broadcast mean nothing was sent; a failure of the
+     * broadcast itself, other than the node rejecting the transaction, is a
+     * {@link BroadcastUncertainException} carrying the hash.
+     */
+    private String broadcast(Credentials credentials, String fromAddress, String toAddress, BigInteger amount,
+                             BigInteger gasPrice, BigInteger gasLimit) throws Exception {
+        BigInteger nonce = readChain(() -> checked(web3j.ethGetTransactionCount(credentials.getAddress(),
+            DefaultBlockParameterName.PENDING).send()).getTransactionCount());
+        RawTransaction transaction = RawTransaction.createEtherTransaction(nonce, gasPrice, gasLimit, toAddress,
+            Convert.toWei(new BigDecimal(amount), Convert.Unit.ETHER).toBigIntegerExact());
+        String signed = Numeric.toHexString(
+            TransactionEncoder.signMessage(transaction, Long.parseLong(networkId), credentials));
+        
+        String transactionHash = Hash.sha3(signed);
+        try {
+            chainWrites.execute(() -> checked(writeWeb3j.ethSendRawTransaction(signed).send()));
+        } catch (RpcErrorException e) {
+            // An earlier attempt of this very transaction got through
+            if (!isAlreadyKnown(e)) {
+                throw e;
+            }
+        } catch (CallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BroadcastUncertainException(transactionHash, e);
+        }
         
-        org.web3j.tx.RawTransactionManager transactionManager = 
-            new org.web3j.tx.RawTransactionManager(web3j, credentials);
-        
-        org.web3j.tx.Transfer transfer = new org.web3j.tx.Transfer(web3j, transactionManager);
-        
-        org.web3j.protocol.core.methods.response.TransactionReceipt receipt = 
-            transfer.sendFunds(toAddress, java.math.BigDecimal.valueOf(amount.longValue()), 
-                             org.web3j.utils.Convert.Unit.ETHER).send();
-        
-        return receipt.getTransactionHash();
+        invalidateBalances(fromAddress, toAddress);
+        return transactionHash;
+    }
+    
+    private static boolean isAlreadyKnown(RpcErrorException e) {
+        String message = e.getMessage().toLowerCase(Locale.ROOT);
+        return message.contains("already known") || message.contains("known transaction")
+            || message.contains("already imported");
     }
     
     /**
@@ -260,20 +565,38 @@ public class Web3Service {
     /**
      * Get current gas price
      */
-    public BigInteger getCurrentGasPrice() throws Exception {
+    public Wei getCurrentGasPrice() throws Exception {
         if (web3j == null) {
             initializeWeb3j();
         }
         
-        return web3j.ethGasPrice().send().getGasPrice();
+        try {
+            return gasPriceCache.get(networkId, key -> readChain(gasPriceFlights, key, () -> {
+                Wei gasPrice = Wei.fromBigInteger(checked(web3j.ethGasPrice().send()).getGasPrice());
+                lastKnownGasPrices.put(key, gasPrice);
+                return gasPrice;
+            }));
+        } catch (CallRejectedException e) {
+            return lastKnown(lastKnownGasPrices, networkId, chainReads, e);
+        }
+    }
+    
+    public CompletableFuture<Wei> getCurrentGasPriceAsync() {
+        return gasPriceCache.getAsync(networkId, key -> gasPriceFlights.execute(key, () -> chainReads.executeAsync(
+                () -> asyncClients().get(DEFAULT_NETWORK).ethGasPrice().sendAsync().thenApply(Web3Service::result))
+            .thenApply(response -> {
+                Wei gasPrice = Wei.fromBigInteger(response.getGasPrice());
+                lastKnownGasPrices.put(key, gasPrice);
+                return gasPrice;
+            })))
+            .exceptionallyCompose(e -> lastKnownAsync(lastKnownGasPrices, networkId, chainReads, e));
     }
     
     /**
      * Get gas price in Gwei
      */
     public double getGasPriceInGwei() throws Exception {
-        BigInteger gasPrice = getCurrentGasPrice();
-        return gasPrice.doubleValue() / 1_000_000_000.0; // Convert wei to Gwei
+        return getCurrentGasPrice().toDouble(Wei.Unit.GWEI);
     }
     
     /**
@@ -293,9 +616,53 @@ public class Web3Service {
             initializeWeb3j();
         }
         
-        org.web3j.protocol.core.methods.response.TransactionReceipt receipt = 
-            web3j.ethGetTransactionReceipt(transactionHash).send().getTransactionReceipt().orElse(null);
-        
-        return receipt != null && receipt.getStatus().equals("0x1");
+        try {
+            return readChain(statusFlights, transactionHash, () -> {
+                org.web3j.protocol.core.methods.response.TransactionReceipt receipt = 
+                    checked(web3j.ethGetTransactionReceipt(transactionHash).send()).getTransactionReceipt().orElse(null);
+                boolean confirmed = receipt != null && receipt.getStatus().equals("0x1");
+                lastKnownStatuses.put(transactionHash, confirmed);
+                return confirmed;
+            });
+        } catch (CallRejectedException e) {
+            return lastKnown(lastKnownStatuses, transactionHash, chainReads, e);
+        }
+    }
+    
+    public CompletableFuture<Boolean> isTransactionConfirmedAsync(String transactionHash) {
+        return statusFlights.execute(transactionHash, () -> chainReads.executeAsync(() -> asyncClients()
+                .get(DEFAULT_NETWORK).ethGetTransactionReceipt(transactionHash).sendAsync().thenApply(Web3Service::result))
+            .thenApply(response -> {
+                boolean confirmed = response.getTransactionReceipt()
+                    .map(receipt -> "0x1".equals(receipt.getStatus()))
+                    .orElse(false);
+                lastKnownStatuses.put(transactionHash, confirmed);
+                return confirmed;
+            }))
+            .exceptionallyCompose(e -> lastKnownAsync(lastKnownStatuses, transactionHash, chainReads, e));
+    }
+    
+    /**
+     * Fail on an error response. An internal error (-32603) is the node failing and
+     * counts against its breaker like an I/O error; any other code rejects the request itself.
+     */
+    private static <T extends Response<?>> T checked(T response) throws IOException {
+        if (response.hasError()) {
+            Response.Error error = response.getError();
+            String message = "RPC error: " + error.getMessage();
+            if (error.getCode() == -32603) {
+                throw new IOException(message);
+            }
+            throw new RpcErrorException(error.getCode(), message);
+        }
+        return response;
+    }
+    
+    private static <T extends Response<?>> T result(T response) {
+        try {
+            return checked(response);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
     }
 }
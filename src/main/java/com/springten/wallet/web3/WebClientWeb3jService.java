@@ -0,0 +1,154 @@
+package com.springten.wallet.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.websocket.events.Notification;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * JSON-RPC transport for web3j over the reactive WebClient.
+ *
+ * web3j's HttpService implements sendAsync() by running the blocking call on
+ * its own thread pool. Here the request is written and the response read on
+ * the Netty event loop, so nothing waits on a thread while the node answers.
+ * send() is still available for blocking callers but must not be used on an
+ * event-loop thread.
+ */
+public class WebClientWeb3jService implements Web3jService {
+
+    // Large enough for a full eth_getLogs page or a batch of a few hundred calls
+    private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Duration timeout;
+
+    public WebClientWeb3jService(WebClient.Builder webClientBuilder, String url, Duration timeout) {
+        this.webClient = webClientBuilder.clone()
+            .baseUrl(url)
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_RESPONSE_BYTES))
+            .build();
+        this.timeout = timeout;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return await(sendAsync(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        return post(request)
+            .map(body -> read(body, responseType))
+            .toFuture();
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return await(sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        return post(requests)
+            .map(body -> new BatchResponse(requests, readBatch(body, requests)))
+            .toFuture();
+    }
+
+    @Override
+    public <T extends Notification<?>> io.reactivex.Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                           Class<T> responseType) {
+        throw new UnsupportedOperationException("Subscriptions are not supported over HTTP");
+    }
+
+    @Override
+    public void close() {
+        // Connections belong to the shared WebClient connector
+    }
+
+    private Mono<byte[]> post(Object payload) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            return Mono.error(e);
+        }
+        return webClient.post()
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(json)
+            .retrieve()
+            .bodyToMono(byte[].class)
+            .timeout(timeout)
+            .onErrorMap(WebClientResponseException.class, e -> new ClientConnectionException(
+                "Invalid response received: " + e.getStatusCode().value() + "; " + e.getResponseBodyAsString()));
+    }
+
+    private <T> T read(byte[] body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Response<?>> readBatch(byte[] body, List<Request<?, ? extends Response<?>>> requests) {
+        Map<Long, Class<? extends Response<?>>> typesById = new HashMap<>();
+        for (Request<?, ? extends Response<?>> request : requests) {
+            typesById.put(request.getId(), request.getResponseType());
+        }
+        try {
+            List<Response<?>> responses = new ArrayList<>(requests.size());
+            for (JsonNode node : objectMapper.readTree(body)) {
+                Class<? extends Response<?>> type = typesById.get(node.path("id").asLong());
+                if (type != null) {
+                    responses.add(objectMapper.treeToValue(node, type));
+                }
+            }
+            return responses;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the node", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
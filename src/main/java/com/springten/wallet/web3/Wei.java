@@ -0,0 +1,449 @@
+package com.springten.wallet.web3;
+
+import com.springten.wallet.util.UnsignedMath;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Immutable unsigned 256-bit amount in wei, the range of an EVM uint256.
+ *
+ * The value is held in four longs, least significant first, so arithmetic,
+ * unit conversion, parsing and formatting run on primitives and allocate
+ * only the result. Arithmetic is exact: overflow past 2^256 - 1 and results
+ * below zero throw {@link ArithmeticException}. BigInteger and BigDecimal are
+ * used only at the edges, by {@link #fromBigInteger}, {@link #toBigInteger} and
+ * {@link #toBigDecimal}.
+ */
+public final class Wei implements Comparable<Wei> {
+
+    public enum Unit {
+        WEI(0), GWEI(9), ETHER(18);
+
+        private final int decimals;
+
+        Unit(int decimals) {
+            this.decimals = decimals;
+        }
+
+        public int getDecimals() {
+            return decimals;
+        }
+    }
+
+    public static final Wei ZERO = new Wei(0, 0, 0, 0);
+    public static final Wei ONE = new Wei(1, 0, 0, 0);
+    public static final Wei MAX_VALUE = new Wei(-1, -1, -1, -1);
+
+    // 2^256 - 1 has 78 decimal digits
+    private static final int MAX_DIGITS = 78;
+    private static final long TEN_POW_18 = 1_000_000_000_000_000_000L;
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final long u0;
+    private final long u1;
+    private final long u2;
+    private final long u3;
+
+    private Wei(long u0, long u1, long u2, long u3) {
+        this.u0 = u0;
+        this.u1 = u1;
+        this.u2 = u2;
+        this.u3 = u3;
+    }
+
+    public static Wei of(long wei) {
+        if (wei < 0) {
+            throw new ArithmeticException("Wei amount cannot be negative: " + wei);
+        }
+        return wei == 0 ? ZERO : new Wei(wei, 0, 0, 0);
+    }
+
+    public static Wei of(long amount, Unit unit) {
+        return of(amount).multiply(POW10[unit.decimals]);
+    }
+
+    /**
+     * Parse a plain decimal amount of wei, e.g. {@code "21000000000"}
+     */
+    public static Wei parse(CharSequence text) {
+        return parse(text, Unit.WEI);
+    }
+
+    /**
+     * Parse a plain decimal amount in the given unit, e.g. {@code "1.5"} ether.
+     * Fractions finer than one wei are rejected rather than rounded.
+     */
+    public static Wei parse(CharSequence text, Unit unit) {
+        int length = text.length();
+        if (length == 0) {
+            throw new NumberFormatException("Empty amount");
+        }
+
+        long[] limbs = new long[4];
+        long chunk = 0;
+        int chunkDigits = 0;
+        int fractionDigits = -1;
+        int digits = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+            if (fractionDigits >= 0 && ++fractionDigits > unit.decimals) {
+                if (c != '0') {
+                    throw new ArithmeticException("More than " + unit.decimals + " decimal places for " + unit + ": " + text);
+                }
+                // Trailing zeros beyond the unit's precision carry no value
+                continue;
+            }
+            chunk = chunk * 10 + (c - '0');
+            digits++;
+            if (++chunkDigits == 18) {
+                multiplyAddInPlace(limbs, TEN_POW_18, chunk, text);
+                chunk = 0;
+                chunkDigits = 0;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid amount: " + text);
+        }
+        multiplyAddInPlace(limbs, POW10[chunkDigits], chunk, text);
+
+        int scale = unit.decimals - Math.max(0, Math.min(fractionDigits, unit.decimals));
+        if (scale > 0) {
+            multiplyAddInPlace(limbs, POW10[scale], 0, text);
+        }
+        return of(limbs);
+    }
+
+    public static Wei fromBigInteger(BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > 256) {
+            throw new ArithmeticException("Not an unsigned 256-bit value: " + value);
+        }
+        return new Wei(value.longValue(), value.shiftRight(64).longValue(),
+            value.shiftRight(128).longValue(), value.shiftRight(192).longValue());
+    }
+
+    public BigInteger toBigInteger() {
+        byte[] bytes = new byte[33];
+        putLong(bytes, 1, u3);
+        putLong(bytes, 9, u2);
+        putLong(bytes, 17, u1);
+        putLong(bytes, 25, u0);
+        return new BigInteger(bytes);
+    }
+
+    public BigDecimal toBigDecimal(Unit unit) {
+        return new BigDecimal(toString(unit));
+    }
+
+    /**
+     * Nearest double in the given unit, e.g. a gas price in gwei for display
+     */
+    public double toDouble(Unit unit) {
+        double scale = POW10[unit.decimals];
+        if (u1 == 0 && u2 == 0 && u3 == 0 && u0 >= 0) {
+            return u0 / scale;
+        }
+        double value = unsignedToDouble(u3);
+        value = value * 0x1p64 + unsignedToDouble(u2);
+        value = value * 0x1p64 + unsignedToDouble(u1);
+        value = value * 0x1p64 + unsignedToDouble(u0);
+        return value / scale;
+    }
+
+    public long longValueExact() {
+        if (u1 != 0 || u2 != 0 || u3 != 0 || u0 < 0) {
+            throw new ArithmeticException("Wei amount does not fit in a long: " + this);
+        }
+        return u0;
+    }
+
+    public boolean isZero() {
+        return (u0 | u1 | u2 | u3) == 0;
+    }
+
+    public Wei add(Wei other) {
+        long r0 = u0 + other.u0;
+        long carry = Long.compareUnsigned(r0, u0) < 0 ? 1 : 0;
+        long t = u1 + other.u1;
+        long c = Long.compareUnsigned(t, u1) < 0 ? 1 : 0;
+        long r1 = t + carry;
+        carry = c | (Long.compareUnsigned(r1, t) < 0 ? 1 : 0);
+        t = u2 + other.u2;
+        c = Long.compareUnsigned(t, u2) < 0 ? 1 : 0;
+        long r2 = t + carry;
+        carry = c | (Long.compareUnsigned(r2, t) < 0 ? 1 : 0);
+        t = u3 + other.u3;
+        c = Long.compareUnsigned(t, u3) < 0 ? 1 : 0;
+        long r3 = t + carry;
+        carry = c | (Long.compareUnsigned(r3, t) < 0 ? 1 : 0);
+        if (carry != 0) {
+            throw new ArithmeticException("Wei overflow");
+        }
+        return new Wei(r0, r1, r2, r3);
+    }
+
+    public Wei subtract(Wei other) {
+        long r0 = u0 - other.u0;
+        long borrow = Long.compareUnsigned(u0, other.u0) < 0 ? 1 : 0;
+        long t = u1 - other.u1;
+        long b = Long.compareUnsigned(u1, other.u1) < 0 ? 1 : 0;
+        long r1 = t - borrow;
+        borrow = b | (Long.compareUnsigned(t, borrow) < 0 ? 1 : 0);
+        t = u2 - other.u2;
+        b = Long.compareUnsigned(u2, other.u2) < 0 ? 1 : 0;
+        long r2 = t - borrow;
+        borrow = b | (Long.compareUnsigned(t, borrow) < 0 ? 1 : 0);
+        t = u3 - other.u3;
+        b = Long.compareUnsigned(u3, other.u3) < 0 ? 1 : 0;
+        long r3 = t - borrow;
+        borrow = b | (Long.compareUnsigned(t, borrow) < 0 ? 1 : 0);
+        if (borrow != 0) {
+            throw new ArithmeticException("Wei underflow: " + this + " - " + other);
+        }
+        return new Wei(r0, r1, r2, r3);
+    }
+
+    /**
+     * Multiply by a non-negative long, e.g. gas price times gas limit
+     */
+    public Wei multiply(long factor) {
+        if (factor < 0) {
+            throw new ArithmeticException("Negative factor: " + factor);
+        }
+        long lo0 = u0 * factor;
+        long hi0 = UnsignedMath.multiplyHigh(u0, factor);
+        long lo1 = u1 * factor;
+        long hi1 = UnsignedMath.multiplyHigh(u1, factor);
+        long lo2 = u2 * factor;
+        long hi2 = UnsignedMath.multiplyHigh(u2, factor);
+        long lo3 = u3 * factor;
+        long hi3 = UnsignedMath.multiplyHigh(u3, factor);
+
+        long r1 = lo1 + hi0;
+        long carry = Long.compareUnsigned(r1, lo1) < 0 ? 1 : 0;
+        long t = lo2 + hi1;
+        long c = Long.compareUnsigned(t, lo2) < 0 ? 1 : 0;
+        long r2 = t + carry;
+        carry = c | (Long.compareUnsigned(r2, t) < 0 ? 1 : 0);
+        t = lo3 + hi2;
+        c = Long.compareUnsigned(t, lo3) < 0 ? 1 : 0;
+        long r3 = t + carry;
+        carry = c | (Long.compareUnsigned(r3, t) < 0 ? 1 : 0);
+        if (hi3 != 0 || carry != 0) {
+            throw new ArithmeticException("Wei overflow: " + this + " * " + factor);
+        }
+        return new Wei(lo0, r1, r2, r3);
+    }
+
+    public Wei multiply(Wei other) {
+        if (other.u1 == 0 && other.u2 == 0 && other.u3 == 0 && other.u0 >= 0) {
+            return multiply(other.u0);
+        }
+        if (u1 == 0 && u2 == 0 && u3 == 0 && u0 >= 0) {
+            return other.multiply(u0);
+        }
+        // Schoolbook product; any partial product landing at or above limb 4 is an overflow
+        long[] a = {u0, u1, u2, u3};
+        long[] b = {other.u0, other.u1, other.u2, other.u3};
+        long[] r = new long[4];
+        for (int i = 0; i < 4; i++) {
+            if (b[i] == 0) {
+                continue;
+            }
+            long carry = 0;
+            for (int j = 0; j < 4; j++) {
+                long lo = a[j] * b[i];
+                long hi = UnsignedMath.multiplyHigh(a[j], b[i]);
+                if (i + j >= 4) {
+                    if (lo != 0 || hi != 0) {
+                        throw new ArithmeticException("Wei overflow: " + this + " * " + other);
+                    }
+                    continue;
+                }
+                long sum = r[i + j] + lo;
+                hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+                long withCarry = sum + carry;
+                hi += Long.compareUnsigned(withCarry, sum) < 0 ? 1 : 0;
+                r[i + j] = withCarry;
+                carry = hi;
+            }
+            if (carry != 0) {
+                throw new ArithmeticException("Wei overflow: " + this + " * " + other);
+            }
+        }
+        return new Wei(r[0], r[1], r[2], r[3]);
+    }
+
+    /**
+     * Divide by a positive long, rounding toward zero
+     */
+    public Wei divide(long divisor) {
+        checkDivisor(divisor);
+        long q3 = Long.divideUnsigned(u3, divisor);
+        long r = Long.remainderUnsigned(u3, divisor);
+        long q2 = UnsignedMath.divide128(r, u2, divisor);
+        r = u2 - q2 * divisor;
+        long q1 = UnsignedMath.divide128(r, u1, divisor);
+        r = u1 - q1 * divisor;
+        long q0 = UnsignedMath.divide128(r, u0, divisor);
+        return new Wei(q0, q1, q2, q3);
+    }
+
+    public long remainder(long divisor) {
+        checkDivisor(divisor);
+        long r = Long.remainderUnsigned(u3, divisor);
+        r = u2 - UnsignedMath.divide128(r, u2, divisor) * divisor;
+        r = u1 - UnsignedMath.divide128(r, u1, divisor) * divisor;
+        return u0 - UnsignedMath.divide128(r, u0, divisor) * divisor;
+    }
+
+    @Override
+    public int compareTo(Wei other) {
+        int c = Long.compareUnsigned(u3, other.u3);
+        if (c != 0) {
+            return c;
+        }
+        c = Long.compareUnsigned(u2, other.u2);
+        if (c != 0) {
+            return c;
+        }
+        c = Long.compareUnsigned(u1, other.u1);
+        return c != 0 ? c : Long.compareUnsigned(u0, other.u0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Wei other)) {
+            return false;
+        }
+        return u0 == other.u0 && u1 == other.u1 && u2 == other.u2 && u3 == other.u3;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = u0 * 31 + u1;
+        h = h * 31 + u2;
+        h = h * 31 + u3;
+        return Long.hashCode(h);
+    }
+
+    /**
+     * Plain decimal amount of wei
+     */
+    @Override
+    public String toString() {
+        return toString(Unit.WEI);
+    }
+
+    /**
+     * Plain decimal amount in the given unit without trailing fractional zeros, e.g. {@code "1.5"}
+     */
+    public String toString(Unit unit) {
+        char[] buffer = new char[MAX_DIGITS + 2];
+        int end = buffer.length;
+        int pos = end;
+
+        long[] limbs = {u0, u1, u2, u3};
+        if (unit.decimals > 0) {
+            long fraction = divideInPlace(limbs, POW10[unit.decimals]);
+            int digits = unit.decimals;
+            while (digits > 0 && fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            if (digits > 0) {
+                for (int i = 0; i < digits; i++) {
+                    buffer[--pos] = (char) ('0' + fraction % 10);
+                    fraction /= 10;
+                }
+                buffer[--pos] = '.';
+            }
+        }
+
+        // Integer part, 18 digits per division
+        do {
+            long chunk = divideInPlace(limbs, TEN_POW_18);
+            boolean more = (limbs[0] | limbs[1] | limbs[2] | limbs[3]) != 0;
+            int digits = 0;
+            do {
+                buffer[--pos] = (char) ('0' + chunk % 10);
+                chunk /= 10;
+                digits++;
+            } while (more ? digits < 18 : chunk != 0);
+        } while ((limbs[0] | limbs[1] | limbs[2] | limbs[3]) != 0);
+
+        return new String(buffer, pos, end - pos);
+    }
+
+    private static Wei of(long[] limbs) {
+        if ((limbs[0] | limbs[1] | limbs[2] | limbs[3]) == 0) {
+            return ZERO;
+        }
+        return new Wei(limbs[0], limbs[1], limbs[2], limbs[3]);
+    }
+
+    private static void checkDivisor(long divisor) {
+        if (divisor <= 0) {
+            throw new ArithmeticException("Divisor must be positive: " + divisor);
+        }
+    }
+
+    /**
+     * limbs = limbs * factor + addend for a non-negative factor and addend
+     */
+    private static void multiplyAddInPlace(long[] limbs, long factor, long addend, CharSequence source) {
+        long carry = addend;
+        for (int i = 0; i < 4; i++) {
+            long lo = limbs[i] * factor;
+            long hi = UnsignedMath.multiplyHigh(limbs[i], factor);
+            long sum = lo + carry;
+            hi += Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+            limbs[i] = sum;
+            carry = hi;
+        }
+        if (carry != 0) {
+            throw new ArithmeticException("Amount exceeds 256 bits: " + source);
+        }
+    }
+
+    /**
+     * limbs = limbs / divisor for a positive divisor; returns the remainder
+     */
+    private static long divideInPlace(long[] limbs, long divisor) {
+        long r = 0;
+        for (int i = 3; i >= 0; i--) {
+            long q = UnsignedMath.divide128(r, limbs[i], divisor);
+            r = limbs[i] - q * divisor;
+            limbs[i] = q;
+        }
+        return r;
+    }
+
+    private static double unsignedToDouble(long x) {
+        return x >= 0 ? x : ((x >>> 1) | (x & 1)) * 2.0;
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.springten.wallet.web3;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores {@link Wei} attributes as an exact NUMERIC(78, 0) column
+ */
+@Converter(autoApply = true)
+public class WeiAttributeConverter implements AttributeConverter<Wei, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Wei attribute) {
+        return attribute == null ? null : new BigDecimal(attribute.toBigInteger());
+    }
+
+    @Override
+    public Wei convertToEntityAttribute(BigDecimal dbData) {
+        return dbData == null ? null : Wei.fromBigInteger(dbData.toBigIntegerExact());
+    }
+}
@@ -0,0 +1,49 @@
+package com.springten.wallet.web3;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Wei} as a decimal string, since JavaScript clients lose precision on
+ * numbers above 2^53. Reads either a string or a JSON integer.
+ */
+@JsonComponent
+public class WeiJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Wei> {
+
+        @Override
+        public void serialize(Wei value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeString(value.toString());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Wei> {
+
+        @Override
+        public Wei deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    return p.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? Wei.fromBigInteger(p.getBigIntegerValue())
+                        : Wei.of(p.getLongValue());
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                    return Wei.parse(p.getText().trim());
+                }
+            } catch (ArithmeticException | NumberFormatException e) {
+                return (Wei) ctxt.handleWeirdStringValue(Wei.class, p.getText(), e.getMessage());
+            }
+            return (Wei) ctxt.handleUnexpectedToken(Wei.class, p);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+-- Baseline schema for PostgreSQL, matching the JPA mappings that the prod profile
+-- validates (spring.jpa.hibernate.ddl-auto=validate).
+--
+-- Files in this directory are applied in version order, each exactly once, with
+-- psql --single-transaction -f or with Flyway pointed at this directory (the names
+-- follow its V<version>__<description>.sql convention). Run this one against an
+-- empty database; later versions upgrade an existing one.
+
+create sequence liquidity_pools_seq start with 1 increment by 50;
+create sequence outbox_events_seq start with 1 increment by 50;
+create sequence revoked_tokens_seq start with 1 increment by 50;
+create sequence token_balance_dead_letters_seq start with 1 increment by 50;
+create sequence token_balances_seq start with 1 increment by 50;
+create sequence tokens_seq start with 1 increment by 50;
+create sequence transactions_seq start with 1 increment by 50;
+create sequence users_seq start with 1 increment by 50;
+create sequence wallets_seq start with 1 increment by 50;
+
+create table liquidity_pools (
+    fee_bps integer not null,
+    is_active boolean,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    token0_id bigint not null,
+    token1_id bigint not null,
+    address varchar(255) not null unique,
+    blockchain_network varchar(255) not null check (blockchain_network in ('ETHEREUM_MAINNET','ETHEREUM_GOERLI','BITCOIN_MAINNET','BITCOIN_TESTNET','POLYGON_MAINNET','BSC_MAINNET','SOLANA_MAINNET')),
+    primary key (id)
+);
+
+create table outbox_events (
+    aggregate_seq bigint not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    published_at timestamp(6),
+    aggregate_type varchar(64) not null,
+    event_type varchar(64) not null,
+    aggregate_id varchar(128) not null,
+    payload varchar(8192) not null,
+    primary key (id),
+    constraint uk_outbox_events_aggregate_seq unique (aggregate_type, aggregate_id, aggregate_seq)
+);
+
+create table outbox_sequences (
+    last_seq bigint not null,
+    aggregate_key varchar(200) not null,
+    primary key (aggregate_key)
+);
+
+create table revoked_tokens (
+    expires_at timestamp(6) not null,
+    id bigint not null,
+    revoked_at timestamp(6) not null,
+    jti varchar(255) not null unique,
+    username varchar(255),
+    primary key (id)
+);
+
+create table token_balance_dead_letters (
+    failed_at timestamp(6) not null,
+    id bigint not null,
+    token_id bigint not null,
+    updated_at timestamp(6),
+    wallet_id bigint not null,
+    balance varchar(200),
+    balance_usd varchar(200),
+    error varchar(1000),
+    primary key (id)
+);
+
+create table token_balances (
+    balance numeric(36,18) not null,
+    balance_usd numeric(36,18),
+    created_at timestamp(6) not null,
+    id bigint not null,
+    token_id bigint not null,
+    updated_at timestamp(6),
+    wallet_id bigint not null,
+    primary key (id),
+    constraint uk_token_balances_wallet_token unique (wallet_id, token_id)
+);
+
+create table token_valuations (
+    holders integer not null,
+    total_usd numeric(24,6) not null,
+    token_id bigint not null,
+    valued_at timestamp(6) not null,
+    primary key (token_id)
+);
+
+create table tokens (
+    current_price_usd numeric(36,18),
+    decimals integer,
+    is_active boolean,
+    market_cap_usd numeric(36,18),
+    price_change_24h_percent numeric(10,4),
+    volume_24h_usd numeric(36,18),
+    created_at timestamp(6) not null,
+    id bigint not null,
+    updated_at timestamp(6),
+    blockchain_network varchar(255) not null check (blockchain_network in ('ETHEREUM_MAINNET','ETHEREUM_GOERLI','BITCOIN_MAINNET','BITCOIN_TESTNET','POLYGON_MAINNET','BSC_MAINNET','SOLANA_MAINNET')),
+    coingecko_id varchar(255) unique,
+    contract_address varchar(255),
+    logo_url varchar(255),
+    name varchar(255) not null,
+    symbol varchar(255) not null unique,
+    primary key (id)
+);
+
+create table transactions (
+    amount numeric(36,18),
+    amount_usd numeric(36,18),
+    confirmation_count integer,
+    exchange_rate numeric(36,18),
+    gas_price numeric(36,18),
+    network_fee numeric(36,18),
+    provider_fee numeric(36,18),
+    slippage_percent numeric(10,4),
+    total_fee numeric(36,18),
+    block_number bigint,
+    confirmed_at timestamp(6),
+    created_at timestamp(6) not null,
+    gas_limit bigint,
+    gas_used bigint,
+    id bigint not null,
+    token_id bigint,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    wallet_id bigint not null,
+    from_address varchar(255),
+    memo varchar(255),
+    status varchar(255) not null check (status in ('PENDING','CONFIRMED','FAILED','CANCELLED','EXPIRED')),
+    to_address varchar(255),
+    transaction_hash varchar(255) not null unique,
+    transaction_type varchar(255) not null check (transaction_type in ('SEND','RECEIVE','SWAP','BUY','SELL','STAKE','UNSTAKE','DEPOSIT','WITHDRAW')),
+    primary key (id)
+);
+
+create table user_valuations (
+    positions integer not null,
+    total_usd numeric(24,6) not null,
+    user_id bigint not null,
+    valued_at timestamp(6) not null,
+    primary key (user_id)
+);
+
+create table users (
+    biometric_enabled boolean,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    profile_version bigint,
+    updated_at timestamp(6),
+    email varchar(100) not null unique,
+    full_name varchar(100),
+    password varchar(100) not null,
+    username varchar(100) not null unique,
+    recovery_phrase varchar(1000),
+    recovery_phrase_hash varchar(255),
+    status varchar(255) check (status in ('ACTIVE','INACTIVE','SUSPENDED','PENDING_VERIFICATION')),
+    wallet_address varchar(255),
+    primary key (id)
+);
+
+create table wallets (
+    balance numeric(36,18),
+    is_active boolean,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    updated_at timestamp(6),
+    user_id bigint not null,
+    address varchar(255) not null unique,
+    blockchain_network varchar(255) not null check (blockchain_network in ('ETHEREUM_MAINNET','ETHEREUM_GOERLI','BITCOIN_MAINNET','BITCOIN_TESTNET','POLYGON_MAINNET','BSC_MAINNET','SOLANA_MAINNET')),
+    private_key_hash varchar(255) not null,
+    primary key (id)
+);
+
+create index idx_outbox_events_published_aggregate on outbox_events (published_at, aggregate_type, aggregate_id, aggregate_seq);
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
+create index idx_transactions_user_created on transactions (user_id, created_at, id);
+create index idx_transactions_user_type_created on transactions (user_id, transaction_type, created_at, id);
+create index idx_transactions_user_token_created on transactions (user_id, token_id, created_at, id);
+create index idx_transactions_wallet_created on transactions (wallet_id, created_at, id);
+
+alter table liquidity_pools add constraint fk_liquidity_pools_token0 foreign key (token0_id) references tokens (id);
+alter table liquidity_pools add constraint fk_liquidity_pools_token1 foreign key (token1_id) references tokens (id);
+alter table token_balances add constraint fk_token_balances_token foreign key (token_id) references tokens (id);
+alter table token_balances add constraint fk_token_balances_wallet foreign key (wallet_id) references wallets (id);
+alter table transactions add constraint fk_transactions_token foreign key (token_id) references tokens (id);
+alter table transactions add constraint fk_transactions_user foreign key (user_id) references users (id);
+alter table transactions add constraint fk_transactions_wallet foreign key (wallet_id) references wallets (id);
+alter table wallets add constraint fk_wallets_user foreign key (user_id) references users (id);
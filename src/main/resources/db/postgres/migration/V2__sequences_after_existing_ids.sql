@@ -0,0 +1,25 @@
+-- Id sequences for tables whose rows were inserted with identity ids.
+--
+-- Releases before the pooled-lo id generators let ddl-auto create these tables with
+-- identity columns, so they hold rows but have no <table>_seq. Such a database is
+-- recorded as version 1 without running V1 (see README) and this file creates the
+-- sequences. Hibernate takes a block of 50 ids per nextval, starting at the value
+-- returned, so each sequence restarts at max(id) + 1 and never hands out an id in
+-- use. On a database built from V1 the tables are empty and nothing changes.
+--
+-- The old identity columns are left in place: they are generated by default, so
+-- they accept the ids Hibernate assigns.
+
+create sequence if not exists revoked_tokens_seq start with 1 increment by 50;
+create sequence if not exists token_balances_seq start with 1 increment by 50;
+create sequence if not exists tokens_seq start with 1 increment by 50;
+create sequence if not exists transactions_seq start with 1 increment by 50;
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists wallets_seq start with 1 increment by 50;
+
+select setval('revoked_tokens_seq', (select coalesce(max(id), 0) + 1 from revoked_tokens), false);
+select setval('token_balances_seq', (select coalesce(max(id), 0) + 1 from token_balances), false);
+select setval('tokens_seq', (select coalesce(max(id), 0) + 1 from tokens), false);
+select setval('transactions_seq', (select coalesce(max(id), 0) + 1 from transactions), false);
+select setval('users_seq', (select coalesce(max(id), 0) + 1 from users), false);
+select setval('wallets_seq', (select coalesce(max(id), 0) + 1 from wallets), false);
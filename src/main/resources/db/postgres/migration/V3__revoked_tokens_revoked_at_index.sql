@@ -0,0 +1,3 @@
+-- Nodes poll revoked_tokens by revoked_at to learn about revocations made elsewhere.
+
+create index if not exists idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at, id);
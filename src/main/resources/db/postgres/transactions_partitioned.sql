@@ -0,0 +1,83 @@
+-- Convert the transactions table into monthly range partitions on created_at.
+--
+-- Run once, in a maintenance window, against a schema created by db/postgres/migration.
+-- Afterwards TransactionPartitionManager keeps partitions ahead of time and
+-- applies partition.retention-months.
+--
+-- PostgreSQL requires every unique constraint on a partitioned table to include
+-- the partition key, so the primary key becomes (id, created_at). Ids stay unique
+-- through transactions_seq. Hashes stay unique across all partitions through
+-- transaction_hashes, a plain table kept in step by a trigger: inserting a hash
+-- that is already present fails the insert as the old unique constraint did.
+-- TransactionPartitionManager removes the hashes of partitions it retires.
+
+begin;
+
+alter table transactions rename to transactions_unpartitioned;
+
+create table transactions (like transactions_unpartitioned including defaults including constraints)
+    partition by range (created_at);
+
+alter table transactions add primary key (id, created_at);
+alter table transactions add constraint uk_transactions_hash_created unique (transaction_hash, created_at);
+alter table transactions add foreign key (user_id) references users (id);
+alter table transactions add foreign key (wallet_id) references wallets (id);
+alter table transactions add foreign key (token_id) references tokens (id);
+
+create table transaction_hashes (
+    transaction_hash varchar(255) primary key,
+    transaction_id bigint not null,
+    created_at timestamp(6) not null
+);
+create index idx_transaction_hashes_created on transaction_hashes (created_at);
+
+create function transactions_track_hash() returns trigger language plpgsql as $$
+begin
+    if tg_op in ('UPDATE', 'DELETE') and old.transaction_hash is not null then
+        delete from transaction_hashes
+         where transaction_hash = old.transaction_hash and transaction_id = old.id;
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') and new.transaction_hash is not null then
+        insert into transaction_hashes (transaction_hash, transaction_id, created_at)
+        values (new.transaction_hash, new.id, new.created_at);
+    end if;
+    return null;
+end $$;
+
+create trigger transactions_hash_unique
+    after insert or update of transaction_hash, created_at or delete on transactions
+    for each row execute function transactions_track_hash();
+
+-- Keyset indexes for history, created on every partition
+create index idx_transactions_user_created on transactions (user_id, created_at, id);
+create index idx_transactions_user_type_created on transactions (user_id, transaction_type, created_at, id);
+create index idx_transactions_user_token_created on transactions (user_id, token_id, created_at, id);
+create index idx_transactions_wallet_created on transactions (wallet_id, created_at, id);
+
+-- One partition per month that has data, plus the next three months
+do $$
+declare
+    month_start date;
+    last_month date;
+begin
+    select coalesce(date_trunc('month', min(created_at)), date_trunc('month', now()))::date
+      into month_start from transactions_unpartitioned;
+    last_month := (date_trunc('month', now()) + interval '3 months')::date;
+    while month_start <= last_month loop
+        execute format('create table %I partition of transactions for values from (%L) to (%L)',
+            'transactions_p' || to_char(month_start, 'YYYY_MM'), month_start, (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    end loop;
+end $$;
+
+-- Catches rows outside every monthly range so inserts never fail
+create table transactions_default partition of transactions default;
+
+-- Fills transaction_hashes through the trigger
+insert into transactions select * from transactions_unpartitioned;
+
+drop table transactions_unpartitioned;
+
+commit;
+
+analyze transactions;
@@ -0,0 +1,148 @@
+package com.springten.wallet.archive;
+
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.dto.TransactionHistoryItem;
+import com.springten.wallet.dto.TransactionHistoryResponse;
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.model.User;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.repository.TransactionHistoryQuery;
+import com.springten.wallet.repository.TransactionRepository;
+import com.springten.wallet.service.TransactionHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the archiver against H2 with an in-memory stand-in for the Mongo store,
+ * then reads history back across both tiers.
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+class TransactionArchiverTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final List<ArchivedTransaction> archived = new ArrayList<>();
+    private ColdTransactionStore coldStore;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        coldStore = mock(ColdTransactionStore.class);
+        doAnswer(invocation -> archived.addAll(invocation.getArgument(0))).when(coldStore).insertAll(any());
+        when(coldStore.findHistoryPage(any())).thenAnswer(invocation -> coldPage(invocation.getArgument(0)));
+        when(coldStore.getNewestArchived()).thenAnswer(invocation -> archived.stream()
+            .map(ArchivedTransaction::getCreatedAt).max(Comparator.naturalOrder()).orElse(null));
+
+        user = entityManager.persist(new User("alice", "alice@springten.app", "secret", "Alice"));
+        Wallet wallet = entityManager.persist(new Wallet("0xalice", "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user));
+        for (int i = 0; i < 30; i++) {
+            Transaction.TransactionStatus status = i % 3 == 0
+                ? Transaction.TransactionStatus.PENDING
+                : Transaction.TransactionStatus.CONFIRMED;
+            entityManager.persist(new Transaction("0xtx" + i, Transaction.TransactionType.SEND, status, user, wallet));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void movesOnlyFinalizedRowsInBatches() {
+        TransactionArchiver archiver = new TransactionArchiver(transactionRepository, coldStore, Duration.ZERO, 7, 100, Duration.ofMinutes(1));
+
+        int moved = archiver.archiveOlderThan(LocalDateTime.now().plusMinutes(1));
+
+        assertThat(moved).isEqualTo(20);
+        assertThat(archived).hasSize(20)
+            .allMatch(tx -> tx.getStatus() == Transaction.TransactionStatus.CONFIRMED)
+            .allMatch(tx -> user.getId().equals(tx.getUserId()));
+        assertThat(transactionRepository.count()).isEqualTo(10);
+    }
+
+    @Test
+    void historyMergesHotAndColdTiers() {
+        new TransactionArchiver(transactionRepository, coldStore, Duration.ZERO, 7, 100, Duration.ofMinutes(1))
+            .archiveOlderThan(LocalDateTime.now().plusMinutes(1));
+        TransactionHistoryService historyService = new TransactionHistoryService(transactionRepository, Optional.of(coldStore),
+            Optional.empty());
+
+        List<TransactionHistoryItem> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionHistoryResponse page = historyService.getHistory(user.getId(), null, null, null, cursor, 8);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(all).hasSize(30);
+        assertThat(all).extracting(TransactionHistoryItem::id).doesNotHaveDuplicates();
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(TransactionHistoryItem::createdAt)
+            .thenComparing(TransactionHistoryItem::id).reversed());
+    }
+
+    @Test
+    void scheduledRunsOnlyOnTheNodeHoldingTheLease() {
+        TransactionArchiver archiver = new TransactionArchiver(transactionRepository, coldStore, Duration.ZERO, 7, 100,
+            Duration.ofMinutes(1));
+
+        when(coldStore.acquireLease(eq(TransactionArchiver.LEASE), anyString(), any())).thenReturn(false);
+        archiver.archive();
+        assertThat(archived).isEmpty();
+        verify(coldStore, never()).releaseLease(any(), any());
+
+        when(coldStore.acquireLease(eq(TransactionArchiver.LEASE), anyString(), any())).thenReturn(true);
+        archiver.archive();
+        assertThat(archived).hasSize(20);
+        verify(coldStore).releaseLease(eq(TransactionArchiver.LEASE), anyString());
+    }
+
+    @Test
+    void newestArchivedCoversWhatOtherNodesMayHaveArchived() {
+        // An empty archive on this node still bounds recent pages by the retention
+        ColdTransactionStore store = new ColdTransactionStore(mock(MongoTemplate.class), Duration.ofDays(90));
+
+        LocalDateTime newest = store.getNewestArchived();
+
+        assertThat(newest).isBetween(LocalDateTime.now().minusDays(90).minusMinutes(1),
+            LocalDateTime.now().minusDays(90));
+    }
+
+    private List<TransactionHistoryItem> coldPage(TransactionHistoryQuery query) {
+        return archived.stream()
+            .filter(tx -> tx.getUserId().equals(query.userId()))
+            .filter(tx -> !query.hasCursor()
+                || tx.getCreatedAt().isBefore(query.cursorCreatedAt())
+                || (tx.getCreatedAt().equals(query.cursorCreatedAt()) && tx.getId() < query.cursorId()))
+            .sorted(Comparator.comparing(ArchivedTransaction::getCreatedAt)
+                .thenComparing(ArchivedTransaction::getId).reversed())
+            .limit(query.limit())
+            .map(ArchivedTransaction::toHistoryItem)
+            .toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.springten.wallet.balance;
+
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.User;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.repository.TokenBalanceDeadLetterRepository;
+import com.springten.wallet.repository.TokenBalanceRepository;
+import com.springten.wallet.repository.TokenRepository;
+import com.springten.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JpaConfig.class)
+class TokenBalanceWriteBufferTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TokenBalanceRepository tokenBalanceRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TokenBalanceDeadLetterRepository deadLetterRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> walletIds = new ArrayList<>();
+    private Long tokenId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(new User("alice", "alice@springten.app", "secret", "Alice"));
+        for (int i = 0; i < 10; i++) {
+            walletIds.add(entityManager.persist(
+                new Wallet("0xw" + i, "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user)).getId());
+        }
+        tokenId = entityManager.persist(
+            new Token("USDC", "USD Coin", "0xusdc", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, 6)).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void coalescesBurstIntoOneWritePerBalance() {
+        TokenBalanceWriteBuffer buffer = buffer(100_000);
+
+        for (int round = 1; round <= 100; round++) {
+            for (Long walletId : walletIds) {
+                buffer.put(walletId, tokenId, BigDecimal.valueOf(round), BigDecimal.valueOf(round));
+            }
+        }
+        assertThat(buffer.getPending(walletIds.get(0), tokenId).balance()).isEqualByComparingTo("100");
+        assertThat(tokenBalanceRepository.count()).isZero();
+
+        assertThat(buffer.flush()).isEqualTo(10);
+        assertThat(buffer.size()).isZero();
+        assertThat(meterRegistry.get("springten.balance.writebehind.updates").counter().count()).isEqualTo(1000);
+        assertThat(meterRegistry.get("springten.balance.writebehind.writes").counter().count()).isEqualTo(10);
+
+        // Second burst updates the rows inserted by the first instead of adding new ones
+        walletIds.forEach(walletId -> buffer.put(walletId, tokenId, new BigDecimal("7.5"), null));
+        buffer.flush();
+
+        assertThat(tokenBalanceRepository.count()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForList("select balance from token_balances", BigDecimal.class))
+            .allMatch(balance -> balance.compareTo(new BigDecimal("7.5")) == 0);
+    }
+
+    @Test
+    void flushesWhenTheBufferFills() {
+        TokenBalanceWriteBuffer buffer = buffer(5);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.put(walletIds.get(i), tokenId, BigDecimal.ONE, BigDecimal.ONE);
+        }
+
+        assertThat(buffer.size()).isZero();
+        assertThat(tokenBalanceRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void retriesRowsOneByOneAndDeadLettersOnesThatKeepFailing() {
+        TokenBalanceWriteBuffer buffer = buffer(100_000);
+        walletIds.forEach(walletId -> buffer.put(walletId, tokenId, BigDecimal.ONE, null));
+        buffer.flush();
+
+        // Out of range for numeric(36, 18): the batch fails and the other rows are written one by one
+        Long poisoned = walletIds.get(0);
+        buffer.put(poisoned, tokenId, new BigDecimal("1e30"), null);
+        walletIds.subList(1, 10).forEach(walletId -> buffer.put(walletId, tokenId, BigDecimal.TEN, null));
+        assertThat(buffer.flush()).isEqualTo(9);
+        assertThat(buffer.size()).isEqualTo(1);
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(deadLetterRepository.count()).isZero();
+        assertThat(buffer.flush()).isZero();
+
+        assertThat(buffer.size()).isZero();
+        assertThat(deadLetterRepository.findAll()).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.getWalletId()).isEqualTo(poisoned);
+            assertThat(new BigDecimal(deadLetter.getBalance())).isEqualByComparingTo("1e30");
+        });
+        assertThat(meterRegistry.get("springten.balance.writebehind.dead.letters").counter().count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select balance from token_balances where wallet_id = ?",
+            BigDecimal.class, poisoned)).isEqualByComparingTo("1");
+    }
+
+    @Test
+    void writesNewKeysThroughOnceTheBufferIsAtItsHardLimit() {
+        TokenBalanceWriteBuffer buffer = buffer(100_000, 3);
+
+        for (int i = 0; i < 5; i++) {
+            buffer.put(walletIds.get(i), tokenId, BigDecimal.ONE, BigDecimal.ONE);
+        }
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(tokenBalanceRepository.count()).isEqualTo(2);
+
+        // Keys already buffered still coalesce
+        buffer.put(walletIds.get(0), tokenId, BigDecimal.TEN, BigDecimal.TEN);
+        assertThat(buffer.getPending(walletIds.get(0), tokenId).balance()).isEqualByComparingTo("10");
+        assertThat(tokenBalanceRepository.count()).isEqualTo(2);
+        assertThat(meterRegistry.get("springten.balance.writebehind.sync.writes").counter().count()).isEqualTo(2);
+    }
+
+    private TokenBalanceWriteBuffer buffer(int maxPending) {
+        return buffer(maxPending, maxPending * 5);
+    }
+
+    private TokenBalanceWriteBuffer buffer(int maxPending, int hardLimit) {
+        return new TokenBalanceWriteBuffer(jdbcTemplate, new TransactionTemplate(transactionManager),
+            tokenBalanceRepository, walletRepository, tokenRepository, deadLetterRepository, meterRegistry,
+            maxPending, 100, hardLimit, 3);
+    }
+}
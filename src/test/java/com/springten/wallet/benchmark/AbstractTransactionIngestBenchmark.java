@@ -0,0 +1,75 @@
+package com.springten.wallet.benchmark;
+
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.model.User;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.repository.UserRepository;
+import com.springten.wallet.repository.WalletRepository;
+import com.springten.wallet.service.TransactionIngestService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures bulk transaction inserts in rows per second. Benchmarks are not
+ * picked up by the default surefire includes; run one explicitly, e.g.
+ * {@code mvn test -Dtest=H2TransactionIngestBenchmark}.
+ */
+abstract class AbstractTransactionIngestBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractTransactionIngestBenchmark.class);
+
+    private static final int BLOCK_SIZE = 1_000;
+    private static final int WARMUP_ROWS = 5_000;
+    private static final int MEASURED_ROWS = 50_000;
+
+    @Autowired
+    private TransactionIngestService ingestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    protected abstract String database();
+
+    @Test
+    void measureIngestThroughput() {
+        User user = userRepository.save(new User("bench", "bench@springten.app", "secret", "Bench"));
+        Wallet wallet = walletRepository.save(new Wallet("0xbench", "hash",
+            Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user));
+
+        for (int i = 0; i < WARMUP_ROWS / BLOCK_SIZE; i++) {
+            ingestService.ingest(block(user, wallet, "warmup-" + i));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROWS / BLOCK_SIZE; i++) {
+            ingestService.ingest(block(user, wallet, "block-" + i));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("[ingest] {}: {} rows in {}s = {} rows/s", database(), MEASURED_ROWS,
+            String.format("%.2f", seconds), String.format("%.0f", MEASURED_ROWS / seconds));
+    }
+
+    private static List<Transaction> block(User user, Wallet wallet, String prefix) {
+        List<Transaction> rows = new ArrayList<>(BLOCK_SIZE);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            Transaction tx = new Transaction("0x" + prefix + "-" + i, Transaction.TransactionType.RECEIVE,
+                Transaction.TransactionStatus.CONFIRMED, user, wallet);
+            tx.setFromAddress("0xfrom");
+            tx.setToAddress(wallet.getAddress());
+            tx.setAmount(BigDecimal.valueOf(i, 3));
+            tx.setBlockNumber(19_000_000L + i);
+            rows.add(tx);
+        }
+        return rows;
+    }
+}
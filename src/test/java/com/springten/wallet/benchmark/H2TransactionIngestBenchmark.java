@@ -0,0 +1,15 @@
+package com.springten.wallet.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.springten=INFO"
+})
+class H2TransactionIngestBenchmark extends AbstractTransactionIngestBenchmark {
+
+    @Override
+    protected String database() {
+        return "H2";
+    }
+}
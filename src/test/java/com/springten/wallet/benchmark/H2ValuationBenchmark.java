@@ -0,0 +1,172 @@
+package com.springten.wallet.benchmark;
+
+import com.springten.wallet.model.TokenBalance;
+import com.springten.wallet.model.TokenValuation;
+import com.springten.wallet.model.UserValuation;
+import com.springten.wallet.valuation.ValuationEngine;
+import com.springten.wallet.valuation.ValuationSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Values 1M wallets with one balance each across 20 tokens, once with the valuation
+ * engine and once through JPA entities: TokenBalance pages with their wallet and token,
+ * a BigDecimal product per row, and UserValuation and TokenValuation entities saved in
+ * Hibernate batches. Both replace the same results; reading and writing are timed
+ * separately. Each side runs three times, alternating, and the first round warms up.
+ * Run explicitly with {@code mvn test -Dtest=H2ValuationBenchmark}.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.springten=INFO"
+})
+class H2ValuationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(H2ValuationBenchmark.class);
+
+    private static final int USERS = 250_000;
+    private static final int WALLETS = 1_000_000;
+    private static final int TOKENS = 20;
+    private static final int ROUNDS = 3;
+    private static final int PAGE_SIZE = 10_000;
+    private static final int FLUSH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void measureFullValuation() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("insert into users (id, username, email, password, created_at) " +
+            "select x, 'bench' || x, 'bench' || x || '@springten.app', 'secret', current_timestamp " +
+            "from system_range(1, ?)", USERS);
+        jdbcTemplate.update("insert into tokens (id, symbol, name, blockchain_network, current_price_usd, created_at) " +
+            "select x, 'T' || x, 'Token ' || x, 'ETHEREUM_MAINNET', x * 12.345678 / power(10, mod(x, 7)), " +
+            "current_timestamp from system_range(1, ?)", TOKENS);
+        jdbcTemplate.update("insert into wallets (id, address, private_key_hash, blockchain_network, user_id, created_at) " +
+            "select x, '0x' || x, 'hash', 'ETHEREUM_MAINNET', mod(x, ?) + 1, current_timestamp " +
+            "from system_range(1, ?)", USERS, WALLETS);
+        jdbcTemplate.update("insert into token_balances (id, wallet_id, token_id, balance, created_at) " +
+            "select x, x, mod(x, ?) + 1, mod(x * 7919, 1000000) / 1000.0, current_timestamp " +
+            "from system_range(1, ?)", TOKENS, WALLETS);
+        log.info("[valuation] H2: loaded {} wallets in {}s", WALLETS, seconds(System.nanoTime() - start));
+
+        ValuationEngine engine = new ValuationEngine(jdbcTemplate, transactionTemplate, Clock.systemDefaultZone(),
+            new SimpleMeterRegistry(), 10_000, 16_384, 1_000, 0);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String label = round == 0 ? "warm-up" : "run " + round;
+
+                ValuationSummary summary = engine.valueAll();
+                long engineWrite = summary.writing().toNanos();
+                report("engine", label, summary.totalUsd(), summary.elapsed().toNanos() - engineWrite, engineWrite);
+
+                EntityRun entities = valueThroughEntities();
+                report("JPA entities + BigDecimal", label, entities.totalUsd(), entities.readNanos(),
+                    entities.writeNanos());
+                assertThat(entities.totalUsd()).isEqualByComparingTo(summary.totalUsd());
+            }
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private EntityRun valueThroughEntities() {
+        return transactionTemplate.execute(status -> {
+            long start = System.nanoTime();
+            Map<Long, BigDecimal> userUsd = new HashMap<>();
+            Map<Long, Integer> userPositions = new HashMap<>();
+            Map<Long, BigDecimal> tokenUsd = new HashMap<>();
+            Map<Long, Integer> tokenHolders = new HashMap<>();
+            long afterId = 0;
+            List<TokenBalance> page;
+            do {
+                page = entityManager.createQuery("select tb from TokenBalance tb join fetch tb.wallet join fetch tb.token " +
+                        "where tb.id > :afterId and tb.balance > 0 order by tb.id", TokenBalance.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+                for (TokenBalance balance : page) {
+                    BigDecimal value = balance.getBalance().multiply(balance.getToken().getCurrentPriceUsd())
+                        .setScale(6, RoundingMode.HALF_UP);
+                    // The user is a lazy proxy; its id is known without loading it
+                    Long userId = balance.getWallet().getUser().getId();
+                    userUsd.merge(userId, value, BigDecimal::add);
+                    userPositions.merge(userId, 1, Integer::sum);
+                    tokenUsd.merge(balance.getToken().getId(), value, BigDecimal::add);
+                    tokenHolders.merge(balance.getToken().getId(), 1, Integer::sum);
+                    afterId = balance.getId();
+                }
+                entityManager.clear();
+            } while (page.size() == PAGE_SIZE);
+            long read = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            LocalDateTime valuedAt = LocalDateTime.now();
+            entityManager.createQuery("delete from UserValuation").executeUpdate();
+            entityManager.createQuery("delete from TokenValuation").executeUpdate();
+            int persisted = 0;
+            for (Map.Entry<Long, BigDecimal> entry : userUsd.entrySet()) {
+                UserValuation valuation = new UserValuation();
+                valuation.setUserId(entry.getKey());
+                valuation.setTotalUsd(entry.getValue());
+                valuation.setPositions(userPositions.get(entry.getKey()));
+                valuation.setValuedAt(valuedAt);
+                entityManager.persist(valuation);
+                if (++persisted % FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            for (Map.Entry<Long, BigDecimal> entry : tokenUsd.entrySet()) {
+                TokenValuation valuation = new TokenValuation();
+                valuation.setTokenId(entry.getKey());
+                valuation.setTotalUsd(entry.getValue());
+                valuation.setHolders(tokenHolders.get(entry.getKey()));
+                valuation.setValuedAt(valuedAt);
+                entityManager.persist(valuation);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            long write = System.nanoTime() - start;
+
+            BigDecimal total = userUsd.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            return new EntityRun(total, read, write);
+        });
+    }
+
+    private static void report(String path, String label, BigDecimal totalUsd, long readNanos, long writeNanos) {
+        log.info("[valuation] H2 {} {}: {} USD in {}s = {}s reading and valuing + {}s writing", path, label,
+            totalUsd.toPlainString(), seconds(readNanos + writeNanos), seconds(readNanos), seconds(writeNanos));
+    }
+
+    private static String seconds(long nanos) {
+        return String.format("%.2f", nanos / 1e9);
+    }
+
+    private record EntityRun(BigDecimal totalUsd, long readNanos, long writeNanos) {
+    }
+}
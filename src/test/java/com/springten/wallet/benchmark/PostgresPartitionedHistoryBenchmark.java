@@ -0,0 +1,130 @@
+package com.springten.wallet.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares history page latency on a single table against monthly partitions
+ * read one month window at a time, as TransactionHistoryService does when
+ * partitioning is active. Both tables hold the same rows: 2M transactions over
+ * 24 months for 2,000 users. Run explicitly with
+ * {@code mvn test -Dtest=PostgresPartitionedHistoryBenchmark}.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresPartitionedHistoryBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresPartitionedHistoryBenchmark.class);
+
+    private static final int ROWS = 2_000_000;
+    private static final int USERS = 2_000;
+    private static final int MONTHS = 24;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 2_000;
+    private static final LocalDate FIRST_MONTH = LocalDate.now().withDayOfMonth(1).minusMonths(MONTHS - 1);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void load() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+            POSTGRES.getPassword()));
+        String columns = "(id bigint not null, user_id bigint not null, transaction_type varchar(32), " +
+            "amount numeric(36, 18), created_at timestamp not null)";
+        jdbc.execute("create table history_plain " + columns);
+        jdbc.execute("create table history_partitioned " + columns + " partition by range (created_at)");
+        for (int i = 0; i < MONTHS; i++) {
+            LocalDate month = FIRST_MONTH.plusMonths(i);
+            jdbc.execute(String.format("create table history_partitioned_%d partition of history_partitioned " +
+                "for values from ('%s') to ('%s')", i, month, month.plusMonths(1)));
+        }
+        jdbc.execute("create table history_partitioned_default partition of history_partitioned default");
+
+        jdbc.update("insert into history_plain select g, g % " + USERS + ", case when g % 5 = 0 then 'SWAP' " +
+            "else 'SEND' end, g / 1000.0, ? + (g * interval '1 second' * (? / ?)) from generate_series(1, ?) g",
+            Timestamp.valueOf(FIRST_MONTH.atStartOfDay()), MONTHS * 30L * 86_400L, ROWS, ROWS);
+        jdbc.execute("insert into history_partitioned select * from history_plain");
+        for (String table : List.of("history_plain", "history_partitioned")) {
+            jdbc.execute("alter table " + table + " add primary key (id, created_at)");
+            jdbc.execute("create index on " + table + " (user_id, created_at, id)");
+            jdbc.execute("analyze " + table);
+        }
+    }
+
+    @Test
+    void compareHistoryLatency() {
+        for (String label : List.of("first page", "page 6 months back")) {
+            LocalDateTime cursor = label.equals("first page") ? null : LocalDateTime.now().minusMonths(6);
+            log.info("[history] {}", label);
+            measure("history_plain", "single query", cursor, false);
+            measure("history_partitioned", "single query", cursor, false);
+            measure("history_partitioned", "month windows", cursor, true);
+        }
+    }
+
+    private void measure(String table, String mode, LocalDateTime cursor, boolean windowed) {
+        // Warm up the plan cache and buffers before timing
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            page(table, randomUser(), cursor, windowed);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            page(table, randomUser(), cursor, windowed);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        log.info("[history] {}", String.format("%-20s %-15s p50=%6d us p99=%6d us", table, mode,
+            nanos[ITERATIONS / 2] / 1_000, nanos[ITERATIONS * 99 / 100] / 1_000));
+    }
+
+    private List<Map<String, Object>> page(String table, long userId, LocalDateTime cursor, boolean windowed) {
+        LocalDateTime upper = cursor == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : cursor;
+        if (!windowed) {
+            return query(table, userId, null, upper, PAGE_SIZE);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        LocalDate month = (cursor == null ? LocalDate.now() : cursor.toLocalDate()).withDayOfMonth(1);
+        for (int i = 0; i < 3 && rows.size() < PAGE_SIZE; i++) {
+            LocalDateTime from = i < 2 ? month.minusMonths(i).atStartOfDay() : null;
+            List<Map<String, Object>> window = query(table, userId, from, upper, PAGE_SIZE - rows.size());
+            rows.addAll(window);
+            if (!window.isEmpty()) {
+                upper = ((Timestamp) window.get(window.size() - 1).get("created_at")).toLocalDateTime();
+            }
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> query(String table, long userId, LocalDateTime from, LocalDateTime upper,
+                                            int limit) {
+        String sql = "select id, transaction_type, amount, created_at from " + table +
+            " where user_id = ? and created_at < ?" + (from != null ? " and created_at >= ?" : "") +
+            " order by created_at desc, id desc limit ?";
+        return from != null
+            ? jdbc.queryForList(sql, userId, Timestamp.valueOf(upper), Timestamp.valueOf(from), limit)
+            : jdbc.queryForList(sql, userId, Timestamp.valueOf(upper), limit);
+    }
+
+    private static long randomUser() {
+        return ThreadLocalRandom.current().nextLong(USERS);
+    }
+}
@@ -0,0 +1,125 @@
+package com.springten.wallet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.price.PriceQuote;
+import com.springten.wallet.price.PriceStreamService;
+import com.springten.wallet.price.PriceStreamService.PriceUpdate;
+import com.springten.wallet.price.PriceTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans price ticks out to 50k in-memory sessions, each subscribed to 5 of 100 symbols,
+ * with every symbol ticking 5 times per flush. Compares the conflating stream with
+ * encoding and sending every tick to every subscriber. Sessions only encode the frame
+ * to bytes, so the numbers leave out network writes. Run explicitly with
+ * {@code mvn test -Dtest=PriceStreamBenchmark}.
+ */
+class PriceStreamBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamBenchmark.class);
+
+    private static final int SESSIONS = 50_000;
+    private static final int SYMBOLS = 100;
+    private static final int SYMBOLS_PER_SESSION = 5;
+    private static final int TICKS_PER_FLUSH = 5;
+    private static final int FLUSHES = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong sends = new AtomicLong();
+    private final AtomicLong encodedBytes = new AtomicLong();
+
+    @Test
+    void measureFanOut() throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        PriceStreamService stream = new PriceStreamService(objectMapper, new PriceTable(), senders, 4,
+            new SimpleMeterRegistry(), SYMBOLS_PER_SESSION, 5_000, 512 * 1024);
+        List<WebSocketSession> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            WebSocketSession session = countingSession("s" + i);
+            sessions.add(session);
+            stream.register(session);
+            List<String> symbols = new ArrayList<>();
+            for (int k = 0; k < SYMBOLS_PER_SESSION; k++) {
+                symbols.add(symbol((i + k * 17) % SYMBOLS));
+            }
+            stream.subscribe(session, symbols);
+        }
+
+        long start = System.nanoTime();
+        for (int flush = 0; flush < FLUSHES; flush++) {
+            for (int tick = 0; tick < TICKS_PER_FLUSH; tick++) {
+                for (int s = 0; s < SYMBOLS; s++) {
+                    stream.publish(symbol(s), quote(flush * TICKS_PER_FLUSH + tick, s));
+                }
+            }
+            stream.flush();
+        }
+        senders.shutdown();
+        senders.awaitTermination(5, TimeUnit.MINUTES);
+        report("conflated", start, sends.getAndSet(0));
+
+        start = System.nanoTime();
+        for (int flush = 0; flush < FLUSHES; flush++) {
+            for (int tick = 0; tick < TICKS_PER_FLUSH; tick++) {
+                for (int i = 0; i < SESSIONS; i++) {
+                    for (int k = 0; k < SYMBOLS_PER_SESSION; k++) {
+                        int s = (i + k * 17) % SYMBOLS;
+                        PriceQuote quote = quote(flush * TICKS_PER_FLUSH + tick, s);
+                        PriceUpdate update = new PriceUpdate("price", symbol(s), quote.priceUsd().toPlainString(),
+                            null, quote.fetchedAt().toEpochMilli());
+                        sessions.get(i).sendMessage(new TextMessage(objectMapper.writeValueAsString(update)));
+                    }
+                }
+            }
+        }
+        report("per-tick", start, sends.getAndSet(0));
+    }
+
+    private void report(String label, long start, long frames) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("[price-stream] {}", String.format(
+            "%-9s %,d frames (%,d MB) to %,d sessions in %.2fs (%,.0f frames/s)",
+            label, frames, encodedBytes.getAndSet(0) >> 20, SESSIONS, seconds, frames / seconds));
+    }
+
+    private WebSocketSession countingSession(String id) {
+        return (WebSocketSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getId" -> id;
+                case "isOpen" -> true;
+                case "sendMessage" -> {
+                    // The container encodes every text frame it writes
+                    encodedBytes.addAndGet(((TextMessage) args[0]).asBytes().length);
+                    sends.incrementAndGet();
+                    yield null;
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    private static String symbol(int index) {
+        return "T" + index;
+    }
+
+    private static PriceQuote quote(int tick, int symbol) {
+        return new PriceQuote("token-" + symbol, BigDecimal.valueOf(1000 + tick * 7 + symbol, 2), null, null,
+            BigDecimal.ONE, Instant.ofEpochMilli(1_700_000_000_000L + tick));
+    }
+}
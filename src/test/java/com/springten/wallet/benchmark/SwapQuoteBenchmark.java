@@ -0,0 +1,89 @@
+package com.springten.wallet.benchmark;
+
+import com.springten.wallet.swap.PoolDefinition;
+import com.springten.wallet.swap.PoolReserves;
+import com.springten.wallet.swap.SwapQuote;
+import com.springten.wallet.swap.SwapQuoteEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotes from cached reserves over 50 tokens: five hub tokens pooled with each other and
+ * with every other token, plus a pool between each pair of neighbouring tokens. Candidate
+ * routes per quote grow with the number of hops. Run with the JMH profile:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="SwapQuoteBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwapQuoteBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SwapQuoteBenchmark.class);
+
+    private static final int TOKENS = 50;
+    private static final int HUBS = 5;
+
+    @Param({"1", "2", "3"})
+    public int maxHops;
+
+    private SwapQuoteEngine engine;
+    private int routes;
+    private final BigDecimal amount = new BigDecimal("125.5");
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new SwapQuoteEngine(new SimpleMeterRegistry(), maxHops, 50, 0);
+        List<PoolDefinition> pools = new ArrayList<>();
+        for (int a = 0; a < TOKENS; a++) {
+            for (int b = a + 1; b < TOKENS; b++) {
+                if (a < HUBS || b == a + 1) {
+                    pools.add(new PoolDefinition("0x" + a + "x" + b, "T" + a, 18, "T" + b, 18, 30));
+                }
+            }
+        }
+        engine.loadPools(pools);
+        BigInteger unit = BigInteger.TEN.pow(18);
+        for (PoolDefinition pool : pools) {
+            int seed = pool.address().hashCode() & 0xffff;
+            engine.applyReserves(PoolReserves.snapshot(pool.address(),
+                BigInteger.valueOf(100_000 + seed).multiply(unit),
+                BigInteger.valueOf(100_000 + (seed * 7919 & 0xffff)).multiply(unit), 1));
+        }
+        // Enumerate the candidate routes once, as the first quote for a pair does
+        routes = engine.quote("T3", "T20", amount, null).routesEvaluated();
+        log.info("Candidate routes with maxHops {}: {}", maxHops, routes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public SwapQuote quote() {
+        return engine.quote("T3", "T20", amount, null);
+    }
+}
@@ -0,0 +1,153 @@
+package com.springten.wallet.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordingStream;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires a burst of eth_getBalance calls through web3j at a stub JSON-RPC node that answers
+ * each call after a fixed delay, the way a controller thread blocks on {@code .send()}.
+ * Compares a 200-thread platform pool (Tomcat's default maximum) with one virtual thread per
+ * request, and shows what a monitor held across the call (the old PriceFeedService.flush
+ * pattern) does to virtual threads. Latency counts from submission, so it includes queueing.
+ * The stub shares the machine's CPUs, which cap the virtual run once threads stop being the limit.
+ * Run explicitly with {@code mvn test -Dtest=VirtualThreadLoadBenchmark}.
+ */
+class VirtualThreadLoadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadBenchmark.class);
+
+    private static final long RPC_LATENCY_MS = 500;
+    private static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS = 10_000;
+    private static final int PINNED_REQUESTS = 20;
+    private static final int PLATFORM_THREADS = 200;
+    private static final String BALANCE = "0x1bc16d674ec80000";
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    @Test
+    void compareThreadModels() throws Exception {
+        HttpServer node = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENCY);
+        // Platform threads, so the node keeps answering while client carriers are pinned
+        node.setExecutor(Executors.newCachedThreadPool());
+        node.createContext("/", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher id = ID.matcher(request);
+            byte[] body = ("{\"jsonrpc\":\"2.0\",\"id\":" + (id.find() ? id.group(1) : "1")
+                + ",\"result\":\"" + BALANCE + "\"}").getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(RPC_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        node.start();
+
+        // Keep enough idle connections that neither run pays for reconnecting
+        OkHttpClient client = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(CONCURRENCY, 5, TimeUnit.MINUTES))
+            .build();
+        Web3j web3j = Web3j.build(new HttpService("http://127.0.0.1:" + node.getAddress().getPort(), client));
+        try {
+            run("warm-up", web3j, Executors.newVirtualThreadPerTaskExecutor(), 1_000, false);
+            run("platform", web3j, Executors.newFixedThreadPool(PLATFORM_THREADS), REQUESTS, false);
+            run("virtual", web3j, Executors.newVirtualThreadPerTaskExecutor(), REQUESTS, false);
+            run("pinned", web3j, Executors.newVirtualThreadPerTaskExecutor(), PINNED_REQUESTS, true);
+        } finally {
+            web3j.shutdown();
+            node.stop(0);
+        }
+    }
+
+    private void run(String label, Web3j web3j, ExecutorService executor, int requests, boolean pinned)
+            throws Exception {
+        AtomicLong pinnedEvents = new AtomicLong();
+        try (RecordingStream pinning = new RecordingStream()) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> pinnedEvents.incrementAndGet());
+            pinning.startAsync();
+
+            long[] latencies = new long[requests];
+            // One monitor per call, so nothing is contended: the only cost is the carrier held through the I/O
+            Object[] monitors = new Object[requests];
+            Arrays.setAll(monitors, i -> new Object());
+            List<Future<?>> calls = new ArrayList<>(requests);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                calls.add(executor.submit(() -> {
+                    String balance = pinned ? balanceHolding(monitors[index], web3j, index) : balance(web3j, index);
+                    latencies[index] = System.nanoTime() - submitted;
+                    return balance;
+                }));
+                // Admit at most CONCURRENCY requests at a time, like a bounded accept backlog
+                if (i >= CONCURRENCY) {
+                    calls.get(i - CONCURRENCY).get();
+                }
+            }
+            for (Future<?> call : calls) {
+                assertThat(call.get()).isEqualTo(BALANCE);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            // Pinned events are flushed with the recording chunk
+            Thread.sleep(1_500);
+
+            Arrays.sort(latencies);
+            log.info("[virtual-threads] {}", String.format("%-8s %,6d calls in %6.2fs (%,7.0f calls/s) p50 %,6d ms"
+                    + " p99 %,6d ms pinned events %,d",
+                label, requests, seconds, requests / seconds, millis(latencies, 0.50), millis(latencies, 0.99),
+                pinnedEvents.get()));
+        }
+    }
+
+    private static String balance(Web3j web3j, int index) throws Exception {
+        return "0x" + web3j.ethGetBalance(address(index), DefaultBlockParameterName.LATEST).send()
+            .getBalance().toString(16);
+    }
+
+    private static String balanceHolding(Object monitor, Web3j web3j, int index) throws Exception {
+        synchronized (monitor) {
+            return balance(web3j, index);
+        }
+    }
+
+    private static String address(int index) {
+        return String.format("0x%040x", index);
+    }
+
+    private static long millis(long[] sorted, double quantile) {
+        return TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.min(sorted.length - 1, quantile * sorted.length)]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.springten.wallet.benchmark;
+
+import com.springten.wallet.web3.Wei;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the BigDecimal/BigInteger amount handling previously done in WalletService and
+ * Web3Service with {@link Wei}. Run with the JMH profile and the GC profiler to see
+ * allocation per operation:
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="WeiBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeiBenchmark {
+
+    private static final long GAS_LIMIT = 21_000;
+
+    private final BigInteger balanceBig = new BigInteger("1234567891234567891");
+    private final Wei balance = Wei.parse("1234567891234567891");
+    private final BigInteger gasPriceBig = new BigInteger("23456789012");
+    private final Wei gasPrice = Wei.parse("23456789012");
+    private final String ethText = "1.25";
+
+    @Benchmark
+    public String weiToEthLegacy() {
+        return new BigDecimal(balanceBig).divide(new BigDecimal("1000000000000000000")).toPlainString();
+    }
+
+    @Benchmark
+    public String weiToEth() {
+        return balance.toString(Wei.Unit.ETHER);
+    }
+
+    @Benchmark
+    public BigInteger ethToWeiLegacy() {
+        return new BigDecimal(ethText).multiply(new BigDecimal("1000000000000000000")).toBigInteger();
+    }
+
+    @Benchmark
+    public Wei ethToWei() {
+        return Wei.parse(ethText, Wei.Unit.ETHER);
+    }
+
+    @Benchmark
+    public BigInteger totalCostLegacy() {
+        return gasPriceBig.multiply(BigInteger.valueOf(GAS_LIMIT)).add(balanceBig);
+    }
+
+    @Benchmark
+    public Wei totalCost() {
+        return gasPrice.multiply(GAS_LIMIT).add(balance);
+    }
+
+    @Benchmark
+    public double gasPriceGweiLegacy() {
+        return gasPriceBig.doubleValue() / 1_000_000_000.0;
+    }
+
+    @Benchmark
+    public double gasPriceGwei() {
+        return gasPrice.toDouble(Wei.Unit.GWEI);
+    }
+
+    @Benchmark
+    public String formatWeiLegacy() {
+        return balanceBig.toString();
+    }
+
+    @Benchmark
+    public String formatWei() {
+        return balance.toString();
+    }
+}
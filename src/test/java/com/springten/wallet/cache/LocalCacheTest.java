@@ -0,0 +1,54 @@
+package com.springten.wallet.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTest {
+
+    @Test
+    void loadsOnceAndServesFromCache() {
+        LocalCache<String, String> cache = new LocalCache<>(60_000, 10);
+        int[] loads = {0};
+
+        cache.get("alice", key -> { loads[0]++; return key.toUpperCase(); });
+        String value = cache.get("alice", key -> { loads[0]++; return key.toUpperCase(); });
+
+        assertThat(value).isEqualTo("ALICE");
+        assertThat(loads[0]).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        LocalCache<String, String> cache = new LocalCache<>(5, 10);
+        cache.put("alice", "v1");
+
+        Thread.sleep(20);
+
+        assertThat(cache.get("alice")).isNull();
+    }
+
+    @Test
+    void staysWithinMaxSize() {
+        LocalCache<Integer, Integer> cache = new LocalCache<>(60_000, 100);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.getEvictionCount()).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void doesNotCacheLoadRacingWithInvalidation() {
+        LocalCache<String, String> cache = new LocalCache<>(60_000, 10);
+
+        cache.get("alice", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(cache.get("alice")).isNull();
+    }
+}
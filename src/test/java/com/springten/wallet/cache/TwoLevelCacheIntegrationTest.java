@@ -0,0 +1,256 @@
+package com.springten.wallet.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.security.UserPrincipal;
+import com.springten.wallet.security.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.env.MockEnvironment;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application nodes sharing one embedded Redis server
+ */
+class TwoLevelCacheIntegrationTest {
+
+    private static final String CHANNEL = "test:cache:invalidate";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        new StringRedisTemplate(connectionFactory).execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        nodeA = new Node();
+        nodeB = new Node();
+        // Subscriptions are established asynchronously
+        Thread.sleep(200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        containers.forEach(RedisMessageListenerContainer::stop);
+    }
+
+    @Test
+    void secondNodeReadsValueLoadedByFirstNodeFromRedis() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(nodeA.balances.get("0xabc", key -> BigInteger.valueOf(loads.incrementAndGet() * 100L)))
+            .isEqualTo(BigInteger.valueOf(100));
+        assertThat(nodeB.balances.get("0xabc", key -> BigInteger.valueOf(loads.incrementAndGet() * 100L)))
+            .isEqualTo(BigInteger.valueOf(100));
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(nodeB.balances.getSharedHitCount()).isEqualTo(1);
+        assertThat(nodeB.balances.hitRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    void putOnOneNodeEvictsTheOtherNodesNearCopy() throws InterruptedException {
+        nodeA.balances.get("0xabc", key -> BigInteger.ONE);
+        nodeB.balances.get("0xabc", key -> BigInteger.ONE);
+
+        nodeA.balances.put("0xabc", BigInteger.TWO);
+
+        awaitLocalSize(nodeB.balances, 0);
+        assertThat(nodeB.balances.get("0xabc", key -> BigInteger.TEN)).isEqualTo(BigInteger.TWO);
+    }
+
+    @Test
+    void invalidateRemovesValueFromBothLevelsEverywhere() throws InterruptedException {
+        nodeA.balances.get("0xabc", key -> BigInteger.ONE);
+        nodeB.balances.get("0xabc", key -> BigInteger.ONE);
+
+        nodeB.balances.invalidate("0xabc");
+
+        awaitLocalSize(nodeA.balances, 0);
+        assertThat(nodeA.balances.get("0xabc", key -> BigInteger.TEN)).isEqualTo(BigInteger.TEN);
+    }
+
+    @Test
+    void exposesHitRatioMetrics() {
+        nodeA.balances.get("0xabc", key -> BigInteger.ONE);
+        nodeA.balances.get("0xabc", key -> BigInteger.ONE);
+        nodeA.balances.get("0xabc", key -> BigInteger.ONE);
+        nodeA.balances.get("0xdef", key -> BigInteger.ONE);
+
+        assertThat(nodeA.meterRegistry.get("springten.cache.hit.ratio").tag("cache", "balances").gauge().value())
+            .isEqualTo(0.5);
+        assertThat(nodeA.meterRegistry.get("springten.cache.requests")
+            .tags("cache", "balances", "level", "shared", "result", "miss").functionCounter().count())
+            .isEqualTo(2.0);
+    }
+
+    @Test
+    void asyncReadsShareEntriesWithBlockingReads() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        nodeA.balances.get("0xabc", key -> BigInteger.valueOf(loads.incrementAndGet()));
+
+        assertThat(nodeB.balances.getAsync("0xabc", key -> CompletableFuture.completedFuture(BigInteger.TEN))
+            .get(5, TimeUnit.SECONDS)).isEqualTo(BigInteger.ONE);
+        assertThat(nodeB.balances.getSharedHitCount()).isEqualTo(1);
+
+        CompletableFuture<BigInteger> pending = new CompletableFuture<>();
+        CompletableFuture<BigInteger> loaded = nodeB.balances.getAsync("0xdef", key -> pending);
+        assertThat(loaded).isNotDone();
+        pending.complete(BigInteger.TWO);
+        assertThat(loaded.get(5, TimeUnit.SECONDS)).isEqualTo(BigInteger.TWO);
+
+        // The shared write is not awaited by the reader
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        long deadline = System.currentTimeMillis() + 5_000;
+        // Until then the key holds the loader's claim
+        while (!BigInteger.TWO.toString().equals(redisTemplate.opsForValue().get("test:cache:balances:0xdef"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(nodeA.balances.get("0xdef", key -> BigInteger.TEN)).isEqualTo(BigInteger.TWO);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheOldValueOutOfTheSharedLevel() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        CompletableFuture<BigInteger> stale = CompletableFuture.supplyAsync(() ->
+            nodeA.balances.get("0xabc", key -> {
+                // Reads the row before the writer on node B commits
+                loading.countDown();
+                await(invalidated);
+                return BigInteger.ONE;
+            }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        nodeB.balances.invalidate("0xabc");
+        invalidated.countDown();
+
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(BigInteger.ONE);
+        assertThat(nodeB.balances.get("0xabc", key -> BigInteger.TWO)).isEqualTo(BigInteger.TWO);
+        awaitLocalSize(nodeA.balances, 0);
+        assertThat(nodeA.balances.get("0xabc", key -> BigInteger.TEN)).isEqualTo(BigInteger.TWO);
+    }
+
+    @Test
+    void invalidationDuringAnAsyncLoadKeepsTheOldValueOutOfTheSharedLevel() throws Exception {
+        CompletableFuture<BigInteger> pending = new CompletableFuture<>();
+        CompletableFuture<BigInteger> stale = nodeA.balances.getAsync("0xabc", key -> pending);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (redisTemplate.hasKey("test:cache:balances:0xabc") != Boolean.TRUE
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        nodeB.balances.invalidate("0xabc");
+        pending.complete(BigInteger.ONE);
+
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(BigInteger.ONE);
+        // The write after an async load is not awaited; give a wrongly stored value time to land
+        Thread.sleep(200);
+        assertThat(nodeB.balances.get("0xabc", key -> BigInteger.TWO)).isEqualTo(BigInteger.TWO);
+    }
+
+    @Test
+    void userPrincipalsRoundTripThroughTheSharedLevelWithoutCredentials() {
+        UserPrincipalCache principalsA = new UserPrincipalCache(nodeA.manager, new ObjectMapper());
+        UserPrincipalCache principalsB = new UserPrincipalCache(nodeB.manager, new ObjectMapper());
+        UserPrincipal alice = new UserPrincipal(7L, "alice", "$2a$10$hash", "0xabc", "Alice", true, false, 3L);
+
+        assertThat(principalsA.get("alice", name -> alice).getPassword()).isNull();
+        UserPrincipal shared = principalsB.get("alice", name -> null);
+
+        assertThat(shared).usingRecursiveComparison().isEqualTo(alice.withoutCredentials());
+        StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+        assertThat(redis.keys("*")).isNotEmpty()
+            .allSatisfy(key -> assertThat(redis.opsForValue().get(key)).doesNotContain("$2a$10$hash"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitLocalSize(TwoLevelCache<?> cache, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.localSize() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(cache.localSize()).isEqualTo(expected);
+    }
+
+    private class Node {
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final TwoLevelCacheManager manager;
+        private final TwoLevelCache<BigInteger> balances;
+
+        private Node() {
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+            RedisCacheInvalidationBus bus = new RedisCacheInvalidationBus(redisTemplate, CHANNEL);
+
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(bus, new ChannelTopic(CHANNEL));
+            container.afterPropertiesSet();
+            container.start();
+            containers.add(container);
+
+            manager = new TwoLevelCacheManager(
+                new RedisSharedCacheStore(redisTemplate, new ReactiveStringRedisTemplate(connectionFactory)), bus,
+                meterRegistry, new MockEnvironment(), "test:cache:");
+            balances = manager.create("balances", CacheCodec.BIG_INTEGER, new CacheSpec(60_000, 60_000, 100));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.springten.wallet.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostgreSQL functions used by the migrations, registered in H2 by db/h2/postgres-functions.sql
+ */
+public final class H2PostgresFunctions {
+
+    private H2PostgresFunctions() {
+    }
+
+    /**
+     * The next nextval of the sequence returns value, or value + 1 when isCalled
+     */
+    public static long setval(Connection connection, String sequence, long value, boolean isCalled) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence " + sequence + " restart with " + (isCalled ? value + 1 : value));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.springten.wallet.config;
+
+import com.springten.wallet.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.web3j.protocol.core.methods.response.EthGasPrice;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTest {
+
+    private static final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeAll
+    static void register() {
+        new NativeRuntimeHints().registerHints(hints, NativeRuntimeHintsTest.class.getClassLoader());
+    }
+
+    @Test
+    void web3jResponsesAreBindable() {
+        for (Class<?> type : new Class<?>[] {EthGetBalance.class, EthGasPrice.class, TransactionReceipt.class}) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+                .accepts(hints);
+        }
+        // Nested result types live in their own class files
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+            "org.web3j.protocol.core.methods.response.EthBlock$Block"))).accepts(hints);
+    }
+
+    @Test
+    void classesLoadedByNameAreRegistered() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+            "io.jsonwebtoken.jackson.io.JacksonSerializer"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+            "org.bouncycastle.jcajce.provider.digest.Keccak$Mappings"))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(
+            "org.bouncycastle.jcajce.provider.asymmetric.ec.KeyPairGeneratorSpi$ECDSA"))).accepts(hints);
+    }
+
+    @Test
+    void resourcesAndCachedTypesAreRegistered() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("org/bitcoinj/crypto/mnemonic/wordlist/english.txt"))
+            .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserPrincipal.class)).accepts(hints);
+    }
+}
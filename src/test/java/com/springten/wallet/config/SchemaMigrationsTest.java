@@ -0,0 +1,60 @@
+package com.springten.wallet.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies db/postgres/migration to H2 in PostgreSQL mode and lets Hibernate validate
+ * the result against the entities, as the prod profile does on PostgreSQL
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JpaConfig.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=always",
+    "spring.sql.init.schema-locations=classpath:db/h2/postgres-functions.sql,"
+        + "classpath:db/postgres/migration/V1__baseline.sql,"
+        + "classpath:db/postgres/migration/V2__sequences_after_existing_ids.sql,"
+        + "classpath:db/postgres/migration/V3__revoked_tokens_revoked_at_index.sql",
+    "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationsTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsMatchTheEntities() {
+        // Reaching here means validation passed; the sequences hand out blocks of 50 like the id generators
+        assertThat(jdbcTemplate.queryForObject(
+            "select increment from information_schema.sequences where sequence_name = 'transactions_seq'",
+            Long.class)).isEqualTo(50);
+    }
+
+    @Test
+    void sequencesRestartAfterTheExistingIds() {
+        // A row inserted through an identity column by an older release
+        jdbcTemplate.update("insert into revoked_tokens (id, jti, username, expires_at, revoked_at) "
+            + "values (120, 'jti-120', 'alice', current_timestamp, current_timestamp)");
+        // On the test transaction's connection, which sees the uncommitted row
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            ScriptUtils.executeSqlScript(connection,
+                new ClassPathResource("db/postgres/migration/V2__sequences_after_existing_ids.sql"));
+            return null;
+        });
+
+        assertThat(jdbcTemplate.queryForObject("select nextval('revoked_tokens_seq')", Long.class)).isEqualTo(121);
+        assertThat(jdbcTemplate.queryForObject("select nextval('users_seq')", Long.class)).isEqualTo(1);
+    }
+}
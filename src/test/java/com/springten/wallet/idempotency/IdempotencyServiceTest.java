@@ -0,0 +1,187 @@
+package com.springten.wallet.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.dto.TransactionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalIdempotencyStore store = new LocalIdempotencyStore(Clock.systemUTC(), Duration.ofHours(1));
+    private final IdempotencyService service = service(store, Duration.ofSeconds(10));
+    private final AtomicInteger broadcasts = new AtomicInteger();
+
+    @Test
+    void concurrentRetriesWaitForTheFirstRequestAndShareItsResponse() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        int retries = 16;
+        ExecutorService clients = Executors.newFixedThreadPool(retries);
+        try {
+            List<Future<ResponseEntity<TransactionResponse>>> responses = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                responses.add(clients.submit(() -> send("key-1", "fp", () -> {
+                    await(release);
+                    return broadcast();
+                })));
+            }
+            // Let every retry reach the store before the first broadcast completes
+            Thread.sleep(200);
+            release.countDown();
+
+            int replayed = 0;
+            for (Future<ResponseEntity<TransactionResponse>> future : responses) {
+                ResponseEntity<TransactionResponse> response = future.get(10, TimeUnit.SECONDS);
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                assertThat(response.getBody().getTransactionHash()).isEqualTo("0xhash1");
+                if (response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)) {
+                    replayed++;
+                }
+            }
+            assertThat(broadcasts).hasValue(1);
+            assertThat(replayed).isEqualTo(retries - 1);
+            assertThat(meterRegistry.get("springten.idempotency.requests").tag("outcome", "replayed")
+                .counter().count()).isEqualTo(retries - 1);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequestOrStillRunning() throws Exception {
+        assertThat(send("key-1", "fp-a", this::broadcast).getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<TransactionResponse> reused = send("key-1", "fp-b", this::broadcast);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reused.getBody().getStatus()).isEqualTo("FAILED");
+
+        // Keys are scoped, so another user may use the same one
+        ResponseEntity<TransactionResponse> otherUser = service.execute("user:2", "key-1", "fp-b",
+            TransactionResponse.class, this::broadcast, IdempotencyServiceTest::failed);
+        assertThat(otherUser.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        IdempotencyService impatient = service(store, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> send("key-2", "fp", () -> {
+            await(release);
+            return broadcast();
+        }));
+        first.start();
+        Thread.sleep(100);
+        ResponseEntity<TransactionResponse> retry = impatient.execute("user:1", "key-2", "fp",
+            TransactionResponse.class, this::broadcast, IdempotencyServiceTest::failed);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        release.countDown();
+        first.join();
+        assertThat(broadcasts).hasValue(3);
+
+        assertThat(send(" ", "fp", this::broadcast).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void failedRequestsReleaseTheKeySoTheRetryRunsAgain() {
+        ResponseEntity<TransactionResponse> rejected = send("key-1", "fp",
+            () -> ResponseEntity.badRequest().body(failed("insufficient funds")));
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThatThrownBy(() -> send("key-1", "fp", () -> {
+            throw new IllegalStateException("node unreachable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        ResponseEntity<TransactionResponse> retried = send("key-1", "fp", this::broadcast);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retried.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(broadcasts).hasValue(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void aSendThatMayHaveBeenBroadcastKeepsItsKey() {
+        ResponseEntity<TransactionResponse> submitted = send("key-1", "fp", () -> {
+            broadcasts.incrementAndGet();
+            return ResponseEntity.accepted().body(new TransactionResponse("0xhash1", "SUBMITTED"));
+        });
+        assertThat(submitted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        // The retry learns the hash instead of signing a second transaction
+        ResponseEntity<TransactionResponse> retried = send("key-1", "fp", this::broadcast);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(retried.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isTrue();
+        assertThat(retried.getBody().getTransactionHash()).isEqualTo("0xhash1");
+        assertThat(broadcasts).hasValue(1);
+    }
+
+    @Test
+    void forgetsResponsesAfterTheRetentionWindow() {
+        LocalIdempotencyStore shortLived = new LocalIdempotencyStore(Clock.systemUTC(), Duration.ZERO);
+        IdempotencyService forgetful = service(shortLived, Duration.ofSeconds(1));
+
+        forgetful.execute("user:1", "key-1", "fp", TransactionResponse.class, this::broadcast,
+            IdempotencyServiceTest::failed);
+        forgetful.execute("user:1", "key-1", "fp", TransactionResponse.class, this::broadcast,
+            IdempotencyServiceTest::failed);
+        assertThat(broadcasts).hasValue(2);
+
+        assertThat(shortLived.purgeExpired()).isEqualTo(1);
+        assertThat(shortLived.size()).isZero();
+
+        // Without a key every request runs
+        send(null, "fp", this::broadcast);
+        send(null, "fp", this::broadcast);
+        assertThat(broadcasts).hasValue(4);
+    }
+
+    @Test
+    void fingerprintsDependOnEveryField() {
+        assertThat(IdempotencyService.fingerprint("send", "0xa", "0xb", 1))
+            .isEqualTo(IdempotencyService.fingerprint("send", "0xa", "0xb", 1))
+            .isNotEqualTo(IdempotencyService.fingerprint("send", "0xa", "0xb", 2))
+            .isNotEqualTo(IdempotencyService.fingerprint("send", "0xa0", "xb", 1))
+            .hasSize(64);
+    }
+
+    private ResponseEntity<TransactionResponse> send(String key, String fingerprint,
+                                                     Supplier<ResponseEntity<TransactionResponse>> call) {
+        return service.execute("user:1", key, fingerprint, TransactionResponse.class, call,
+            IdempotencyServiceTest::failed);
+    }
+
+    private ResponseEntity<TransactionResponse> broadcast() {
+        return ResponseEntity.ok(new TransactionResponse("0xhash" + broadcasts.incrementAndGet(), "PENDING"));
+    }
+
+    private IdempotencyService service(IdempotencyStore idempotencyStore, Duration wait) {
+        return new IdempotencyService(idempotencyStore, new ObjectMapper(), meterRegistry, wait);
+    }
+
+    private static TransactionResponse failed(String error) {
+        TransactionResponse response = new TransactionResponse();
+        response.setStatus("FAILED");
+        response.setError(error);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.springten.wallet.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.model.OutboxEvent;
+import com.springten.wallet.model.OutboxSequence;
+import com.springten.wallet.repository.OutboxEventRepository;
+import com.springten.wallet.repository.OutboxSequenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relays outbox rows from H2 to recording sinks, one of which fails for a
+ * chosen aggregate until it is told to recover.
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+class OutboxRelayTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxSequenceRepository outboxSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OutboxWriter writer;
+    private RecordingSink first;
+    private RecordingSink flaky;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        writer = new OutboxWriter(outboxEventRepository, jdbcTemplate, new ObjectMapper());
+        first = new RecordingSink("first", null);
+        flaky = new RecordingSink("flaky", "User:2");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void failedAggregateIsHeldBackWhileOthersPublish() {
+        for (int i = 0; i < 4; i++) {
+            writer.append("User", 1, "UserUpdated", Map.of("seq", i));
+            writer.append("User", 2, "UserUpdated", Map.of("seq", i));
+        }
+        entityManager.flush();
+
+        // Small batches so user 2 also appears in later batches of the same run
+        OutboxRelay relay = relay(3);
+        assertThat(relay.relay()).isEqualTo(4);
+        assertThat(flaky.sequences("User:1")).containsExactly(0, 1, 2, 3);
+        assertThat(flaky.sequences("User:2")).isEmpty();
+        // The two events of user 2 in the second batch; the third batch skips it without trying
+        assertThat(meterRegistry.counter("springten.outbox.failures", "sink", "flaky").count()).isEqualTo(2.0);
+
+        flaky.failFor = null;
+        assertThat(relay.relay()).isEqualTo(4);
+        assertThat(flaky.sequences("User:2")).containsExactly(0, 1, 2, 3);
+        // At-least-once: the sink ahead of the failing one sees the first attempt again
+        assertThat(first.sequences("User:2")).containsExactly(0, 1, 0, 1, 2, 3);
+
+        entityManager.clear();
+        assertThat(outboxEventRepository.findAll()).allMatch(event -> event.getPublishedAt() != null);
+        assertThat(relay.getLagMillis()).isZero();
+        assertThat(meterRegistry.counter("springten.outbox.published", "sink", "flaky").count()).isEqualTo(8.0);
+    }
+
+    @Test
+    void publishesInAggregateSequenceOrderWhateverTheIds() {
+        // As when two nodes hand out ids from different pooled blocks: the later event has the lower id
+        outboxEventRepository.save(new OutboxEvent("Wallet", "0xa", 2, "WalletUpdated", "{\"seq\":2}"));
+        outboxEventRepository.save(new OutboxEvent("Wallet", "0xa", 1, "WalletCreated", "{\"seq\":1}"));
+        outboxEventRepository.save(new OutboxEvent("Wallet", "0xb", 1, "WalletCreated", "{\"seq\":1}"));
+        entityManager.flush();
+
+        assertThat(relay(1).relay()).isEqualTo(3);
+        assertThat(flaky.received).extracting(m -> m.aggregateId() + "@" + m.aggregateSeq())
+            .containsExactly("0xa@1", "0xa@2", "0xb@1");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void laterEventWaitsForTheEarlierOneToCommit() throws Exception {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        OutboxRelay relay = relay(10);
+        transactions.executeWithoutResult(status -> writer.append("User", 9, "UserRegistered", Map.of("seq", 0)));
+        assertThat(relay.relay()).isEqualTo(1);
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            CompletableFuture<?> earlier = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+                writer.append("User", 9, "UserUpdated", Map.of("seq", 1));
+                appended.countDown();
+                await(commit);
+            }));
+            assertThat(appended.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<?> later = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(
+                status -> writer.append("User", 9, "UserUpdated", Map.of("seq", 2))));
+
+            // The later writer queues on the aggregate's sequence row, and the relay sees nothing new
+            Thread.sleep(100);
+            assertThat(relay.relay()).isZero();
+            assertThat(later).isNotDone();
+
+            commit.countDown();
+            CompletableFuture.allOf(earlier, later).get(5, TimeUnit.SECONDS);
+            assertThat(relay.relay()).isEqualTo(2);
+            assertThat(flaky.sequences("User:9")).containsExactly(0, 1, 2);
+            assertThat(flaky.received).extracting(OutboxMessage::aggregateSeq).containsExactly(1L, 2L, 3L);
+        } finally {
+            commit.countDown();
+            outboxEventRepository.deleteAll();
+            outboxSequenceRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void purgeKeepsUnpublishedRows() {
+        writer.append("Wallet", "0xa", "WalletCreated", Map.of("address", "0xa"));
+        OutboxEvent pending = writer.append("Wallet", "0xb", "WalletCreated", Map.of("address", "0xb"));
+        flaky.failFor = "Wallet:0xb";
+        entityManager.flush();
+
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, outboxSequenceRepository,
+            new TransactionTemplate(transactionManager), List.of(flaky), meterRegistry, 10, 10, Duration.ofMillis(-1));
+        relay.relay();
+
+        assertThat(relay.purge()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getId).containsExactly(pending.getId());
+        // Only the aggregate with an event left keeps its counter
+        assertThat(outboxSequenceRepository.findAll()).extracting(OutboxSequence::getAggregateKey)
+            .containsExactly("Wallet:0xb");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OutboxRelay relay(int batchSize) {
+        return new OutboxRelay(outboxEventRepository, outboxSequenceRepository,
+            new TransactionTemplate(transactionManager), List.of(first, flaky), meterRegistry, batchSize, 100,
+            Duration.ofHours(1));
+    }
+
+    private static final class RecordingSink implements OutboxSink {
+
+        private final String name;
+        private final List<OutboxMessage> received = new ArrayList<>();
+        private String failFor;
+
+        private RecordingSink(String name, String failFor) {
+            this.name = name;
+            this.failFor = failFor;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void publish(List<OutboxMessage> batch) {
+            OutboxMessage head = batch.get(0);
+            if ((head.aggregateType() + ":" + head.aggregateId()).equals(failFor)) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            received.addAll(batch);
+        }
+
+        private List<Integer> sequences(String aggregate) {
+            return received.stream()
+                .filter(m -> (m.aggregateType() + ":" + m.aggregateId()).equals(aggregate))
+                .map(m -> Integer.parseInt(m.payload().replaceAll("\\D", "")))
+                .toList();
+        }
+    }
+}
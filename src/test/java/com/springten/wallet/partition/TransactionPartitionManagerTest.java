@@ -0,0 +1,57 @@
+package com.springten.wallet.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionPartitionManagerTest {
+
+    @Test
+    void historyWindowsWalkBackOneMonthAtATime() {
+        assertThat(TransactionPartitionManager.windows(YearMonth.of(2025, 3), YearMonth.of(2024, 1), 3))
+            .containsExactly(LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0), null);
+        // The oldest partition is read together with the default partition in the open-ended window
+        assertThat(TransactionPartitionManager.windows(YearMonth.of(2025, 3), YearMonth.of(2025, 2), 5))
+            .containsExactly(LocalDateTime.of(2025, 3, 1, 0, 0), null);
+        assertThat(TransactionPartitionManager.windows(YearMonth.of(2025, 3), null, 5)).containsExactly((LocalDateTime) null);
+    }
+
+    @Test
+    void retiresOnlyPartitionsPastRetention() {
+        List<YearMonth> partitions = List.of(YearMonth.of(2025, 1), YearMonth.of(2024, 11),
+            YearMonth.of(2024, 12), YearMonth.of(2025, 2), YearMonth.of(2025, 3));
+
+        assertThat(TransactionPartitionManager.expired(partitions, YearMonth.of(2025, 3), 2))
+            .containsExactly(YearMonth.of(2024, 11), YearMonth.of(2024, 12));
+    }
+
+    @Test
+    void partitionNamesRoundTrip() {
+        assertThat(TransactionPartitionManager.partitionName(YearMonth.of(2025, 7))).isEqualTo("transactions_p2025_07");
+        assertThat(TransactionPartitionManager.parseMonth("transactions_p2025_07")).isEqualTo(YearMonth.of(2025, 7));
+        assertThat(Arrays.asList(TransactionPartitionManager.parseMonth("transactions_default"),
+            TransactionPartitionManager.parseMonth("transactions_p2025_13"))).containsOnlyNulls();
+    }
+
+    @Test
+    void staysInactiveOnH2() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:partitions", "sa", ""));
+        TransactionPartitionManager manager = new TransactionPartitionManager(jdbcTemplate,
+            Clock.fixed(LocalDateTime.of(2025, 3, 15, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC),
+            3, 1, TransactionPartitionManager.RetentionMode.DROP, 3);
+
+        manager.maintain();
+
+        assertThat(manager.isActive()).isFalse();
+        assertThat(manager.historyWindows(null)).containsExactly((LocalDateTime) null);
+    }
+}
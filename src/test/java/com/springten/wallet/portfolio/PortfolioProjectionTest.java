@@ -0,0 +1,155 @@
+package com.springten.wallet.portfolio;
+
+import com.springten.wallet.balance.TokenBalanceWriteBuffer;
+import com.springten.wallet.cache.CacheInvalidationBus;
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.repository.TokenBalanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PortfolioProjectionTest {
+
+    private static final long ETH = 1L;
+    private static final long USDC = 2L;
+
+    private final List<PositionRow> rows = new ArrayList<>();
+    private TokenBalanceRepository repository;
+    private PortfolioProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenBalanceRepository.class);
+        when(repository.findWalletIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return rows.stream().map(PositionRow::walletId).filter(id -> id > after)
+                .distinct().sorted().limit(page.getPageSize()).toList();
+        });
+        when(repository.findPositions(any())).thenAnswer(invocation -> {
+            Collection<Long> walletIds = invocation.getArgument(0);
+            return rows.stream().filter(row -> walletIds.contains(row.walletId())).toList();
+        });
+        projection = projection(new LocalCacheInvalidationBus(), 1000);
+    }
+
+    @Test
+    void appliesBalanceAndPriceChangesAsDeltas() {
+        projection.onBalanceChanged(balance(10L, "0xa", ETH, "ETH", "2", "3000"));
+        projection.onBalanceChanged(balance(10L, "0xa", USDC, "USDC", "500", "1"));
+        projection.onBalanceChanged(balance(11L, "0xb", USDC, "USDC", "100", "1"));
+
+        assertThat(projection.get("0xa").totalValueUsd()).isEqualByComparingTo("6500");
+
+        projection.onPriceChanged(new PriceChangedEvent(ETH, "ETH", new BigDecimal("3100")));
+        projection.onBalanceChanged(balance(10L, "0xa", USDC, "USDC", "0", "1"));
+
+        PortfolioSnapshot a = projection.get("0xa");
+        assertThat(a.totalValueUsd()).isEqualByComparingTo("6200");
+        assertThat(a.positions()).singleElement()
+            .satisfies(position -> assertThat(position.valueUsd()).isEqualByComparingTo("6200"));
+        assertThat(projection.get("0xb").totalValueUsd()).isEqualByComparingTo("100");
+        assertThat(projection.get("0xunknown").positions()).isEmpty();
+    }
+
+    @Test
+    void rebuildLoadsWalletsAndRepairsDrift() {
+        rows.add(new PositionRow(10L, "0xa", ETH, "ETH", new BigDecimal("1"), new BigDecimal("2000")));
+        rows.add(new PositionRow(11L, "0xb", USDC, "USDC", new BigDecimal("50"), BigDecimal.ONE));
+
+        assertThat(projection.rebuild()).isEqualTo(2);
+        assertThat(projection.get("0xa").totalValueUsd()).isEqualByComparingTo("2000");
+        assertThat(projection.rebuild()).isZero();
+
+        // The database moved on without an event reaching this node
+        rows.set(0, new PositionRow(10L, "0xa", ETH, "ETH", new BigDecimal("3"), new BigDecimal("2000")));
+        assertThat(projection.rebuild()).isEqualTo(1);
+        assertThat(projection.get("0xa").totalValueUsd()).isEqualByComparingTo("6000");
+
+        // The price index was rebuilt along with the balances
+        projection.onPriceChanged(new PriceChangedEvent(ETH, "ETH", new BigDecimal("1000")));
+        assertThat(projection.get("0xa").totalValueUsd()).isEqualByComparingTo("3000");
+    }
+
+    @Test
+    void rebuildReadsOnePageOfWalletsAtATime() {
+        projection = projection(new LocalCacheInvalidationBus(), 2);
+        for (long walletId = 10; walletId < 15; walletId++) {
+            rows.add(new PositionRow(walletId, "0x" + walletId, ETH, "ETH", BigDecimal.ONE, new BigDecimal("2000")));
+        }
+        projection.onBalanceChanged(balance(99L, "0xgone", USDC, "USDC", "5", "1"));
+
+        assertThat(projection.rebuild()).isEqualTo(6);
+        assertThat(projection.get("0x14").totalValueUsd()).isEqualByComparingTo("2000");
+        assertThat(projection.get("0xgone").positions()).isEmpty();
+        verify(repository, atLeast(3)).findPositions(any());
+    }
+
+    @Test
+    void eventsReachTheOtherNodes() {
+        MemoryBus bus = new MemoryBus();
+        PortfolioProjection local = projection(bus.node(), 1000);
+        PortfolioProjection remote = projection(bus.node(), 1000);
+
+        local.onBalanceChanged(balance(10L, "0xa", ETH, "ETH", "2", "3000"));
+        assertThat(remote.get("0xa").totalValueUsd()).isEqualByComparingTo("6000");
+
+        local.onPriceChanged(new PriceChangedEvent(ETH, "ETH", new BigDecimal("3100")));
+        assertThat(remote.get("0xa").totalValueUsd()).isEqualByComparingTo("6200");
+        assertThat(local.get("0xa").totalValueUsd()).isEqualByComparingTo("6200");
+    }
+
+    private PortfolioProjection projection(CacheInvalidationBus bus, int pageSize) {
+        return new PortfolioProjection(repository, mock(TokenBalanceWriteBuffer.class), bus,
+            new SimpleMeterRegistry(), pageSize);
+    }
+
+    /**
+     * Delivers each message to the handlers of every node but the sender, like the Redis bus
+     */
+    private static final class MemoryBus {
+
+        private final List<Map<String, Consumer<String>>> nodes = new ArrayList<>();
+
+        private CacheInvalidationBus node() {
+            Map<String, Consumer<String>> handlers = new HashMap<>();
+            nodes.add(handlers);
+            return new CacheInvalidationBus() {
+                @Override
+                public void publish(String cacheName, String key) {
+                    nodes.stream().filter(other -> other != handlers)
+                        .map(other -> other.get(cacheName))
+                        .filter(handler -> handler != null)
+                        .forEach(handler -> handler.accept(key));
+                }
+
+                @Override
+                public void subscribe(String cacheName, Consumer<String> handler) {
+                    handlers.put(cacheName, handler);
+                }
+            };
+        }
+    }
+
+    private static BalanceChangedEvent balance(Long walletId, String address, Long tokenId, String symbol,
+                                               String balance, String price) {
+        return new BalanceChangedEvent(walletId, address, tokenId, symbol, new BigDecimal(balance), new BigDecimal(price));
+    }
+}
@@ -0,0 +1,197 @@
+package com.springten.wallet.price;
+
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.repository.TokenRepository;
+import com.springten.wallet.resilience.ResilienceRegistry;
+import com.springten.wallet.service.TokenService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the feed against a local stub of the CoinGecko API
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+class PriceFeedServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> requestedIds = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean holdResponses;
+    private HttpServer server;
+    private CoinGeckoClient client;
+    private TokenService tokenService;
+    private PriceFeedService feed;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/simple/price", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String ids = query.replaceAll(".*ids=([^&]*).*", "$1");
+            requestedIds.add(ids);
+            if (holdResponses) {
+                awaitRelease();
+            }
+            StringBuilder body = new StringBuilder("{");
+            for (String id : ids.split(",")) {
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                body.append('"').append(id).append("\":{\"usd\":").append(id.length() * 100)
+                    .append(".25,\"usd_market_cap\":1000000,\"usd_24h_vol\":5000,\"usd_24h_change\":-1.5}");
+            }
+            byte[] bytes = body.append('}').toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        persistToken("ETH", "ethereum");
+        persistToken("BTC", "bitcoin");
+        persistToken("USDC", "usd-coin");
+        persistToken("NOID", null);
+        entityManager.flush();
+
+        client = new CoinGeckoClient(WebClient.builder(),
+            new ResilienceRegistry(new SimpleMeterRegistry(), new MockEnvironment()),
+            "http://localhost:" + server.getAddress().getPort(), "", "x-cg-demo-api-key", 5000);
+        tokenService = mock(TokenService.class);
+        feed = new PriceFeedService(client, new PriceTable(), new PriceHistoryStore(16, 60, 24, 7, 10),
+            mock(PriceStreamService.class), tokenRepository, tokenService, jdbcTemplate, true, 2, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void refreshFetchesActiveTokensInBatchesAndPersistsThem() {
+        int fetched = feed.refreshAll();
+
+        assertThat(fetched).isEqualTo(3);
+        assertThat(requestedIds).hasSize(2);
+        assertThat(String.join(",", requestedIds).split(",")).containsExactlyInAnyOrder("ethereum", "bitcoin", "usd-coin");
+
+        BigDecimal ethPrice = jdbcTemplate.queryForObject(
+            "select current_price_usd from tokens where symbol = 'ETH'", BigDecimal.class);
+        BigDecimal change = jdbcTemplate.queryForObject(
+            "select price_change_24h_percent from tokens where symbol = 'BTC'", BigDecimal.class);
+        assertThat(ethPrice).isEqualByComparingTo("800.25");
+        assertThat(change).isEqualByComparingTo("-1.5");
+        verify(tokenService).publishPrice(anyLong(), eq("ETH"), eq(new BigDecimal("800.25")));
+    }
+
+    @Test
+    void concurrentLookupsOfOneSymbolShareOneRequest() throws Exception {
+        holdResponses = true;
+        List<CompletableFuture<PriceQuote>> lookups = new ArrayList<>();
+        // The leader resolves the token on the test thread, which owns the test transaction
+        lookups.add(feed.getQuote("eth"));
+        for (int i = 0; i < 9; i++) {
+            lookups.add(CompletableFuture.supplyAsync(() -> feed.getQuote("eth")).thenCompose(f -> f));
+        }
+        // Give every lookup time to join the in-flight request before the stub answers
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (feed.getCoalescedLookupCount() < 9 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (CompletableFuture<PriceQuote> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS).priceUsd()).isEqualByComparingTo("800.25");
+        }
+        assertThat(requestedIds).containsExactly("ethereum");
+        assertThat(feed.getCoalescedLookupCount()).isEqualTo(9);
+
+        // Fresh quotes are served from the price table
+        feed.getQuote("ETH").get(5, TimeUnit.SECONDS);
+        assertThat(requestedIds).hasSize(1);
+        assertThat(feed.flush()).isEqualTo(1);
+    }
+
+    @Test
+    void quotesOfAFailedFlushAreWrittenByTheNextOne() {
+        JdbcTemplate failingOnce = spy(jdbcTemplate);
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+            .doCallRealMethod()
+            .when(failingOnce).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        feed = new PriceFeedService(client, new PriceTable(), new PriceHistoryStore(16, 60, 24, 7, 10),
+            mock(PriceStreamService.class), tokenRepository, tokenService, failingOnce, true, 2, 60_000);
+
+        assertThat(feed.refreshAll()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+            "select current_price_usd from tokens where symbol = 'ETH'", BigDecimal.class)).isZero();
+
+        assertThat(feed.flush()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+            "select current_price_usd from tokens where symbol = 'ETH'", BigDecimal.class)).isEqualByComparingTo("800.25");
+        verify(tokenService).publishPrice(anyLong(), eq("ETH"), eq(new BigDecimal("800.25")));
+    }
+
+    private void persistToken(String symbol, String coingeckoId) {
+        Token token = new Token(symbol, symbol, null, Wallet.BlockchainNetwork.ETHEREUM_MAINNET, 18);
+        token.setCoingeckoId(coingeckoId);
+        entityManager.persist(token);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
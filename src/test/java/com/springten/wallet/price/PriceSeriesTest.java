@@ -0,0 +1,90 @@
+package com.springten.wallet.price;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final PriceSeries series = new PriceSeries(4, Map.of(
+        Resolution.ONE_MINUTE, 60,
+        Resolution.ONE_HOUR, 24,
+        Resolution.ONE_DAY, 7));
+
+    @Test
+    void rollsTicksUpIntoCandlesAtEveryResolution() {
+        long start = 10 * HOUR;
+        series.append(start + 1_000, new BigDecimal("100"));
+        series.append(start + 20_000, new BigDecimal("105.5"));
+        series.append(start + 10_000, new BigDecimal("95"));
+        series.append(start + MINUTE + 5_000, new BigDecimal("101"));
+
+        List<Candle> minutes = series.candles(Resolution.ONE_MINUTE, start, start + HOUR);
+        assertThat(minutes).hasSize(2);
+        Candle first = minutes.get(0);
+        assertThat(first.openTime()).isEqualTo(start);
+        assertThat(first.open()).isEqualByComparingTo("100");
+        assertThat(first.high()).isEqualByComparingTo("105.5");
+        assertThat(first.low()).isEqualByComparingTo("95");
+        // Close is the latest tick by timestamp, not by arrival
+        assertThat(first.close()).isEqualByComparingTo("105.5");
+        assertThat(first.ticks()).isEqualTo(3);
+
+        List<Candle> hours = series.candles(Resolution.ONE_HOUR, 0, start + HOUR);
+        assertThat(hours).singleElement().satisfies(hour -> {
+            assertThat(hour.low()).isEqualByComparingTo("95");
+            assertThat(hour.close()).isEqualByComparingTo("101");
+            assertThat(hour.ticks()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    void keepsOnlyTheConfiguredRetentionPerResolution() {
+        for (int minute = 0; minute < 150; minute++) {
+            series.append(minute * MINUTE, BigDecimal.valueOf(minute));
+        }
+
+        List<Candle> minutes = series.candles(Resolution.ONE_MINUTE, 0, 150 * MINUTE);
+        assertThat(minutes).hasSize(60);
+        assertThat(minutes.get(0).openTime()).isEqualTo(90 * MINUTE);
+        assertThat(series.candles(Resolution.ONE_HOUR, 0, 150 * MINUTE)).hasSize(3);
+
+        // Ticks far behind the window are dropped instead of corrupting a live slot
+        series.append(5 * MINUTE, new BigDecimal("999"));
+        assertThat(series.candles(Resolution.ONE_MINUTE, 0, 150 * MINUTE))
+            .noneMatch(candle -> candle.high().compareTo(new BigDecimal("999")) == 0);
+
+        assertThat(series.recentTicks()).hasSize(4);
+        assertThat(series.recentTicks().get(3).priceUsd()).isEqualByComparingTo("999");
+    }
+
+    @Test
+    void keepsSignificantDigitsOfTinyPrices() {
+        series.append(1_000, new BigDecimal("0.000000001234"));
+        series.append(2_000, new BigDecimal("0.000000001301"));
+
+        Candle minute = series.candles(Resolution.ONE_MINUTE, 0, MINUTE).get(0);
+        assertThat(minute.open()).isEqualByComparingTo("0.000000001234");
+        assertThat(minute.high()).isEqualByComparingTo("0.000000001301");
+    }
+
+    @Test
+    void rescalesInsteadOfOverflowingWhenAPriceOutgrowsTheSeries() {
+        series.append(1_000, new BigDecimal("1.25"));
+        series.append(2_000, new BigDecimal("123456789012.5"));
+
+        Candle minute = series.candles(Resolution.ONE_MINUTE, 0, MINUTE).get(0);
+        assertThat(minute.open()).isEqualByComparingTo("1.25");
+        assertThat(minute.high()).isEqualByComparingTo("123456789012.5");
+        assertThat(series.recentTicks()).extracting(PriceSeries.Tick::priceUsd)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("1.25"), new BigDecimal("123456789012.5"));
+    }
+}
@@ -0,0 +1,232 @@
+package com.springten.wallet.price;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PriceStreamServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-10-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PriceTable priceTable = new PriceTable();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Sender tasks run only when the test says so, standing in for busy sender threads
+    private final Queue<Runnable> senderTasks = new ArrayDeque<>();
+    private final Executor senders = senderTasks::add;
+    private final PriceStreamService service =
+        new PriceStreamService(objectMapper, priceTable, senders, 2, meterRegistry, 3, 5_000, 64 * 1024);
+
+    @Test
+    void conflatesTicksAndSharesOneEncodedFramePerSymbol() throws Exception {
+        RecordingSession alice = connect("alice");
+        RecordingSession bob = connect("bob");
+        service.subscribe(alice.session, List.of("eth"));
+        service.subscribe(bob.session, List.of("ETH", "BTC"));
+
+        service.publish("ETH", quote("3000", 1));
+        service.publish("ETH", quote("3100", 3));
+        service.publish("ETH", quote("3050", 2)); // older than the one already pending
+        service.publish("BTC", quote("60000", 1));
+        assertThat(service.flush()).isEqualTo(2);
+        runSenders();
+
+        assertThat(alice.sent).hasSize(1);
+        assertThat(bob.sent).hasSize(2);
+        WebSocketMessage<?> aliceEth = alice.sent.get(0);
+        assertThat(bob.sent).anySatisfy(message -> assertThat(message).isSameAs(aliceEth));
+        JsonNode update = objectMapper.readTree(((TextMessage) aliceEth).getPayload());
+        assertThat(update.path("type").asText()).isEqualTo("price");
+        assertThat(update.path("symbol").asText()).isEqualTo("ETH");
+        assertThat(update.path("priceUsd").asText()).isEqualTo("3100");
+        assertThat(meterRegistry.get("springten.price.stream.frames").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void slowSubscriberKeepsOnlyTheLatestFramePerSymbol() throws Exception {
+        RecordingSession slow = connect("slow");
+        service.subscribe(slow.session, List.of("ETH"));
+
+        for (int i = 1; i <= 50; i++) {
+            service.publish("ETH", quote(String.valueOf(3000 + i), i));
+            service.flush();
+        }
+        // One drain was scheduled for the first frame; the other 49 replaced each other in the slot
+        assertThat(senderTasks).hasSize(1);
+        runSenders();
+
+        assertThat(slow.sent).hasSize(1);
+        assertThat(objectMapper.readTree(((TextMessage) slow.sent.get(0)).getPayload()).path("priceUsd").asText())
+            .isEqualTo("3050");
+        assertThat(meterRegistry.get("springten.price.stream.conflated").counter().count()).isEqualTo(49);
+    }
+
+    @Test
+    void subscribeSendsTheLatestKnownPriceAndUnsubscribeStopsUpdates() throws Exception {
+        priceTable.put("ETH", quote("2999.5", 1));
+        RecordingSession alice = connect("alice");
+
+        assertThat(service.subscribe(alice.session, List.of(" eth ", "ETH"))).containsExactly("ETH");
+        runSenders();
+        assertThat(alice.sent).hasSize(1);
+        assertThat(((TextMessage) alice.sent.get(0)).getPayload()).contains("\"priceUsd\":\"2999.5\"");
+
+        assertThat(service.unsubscribe(alice.session, List.of("eth"))).containsExactly("ETH");
+        service.publish("ETH", quote("3001", 2));
+        service.flush();
+        runSenders();
+        assertThat(alice.sent).hasSize(1);
+
+        assertThatThrownBy(() -> service.subscribe(alice.session, List.of("A", "B", "C", "D")))
+            .isInstanceOf(IllegalArgumentException.class);
+        // The rejected request subscribed nothing, so the limit still has room for three
+        assertThat(service.subscribe(alice.session, List.of("A", "B", "C"))).containsExactly("A", "B", "C");
+    }
+
+    @Test
+    void handlerAcknowledgesRequestsAndReportsErrors() throws Exception {
+        PriceStreamHandler handler = new PriceStreamHandler(service, objectMapper);
+        RecordingSession alice = new RecordingSession("alice");
+        handler.afterConnectionEstablished(alice.session);
+
+        handler.handleTextMessage(alice.session, new TextMessage("{\"action\":\"subscribe\",\"symbols\":[\"eth\"]}"));
+        handler.handleTextMessage(alice.session, new TextMessage("not json"));
+        handler.handleTextMessage(alice.session, new TextMessage("{\"action\":\"buy\",\"symbols\":[\"eth\"]}"));
+        runSenders();
+
+        assertThat(alice.sent).extracting(message -> objectMapper.readTree(((TextMessage) message).getPayload())
+                .path("type").asText())
+            .containsExactly("subscribed", "error", "error");
+    }
+
+    @Test
+    void dropsSessionsWhoseSendFails() throws Exception {
+        RecordingSession broken = connect("broken");
+        service.subscribe(broken.session, List.of("ETH"));
+        doThrow(new IOException("connection reset")).when(broken.session).sendMessage(any());
+
+        service.publish("ETH", quote("3000", 1));
+        service.flush();
+        runSenders();
+
+        assertThat(service.getSessionCount()).isZero();
+        service.publish("ETH", quote("3001", 2));
+        service.flush();
+        assertThat(senderTasks).isEmpty();
+    }
+
+    @Test
+    void closesSessionsStalledInASend() throws Exception {
+        PriceStreamService impatient =
+            new PriceStreamService(objectMapper, priceTable, Runnable::run, 2, meterRegistry, 3, 50, 64 * 1024);
+        RecordingSession stalled = new RecordingSession("stalled");
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            closed.await(5, TimeUnit.SECONDS);
+            throw new IOException("closed");
+        }).when(stalled.session).sendMessage(any());
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(stalled.session).close(any());
+        impatient.register(stalled.session);
+        impatient.subscribe(stalled.session, List.of("ETH"));
+
+        impatient.publish("ETH", quote("3000", 1));
+        CompletableFuture<Integer> sender = CompletableFuture.supplyAsync(impatient::flush);
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        // The next flush finds the send past its time limit and closes the session under it
+        impatient.flush();
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+        sender.get(5, TimeUnit.SECONDS);
+        assertThat(impatient.getSessionCount()).isZero();
+        verify(stalled.session).close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void overlappingFlushesLeaveTheWorkToTheRunningOne() throws Exception {
+        // Senders run inline, so a send that blocks holds the flush that started it
+        PriceStreamService inline =
+            new PriceStreamService(objectMapper, priceTable, Runnable::run, 2, meterRegistry, 3, 5_000, 64 * 1024);
+        RecordingSession slow = new RecordingSession("slow");
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow.session).sendMessage(any());
+        inline.register(slow.session);
+        inline.subscribe(slow.session, List.of("ETH", "BTC"));
+
+        inline.publish("ETH", quote("3000", 1));
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(inline::flush);
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        inline.publish("BTC", quote("60000", 2));
+        assertThat(inline.flush()).isZero();
+
+        // BTC is still pending for the running flush or the next one
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS) + inline.flush()).isEqualTo(2);
+    }
+
+    private RecordingSession connect(String id) throws IOException {
+        RecordingSession session = new RecordingSession(id);
+        service.register(session.session);
+        return session;
+    }
+
+    private void runSenders() {
+        Runnable task;
+        while ((task = senderTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static PriceQuote quote(String price, int secondsAfterStart) {
+        return new PriceQuote("ethereum", new BigDecimal(price), null, null, BigDecimal.ONE,
+            T0.plusSeconds(secondsAfterStart));
+    }
+
+    private static final class RecordingSession {
+
+        private final WebSocketSession session = mock(WebSocketSession.class);
+        private final List<WebSocketMessage<?>> sent = new ArrayList<>();
+
+        private RecordingSession(String id) throws IOException {
+            when(session.getId()).thenReturn(id);
+            when(session.isOpen()).thenReturn(true);
+            doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(session).sendMessage(any());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.springten.wallet.resilience;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.cache.NoOpSharedCacheStore;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import com.springten.wallet.web3.BroadcastUncertainException;
+import com.springten.wallet.web3.RpcErrorException;
+import com.springten.wallet.web3.Wei;
+import com.springten.wallet.web3.Web3Service;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.web3j.crypto.Hash;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Web3Service against a stub JSON-RPC node whose latency is raised and lowered mid-test
+ */
+class ResilienceChaosTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Wei BALANCE = Wei.of(2, Wei.Unit.ETHER);
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> methods = new CopyOnWriteArrayList<>();
+    private final List<String> rawTransactions = new CopyOnWriteArrayList<>();
+    private volatile long latencyMillis;
+    private volatile long broadcastLatencyMillis;
+    private HttpServer node;
+    private SimpleMeterRegistry meterRegistry;
+    private ResiliencePolicy chainReads;
+    private Web3Service web3Service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        node.setExecutor(Executors.newCachedThreadPool());
+        node.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            byte[] body = answer(exchange.getRequestBody().readAllBytes());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // The client gave up at its deadline
+            }
+        });
+        node.start();
+
+        MockEnvironment environment = new MockEnvironment()
+            // Cached balances expire at once, so every read below is a chain read or a fallback
+            .withProperty("cache.balances.local-ttl-ms", "1")
+            .withProperty("cache.gas-price.local-ttl-ms", "1")
+            .withProperty("resilience.chain-reads.max-concurrent", "2")
+            .withProperty("resilience.chain-reads.max-wait-ms", "50")
+            .withProperty("resilience.chain-reads.deadline-ms", "300")
+            .withProperty("resilience.chain-reads.window-size", "4")
+            .withProperty("resilience.chain-reads.min-calls", "4")
+            .withProperty("resilience.chain-reads.open-ms", "1000")
+            .withProperty("resilience.chain-reads.half-open-calls", "2")
+            .withProperty("resilience.chain-writes.deadline-ms", "300");
+        meterRegistry = new SimpleMeterRegistry();
+        ResilienceRegistry resilience = new ResilienceRegistry(meterRegistry, environment);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new NoOpSharedCacheStore(),
+            new LocalCacheInvalidationBus(), meterRegistry, environment, "test:cache:");
+        web3Service = new Web3Service(cacheManager, WebClient.builder(), resilience, meterRegistry);
+        ReflectionTestUtils.setField(web3Service, "ethereumRpcUrl", "http://127.0.0.1:" + node.getAddress().getPort());
+        ReflectionTestUtils.setField(web3Service, "networkId", "1");
+        ReflectionTestUtils.setField(web3Service, "evmNetworks", "");
+        ReflectionTestUtils.setField(web3Service, "asyncTimeoutMillis", 2_000L);
+        chainReads = resilience.policy("chain-reads", ResilienceSpec.of(1, 0, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        latencyMillis = 0;
+        broadcastLatencyMillis = 0;
+        node.stop(0);
+    }
+
+    @Test
+    void slowNodeOpensTheBreakerUntilHalfOpenProbesSucceed() throws Exception {
+        assertThat(web3Service.getBalance("0xAAA")).isEqualTo(BALANCE);
+
+        // One success and three timeouts fill the window of four at 75% failures
+        latencyMillis = 5_000;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> web3Service.getBalance("0xbbb")).isNotInstanceOf(CallRejectedException.class);
+            // Cut off at the deadline, not after the node's five seconds
+            assertThat(elapsedMillis(start)).isLessThan(1_500);
+        }
+        assertThat(chainReads.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Open: known balances come from the last read and nothing reaches the node
+        int callsWhenOpened = calls.get();
+        Thread.sleep(5);
+        assertThat(web3Service.getBalance("0xaaa")).isEqualTo(BALANCE);
+        assertThat(web3Service.getBalanceAsync("0xaaa").get(1, TimeUnit.SECONDS)).isEqualTo(BALANCE);
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> web3Service.getBalance("0xccc"))
+            .isInstanceOfSatisfying(CallRejectedException.class,
+                e -> assertThat(e.getReason()).isEqualTo(CallRejectedException.Reason.CIRCUIT_OPEN));
+        assertThat(elapsedMillis(start)).isLessThan(100);
+        assertThat(calls).hasValue(callsWhenOpened);
+
+        // Healed: after open-ms two successful probes close the breaker
+        latencyMillis = 0;
+        Thread.sleep(1_100);
+        assertThat(web3Service.getBalance("0xccc")).isEqualTo(BALANCE);
+        assertThat(chainReads.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(web3Service.getBalance("0xddd")).isEqualTo(BALANCE);
+        assertThat(chainReads.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThat(count("timeout")).isEqualTo(3);
+        assertThat(count("fallback")).isEqualTo(2);
+        assertThat(count("rejected_open")).isEqualTo(3);
+        assertThat(meterRegistry.get("springten.resilience.breaker.state").tag("bulkhead", "chain-reads").gauge().value())
+            .isZero();
+    }
+
+    @Test
+    void fullBulkheadRejectsExtraCallsWithoutWaitingForTheNode() throws Exception {
+        latencyMillis = 1_000;
+        CompletableFuture<?> first = CompletableFuture.runAsync(() -> readIgnoringFailure("0x111"));
+        CompletableFuture<?> second = CompletableFuture.runAsync(() -> readIgnoringFailure("0x222"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (chainReads.activeCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> web3Service.getBalance("0x333"))
+            .isInstanceOfSatisfying(CallRejectedException.class,
+                e -> assertThat(e.getReason()).isEqualTo(CallRejectedException.Reason.BULKHEAD_FULL));
+        // Waited max-wait-ms for a slot, not for the calls ahead of it
+        assertThat(elapsedMillis(start)).isLessThan(250);
+        assertThat(web3Service.getBalanceAsync("0x444"))
+            .failsWithin(1, TimeUnit.SECONDS);
+        assertThat(count("rejected_full")).isEqualTo(2);
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(chainReads.activeCount()).isZero();
+    }
+
+    @Test
+    void rejectedRequestsDoNotOpenTheBreaker() {
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> web3Service.getBalance("0xbad"))
+                .isInstanceOf(RpcErrorException.class)
+                .hasMessage("RPC error: invalid address");
+        }
+        assertThat(chainReads.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(count("client_error")).isEqualTo(6);
+        assertThat(count("failure")).isZero();
+    }
+
+    @Test
+    void sendHoldsAWriteSlotOnlyForTheBroadcast() throws Exception {
+        String hash = web3Service.sendTransaction("0x0000000000000000000000000000000000000001",
+            "0x0000000000000000000000000000000000000002", BigInteger.ONE,
+            "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318");
+
+        // The hash of what the node was given, returned without waiting for a receipt
+        assertThat(rawTransactions).hasSize(1);
+        assertThat(hash).isEqualTo(Hash.sha3(rawTransactions.get(0)));
+        assertThat(methods).doesNotContain("eth_getTransactionReceipt");
+        assertThat(meterRegistry.get("springten.resilience.calls")
+            .tags("bulkhead", "chain-writes", "outcome", "success").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("springten.resilience.active").tag("bulkhead", "chain-writes").gauge().value())
+            .isZero();
+    }
+
+    @Test
+    void broadcastThatTimesOutReportsItsHash() {
+        broadcastLatencyMillis = 2_000;
+        assertThatThrownBy(this::send)
+            .isInstanceOfSatisfying(BroadcastUncertainException.class,
+                e -> assertThat(e.getTransactionHash()).isEqualTo(Hash.sha3(rawTransactions.get(0))));
+    }
+
+    @Test
+    void broadcastTheNodeAlreadyHasIsASuccess() throws Exception {
+        String first = send();
+        // Same nonce, same signature: the node answers "already known"
+        String second = send();
+
+        assertThat(rawTransactions).hasSize(2).containsOnly(rawTransactions.get(0));
+        assertThat(second).isEqualTo(first);
+    }
+
+    private String send() throws Exception {
+        return web3Service.sendTransaction("0x0000000000000000000000000000000000000001",
+            "0x0000000000000000000000000000000000000002", BigInteger.ONE,
+            "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318");
+    }
+
+    private void readIgnoringFailure(String address) {
+        try {
+            web3Service.getBalance(address);
+        } catch (Exception e) {
+            // Timed out at the deadline
+        }
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("springten.resilience.calls")
+            .tags("bulkhead", "chain-reads", "outcome", outcome).functionCounter().count();
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private byte[] answer(byte[] body) {
+        try {
+            Thread.sleep(latencyMillis);
+            JsonNode request = MAPPER.readTree(body);
+            String method = request.path("method").asText();
+            methods.add(method);
+            if ("0xbad".equals(request.path("params").path(0).asText())) {
+                return MAPPER.writeValueAsBytes(Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(),
+                    "error", Map.of("code", -32602, "message", "invalid address")));
+            }
+            if ("eth_sendRawTransaction".equals(method)) {
+                String raw = request.path("params").get(0).asText();
+                boolean known = rawTransactions.contains(raw);
+                rawTransactions.add(raw);
+                Thread.sleep(broadcastLatencyMillis);
+                if (known) {
+                    return MAPPER.writeValueAsBytes(Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(),
+                        "error", Map.of("code", -32000, "message", "already known")));
+                }
+            }
+            String result = switch (method) {
+                case "eth_getBalance" -> "0x1bc16d674ec80000";
+                case "eth_gasPrice" -> "0x6fc23ac00";
+                case "eth_sendRawTransaction" -> Hash.sha3(request.path("params").get(0).asText());
+                default -> "0x0";
+            };
+            return MAPPER.writeValueAsBytes(Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(), "result", result));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
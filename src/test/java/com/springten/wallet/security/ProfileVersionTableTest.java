@@ -0,0 +1,65 @@
+package com.springten.wallet.security;
+
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileVersionTableTest {
+
+    @Test
+    void tracksCurrentVersion() {
+        ProfileVersionTable table = new ProfileVersionTable(new LocalCacheInvalidationBus(), 100);
+
+        table.put(42L, 3L);
+
+        assertThat(table.isCurrent(42L, 3L)).isTrue();
+        assertThat(table.isCurrent(42L, 2L)).isFalse();
+        assertThat(table.isCurrent(7L, 0L)).isFalse();
+
+        table.invalidate(42L);
+
+        assertThat(table.get(42L)).isEqualTo(ProfileVersionTable.UNKNOWN);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        ProfileVersionTable table = new ProfileVersionTable(new LocalCacheInvalidationBus(), 1_000_000);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            long userId = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                table.invalidate(userId);
+                expected.remove(userId);
+            } else {
+                long version = random.nextInt(100);
+                table.put(userId, version);
+                expected.put(userId, version);
+            }
+        }
+
+        assertThat(table.size()).isEqualTo(expected.size());
+        for (long userId = 1; userId <= 5_000; userId++) {
+            assertThat(table.get(userId)).isEqualTo(expected.getOrDefault(userId, ProfileVersionTable.UNKNOWN));
+        }
+    }
+
+    @Test
+    void ignoresNewUsersOnceFull() {
+        ProfileVersionTable table = new ProfileVersionTable(new LocalCacheInvalidationBus(), 2);
+
+        table.put(1L, 1L);
+        table.put(2L, 1L);
+        table.put(3L, 1L);
+        table.put(1L, 2L);
+
+        assertThat(table.get(3L)).isEqualTo(ProfileVersionTable.UNKNOWN);
+        assertThat(table.get(1L)).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,46 @@
+package com.springten.wallet.security.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(OutputCaptureExtension.class)
+class RedisRateLimiterTest {
+
+    @Test
+    void reportsAnOutageOnceAndCountsEveryLocalDecision(CapturedOutput output) {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+            .thenThrow(new RedisConnectionFailureException("connection refused"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisRateLimiter limiter = new RedisRateLimiter(redisTemplate, new StripedTokenBucketStore(4, 100),
+            "test:", meterRegistry, 60_000);
+        RateLimitPolicy policy = new RateLimitPolicy(100, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire("login:ip:10.0.0.1", policy)).isZero();
+        }
+
+        assertThat(meterRegistry.get("springten.ratelimit.redis.fallbacks").counter().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("springten.ratelimit.redis.degraded").gauge().value()).isEqualTo(1);
+        assertThat(output.getOut().split("Redis rate limiter unavailable", -1)).hasSize(2);
+        assertThat(output.getOut()).doesNotContain("still unavailable");
+
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        assertThat(limiter.tryAcquire("login:ip:10.0.0.1", policy)).isZero();
+
+        assertThat(meterRegistry.get("springten.ratelimit.redis.degraded").gauge().value()).isZero();
+        assertThat(output.getOut()).contains("Redis rate limiter recovered; 50 requests used local buckets");
+    }
+}
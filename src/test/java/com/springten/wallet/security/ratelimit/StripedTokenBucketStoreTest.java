@@ -0,0 +1,61 @@
+package com.springten.wallet.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketStoreTest {
+
+    @Test
+    void allowsBurstThenRejects() {
+        StripedTokenBucketStore store = new StripedTokenBucketStore(16, 100);
+        RateLimitPolicy policy = new RateLimitPolicy(5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryAcquire("login:ip:10.0.0.1", policy)).isZero();
+        }
+        long wait = store.tryAcquire("login:ip:10.0.0.1", policy);
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(1));
+        assertThat(store.tryAcquire("login:ip:10.0.0.2", policy)).isZero();
+    }
+
+    @Test
+    void neverGrantsMoreThanCapacityUnderContention() throws InterruptedException {
+        StripedTokenBucketStore store = new StripedTokenBucketStore(16, 100);
+        RateLimitPolicy policy = new RateLimitPolicy(100, 1);
+        AtomicInteger granted = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            pool.execute(() -> {
+                if (store.tryAcquire("shared", policy) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(granted.get()).isEqualTo(100);
+    }
+
+    @Test
+    void boundsMemoryAndEvictsIdleBuckets() {
+        StripedTokenBucketStore store = new StripedTokenBucketStore(4, 10);
+        RateLimitPolicy fast = new RateLimitPolicy(1, 60_000_000);
+
+        for (int i = 0; i < 1_000; i++) {
+            store.tryAcquire("key-" + i, fast);
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(40);
+
+        store.evictIdle();
+        assertThat(store.size()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.springten.wallet.security.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeBucketedBloomFilterTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void neverMissesRevokedTokens() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(24 * HOUR, HOUR, 10_000, 0.001);
+        long expiresAt = System.currentTimeMillis() + 12 * HOUR;
+
+        String[] revoked = new String[10_000];
+        for (int i = 0; i < revoked.length; i++) {
+            revoked[i] = UUID.randomUUID().toString();
+            filter.add(revoked[i], expiresAt);
+        }
+
+        for (String jti : revoked) {
+            assertThat(filter.mightContain(jti, expiresAt)).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearConfiguredRate() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(24 * HOUR, HOUR, 10_000, 0.001);
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString(), expiresAt);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString(), expiresAt)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void dropsBucketsOnceTheirTokensHaveExpired() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(24 * HOUR, HOUR, 1_000, 0.01);
+        long now = 100 * HOUR;
+        filter.add("old", now - 1);
+        filter.add("live", now + 2 * HOUR);
+
+        filter.expire(now);
+
+        assertThat(filter.mightContain("old", now - 1)).isFalse();
+        assertThat(filter.mightContain("live", now + 2 * HOUR)).isTrue();
+        assertThat(filter.activeBuckets()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupInAnotherBucketDoesNotMatch() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(24 * HOUR, HOUR, 1_000, 0.01);
+        long expiresAt = 100 * HOUR + 10;
+        filter.add("jti-1", expiresAt);
+
+        assertThat(filter.mightContain("jti-1", expiresAt + 5 * HOUR)).isFalse();
+    }
+}
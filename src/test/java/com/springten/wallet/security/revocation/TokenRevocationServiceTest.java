@@ -0,0 +1,51 @@
+package com.springten.wallet.security.revocation;
+
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.model.RevokedToken;
+import com.springten.wallet.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void aTokenClearedOnceIsCheckedAgainAfterARevocation() {
+        Date expiration = new Date(System.currentTimeMillis() + HOUR);
+        Claims claims = Jwts.claims().id("jti-1").subject("alice").expiration(expiration).build();
+        RevokedToken row = new RevokedToken("jti-1", "alice",
+            LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()));
+        row.setId(1L);
+        row.setRevokedAt(LocalDateTime.now());
+
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.findRevokedSince(any(), anyLong(), any(), any()))
+            .thenReturn(List.of(row), List.of());
+        // The filter already holds the jti, but the row on the other node is not committed yet
+        when(repository.existsByJti("jti-1")).thenReturn(false, true);
+        TokenRevocationService service = new TokenRevocationService(repository, new LocalCacheInvalidationBus(),
+            24 * HOUR, HOUR, 1_000, 0.001, 10_000);
+        service.syncFromDatabase();
+
+        assertThat(service.isRevoked(claims)).isFalse();
+        assertThat(service.isRevoked(claims)).isTrue();
+        // The revocation is confirmed once and then answered from memory
+        assertThat(service.isRevoked(claims)).isTrue();
+        verify(repository, times(2)).existsByJti("jti-1");
+    }
+}
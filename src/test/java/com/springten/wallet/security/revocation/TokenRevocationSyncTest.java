@@ -0,0 +1,78 @@
+package com.springten.wallet.security.revocation;
+
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes without a shared invalidation bus, so the second only learns about
+ * revocations by polling revoked_tokens
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+class TokenRevocationSyncTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void revocationsWithLowerIdsAreSyncedToTheOtherNode() {
+        TokenRevocationService nodeA = node();
+        TokenRevocationService nodeB = node();
+        nodeB.syncFromDatabase();
+
+        // Another node's id block is ahead of node A's
+        Claims early = claims("jti-early");
+        insert(200, "jti-early", LocalDateTime.now());
+        nodeB.syncFromDatabase();
+        assertThat(nodeB.isRevoked(early)).isTrue();
+
+        // Node A revokes with an id from its own block, below 200
+        Claims fromNodeA = claims("jti-node-a");
+        nodeA.revoke(fromNodeA);
+        // Revoked before node B's last sync but committed only after it
+        Claims lateCommit = claims("jti-late");
+        insert(100, "jti-late", LocalDateTime.now().minusSeconds(2));
+        nodeB.syncFromDatabase();
+
+        assertThat(revokedTokenRepository.findAll())
+            .filteredOn(token -> token.getJti().equals("jti-node-a"))
+            .singleElement()
+            .satisfies(token -> assertThat(token.getId()).isLessThan(200));
+        assertThat(nodeB.isRevoked(fromNodeA)).isTrue();
+        assertThat(nodeB.isRevoked(lateCommit)).isTrue();
+        assertThat(nodeB.isRevoked(claims("jti-never-revoked"))).isFalse();
+    }
+
+    private TokenRevocationService node() {
+        return new TokenRevocationService(revokedTokenRepository, new LocalCacheInvalidationBus(),
+            24 * HOUR, HOUR, 1_000, 0.001, 10_000);
+    }
+
+    private void insert(long id, String jti, LocalDateTime revokedAt) {
+        jdbcTemplate.update("insert into revoked_tokens (id, jti, username, expires_at, revoked_at) values (?, ?, ?, ?, ?)",
+            id, jti, "alice", Timestamp.valueOf(LocalDateTime.now().plusHours(1)), Timestamp.valueOf(revokedAt));
+    }
+
+    private static Claims claims(String jti) {
+        return Jwts.claims().id(jti).subject("alice").expiration(new Date(System.currentTimeMillis() + HOUR)).build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.springten.wallet.service;
+
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.dto.TransactionHistoryItem;
+import com.springten.wallet.dto.TransactionHistoryResponse;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.Transaction;
+import com.springten.wallet.model.User;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.partition.TransactionPartitionManager;
+import com.springten.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({JpaConfig.class, TransactionHistoryService.class})
+class TransactionHistoryServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionHistoryService historyService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new User("alice", "alice@springten.app", "secret", "Alice"));
+        User other = entityManager.persist(new User("bob", "bob@springten.app", "secret", "Bob"));
+        Wallet wallet = entityManager.persist(new Wallet("0xalice", "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user));
+        Wallet otherWallet = entityManager.persist(new Wallet("0xbob", "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, other));
+        Token usdc = entityManager.persist(new Token("USDC", "USD Coin", "0xusdc", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, 6));
+
+        for (int i = 0; i < 25; i++) {
+            Transaction tx = new Transaction("0xtx" + i,
+                i % 5 == 0 ? Transaction.TransactionType.SWAP : Transaction.TransactionType.SEND,
+                Transaction.TransactionStatus.CONFIRMED, user, wallet);
+            if (i % 2 == 0) {
+                tx.setToken(usdc);
+            }
+            entityManager.persist(tx);
+        }
+        entityManager.persist(new Transaction("0xother", Transaction.TransactionType.SEND,
+            Transaction.TransactionStatus.CONFIRMED, other, otherWallet));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesThroughHistoryNewestFirstWithoutGapsOrDuplicates() {
+        List<TransactionHistoryItem> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryResponse page = historyService.getHistory(user.getId(), null, null, null, cursor, 10);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(all).hasSize(25);
+        assertThat(all).extracting(TransactionHistoryItem::id).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            TransactionHistoryItem previous = all.get(i - 1);
+            TransactionHistoryItem current = all.get(i);
+            assertThat(current.createdAt()).isBeforeOrEqualTo(previous.createdAt());
+            if (current.createdAt().equals(previous.createdAt())) {
+                assertThat(current.id()).isLessThan(previous.id());
+            }
+        }
+    }
+
+    @Test
+    void filtersByTypeAndToken() {
+        TransactionHistoryResponse swaps = historyService.getHistory(user.getId(),
+            Transaction.TransactionType.SWAP, null, null, null, 50);
+        TransactionHistoryResponse usdc = historyService.getHistory(user.getId(), null, null, "USDC", null, 50);
+
+        assertThat(swaps.getItems()).hasSize(5)
+            .allMatch(item -> item.transactionType() == Transaction.TransactionType.SWAP);
+        assertThat(usdc.getItems()).hasSize(13).allMatch(item -> "USDC".equals(item.tokenSymbol()));
+        assertThat(usdc.isHasMore()).isFalse();
+    }
+
+    @Test
+    void monthWindowsReturnTheSamePagesAsOneQuery() {
+        // Spread the rows over six months, several per month
+        entityManager.getEntityManager().createNativeQuery(
+                "update transactions set created_at = dateadd(month, -mod(id, 6), created_at)")
+            .executeUpdate();
+        entityManager.clear();
+
+        TransactionPartitionManager partitions = mock(TransactionPartitionManager.class);
+        when(partitions.isActive()).thenReturn(true);
+        when(partitions.historyWindows(any())).thenAnswer(invocation -> {
+            LocalDateTime upper = invocation.getArgument(0);
+            YearMonth month = upper == null ? YearMonth.now() : YearMonth.from(upper);
+            return Arrays.asList(month.atDay(1).atStartOfDay(), month.minusMonths(1).atDay(1).atStartOfDay(), null);
+        });
+        TransactionHistoryService routed = new TransactionHistoryService(transactionRepository, Optional.empty(),
+            Optional.of(partitions));
+
+        List<Long> expected = new ArrayList<>();
+        List<Long> actual = new ArrayList<>();
+        String expectedCursor = null;
+        String actualCursor = null;
+        do {
+            TransactionHistoryResponse single = historyService.getHistory(user.getId(), null, null, null, expectedCursor, 4);
+            TransactionHistoryResponse windowed = routed.getHistory(user.getId(), null, null, null, actualCursor, 4);
+            single.getItems().forEach(item -> expected.add(item.id()));
+            windowed.getItems().forEach(item -> actual.add(item.id()));
+            expectedCursor = single.getNextCursor();
+            actualCursor = windowed.getNextCursor();
+            assertThat(actualCursor).isEqualTo(expectedCursor);
+        } while (expectedCursor != null);
+
+        assertThat(actual).hasSize(25).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> historyService.getHistory(user.getId(), null, null, null, "not-a-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,111 @@
+package com.springten.wallet.smoke;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Black-box checks over HTTP that touch the libraries the native image needs
+ * metadata for: bitcoinj and web3j key derivation, BouncyCastle, jjwt, Jackson, JPA and WebSocket.
+ */
+final class ApiSmokeChecks {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+
+    ApiSmokeChecks(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void runAll() throws Exception {
+        assertThat(get("/api/public/health", null).statusCode()).isEqualTo(200);
+
+        JsonNode created = post("/api/auth/create-wallet", null, "{}");
+        String token = created.path("token").asText();
+        String address = created.path("address").asText();
+        String phrase = created.path("recoveryPhrase").asText();
+        assertThat(token).isNotBlank();
+        assertThat(address).matches("[0-9a-f]{40}");
+        assertThat(phrase.split(" ")).hasSize(12);
+
+        HttpResponse<String> info = get("/api/wallet/info", token);
+        assertThat(info.statusCode()).isEqualTo(200);
+        assertThat(MAPPER.readTree(info.body()).path("address").asText()).isEqualTo(address);
+
+        HttpResponse<String> history = get("/api/transactions/history?limit=5", token);
+        assertThat(history.statusCode()).isEqualTo(200);
+        assertThat(MAPPER.readTree(history.body()).path("items").isArray()).isTrue();
+
+        JsonNode imported = post("/api/auth/import-wallet", null,
+            MAPPER.writeValueAsString(Map.of("recoveryPhrase", phrase)));
+        assertThat(imported.path("address").asText()).matches("[0-9a-f]{40}");
+
+        assertThat(get("/api/wallet/info", null).statusCode()).isIn(401, 403);
+
+        // Answered on an async dispatch; there is no reachable node here, so a 400 with the error is expected
+        HttpResponse<String> balance = get("/api/reactive/wallet/balance", token);
+        assertThat(balance.statusCode()).as(balance.body()).isIn(200, 400);
+        assertThat(MAPPER.readTree(balance.body()).has(balance.statusCode() == 200 ? "balance" : "error")).isTrue();
+        assertThat(get("/api/reactive/wallet/balance", null).statusCode()).isIn(401, 403);
+
+        checkPriceStream();
+    }
+
+    /**
+     * The public price stream accepts a subscription and acknowledges it
+     */
+    void checkPriceStream() throws Exception {
+        CompletableFuture<String> firstMessage = new CompletableFuture<>();
+        WebSocket socket = client.newWebSocketBuilder()
+            .buildAsync(URI.create(baseUrl.replaceFirst("^http", "ws") + "/ws/prices"), new WebSocket.Listener() {
+                @Override
+                public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                    firstMessage.complete(data.toString());
+                    return null;
+                }
+            })
+            .get(10, TimeUnit.SECONDS);
+        try {
+            socket.sendText("{\"action\":\"subscribe\",\"symbols\":[\"eth\"]}", true);
+            JsonNode ack = MAPPER.readTree(firstMessage.get(10, TimeUnit.SECONDS));
+            assertThat(ack.path("type").asText()).isEqualTo("subscribed");
+            assertThat(ack.path("symbols").get(0).asText()).isEqualTo("ETH");
+        } finally {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode post(String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("%s -> %s", path, response.body()).isEqualTo(200);
+        return MAPPER.readTree(response.body());
+    }
+}
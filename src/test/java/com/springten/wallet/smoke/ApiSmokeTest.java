@@ -0,0 +1,20 @@
+package com.springten.wallet.smoke;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+/**
+ * The smoke checks against the application on the JVM; NativeImageSmokeTest runs the same checks on the binary
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiSmokeTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void endToEndOnTheJvm() throws Exception {
+        new ApiSmokeChecks("http://localhost:" + port).runAll();
+    }
+}
@@ -0,0 +1,124 @@
+package com.springten.wallet.smoke;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the smoke checks against the native executable and compares it with the
+ * JVM jar: time from launch to the first successful request, and resident memory
+ * after the checks (VmRSS) and at its peak (VmHWM). Writes target/native-report.md.
+ *
+ * Build first with {@code mvn -Pnative -DskipTests package}, then run
+ * {@code mvn test -Dtest=NativeImageSmokeTest}. Skipped when there is no binary.
+ */
+@EnabledIf("binaryPresent")
+class NativeImageSmokeTest {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path BINARY = TARGET.resolve("springten");
+    private static final long STARTUP_TIMEOUT_MS = 120_000;
+
+    static boolean binaryPresent() {
+        return Files.isExecutable(BINARY);
+    }
+
+    @Test
+    void smokeChecksPassOnTheNativeBinary() throws Exception {
+        List<String> rows = new ArrayList<>();
+        rows.add(launch("native", List.of(BINARY.toString())).row());
+
+        Path jar = findJar();
+        if (jar != null) {
+            rows.add(launch("jvm", List.of("java", "-jar", jar.toString())).row());
+        }
+
+        List<String> report = new ArrayList<>();
+        report.add("| Build | Time to first request (ms) | RSS after smoke (MB) | Peak RSS (MB) |");
+        report.add("|---|---|---|---|");
+        report.addAll(rows);
+        Files.write(TARGET.resolve("native-report.md"), report);
+        report.forEach(System.out::println);
+    }
+
+    private Measurement launch(String label, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        File log = TARGET.resolve("smoke-" + label + ".log").toFile();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            ApiSmokeChecks checks = new ApiSmokeChecks("http://localhost:" + port);
+            long startupMs = awaitFirstRequest(checks, process, start, log);
+            checks.runAll();
+            return new Measurement(label, startupMs, readKb(process.pid(), "VmRSS"), readKb(process.pid(), "VmHWM"));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long awaitFirstRequest(ApiSmokeChecks checks, Process process, long start, File log)
+            throws Exception {
+        while (true) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (!process.isAlive() || elapsedMs > STARTUP_TIMEOUT_MS) {
+                throw new AssertionError("Application did not start, see " + log);
+            }
+            try {
+                if (checks.get("/api/public/health", null).statusCode() == 200) {
+                    return elapsedMs;
+                }
+            } catch (IOException notListeningYet) {
+                // keep polling
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static long readKb(long pid, String field) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith(field + ":"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst().orElse(-1L);
+        }
+    }
+
+    private static Path findJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files.filter(path -> path.getFileName().toString().matches("springton-.*\\.jar"))
+                .findFirst().orElse(null);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Measurement(String label, long startupMs, long rssKb, long peakRssKb) {
+
+        String row() {
+            return String.format("| %s | %d | %s | %s |", label, startupMs, mb(rssKb), mb(peakRssKb));
+        }
+
+        private static String mb(long kb) {
+            return kb < 0 ? "n/a" : String.format("%.1f", kb / 1024.0);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.springten.wallet.swap;
+
+import com.springten.wallet.model.LiquidityPool;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.Wallet;
+import com.springten.wallet.repository.LiquidityPoolRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SwapQuoteEngineTest {
+
+    private static final BigInteger WEI = BigInteger.TEN.pow(18);
+    private static final BigInteger USDC_UNIT = BigInteger.TEN.pow(6);
+
+    private final SwapQuoteEngine engine = new SwapQuoteEngine(new SimpleMeterRegistry(), 3, 50, 2);
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void quotesTheUniswapOutputOfTheBestRoute() {
+        loadFixture();
+
+        // Small trades go through the direct pool, which quotes a slightly better price
+        SwapQuote small = engine.quote("weth", "USDC", BigDecimal.ONE, null);
+        assertThat(small.path()).containsExactly("WETH", "USDC");
+        assertThat(small.pools()).containsExactly("0xa1");
+        assertThat(small.amountOut()).isEqualByComparingTo(
+            units(getAmountOut(WEI, tokens(1_000, WEI), tokens(3_003_000, USDC_UNIT), 30), 6));
+        assertThat(small.minimumAmountOut()).isEqualByComparingTo(
+            units(getAmountOut(WEI, tokens(1_000, WEI), tokens(3_003_000, USDC_UNIT), 30)
+                .multiply(BigInteger.valueOf(9_950)).divide(BigInteger.valueOf(10_000)), 6));
+        assertThat(small.slippageBps()).isEqualTo(50);
+        assertThat(small.midPrice()).isEqualByComparingTo("3003");
+        assertThat(small.blockNumber()).isEqualTo(100);
+
+        // Large trades move the direct pool too far; routing through the deeper DAI pools pays more
+        SwapQuote large = engine.quote("WETH", "USDC", new BigDecimal("50"), 100);
+        assertThat(large.path()).containsExactly("WETH", "DAI", "USDC");
+        BigInteger dai = getAmountOut(tokens(50, WEI), tokens(10_000, WEI), tokens(30_000_000, WEI), 30);
+        assertThat(large.amountOut()).isEqualByComparingTo(
+            units(getAmountOut(dai, tokens(50_000_000, WEI), tokens(50_000_000, USDC_UNIT), 5), 6));
+        assertThat(large.routesEvaluated()).isEqualTo(small.routesEvaluated());
+
+        // A thin direct pool loses to a two-hop route
+        SwapQuote link = engine.quote("LINK", "USDC", new BigDecimal("100"), null);
+        assertThat(link.path()).containsExactly("LINK", "WETH", "USDC");
+    }
+
+    @Test
+    void reportsPriceImpactGrowingWithTradeSize() {
+        loadFixture();
+
+        SwapQuote tiny = engine.quote("WETH", "USDC", new BigDecimal("0.001"), 0);
+        SwapQuote small = engine.quote("WETH", "USDC", BigDecimal.ONE, 0);
+        SwapQuote large = engine.quote("WBTC", "WETH", new BigDecimal("10"), 0);
+
+        assertThat(tiny.priceImpactPercent()).isLessThan(new BigDecimal("0.001"));
+        assertThat(small.priceImpactPercent()).isBetween(new BigDecimal("0.09"), new BigDecimal("0.11"));
+        assertThat(large.priceImpactPercent()).isGreaterThan(new BigDecimal("8"));
+        assertThat(tiny.minimumAmountOut()).isEqualByComparingTo(tiny.amountOut());
+        assertThat(small.executionPrice()).isLessThan(small.midPrice());
+    }
+
+    @Test
+    void keepsTheNewestReservesOfEachPool() {
+        loadFixture();
+        BigDecimal before = engine.quote("WBTC", "WETH", BigDecimal.ONE, null).amountOut();
+
+        PoolReserves sync = new PoolReserves("0xA4", tokens(200, BigInteger.TEN.pow(8)), tokens(2_000, WEI), 101, 3);
+        assertThat(engine.applyReserves(sync)).isTrue();
+        assertThat(engine.applyReserves(new PoolReserves("0xa4", BigInteger.ONE, BigInteger.ONE, 101, 2))).isFalse();
+        assertThat(engine.applyReserves(PoolReserves.snapshot("0xa4", BigInteger.ONE, BigInteger.ONE, 100))).isFalse();
+        assertThat(engine.applyReserves(new PoolReserves("0xdead", BigInteger.ONE, BigInteger.ONE, 200, 0))).isFalse();
+
+        SwapQuote after = engine.quote("WBTC", "WETH", BigDecimal.ONE, null);
+        assertThat(after.amountOut()).isLessThan(before);
+        assertThat(after.blockNumber()).isEqualTo(101);
+
+        // Reloading the same pools keeps their reserves
+        assertThat(engine.loadPools(fixturePools())).isZero();
+        assertThat(engine.quote("WBTC", "WETH", BigDecimal.ONE, null).amountOut()).isEqualByComparingTo(after.amountOut());
+    }
+
+    @Test
+    void rejectsQuotesItCannotPrice() {
+        loadFixture();
+        List<PoolDefinition> pools = new ArrayList<>(fixturePools());
+        pools.add(new PoolDefinition("0xb1", "UNI", 18, "WETH", 18, 30));
+        assertThat(engine.loadPools(pools)).isEqualTo(1);
+
+        assertThatThrownBy(() -> engine.quote("DOGE", "USDC", BigDecimal.ONE, null))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("DOGE");
+        assertThatThrownBy(() -> engine.quote("USDC", "USDC", BigDecimal.ONE, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.quote("USDC", "WETH", new BigDecimal("1.0000001"), null))
+            .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("6 decimals");
+        assertThatThrownBy(() -> engine.quote("WETH", "USDC", BigDecimal.ONE, 10_000))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.quote("UNI", "WETH", BigDecimal.ONE, null))
+            .isInstanceOf(IllegalStateException.class).hasMessageContaining("liquidity");
+    }
+
+    @Test
+    void parallelEvaluationFindsTheSameBestRouteAsExhaustiveSearch() {
+        // Ten tokens with a pool between every pair: 1 + 8 + 8 * 7 = 65 routes between any two
+        int tokenCount = 10;
+        int last = tokenCount - 1;
+        List<PoolDefinition> pools = new ArrayList<>();
+        Map<String, BigInteger[]> reserves = new HashMap<>();
+        for (int a = 0; a < tokenCount; a++) {
+            for (int b = a + 1; b < tokenCount; b++) {
+                String address = "0x" + a + b;
+                pools.add(new PoolDefinition(address, "T" + a, 18, "T" + b, 18, 30));
+                reserves.put(address, new BigInteger[] {
+                    tokens(1_000 + 37L * a + 101L * b, WEI), tokens(1_000 + 53L * b + 89L * a * a, WEI)});
+            }
+        }
+        engine.loadPools(pools);
+        reserves.forEach((address, pair) -> engine.applyReserves(PoolReserves.snapshot(address, pair[0], pair[1], 1)));
+
+        List<int[]> paths = new ArrayList<>();
+        paths.add(new int[] {0, last});
+        for (int x = 1; x < last; x++) {
+            paths.add(new int[] {0, x, last});
+            for (int y = 1; y < last; y++) {
+                if (y != x) {
+                    paths.add(new int[] {0, x, y, last});
+                }
+            }
+        }
+        BigInteger amountIn = tokens(25, WEI);
+        BigInteger best = BigInteger.ZERO;
+        for (int[] path : paths) {
+            BigInteger amount = amountIn;
+            for (int hop = 0; hop + 1 < path.length; hop++) {
+                int a = path[hop];
+                int b = path[hop + 1];
+                BigInteger[] pair = reserves.get("0x" + Math.min(a, b) + Math.max(a, b));
+                amount = a < b ? getAmountOut(amount, pair[0], pair[1], 30) : getAmountOut(amount, pair[1], pair[0], 30);
+            }
+            best = best.max(amount);
+        }
+
+        SwapQuote quote = engine.quote("T0", "T" + last, new BigDecimal("25"), null);
+        assertThat(quote.routesEvaluated()).isEqualTo(paths.size()).isEqualTo(65);
+        assertThat(quote.amountOut()).isEqualByComparingTo(units(best, 18));
+    }
+
+    @Test
+    void refresherSnapshotsFirstThenFollowsSyncEvents() throws Exception {
+        LiquidityPoolRepository repository = mock(LiquidityPoolRepository.class);
+        Token weth = token("WETH", 18);
+        Token usdc = token("USDC", 6);
+        when(repository.findActiveWithTokens()).thenReturn(List.of(
+            new LiquidityPool("0xa1", weth, usdc, 30, Wallet.BlockchainNetwork.ETHEREUM_MAINNET)));
+        FakeReserveSource source = new FakeReserveSource();
+        PoolReserveRefresher refresher = new PoolReserveRefresher(repository, source, engine, 100, 50);
+
+        source.head = 100;
+        assertThat(refresher.refresh()).isEqualTo(1);
+        assertThat(source.calls).containsExactly("reserves@100");
+        BigDecimal first = engine.quote("WETH", "USDC", BigDecimal.ONE, null).amountOut();
+
+        source.head = 120;
+        source.events.add(new PoolReserves("0xa1", tokens(1_100, WEI), tokens(2_730_000, USDC_UNIT), 110, 4));
+        assertThat(refresher.refresh()).isEqualTo(1);
+        assertThat(source.calls).containsExactly("reserves@100", "logs@101-120");
+        assertThat(engine.quote("WETH", "USDC", BigDecimal.ONE, null).amountOut()).isLessThan(first);
+
+        // Too far behind for one eth_getLogs call: take a new snapshot instead
+        source.head = 200;
+        refresher.refresh();
+        assertThat(source.calls).endsWith("reserves@200");
+
+        source.failNext = true;
+        refresher.scheduledRefresh();
+        source.head = 201;
+        refresher.refresh();
+        assertThat(source.calls).endsWith("reserves@201");
+    }
+
+    @Test
+    void refresherReplacesReservesAfterAReorg() throws Exception {
+        LiquidityPoolRepository repository = mock(LiquidityPoolRepository.class);
+        when(repository.findActiveWithTokens()).thenReturn(List.of(
+            new LiquidityPool("0xa1", token("WETH", 18), token("USDC", 6), 30, Wallet.BlockchainNetwork.ETHEREUM_MAINNET)));
+        FakeReserveSource source = new FakeReserveSource();
+        PoolReserveRefresher refresher = new PoolReserveRefresher(repository, source, engine, 100, 50);
+        source.head = 100;
+        refresher.refresh();
+        BigDecimal canonical = engine.quote("WETH", "USDC", BigDecimal.ONE, null).amountOut();
+
+        // A swap in block 105 moves the price, then the chain reorganizes to a shorter fork without it
+        source.head = 105;
+        source.events.add(new PoolReserves("0xa1", tokens(1_100, WEI), tokens(2_730_000, USDC_UNIT), 105, 0));
+        refresher.refresh();
+        assertThat(engine.quote("WETH", "USDC", BigDecimal.ONE, null).amountOut()).isLessThan(canonical);
+
+        source.fork = "b";
+        source.head = 104;
+        assertThat(refresher.refresh()).isEqualTo(1);
+        assertThat(source.calls).endsWith("reserves@104");
+        // The snapshot at 104 replaced the orphaned update from 105
+        assertThat(engine.quote("WETH", "USDC", BigDecimal.ONE, null).amountOut()).isEqualByComparingTo(canonical);
+
+        // Back to following Sync events on the new fork
+        source.head = 106;
+        refresher.refresh();
+        assertThat(source.calls).endsWith("logs@105-106");
+    }
+
+    private void loadFixture() {
+        assertThat(engine.loadPools(fixturePools())).isEqualTo(6);
+        BigInteger wbtc = BigInteger.TEN.pow(8);
+        List<PoolReserves> reserves = List.of(
+            PoolReserves.snapshot("0xa1", tokens(1_000, WEI), tokens(3_003_000, USDC_UNIT), 100),
+            PoolReserves.snapshot("0xa2", tokens(30_000_000, WEI), tokens(10_000, WEI), 100),
+            PoolReserves.snapshot("0xa3", tokens(50_000_000, WEI), tokens(50_000_000, USDC_UNIT), 100),
+            PoolReserves.snapshot("0xa4", tokens(100, wbtc), tokens(2_000, WEI), 100),
+            PoolReserves.snapshot("0xa5", tokens(10, WEI), tokens(100, USDC_UNIT), 100),
+            PoolReserves.snapshot("0xa6", tokens(100_000, WEI), tokens(500, WEI), 100));
+        assertThat(engine.applyReserves(reserves)).isEqualTo(6);
+    }
+
+    private static List<PoolDefinition> fixturePools() {
+        return List.of(
+            new PoolDefinition("0xa1", "WETH", 18, "USDC", 6, 30),
+            new PoolDefinition("0xa2", "DAI", 18, "WETH", 18, 30),
+            new PoolDefinition("0xa3", "DAI", 18, "USDC", 6, 5),
+            new PoolDefinition("0xA4", "WBTC", 8, "WETH", 18, 30),
+            new PoolDefinition("0xa5", "LINK", 18, "USDC", 6, 30),
+            new PoolDefinition("0xa6", "LINK", 18, "WETH", 18, 30));
+    }
+
+    private static BigInteger getAmountOut(BigInteger amountIn, BigInteger reserveIn, BigInteger reserveOut, int feeBps) {
+        BigInteger amountInWithFee = amountIn.multiply(BigInteger.valueOf(10_000 - feeBps));
+        return amountInWithFee.multiply(reserveOut)
+            .divide(reserveIn.multiply(BigInteger.valueOf(10_000)).add(amountInWithFee));
+    }
+
+    private static BigInteger tokens(long amount, BigInteger unit) {
+        return BigInteger.valueOf(amount).multiply(unit);
+    }
+
+    private static BigDecimal units(BigInteger raw, int decimals) {
+        return new BigDecimal(raw, decimals);
+    }
+
+    private static Token token(String symbol, int decimals) {
+        return new Token(symbol, symbol, "0x" + symbol, Wallet.BlockchainNetwork.ETHEREUM_MAINNET, decimals);
+    }
+
+    private static final class FakeReserveSource implements ReserveSource {
+
+        private final List<String> calls = new ArrayList<>();
+        private final List<PoolReserves> events = new ArrayList<>();
+        private long head;
+        private boolean failNext;
+        private String fork = "a";
+
+        @Override
+        public long latestBlock() throws IOException {
+            if (failNext) {
+                failNext = false;
+                throw new IOException("connection refused");
+            }
+            return head;
+        }
+
+        @Override
+        public String blockHash(long blockNumber) {
+            // Blocks below 100 are shared by every fork
+            return (blockNumber < 100 ? "a" : fork) + blockNumber;
+        }
+
+        @Override
+        public List<PoolReserves> getReserves(List<String> poolAddresses, long blockNumber) {
+            calls.add("reserves@" + blockNumber);
+            return poolAddresses.stream()
+                .map(address -> PoolReserves.snapshot(address, tokens(1_000, WEI), tokens(3_000_000, USDC_UNIT),
+                    blockNumber))
+                .toList();
+        }
+
+        @Override
+        public List<PoolReserves> getSyncEvents(List<String> poolAddresses, long fromBlock, long toBlock) {
+            calls.add("logs@" + fromBlock + "-" + toBlock);
+            List<PoolReserves> found = events.stream()
+                .filter(event -> event.blockNumber() >= fromBlock && event.blockNumber() <= toBlock)
+                .toList();
+            events.clear();
+            return found;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.springten.wallet.valuation;
+
+import com.springten.wallet.config.JpaConfig;
+import com.springten.wallet.model.Token;
+import com.springten.wallet.model.TokenBalance;
+import com.springten.wallet.model.User;
+import com.springten.wallet.model.Wallet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(JpaConfig.class)
+class ValuationEngineTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void aggregatesPerUserAndPerTokenAcrossChunks() {
+        Token eth = token("ETH", "3456.789012345678");
+        Token shib = token("SHIB", "0.000012345678");
+        Token unpriced = token("NEW", "0");
+
+        Random random = new Random(7);
+        Map<Long, BigDecimal> expectedByUser = new HashMap<>();
+        Map<Long, BigDecimal> expectedByToken = new HashMap<>();
+        int balances = 0;
+        for (int u = 0; u < 7; u++) {
+            User user = entityManager.persist(new User("user" + u, "user" + u + "@springten.app", "secret", "User " + u));
+            for (int w = 0; w < 3; w++) {
+                Wallet wallet = entityManager.persist(
+                    new Wallet("0x" + u + "-" + w, "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user));
+                BigDecimal ethBalance = BigDecimal.valueOf(random.nextLong(1, 5_000_000_000L), 8);
+                // Above the scaled-long range for balances, valued on the BigDecimal path
+                BigDecimal shibBalance = u == 3 && w == 0
+                    ? new BigDecimal("123456789012.5")
+                    : BigDecimal.valueOf(random.nextLong(1, 1_000_000_000_000L), 3);
+                for (Object[] position : List.of(new Object[]{eth, ethBalance}, new Object[]{shib, shibBalance},
+                                                 new Object[]{unpriced, BigDecimal.ONE})) {
+                    Token token = (Token) position[0];
+                    BigDecimal balance = (BigDecimal) position[1];
+                    entityManager.persist(new TokenBalance(wallet, token, balance));
+                    BigDecimal value = balance.multiply(token.getCurrentPriceUsd()).setScale(6, RoundingMode.HALF_UP);
+                    expectedByUser.merge(user.getId(), value, BigDecimal::add);
+                    expectedByToken.merge(token.getId(), value, BigDecimal::add);
+                    balances++;
+                }
+            }
+            // Zero balances are not positions
+            entityManager.persist(new TokenBalance(
+                entityManager.persist(new Wallet("0xempty" + u, "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, user)),
+                eth, BigDecimal.ZERO));
+        }
+        entityManager.flush();
+
+        // Chunks of 5 rows split user runs across chunk boundaries; batches of 2 force several flushes
+        ValuationSummary summary = engine(5, 2).valueAll();
+
+        BigDecimal expectedTotal = expectedByUser.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(summary.users()).isEqualTo(7);
+        assertThat(summary.positions()).isEqualTo(balances);
+        assertThat(summary.tokens()).isEqualTo(3);
+        assertThat(summary.totalUsd()).isEqualByComparingTo(expectedTotal);
+
+        expectedByUser.forEach((userId, expected) -> {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select total_usd, positions from user_valuations where user_id = ?", userId);
+            assertThat((BigDecimal) row.get("total_usd")).isEqualByComparingTo(expected);
+            assertThat(((Number) row.get("positions")).intValue()).isEqualTo(9);
+        });
+        expectedByToken.forEach((tokenId, expected) -> {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select total_usd, holders from token_valuations where token_id = ?", tokenId);
+            assertThat((BigDecimal) row.get("total_usd")).isEqualByComparingTo(expected);
+            assertThat(((Number) row.get("holders")).intValue()).isEqualTo(21);
+        });
+        assertThat(meterRegistry.get("springten.valuation.total").gauge().value())
+            .isEqualTo(expectedTotal.doubleValue());
+    }
+
+    @Test
+    void replacesThePreviousValuation() {
+        Token eth = token("ETH", "2000");
+        User alice = entityManager.persist(new User("alice", "alice@springten.app", "secret", "Alice"));
+        User bob = entityManager.persist(new User("bob", "bob@springten.app", "secret", "Bob"));
+        Wallet aliceWallet = entityManager.persist(
+            new Wallet("0xalice", "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, alice));
+        Wallet bobWallet = entityManager.persist(
+            new Wallet("0xbob", "hash", Wallet.BlockchainNetwork.ETHEREUM_MAINNET, bob));
+        entityManager.persist(new TokenBalance(aliceWallet, eth, new BigDecimal("1.5")));
+        TokenBalance bobBalance = entityManager.persist(new TokenBalance(bobWallet, eth, new BigDecimal("2")));
+        entityManager.flush();
+
+        ValuationEngine engine = engine(16, 100);
+        assertThat(engine.valueAll().totalUsd()).isEqualByComparingTo("7000");
+
+        bobBalance.setBalance(BigDecimal.ZERO);
+        entityManager.flush();
+        ValuationSummary summary = engine.valueAll();
+
+        assertThat(summary.users()).isEqualTo(1);
+        assertThat(summary.totalUsd()).isEqualByComparingTo("3000");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user_valuations", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select user_id from user_valuations", Long.class))
+            .isEqualTo(alice.getId());
+    }
+
+    @Test
+    void fixedPointMultiplyMatchesBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long balance = random.nextLong(0, FixedPoint.MAX_BALANCE * 100_000_000L);
+            int priceScale = random.nextInt(FixedPoint.MAX_PRICE_SCALE + 1);
+            long price = random.nextLong(0, 1L << (1 + random.nextInt(62)));
+            BigDecimal expected = BigDecimal.valueOf(balance, FixedPoint.BALANCE_SCALE)
+                .multiply(BigDecimal.valueOf(price, priceScale))
+                .setScale(FixedPoint.VALUE_SCALE, RoundingMode.HALF_UP);
+            if (expected.unscaledValue().bitLength() < 64) {
+                assertThat(FixedPoint.value(balance, price, priceScale))
+                    .isEqualTo(expected.unscaledValue().longValueExact());
+            } else {
+                assertThatThrownBy(() -> FixedPoint.value(balance, price, priceScale))
+                    .isInstanceOf(ArithmeticException.class);
+            }
+        }
+        assertThat(FixedPoint.priceScale(new BigDecimal("0.000012345678000000"))).isEqualTo(12);
+        assertThat(FixedPoint.priceScale(new BigDecimal("2000.000000000000000000"))).isZero();
+        assertThat(FixedPoint.priceScale(new BigDecimal("0.000000000123456789123456"))).isEqualTo(16);
+        assertThat(FixedPoint.priceScale(new BigDecimal("123456789.12345678912"))).isEqualTo(10);
+    }
+
+    private ValuationEngine engine(int chunkSize, int batchSize) {
+        return new ValuationEngine(jdbcTemplate, new TransactionTemplate(transactionManager),
+            Clock.fixed(Instant.parse("2026-10-01T00:00:00Z"), ZoneOffset.UTC), meterRegistry,
+            100, chunkSize, batchSize, 2);
+    }
+
+    private Token token(String symbol, String priceUsd) {
+        Token token = new Token(symbol, symbol, "0x" + symbol, Wallet.BlockchainNetwork.ETHEREUM_MAINNET, 18);
+        token.setCurrentPriceUsd(new BigDecimal(priceUsd));
+        return entityManager.persist(token);
+    }
+}
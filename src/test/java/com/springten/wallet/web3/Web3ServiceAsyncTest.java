@@ -0,0 +1,149 @@
+package com.springten.wallet.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.cache.NoOpSharedCacheStore;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import com.springten.wallet.resilience.ResilienceRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The non-blocking reads against stub JSON-RPC nodes
+ */
+class Web3ServiceAsyncTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private HttpServer node;
+    private Web3Service web3Service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        node.setExecutor(Executors.newCachedThreadPool());
+        node.createContext("/fast", exchange -> respond(exchange, 200, answer(exchange.getRequestBody().readAllBytes(), 50)));
+        node.createContext("/slow", exchange -> respond(exchange, 200, answer(exchange.getRequestBody().readAllBytes(), 10_000)));
+        node.createContext("/broken", exchange -> respond(exchange, 503, "{\"message\":\"unavailable\"}"));
+        node.start();
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new NoOpSharedCacheStore(),
+            new LocalCacheInvalidationBus(), new SimpleMeterRegistry(), new MockEnvironment(), "test:cache:");
+        web3Service = new Web3Service(cacheManager, WebClient.builder(),
+            new ResilienceRegistry(new SimpleMeterRegistry(), new MockEnvironment()), new SimpleMeterRegistry());
+        String base = "http://127.0.0.1:" + node.getAddress().getPort();
+        ReflectionTestUtils.setField(web3Service, "ethereumRpcUrl", base + "/fast");
+        ReflectionTestUtils.setField(web3Service, "networkId", "1");
+        ReflectionTestUtils.setField(web3Service, "evmNetworks", "polygon=" + base + "/slow, bsc=" + base + "/broken, arbitrum=" + base + "/slow");
+        // Generous enough for the first call of a cold JVM to set up its connection
+        ReflectionTestUtils.setField(web3Service, "asyncTimeoutMillis", 2_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.stop(0);
+    }
+
+    @Test
+    void readsCompleteOnTheEventLoopAndShareTheCache() throws Exception {
+        String completedOn = web3Service.getBalanceAsync("0xABC")
+            .thenApply(balance -> {
+                assertThat(balance).isEqualTo(Wei.of(2, Wei.Unit.ETHER));
+                return Thread.currentThread().getName();
+            })
+            .get(5, TimeUnit.SECONDS);
+        // Completed by the Netty connection, not by a thread that waited for the node
+        assertThat(completedOn).startsWith("reactor-http");
+
+        assertThat(web3Service.getBalanceAsync("0xabc").get(5, TimeUnit.SECONDS)).isEqualTo(Wei.of(2, Wei.Unit.ETHER));
+        assertThat(web3Service.getBalance("0xabc")).isEqualTo(Wei.of(2, Wei.Unit.ETHER));
+        assertThat(calls).hasValue(1);
+
+        assertThat(web3Service.getCurrentGasPriceAsync().get(5, TimeUnit.SECONDS)).isEqualTo(Wei.of(30, Wei.Unit.GWEI));
+        assertThat(web3Service.isTransactionConfirmedAsync("0xmined").get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(web3Service.isTransactionConfirmedAsync("0xpending").get(5, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void rpcErrorsFailTheFuture() {
+        assertThatThrownBy(() -> web3Service.isTransactionConfirmedAsync("0xbad").get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasRootCauseMessage("RPC error: invalid hash");
+        assertThatThrownBy(() -> web3Service.getBalanceAsync("solana", "0xabc").get(5, TimeUnit.SECONDS))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fanOutRunsInParallelWithATimeoutPerNetwork() {
+        long start = System.nanoTime();
+        List<NetworkBalance> balances = web3Service.getBalancesOnAllNetworks("0xabc").block(Duration.ofSeconds(10));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(balances).extracting(NetworkBalance::network).containsExactly("ethereum", "polygon", "bsc", "arbitrum");
+        assertThat(balances.get(0).balance()).isEqualTo(Wei.of(2, Wei.Unit.ETHER));
+        assertThat(balances.get(1).error()).isEqualTo("Timed out");
+        assertThat(balances.get(2).error()).contains("503");
+        assertThat(balances.get(3).error()).isEqualTo("Timed out");
+        // The two slow networks time out together rather than one after the other
+        assertThat(elapsedMillis).isLessThan(3_500);
+    }
+
+    private String answer(byte[] body, long delayMillis) {
+        calls.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+            JsonNode request = MAPPER.readTree(body);
+            Object result = switch (request.path("method").asText()) {
+                case "eth_getBalance" -> "0x1bc16d674ec80000";
+                case "eth_gasPrice" -> "0x6fc23ac00";
+                case "eth_getTransactionReceipt" -> switch (request.path("params").get(0).asText()) {
+                    case "0xmined" -> Map.of("transactionHash", "0xmined", "status", "0x1");
+                    case "0xbad" -> null;
+                    default -> "null";
+                };
+                default -> null;
+            };
+            Map<String, Object> response = result == null
+                ? Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(),
+                    "error", Map.of("code", -32602, "message", "invalid hash"))
+                : Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(), "result", result);
+            return MAPPER.writeValueAsString(response).replace("\"result\":\"null\"", "\"result\":null");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.springten.wallet.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springten.wallet.cache.LocalCacheInvalidationBus;
+import com.springten.wallet.cache.NoOpSharedCacheStore;
+import com.springten.wallet.cache.TwoLevelCacheManager;
+import com.springten.wallet.resilience.ResilienceRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent identical reads against a stub JSON-RPC node that holds its answers until released
+ */
+class Web3ServiceSingleFlightTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Wei BALANCE = Wei.of(2, Wei.Unit.ETHER);
+
+    private final Map<String, AtomicInteger> callsByMethod = new ConcurrentHashMap<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private HttpServer node;
+    private SimpleMeterRegistry meterRegistry;
+    private Web3Service web3Service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        node.setExecutor(Executors.newCachedThreadPool());
+        node.createContext("/", exchange -> {
+            byte[] body = answer(exchange.getRequestBody().readAllBytes());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        node.start();
+
+        // Cached reads expire at once, so only the flight can spare a call
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("cache.balances.local-ttl-ms", "1")
+            .withProperty("cache.gas-price.local-ttl-ms", "1");
+        meterRegistry = new SimpleMeterRegistry();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new NoOpSharedCacheStore(),
+            new LocalCacheInvalidationBus(), meterRegistry, environment, "test:cache:");
+        web3Service = new Web3Service(cacheManager, WebClient.builder(),
+            new ResilienceRegistry(meterRegistry, environment), meterRegistry);
+        ReflectionTestUtils.setField(web3Service, "ethereumRpcUrl", "http://127.0.0.1:" + node.getAddress().getPort());
+        ReflectionTestUtils.setField(web3Service, "networkId", "1");
+        ReflectionTestUtils.setField(web3Service, "evmNetworks", "");
+        ReflectionTestUtils.setField(web3Service, "asyncTimeoutMillis", 2_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        node.stop(0);
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneCall() throws Exception {
+        release = new CountDownLatch(1);
+        List<CompletableFuture<Wei>> balances = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            balances.add(CompletableFuture.supplyAsync(() -> blockingBalance("0xABC")));
+        }
+        balances.add(web3Service.getBalanceAsync("0xabc"));
+        balances.add(web3Service.getBalanceAsync("0xAbC"));
+        awaitReads("eth_getBalance", 10);
+
+        release.countDown();
+        for (CompletableFuture<Wei> balance : balances) {
+            assertThat(balance.get(5, TimeUnit.SECONDS)).isEqualTo(BALANCE);
+        }
+        assertThat(calls("eth_getBalance")).isEqualTo(1);
+        assertThat(meterRegistry.get("springten.web3.reads.coalesced.ratio").tag("method", "eth_getBalance")
+            .gauge().value()).isEqualTo(0.9);
+
+        // Nothing is kept once the flight lands
+        Thread.sleep(5);
+        assertThat(web3Service.getBalance("0xabc")).isEqualTo(BALANCE);
+        assertThat(calls("eth_getBalance")).isEqualTo(2);
+    }
+
+    @Test
+    void readsWithDifferentMethodsOrParamsFlySeparately() throws Exception {
+        release = new CountDownLatch(1);
+        List<CompletableFuture<?>> reads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            reads.add(web3Service.isTransactionConfirmedAsync("0xmined"));
+            reads.add(web3Service.getCurrentGasPriceAsync());
+        }
+        reads.add(web3Service.isTransactionConfirmedAsync("0xpending"));
+        reads.add(web3Service.getBalanceAsync("0xdef"));
+        awaitReads("eth_getTransactionReceipt", 4);
+        awaitReads("eth_gasPrice", 3);
+
+        release.countDown();
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(reads.get(0).join()).isEqualTo(true);
+        assertThat(reads.get(6).join()).isEqualTo(false);
+        assertThat(calls("eth_getTransactionReceipt")).isEqualTo(2);
+        assertThat(calls("eth_gasPrice")).isEqualTo(1);
+        assertThat(calls("eth_getBalance")).isEqualTo(1);
+        // Four of the eight reads joined a flight
+        assertThat(web3Service.getCoalescedFraction()).isEqualTo(0.5);
+    }
+
+    private Wei blockingBalance(String address) {
+        try {
+            return web3Service.getBalance(address);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitReads(String method, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("springten.web3.reads").tag("method", method).functionCounter().count() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private int calls(String method) {
+        return callsByMethod.getOrDefault(method, new AtomicInteger()).get();
+    }
+
+    private byte[] answer(byte[] body) {
+        try {
+            JsonNode request = MAPPER.readTree(body);
+            String method = request.path("method").asText();
+            callsByMethod.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            Object result = switch (method) {
+                case "eth_getBalance" -> "0x1bc16d674ec80000";
+                case "eth_gasPrice" -> "0x6fc23ac00";
+                case "eth_getTransactionReceipt" -> "0xmined".equals(request.path("params").get(0).asText())
+                    ? Map.of("transactionHash", "0xmined", "status", "0x1")
+                    : "null";
+                default -> "0x0";
+            };
+            return MAPPER.writeValueAsString(Map.of("jsonrpc", "2.0", "id", request.path("id").asLong(), "result", result))
+                .replace("\"result\":\"null\"", "\"result\":null")
+                .getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.springten.wallet.web3;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeiTest {
+
+    private static final BigInteger MAX = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
+
+    private final Random random = new Random(42);
+
+    @Test
+    void arithmeticMatchesBigInteger() {
+        for (int i = 0; i < 5_000; i++) {
+            BigInteger a = randomValue();
+            BigInteger b = randomValue();
+            long factor = random.nextInt(4) == 0 ? Long.MAX_VALUE - random.nextInt(1000) : random.nextLong() >>> (1 + random.nextInt(63));
+            long divisor = Math.max(1, random.nextLong() >>> (1 + random.nextInt(63)));
+            Wei wa = Wei.fromBigInteger(a);
+            Wei wb = Wei.fromBigInteger(b);
+
+            assertThat(wa.toBigInteger()).isEqualTo(a);
+            assertThat(wa.compareTo(wb)).isEqualTo(a.compareTo(b));
+            assertThat(wa.toString()).isEqualTo(a.toString());
+            assertThat(Wei.parse(a.toString())).isEqualTo(wa);
+
+            BigInteger sum = a.add(b);
+            if (sum.compareTo(MAX) <= 0) {
+                assertThat(wa.add(wb).toBigInteger()).isEqualTo(sum);
+            } else {
+                assertThatThrownBy(() -> wa.add(wb)).isInstanceOf(ArithmeticException.class);
+            }
+
+            BigInteger difference = a.subtract(b);
+            if (difference.signum() >= 0) {
+                assertThat(wa.subtract(wb).toBigInteger()).isEqualTo(difference);
+            } else {
+                assertThatThrownBy(() -> wa.subtract(wb)).isInstanceOf(ArithmeticException.class);
+            }
+
+            BigInteger product = a.multiply(BigInteger.valueOf(factor));
+            if (product.compareTo(MAX) <= 0) {
+                assertThat(wa.multiply(factor).toBigInteger()).isEqualTo(product);
+            } else {
+                assertThatThrownBy(() -> wa.multiply(factor)).isInstanceOf(ArithmeticException.class);
+            }
+
+            BigInteger wideProduct = a.multiply(b);
+            if (wideProduct.compareTo(MAX) <= 0) {
+                assertThat(wa.multiply(wb).toBigInteger()).isEqualTo(wideProduct);
+            } else {
+                assertThatThrownBy(() -> wa.multiply(wb)).isInstanceOf(ArithmeticException.class);
+            }
+
+            BigInteger[] qr = a.divideAndRemainder(BigInteger.valueOf(divisor));
+            assertThat(wa.divide(divisor).toBigInteger()).isEqualTo(qr[0]);
+            assertThat(wa.remainder(divisor)).isEqualTo(qr[1].longValueExact());
+        }
+    }
+
+    @Test
+    void convertsBetweenUnitsWithoutRounding() {
+        Wei amount = Wei.parse("1.5", Wei.Unit.ETHER);
+        assertThat(amount.toString()).isEqualTo("1500000000000000000");
+        assertThat(amount.toString(Wei.Unit.ETHER)).isEqualTo("1.5");
+        assertThat(amount.toString(Wei.Unit.GWEI)).isEqualTo("1500000000");
+        assertThat(Wei.of(2, Wei.Unit.ETHER).toString(Wei.Unit.ETHER)).isEqualTo("2");
+        assertThat(Wei.of(1).toString(Wei.Unit.ETHER)).isEqualTo("0.000000000000000001");
+        assertThat(Wei.ZERO.toString(Wei.Unit.ETHER)).isEqualTo("0");
+        assertThat(Wei.parse("0.000000000000000001000", Wei.Unit.ETHER)).isEqualTo(Wei.ONE);
+        assertThat(Wei.parse("23.456789012", Wei.Unit.GWEI).toDouble(Wei.Unit.GWEI)).isEqualTo(23.456789012);
+        assertThat(Wei.MAX_VALUE.toDouble(Wei.Unit.ETHER))
+            .isCloseTo(MAX.doubleValue() / 1e18, withPercentage(1e-12));
+        assertThat(Wei.MAX_VALUE.toBigDecimal(Wei.Unit.ETHER))
+            .isEqualByComparingTo(new BigDecimal(MAX).movePointLeft(18));
+
+        for (int i = 0; i < 1_000; i++) {
+            BigInteger value = randomValue();
+            BigDecimal ether = new BigDecimal(value).movePointLeft(18).stripTrailingZeros();
+            Wei wei = Wei.fromBigInteger(value);
+            assertThat(new BigDecimal(wei.toString(Wei.Unit.ETHER))).isEqualTo(ether);
+            assertThat(Wei.parse(ether.toPlainString(), Wei.Unit.ETHER)).isEqualTo(wei);
+        }
+    }
+
+    @Test
+    void rejectsValuesOutsideTheUint256Range() {
+        assertThatThrownBy(() -> Wei.parse("0.0000000001", Wei.Unit.GWEI)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Wei.parse(MAX.add(BigInteger.ONE).toString())).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Wei.fromBigInteger(BigInteger.ONE.negate())).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Wei.of(-1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Wei.MAX_VALUE.add(Wei.ONE)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Wei.parse("-1")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Wei.parse("1e18")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Wei.parse(".")).isInstanceOf(NumberFormatException.class);
+        assertThat(Wei.parse(MAX.toString())).isEqualTo(Wei.MAX_VALUE);
+    }
+
+    @Test
+    void roundTripsThroughJpaAndJson() throws Exception {
+        WeiAttributeConverter converter = new WeiAttributeConverter();
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(Wei.MAX_VALUE)))
+            .isEqualTo(Wei.MAX_VALUE);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(Wei.class, new WeiJsonComponent.Serializer())
+            .addDeserializer(Wei.class, new WeiJsonComponent.Deserializer()));
+        assertThat(mapper.writeValueAsString(Wei.of(21_000))).isEqualTo("\"21000\"");
+        assertThat(mapper.readValue("\"" + MAX + "\"", Wei.class)).isEqualTo(Wei.MAX_VALUE);
+        assertThat(mapper.readValue(MAX.toString(), Wei.class)).isEqualTo(Wei.MAX_VALUE);
+        assertThat(mapper.readValue("21000", Wei.class)).isEqualTo(Wei.of(21_000));
+        assertThatThrownBy(() -> mapper.readValue("\"-5\"", Wei.class))
+            .isInstanceOf(com.fasterxml.jackson.databind.exc.InvalidFormatException.class);
+    }
+
+    private BigInteger randomValue() {
+        int bits = random.nextInt(257);
+        BigInteger value = new BigInteger(bits, random);
+        // Bias towards limb boundaries where carries and borrows happen
+        return random.nextInt(8) == 0 ? value.setBit(Math.max(0, bits - 1)).or(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)).min(MAX) : value;
+    }
+}
@@ -0,0 +1,2 @@
+-- PostgreSQL functions the migrations call that H2 lacks, for SchemaMigrationsTest
+create alias if not exists setval for 'com.springten.wallet.config.H2PostgresFunctions.setval';